@@ -0,0 +1,91 @@
+package com.example.edu.eci.benchmark;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.service.CatalogSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answering the full class catalog: serializing the class list on every request, as a cached
+ * {@code List<Class>} does, versus writing the bytes held by {@link CatalogSnapshot}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogSnapshotBenchmark {
+
+    @Param({"50", "500"})
+    public int classes;
+
+    private ObjectMapper objectMapper;
+    private List<Class> catalog;
+    private CatalogSnapshot catalogSnapshot;
+    private ByteArrayOutputStream response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        catalog = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 0; i < classes; i++) {
+            Class clase = new Class();
+            clase.setId(String.format("65f%021d", i));
+            clase.setName("Clase " + i);
+            clase.setType("Deportiva");
+            clase.setMaxStudents(40);
+            clase.setStartDate(LocalDate.of(2024, 1, 1));
+            clase.setEndDate(LocalDate.of(2024, 6, 30));
+            clase.setRepetition("weekly");
+            clase.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, start, start.plusHours(1))));
+            clase.setResources(List.of(new Class.Equipment("Mat", 40)));
+            catalog.add(clase);
+        }
+        catalogSnapshot = new CatalogSnapshot();
+        InMemoryRepositories.inject(catalogSnapshot, "classRepository",
+                InMemoryRepositories.repository(ClassRepository.class, Map.of("findAll", args -> catalog)));
+        InMemoryRepositories.inject(catalogSnapshot, "objectMapper", objectMapper);
+        catalogSnapshot.current();
+        response = new ByteArrayOutputStream(1 << 20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        catalogSnapshot.shutdown();
+    }
+
+    @Benchmark
+    public int serializePerRequest() throws JsonProcessingException {
+        response.reset();
+        response.writeBytes(objectMapper.writeValueAsBytes(catalog));
+        return response.size();
+    }
+
+    @Benchmark
+    public int writeSnapshot() {
+        response.reset();
+        response.writeBytes(catalogSnapshot.current().json());
+        return response.size();
+    }
+
+    @Benchmark
+    public int writeGzipSnapshot() {
+        response.reset();
+        response.writeBytes(catalogSnapshot.current().gzip());
+        return response.size();
+    }
+}
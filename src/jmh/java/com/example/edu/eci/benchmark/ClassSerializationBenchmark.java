@@ -0,0 +1,59 @@
+package com.example.edu.eci.benchmark;
+
+import com.example.edu.eci.model.Class;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a {@link Class} with a large sessions list, using the same
+ * ObjectMapper defaults Spring MVC uses for responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassSerializationBenchmark {
+
+    @Param({"16", "52", "520"})
+    public int sessions;
+
+    private ObjectMapper objectMapper;
+    private Class clase;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        clase = new Class();
+        clase.setId("65f000000000000000000001");
+        clase.setName("Yoga");
+        clase.setType("Deportiva");
+        clase.setMaxStudents(40);
+        clase.setStartDate(LocalDate.of(2024, 1, 1));
+        clase.setEndDate(LocalDate.of(2024, 1, 1).plusWeeks(sessions));
+        clase.setRepetition("weekly");
+        List<Class.Session> sessionList = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 0; i < sessions; i++) {
+            sessionList.add(new Class.Session("1", DayOfWeek.MONDAY,
+                    start.plusWeeks(i), start.plusWeeks(i).plusHours(1)));
+        }
+        clase.setSessions(sessionList);
+        clase.setResources(List.of(new Class.Equipment("Mat", 40)));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(clase);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.edu.eci.benchmark;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.model.User;
+import com.example.edu.eci.repository.AbsenceRepository;
+import com.example.edu.eci.repository.AssistanceRepository;
+import com.example.edu.eci.repository.AttendanceCounterRepository;
+import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
+import com.example.edu.eci.repository.SessionOccurrenceRepository;
+import com.example.edu.eci.repository.UserRepository;
+import com.example.edu.eci.repository.WaitlistRepository;
+import com.example.edu.eci.service.ClassService;
+import com.example.edu.eci.service.InscriptionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The enrollment flow of {@link InscriptionService} (inscribe and cancel) against in-memory
+ * repository stand-ins, so the measurement covers only the service logic and object building.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnrollmentBenchmark {
+
+    private static final String CLASS_ID = "class1";
+    private static final LocalDate START_DATE = LocalDate.of(2024, 1, 1);
+
+    @Param({"1", "16", "52"})
+    public int sessions;
+
+    private InscriptionService inscriptionService;
+    private final AtomicLong nextUser = new AtomicLong();
+    private final Set<String> inscribed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicLong insertedAssistances = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        Class clase = new Class();
+        clase.setId(CLASS_ID);
+        clase.setMaxStudents(Integer.MAX_VALUE);
+        List<SessionOccurrence> occurrences = new ArrayList<>();
+        LocalDateTime firstSession = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 0; i < sessions; i++) {
+            occurrences.add(new SessionOccurrence("occurrence" + i, CLASS_ID, "session0",
+                    firstSession.plusWeeks(i), firstSession.plusWeeks(i).plusHours(1)));
+        }
+        User user = new User();
+
+        ClassRepository classRepository = InMemoryRepositories.repository(ClassRepository.class, Map.of(
+                "findById", args -> Optional.of(clase)));
+        SessionOccurrenceRepository sessionOccurrenceRepository = InMemoryRepositories.repository(SessionOccurrenceRepository.class, Map.of(
+                "findByClassIdOrderByStartTimeAsc", args -> occurrences));
+        ClassService classService = new ClassService();
+        InMemoryRepositories.inject(classService, "classRepository", classRepository);
+        InMemoryRepositories.inject(classService, "sessionOccurrenceRepository", sessionOccurrenceRepository);
+
+        UserRepository userRepository = InMemoryRepositories.repository(UserRepository.class, Map.of(
+                "findById", args -> Optional.of(user)));
+        AssistanceRepository assistanceRepository = InMemoryRepositories.repository(AssistanceRepository.class, Map.of(
+                "existsByUserIdAndClassId", args -> inscribed.contains((String) args[0]),
+                "insertAll", args -> {
+                    @SuppressWarnings("unchecked")
+                    List<Assistance> assistances = (List<Assistance>) args[0];
+                    inscribed.add(assistances.get(0).getUserId());
+                    insertedAssistances.addAndGet(assistances.size());
+                    return null;
+                },
+                "deleteByUserIdAndClassId", args -> inscribed.remove((String) args[0]) ? 1L : 0L,
+                "findByUserIdAndClassIdAndConfirmIsTrue", args -> List.of()));
+        ClassSeatsRepository classSeatsRepository = InMemoryRepositories.repository(ClassSeatsRepository.class, Map.of(
+                "tryReserve", args -> reserved.incrementAndGet() <= (int) args[1],
+                "release", args -> {
+                    reserved.decrementAndGet();
+                    return null;
+                }));
+
+        AbsenceRepository absenceRepository = InMemoryRepositories.repository(AbsenceRepository.class, Map.of(
+                "deleteByUserIdAndClassId", args -> null));
+
+        inscriptionService = new InscriptionService();
+        InMemoryRepositories.inject(inscriptionService, "userRepository", userRepository);
+        InMemoryRepositories.inject(inscriptionService, "classService", classService);
+        InMemoryRepositories.inject(inscriptionService, "assistanceRepository", assistanceRepository);
+        InMemoryRepositories.inject(inscriptionService, "classSeatsRepository", classSeatsRepository);
+        InMemoryRepositories.inject(inscriptionService, "absenceRepository", absenceRepository);
+        InMemoryRepositories.inject(inscriptionService, "waitlistRepository", InMemoryRepositories.repository(WaitlistRepository.class, Map.of(
+                "claimFirst", args -> Optional.empty())));
+        InMemoryRepositories.inject(inscriptionService, "attendanceCounterRepository", InMemoryRepositories.repository(AttendanceCounterRepository.class, Map.of(
+                "decrementAll", args -> null)));
+    }
+
+    @Benchmark
+    public void inscribeAndCancel() {
+        String userId = "user" + nextUser.incrementAndGet();
+        inscriptionService.inscribeUser(userId, CLASS_ID, START_DATE);
+        inscriptionService.deleteInscription(userId, CLASS_ID);
+    }
+}
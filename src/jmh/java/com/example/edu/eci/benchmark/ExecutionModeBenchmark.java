@@ -0,0 +1,228 @@
+package com.example.edu.eci.benchmark;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.model.User;
+import com.example.edu.eci.repository.AbsenceRepository;
+import com.example.edu.eci.repository.AssistanceRepository;
+import com.example.edu.eci.repository.AttendanceCounterRepository;
+import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
+import com.example.edu.eci.repository.ReactiveAbsenceRepository;
+import com.example.edu.eci.repository.ReactiveAssistanceRepository;
+import com.example.edu.eci.repository.ReactiveAttendanceCounterRepository;
+import com.example.edu.eci.repository.ReactiveClassRepository;
+import com.example.edu.eci.repository.ReactiveClassSeatsRepository;
+import com.example.edu.eci.repository.ReactiveSessionOccurrenceRepository;
+import com.example.edu.eci.repository.ReactiveUserRepository;
+import com.example.edu.eci.repository.ReactiveWaitlistRepository;
+import com.example.edu.eci.repository.SessionOccurrenceRepository;
+import com.example.edu.eci.repository.UserRepository;
+import com.example.edu.eci.repository.WaitlistRepository;
+import com.example.edu.eci.service.ClassService;
+import com.example.edu.eci.service.InscriptionService;
+import com.example.edu.eci.service.ReactiveClassService;
+import com.example.edu.eci.service.ReactiveInscriptionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.support.NoOpCacheManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Concurrent enrollments one instance sustains in each execution mode. Each operation runs a
+ * burst of {@code concurrency} enrollments (inscribe and cancel) where every repository call waits
+ * {@code latencyMicros} to stand in for a Mongo round trip.
+ *
+ * <ul>
+ *   <li>{@code blocking}: {@link InscriptionService} on a fixed pool the size of Tomcat's default
+ *   worker pool, so each waiting call holds a platform thread.</li>
+ *   <li>{@code virtualThreads}: the same blocking service with one virtual thread per request, as
+ *   Tomcat runs it with the virtual-threads profile. Needs a JDK 21 ({@code -Pjava21}).</li>
+ *   <li>{@code reactive}: {@link ReactiveInscriptionService} with the wait as a timer, so no
+ *   thread is held.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final String CLASS_ID = "class1";
+    private static final LocalDate START_DATE = LocalDate.of(2024, 1, 1);
+    private static final int SERVLET_THREADS = 200;
+
+    @Param({"50", "200", "1000"})
+    public int concurrency;
+
+    @Param({"1000", "10000"})
+    public long latencyMicros;
+
+    private InscriptionService blockingService;
+    private ReactiveInscriptionService reactiveService;
+    private ExecutorService servletPool;
+    private ExecutorService virtualThreadPool;
+    private final AtomicLong nextUser = new AtomicLong();
+    private final Set<String> inscribed = ConcurrentHashMap.newKeySet();
+
+    @Setup
+    public void setUp() {
+        Class clase = new Class();
+        clase.setId(CLASS_ID);
+        clase.setMaxStudents(Integer.MAX_VALUE);
+        List<SessionOccurrence> occurrences = new ArrayList<>();
+        LocalDateTime firstSession = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 0; i < 16; i++) {
+            occurrences.add(new SessionOccurrence("occurrence" + i, CLASS_ID, "session0",
+                    firstSession.plusWeeks(i), firstSession.plusWeeks(i).plusHours(1)));
+        }
+        servletPool = Executors.newFixedThreadPool(SERVLET_THREADS);
+        virtualThreadPool = newVirtualThreadPerTaskExecutor();
+        blockingService = blockingStack(clase, occurrences);
+        reactiveService = reactiveStack(clase, occurrences);
+    }
+
+    @TearDown
+    public void tearDown() {
+        servletPool.shutdownNow();
+        if (virtualThreadPool != null) {
+            virtualThreadPool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void blocking() {
+        runBlocking(servletPool);
+    }
+
+    @Benchmark
+    public void virtualThreads() {
+        if (virtualThreadPool == null) {
+            throw new UnsupportedOperationException("Virtual threads need a JDK 21: run with -Pjava21,benchmarks");
+        }
+        runBlocking(virtualThreadPool);
+    }
+
+    private void runBlocking(ExecutorService executor) {
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            String userId = "user" + nextUser.incrementAndGet();
+            requests[i] = CompletableFuture.runAsync(() -> {
+                blockingService.inscribeUser(userId, CLASS_ID, START_DATE);
+                blockingService.deleteInscription(userId, CLASS_ID);
+            }, executor);
+        }
+        CompletableFuture.allOf(requests).join();
+    }
+
+    @Benchmark
+    public void reactive() {
+        Flux.range(0, concurrency)
+                .flatMap(i -> {
+                    String userId = "user" + nextUser.incrementAndGet();
+                    return reactiveService.inscribeUser(userId, CLASS_ID, START_DATE)
+                            .then(reactiveService.deleteInscription(userId, CLASS_ID));
+                }, concurrency)
+                .blockLast();
+    }
+
+    private InscriptionService blockingStack(Class clase, List<SessionOccurrence> occurrences) {
+        ClassService classService = new ClassService();
+        InMemoryRepositories.inject(classService, "classRepository", InMemoryRepositories.repository(ClassRepository.class, Map.of(
+                "findById", args -> sleep(Optional.of(clase)))));
+        InMemoryRepositories.inject(classService, "sessionOccurrenceRepository", InMemoryRepositories.repository(SessionOccurrenceRepository.class, Map.of(
+                "findByClassIdOrderByStartTimeAsc", args -> sleep(occurrences))));
+
+        InscriptionService service = new InscriptionService();
+        InMemoryRepositories.inject(service, "classService", classService);
+        InMemoryRepositories.inject(service, "userRepository", InMemoryRepositories.repository(UserRepository.class, Map.of(
+                "findById", args -> sleep(Optional.of(new User())))));
+        InMemoryRepositories.inject(service, "assistanceRepository", InMemoryRepositories.repository(AssistanceRepository.class, Map.of(
+                "existsByUserIdAndClassId", args -> sleep(inscribed.contains((String) args[0])),
+                "insertAll", args -> sleep(insert(args[0])),
+                "deleteByUserIdAndClassId", args -> sleep(inscribed.remove((String) args[0]) ? 1L : 0L),
+                "findByUserIdAndClassIdAndConfirmIsTrue", args -> sleep(List.of()))));
+        InMemoryRepositories.inject(service, "classSeatsRepository", InMemoryRepositories.repository(ClassSeatsRepository.class, Map.of(
+                "tryReserve", args -> sleep(true),
+                "release", args -> sleep(null))));
+        InMemoryRepositories.inject(service, "absenceRepository", InMemoryRepositories.repository(AbsenceRepository.class, Map.of(
+                "deleteByUserIdAndClassId", args -> sleep(null))));
+        InMemoryRepositories.inject(service, "waitlistRepository", InMemoryRepositories.repository(WaitlistRepository.class, Map.of(
+                "claimFirst", args -> sleep(Optional.empty()))));
+        InMemoryRepositories.inject(service, "attendanceCounterRepository", InMemoryRepositories.repository(AttendanceCounterRepository.class, Map.of(
+                "decrementAll", args -> null)));
+        return service;
+    }
+
+    private ReactiveInscriptionService reactiveStack(Class clase, List<SessionOccurrence> occurrences) {
+        ReactiveClassService classService = new ReactiveClassService();
+        InMemoryRepositories.inject(classService, "cacheManager", new NoOpCacheManager());
+        InMemoryRepositories.inject(classService, "classRepository", InMemoryRepositories.repository(ReactiveClassRepository.class, Map.of(
+                "findById", args -> delay(clase))));
+        InMemoryRepositories.inject(classService, "sessionOccurrenceRepository", InMemoryRepositories.repository(ReactiveSessionOccurrenceRepository.class, Map.of(
+                "findByClassIdOrderByStartTimeAsc", args -> delay(occurrences).flatMapIterable(list -> list))));
+
+        ReactiveInscriptionService service = new ReactiveInscriptionService();
+        InMemoryRepositories.inject(service, "classService", classService);
+        InMemoryRepositories.inject(service, "userRepository", InMemoryRepositories.repository(ReactiveUserRepository.class, Map.of(
+                "existsById", args -> delay(true))));
+        InMemoryRepositories.inject(service, "assistanceRepository", InMemoryRepositories.repository(ReactiveAssistanceRepository.class, Map.of(
+                "existsByUserIdAndClassId", args -> Mono.defer(() -> delay(inscribed.contains((String) args[0]))),
+                "insertAll", args -> delay(true).doOnNext(done -> insert(args[0])).then(),
+                "deleteByUserIdAndClassId", args -> delay(true).map(done -> inscribed.remove((String) args[0]) ? 1L : 0L),
+                "findByUserIdAndClassIdAndConfirmIsTrue", args -> delay(true).thenMany(Flux.empty()))));
+        InMemoryRepositories.inject(service, "classSeatsRepository", InMemoryRepositories.repository(ReactiveClassSeatsRepository.class, Map.of(
+                "tryReserve", args -> delay(true),
+                "release", args -> delay(true).then())));
+        InMemoryRepositories.inject(service, "absenceRepository", InMemoryRepositories.repository(ReactiveAbsenceRepository.class, Map.of(
+                "deleteByUserIdAndClassId", args -> delay(true).then())));
+        InMemoryRepositories.inject(service, "waitlistRepository", InMemoryRepositories.repository(ReactiveWaitlistRepository.class, Map.of(
+                "claimFirst", args -> delay(true).then(Mono.empty()))));
+        InMemoryRepositories.inject(service, "attendanceCounterRepository", InMemoryRepositories.repository(ReactiveAttendanceCounterRepository.class, Map.of(
+                "decrementAll", args -> Mono.empty())));
+        return service;
+    }
+
+    /** Looked up reflectively so the benchmarks still compile for Java 17; null before JDK 21. */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object insert(Object assistances) {
+        inscribed.add(((List<Assistance>) assistances).get(0).getUserId());
+        return null;
+    }
+
+    private <T> T sleep(T result) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        return result;
+    }
+
+    private <T> Mono<T> delay(T result) {
+        return Mono.delay(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros))).thenReturn(result);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.edu.eci.benchmark;
+
+import com.example.edu.eci.config.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token validation in {@link JwtService}: the full HS512 verification against a repeated token
+ * served from the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        parser = (JwtParser) InMemoryRepositories.read(jwtService, "parser");
+        SecretKey key = (SecretKey) InMemoryRepositories.read(jwtService, "key");
+        token = Jwts.builder()
+                .subject("user1")
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verifySignature() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Optional<Claims> parseClaimsCached() {
+        return jwtService.parseClaims(token);
+    }
+}
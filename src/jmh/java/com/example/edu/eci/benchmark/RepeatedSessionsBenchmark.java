@@ -0,0 +1,53 @@
+package com.example.edu.eci.benchmark;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.service.ClassService;
+import com.example.edu.eci.service.SessionRecurrence;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ClassService#generateRepeatedSessions} over increasingly long date ranges, against
+ * expanding a single week from the middle of the range with {@link SessionRecurrence}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepeatedSessionsBenchmark {
+
+    @Param({"16", "52", "520"})
+    public int weeks;
+
+    private ClassService classService;
+    private Class baseClass;
+    private LocalDateTime windowStart;
+
+    @Setup
+    public void setUp() {
+        classService = new ClassService();
+        baseClass = new Class();
+        baseClass.setStartDate(LocalDate.of(2024, 1, 1));
+        baseClass.setEndDate(LocalDate.of(2024, 1, 1).plusWeeks(weeks));
+        baseClass.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY,
+                LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 1, 11, 0))));
+        windowStart = LocalDateTime.of(2024, 1, 1, 0, 0).plusWeeks(weeks / 2);
+    }
+
+    @Benchmark
+    public List<Class.Session> generateRepeatedSessions() {
+        return classService.generateRepeatedSessions(baseClass);
+    }
+
+    @Benchmark
+    public List<Class.Session> scheduleWindow() {
+        return SessionRecurrence.occurrences(baseClass, windowStart, windowStart.plusWeeks(1)).toList();
+    }
+}
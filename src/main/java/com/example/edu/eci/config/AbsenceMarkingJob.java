@@ -0,0 +1,205 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.repository.AbsenceRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Registra las inasistencias de las ocurrencias de sesión que terminaron desde el run anterior.
+ * Las ocurrencias se recorren en orden {@code (endTime, _id)} desde un watermark guardado en la
+ * colección {@code watermarks}, un chunk a la vez: cada run solo toca las sesiones que terminaron
+ * después del anterior, y el primero recorre la historia en pasos acotados.
+ *
+ * <p>Una ocurrencia escrita cuando su fin ya había pasado (una clase creada o reprogramada hacia
+ * el pasado) queda detrás de ese watermark, así que cada run también recorre, en orden
+ * {@code (updatedAt, _id)}, las ocurrencias terminadas escritas desde que empezó el run anterior,
+ * menos {@link #LATE_WRITE_SKEW} por las escrituras que estaban en curso en ese momento.
+ *
+ * <p>Las clases creadas antes de que se guardaran ocurrencias no tienen ninguna que recorrer: sus
+ * sesiones siguen expandidas en el documento de la clase. Esas clases se buscan una sola vez, y
+ * en cada run se registran sus sesiones que terminaron desde el run anterior.
+ *
+ * <p>Se activa con {@code extraclasses.absences.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "extraclasses.absences.enabled", havingValue = "true")
+public class AbsenceMarkingJob {
+
+    public static final String WATERMARK_ID = "absences";
+    static final String WATERMARK_COLLECTION = "watermarks";
+    static final Duration LATE_WRITE_SKEW = Duration.ofMinutes(1);
+
+    private static final Logger log = LoggerFactory.getLogger(AbsenceMarkingJob.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final AbsenceRepository absenceRepository;
+    private final int chunkSize;
+
+    private volatile Set<String> legacyClassIds;
+
+    public AbsenceMarkingJob(MongoTemplate mongoTemplate, AbsenceRepository absenceRepository,
+                             @Value("${extraclasses.absences.chunk-size:500}") int chunkSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.absenceRepository = absenceRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${extraclasses.absences.delay:PT5M}")
+    public void markEndedSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        Document watermark = mongoTemplate.findById(WATERMARK_ID, Document.class, WATERMARK_COLLECTION);
+        LocalDateTime lastEnd = watermark == null ? null : toLocalDateTime(watermark.getDate("endTime"));
+        String lastId = watermark == null ? null : watermark.getString("lastId");
+        LocalDateTime lastRun = watermark == null ? null : toLocalDateTime(watermark.getDate("lastRun"));
+
+        int processed = 0;
+        List<SessionOccurrence> chunk;
+        do {
+            chunk = mongoTemplate.find(nextChunk(Criteria.where("endTime").lte(now), "endTime", lastEnd, lastId),
+                    SessionOccurrence.class);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            absenceRepository.recordFor(chunk);
+            SessionOccurrence last = chunk.get(chunk.size() - 1);
+            lastEnd = last.getEndTime();
+            lastId = last.getId();
+            // Se avanza después de registrar: si algo falla, el siguiente run repite el chunk.
+            saveWatermark(new Update().set("endTime", toDate(lastEnd)).set("lastId", lastId));
+            processed += chunk.size();
+        } while (chunk.size() == chunkSize);
+
+        // Sin run anterior no hace falta: el recorrido por endTime ya cubrió todo lo terminado
+        if (lastRun != null) {
+            processed += markLateWrites(lastRun.minus(LATE_WRITE_SKEW), now);
+        }
+        processed += markLegacySessions(lastRun, now);
+        saveWatermark(new Update().set("lastRun", toDate(now)));
+
+        if (processed > 0) {
+            log.info("Inasistencias registradas para {} sesiones terminadas, hasta {}", processed, lastEnd);
+        }
+    }
+
+    private int markLateWrites(LocalDateTime writtenSince, LocalDateTime now) {
+        Criteria lateWrites = Criteria.where("updatedAt").gte(writtenSince).and("endTime").lte(now);
+        int processed = 0;
+        LocalDateTime lastWrite = null;
+        String lastId = null;
+        List<SessionOccurrence> chunk;
+        do {
+            chunk = mongoTemplate.find(nextChunk(lateWrites, "updatedAt", lastWrite, lastId), SessionOccurrence.class);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            absenceRepository.recordFor(chunk);
+            SessionOccurrence last = chunk.get(chunk.size() - 1);
+            lastWrite = last.getUpdatedAt();
+            lastId = last.getId();
+            processed += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return processed;
+    }
+
+    /**
+     * Sesiones de las clases sin ocurrencias guardadas que terminaron en {@code (endedAfter, now]};
+     * sin run anterior, todas las terminadas.
+     */
+    private int markLegacySessions(LocalDateTime endedAfter, LocalDateTime now) {
+        Set<String> classIds = legacyClassIds();
+        if (classIds.isEmpty()) {
+            return 0;
+        }
+        Query legacy = new Query(Criteria.where("_id").in(classIds));
+        legacy.fields().include("sessions");
+        List<SessionOccurrence> ended = new ArrayList<>();
+        for (Class clase : mongoTemplate.find(legacy, Class.class)) {
+            if (clase.getSessions() == null) {
+                continue;
+            }
+            for (Class.Session session : clase.getSessions()) {
+                LocalDateTime end = session.getEndTime();
+                if (session.getStartTime() != null && end != null && !end.isAfter(now)
+                        && (endedAfter == null || end.isAfter(endedAfter))) {
+                    ended.add(new SessionOccurrence(session.getId(), clase.getId(), session.getId(),
+                            session.getStartTime(), end));
+                }
+            }
+        }
+        for (int from = 0; from < ended.size(); from += chunkSize) {
+            absenceRepository.recordForLegacySessions(ended.subList(from, Math.min(from + chunkSize, ended.size())));
+        }
+        return ended.size();
+    }
+
+    /**
+     * Clases sin ocurrencias guardadas. Las clases nuevas se crean con sus ocurrencias, así que
+     * el conjunto solo puede achicarse y basta con buscarlo una vez.
+     */
+    private Set<String> legacyClassIds() {
+        Set<String> classIds = legacyClassIds;
+        if (classIds == null) {
+            Query allClasses = new Query();
+            allClasses.fields().include("_id");
+            classIds = mongoTemplate.find(allClasses, Class.class).stream()
+                    .map(Class::getId)
+                    .collect(Collectors.toCollection(HashSet::new));
+            mongoTemplate.findDistinct(new Query(), "classId", SessionOccurrence.class, String.class).forEach(classIds::remove);
+            legacyClassIds = classIds;
+        }
+        return classIds;
+    }
+
+    private void saveWatermark(Update update) {
+        mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(WATERMARK_ID)), update.set("updatedAt", new Date()),
+                FindAndModifyOptions.options().upsert(true), Document.class, WATERMARK_COLLECTION);
+    }
+
+    /**
+     * El siguiente chunk de {@code range} en orden {@code (field, _id)}, después de {@code (lastValue, lastId)}.
+     */
+    private Query nextChunk(Criteria range, String field, LocalDateTime lastValue, String lastId) {
+        Criteria criteria = range;
+        if (lastValue != null) {
+            criteria = new Criteria().andOperator(range, new Criteria().orOperator(
+                    Criteria.where(field).gt(lastValue),
+                    Criteria.where(field).is(lastValue).and("_id").gt(lastId)));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(field, "_id"))
+                .limit(chunkSize);
+        query.fields().include("classId", "endTime", "updatedAt");
+        return query;
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
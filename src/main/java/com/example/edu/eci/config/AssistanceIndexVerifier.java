@@ -0,0 +1,117 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.model.Assistance;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Verifies at startup that every query issued by AssistanceRepository is served by an index.
+ *
+ * Each repository method is mapped to the filter shape Spring Data generates for it. The verifier
+ * runs an explain plan for each shape and aborts startup if any winning plan contains a COLLSCAN
+ * stage. The test suite checks that every query method of the repository and of its custom
+ * fragment has an entry here, so a new query method cannot be added without also being verified.
+ *
+ * Enabled with {@code extraclasses.index-verification.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "extraclasses.index-verification.enabled", havingValue = "true")
+public class AssistanceIndexVerifier implements ApplicationRunner {
+
+    public static final Map<String, Document> QUERY_SHAPES = new LinkedHashMap<>();
+
+    /** Repository methods that only write and therefore have no query plan to verify. */
+    public static final Set<String> WRITE_ONLY_METHODS = Set.of("insertAll");
+
+    static {
+        Date now = new Date();
+        QUERY_SHAPES.put("existsByUserIdAndClassId", new Document("userId", "u").append("classId", "c"));
+        QUERY_SHAPES.put("countByClassId", new Document("classId", "c"));
+        QUERY_SHAPES.put("findByConfirmTrue", new Document("confirm", true));
+        QUERY_SHAPES.put("deleteByUserIdAndClassId", new Document("userId", "u").append("classId", "c"));
+        QUERY_SHAPES.put("countConfirmedByUserIdAndStartTimeIn", new Document("userId", "u")
+                .append("confirm", true)
+                .append("startTime", new Document("$gte", now).append("$lte", now)));
+        QUERY_SHAPES.put("findByConfirmFalseAndClassIdIn", new Document("confirm", false)
+                .append("classId", new Document("$in", List.of("c"))));
+        QUERY_SHAPES.put("findByUserIdAndClassIdAndSessionId", new Document("userId", "u")
+                .append("classId", "c").append("sessionId", "s"));
+        QUERY_SHAPES.put("findByUserIdAndConfirmFalseAndClassIdIn", new Document("userId", "u")
+                .append("confirm", false).append("classId", new Document("$in", List.of("c"))));
+        // La @Query declarada en el repositorio no es un filtro Mongo; se verifica el filtro que pretende.
+        QUERY_SHAPES.put("countDistinctUsersByClassId", new Document("classId", "c"));
+        QUERY_SHAPES.put("findByStartTimeAfterAndConfirmIsFalse", new Document("startTime", new Document("$gt", now))
+                .append("confirm", false));
+        QUERY_SHAPES.put("findByUserIdAndStartTimeAfterAndConfirmIsFalse", new Document("userId", "u")
+                .append("startTime", new Document("$gt", now)).append("confirm", false));
+        QUERY_SHAPES.put("findByUserIdAndConfirmIsTrue", new Document("userId", "u").append("confirm", true));
+        QUERY_SHAPES.put("findByUserIdAndClassIdAndConfirmIsTrue", new Document("userId", "u")
+                .append("classId", "c").append("confirm", true));
+        QUERY_SHAPES.put("findUserIdsByClassIdAndUserIdIn", new Document("classId", "c")
+                .append("userId", new Document("$in", List.of("u"))));
+        QUERY_SHAPES.put("confirm", new Document("userId", "u").append("classId", "c")
+                .append("sessionId", "s").append("confirm", false));
+        QUERY_SHAPES.put("findRoster", new Document("userId", new Document("$in", List.of("u")))
+                .append("classId", "c").append("sessionId", "s"));
+        QUERY_SHAPES.put("findSessionIdsByUserIdAndClassId", new Document("userId", "u").append("classId", "c"));
+        QUERY_SHAPES.put("streamByConfirmTrue", new Document("confirm", true));
+        QUERY_SHAPES.put("streamByUserIdAndConfirmIsTrue", new Document("userId", "u").append("confirm", true));
+        ObjectId afterId = new ObjectId();
+        QUERY_SHAPES.put("confirmAll", new Document("_id", new Document("$in", List.of(afterId)))
+                .append("confirmBatchId", "b"));
+        QUERY_SHAPES.put("findConfirmedPage", new Document("confirm", true)
+                .append("_id", new Document("$gt", afterId)));
+        QUERY_SHAPES.put("findUnconfirmedAfterPage", new Document("confirm", false)
+                .append("startTime", new Document("$gt", now)).append("_id", new Document("$gt", afterId)));
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    public AssistanceIndexVerifier(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String collection = mongoTemplate.getCollectionName(Assistance.class);
+        List<String> collectionScans = new ArrayList<>();
+        QUERY_SHAPES.forEach((method, filter) -> {
+            Document explain = mongoTemplate.getCollection(collection).find(filter).explain();
+            Document queryPlanner = explain.get("queryPlanner", Document.class);
+            if (queryPlanner != null && usesCollectionScan(queryPlanner.get("winningPlan"))) {
+                collectionScans.add(method);
+            }
+        });
+        if (!collectionScans.isEmpty()) {
+            throw new IllegalStateException("Consultas sin índice (COLLSCAN) en " + collection + ": " + collectionScans);
+        }
+    }
+
+    /**
+     * Walks a plan tree (inputStage, inputStages, shards...) looking for a COLLSCAN stage.
+     */
+    public static boolean usesCollectionScan(Object plan) {
+        if (plan instanceof Map<?, ?> stage) {
+            if ("COLLSCAN".equals(stage.get("stage"))) {
+                return true;
+            }
+            return stage.values().stream().anyMatch(AssistanceIndexVerifier::usesCollectionScan);
+        }
+        if (plan instanceof List<?> stages) {
+            return stages.stream().anyMatch(AssistanceIndexVerifier::usesCollectionScan);
+        }
+        return false;
+    }
+}
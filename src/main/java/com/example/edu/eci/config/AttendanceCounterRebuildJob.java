@@ -0,0 +1,48 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.repository.AttendanceCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the attendance counters from the assistances collection to repair drift, e.g. from
+ * inscriptions deleted after being confirmed. Runs on the configured cron and once at startup if
+ * there are no counters yet, so a fresh deployment does not report zero attendances.
+ *
+ * Enabled with {@code extraclasses.attendance-counters.rebuild.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "extraclasses.attendance-counters.rebuild.enabled", havingValue = "true")
+public class AttendanceCounterRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceCounterRebuildJob.class);
+
+    private final AttendanceCounterRepository attendanceCounterRepository;
+
+    public AttendanceCounterRebuildJob(AttendanceCounterRepository attendanceCounterRepository) {
+        this.attendanceCounterRepository = attendanceCounterRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (attendanceCounterRepository.count() == 0) {
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Initial attendance counter rebuild failed; the scheduled run will retry", e);
+        }
+    }
+
+    @Scheduled(cron = "${extraclasses.attendance-counters.rebuild.cron:0 0 3 * * *}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        attendanceCounterRepository.rebuild();
+        log.info("Attendance counters rebuilt in {} ms", System.currentTimeMillis() - started);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.edu.eci.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Activa las cachés en memoria de clases.
+ *
+ * Spring Boot arma un cache manager de Caffeine con las propiedades {@code spring.cache.*}: las
+ * entradas están acotadas por tamaño, expiran tras un TTL y registran estadísticas de aciertos,
+ * fallos y desalojos. ClassService lee a través de estas cachés y las invalida en cada escritura.
+ * El catálogo completo no pasa por aquí: lo sirve {@code CatalogSnapshot}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Clases por id. */
+    public static final String CLASSES_CACHE = "classes";
+
+    /** Ocurrencias de sesión por id de clase. */
+    public static final String CLASS_SESSIONS_CACHE = "classSessions";
+}
@@ -0,0 +1,57 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.ClassSeats;
+import com.mongodb.MongoException;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the seat counter ({@link ClassSeats}) of classes enrolled before counters existed,
+ * set to the number of distinct users with assistances in the class. Counters that already
+ * exist are kept as they are, so repeating it is harmless. Runs once at startup, in a single
+ * aggregation that merges into {@code class_seats}.
+ *
+ * A class reserved before the backfill finishes gets its counter seeded the same way by
+ * {@code ClassSeatsRepositoryImpl.tryReserve}; this runner makes the counters (and the remaining
+ * seats in the class summary) right for classes nobody has enrolled in since.
+ *
+ * Enabled with {@code extraclasses.migration.class-seats.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "extraclasses.migration.class-seats.enabled", havingValue = "true")
+public class ClassSeatsBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ClassSeatsBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public ClassSeatsBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Assistance.class)).aggregate(List.of(
+                    new Document("$group", new Document("_id", new Document("classId", "$classId").append("userId", "$userId"))),
+                    new Document("$group", new Document("_id", "$_id.classId").append("reserved", new Document("$sum", 1))),
+                    new Document("$merge", new Document("into", mongoTemplate.getCollectionName(ClassSeats.class))
+                            .append("whenMatched", "keepExisting")
+                            .append("whenNotMatched", "insert")))).toCollection();
+            log.info("Class seats backfill: counters seeded from existing enrollments");
+        } catch (DataAccessException | MongoException e) {
+            // Se reintenta en el próximo arranque; mientras tanto tryReserve crea los que falten
+            log.warn("Class seats backfill failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.model.Class;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets {@code version = 0} on classes stored before {@link Class} had a {@code @Version} field.
+ * Spring Data treats an entity with a null version as new, so saving one of those documents
+ * would try to insert it again. Runs once at startup; classes that already have a version are
+ * not touched, so repeating it is harmless.
+ *
+ * Enabled with {@code extraclasses.migration.class-version.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "extraclasses.migration.class-version.enabled", havingValue = "true")
+public class ClassVersionBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ClassVersionBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public ClassVersionBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long updated = mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                    new Update().set("version", 0L), Class.class).getModifiedCount();
+            if (updated > 0) {
+                log.info("Class version backfill: {} classes versioned", updated);
+            }
+        } catch (DataAccessException e) {
+            // Se reintenta en el próximo arranque; mientras tanto esas clases no se pueden actualizar
+            log.warn("Class version backfill failed: {}", e.getMessage());
+        }
+    }
+}
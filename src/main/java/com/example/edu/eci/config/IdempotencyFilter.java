@@ -0,0 +1,228 @@
+package com.example.edu.eci.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Responde los POST reintentados que traen el header {@code Idempotency-Key} con una copia
+ * guardada de la primera respuesta, sin volver a ejecutar el controlador ni tocar los
+ * repositorios.
+ *
+ * Solo cubre las rutas de {@code extraclasses.idempotency.paths}. Una llave pertenece al usuario
+ * autenticado (el subject del token; las peticiones anónimas comparten un mismo espacio) y a la
+ * ruta, y queda atada al query string y a un hash SHA-256 del cuerpo de su primera solicitud:
+ * reusarla con otros parámetros u otro cuerpo recibe 422, y un duplicado que llega mientras la
+ * primera sigue en curso recibe 409. Las respuestas 5xx no se guardan, para que el cliente pueda
+ * reintentarlas. Las respuestas viven en un cache Caffeine acotado por {@code max-keys} que
+ * expira tras {@code ttl}. Va después de {@link JwtFilter}, que autentica al usuario.
+ */
+@Component
+@Order(1)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+    static final List<String> STORED_HEADERS = List.of(HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER);
+
+    private final Set<String> paths;
+    private final Cache<String, StoredResponse> responses;
+
+    public IdempotencyFilter(@Value("${extraclasses.idempotency.paths:/api/inscriptions/inscribe,/api/assistance/confirm}") Set<String> paths,
+                             @Value("${extraclasses.idempotency.max-keys:100000}") long maxKeys,
+                             @Value("${extraclasses.idempotency.ttl:PT24H}") Duration ttl) {
+        this.paths = paths;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpServletResponse.SC_BAD_REQUEST, "Idempotency-Key inválida");
+            return;
+        }
+        CachedBodyRequest cached = new CachedBodyRequest(request);
+        String key = key(SecurityContextHolder.getContext().getAuthentication(), request.getRequestURI(), idempotencyKey);
+        String fingerprint = fingerprint(request.getQueryString(), cached.body);
+
+        StoredResponse inFlight = StoredResponse.inFlight(fingerprint);
+        StoredResponse existing = responses.asMap().putIfAbsent(key, inFlight);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                reject(response, 422, "Idempotency-Key ya usada con otra solicitud");
+            } else if (existing.body() == null) {
+                reject(response, HttpServletResponse.SC_CONFLICT, "Solicitud con la misma Idempotency-Key en curso");
+            } else {
+                replay(existing, response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(cached, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            responses.asMap().remove(key, inFlight);
+            throw e;
+        }
+        if (wrapper.getStatus() >= 500) {
+            responses.asMap().remove(key, inFlight);
+        } else {
+            Map<String, String> headers = new LinkedHashMap<>();
+            STORED_HEADERS.forEach(name -> {
+                String value = wrapper.getHeader(name);
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            });
+            if (wrapper.getContentType() != null) {
+                headers.put(HttpHeaders.CONTENT_TYPE, wrapper.getContentType());
+            }
+            responses.put(key, new StoredResponse(fingerprint, wrapper.getStatus(), headers, wrapper.getContentAsByteArray()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /**
+     * Llave de la respuesta guardada: el usuario autenticado, la ruta y la Idempotency-Key.
+     */
+    static String key(Authentication authentication, String path, String idempotencyKey) {
+        String subject = authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? ""
+                : authentication.getName();
+        return subject + ' ' + path + ' ' + idempotencyKey;
+    }
+
+    /**
+     * Identifica la solicitud: su query string y el SHA-256 de su cuerpo.
+     */
+    static String fingerprint(String query, byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return Objects.toString(query, "") + ' ' + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach(response::setHeader);
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    /**
+     * Petición con el cuerpo ya leído, para calcular su hash y poder leerlo de nuevo en la cadena.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = Objects.toString(getCharacterEncoding(), StandardCharsets.UTF_8.name());
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+
+    /**
+     * Una respuesta guardada; {@code body} es null mientras la primera solicitud sigue en curso.
+     */
+    record StoredResponse(String fingerprint, int status, Map<String, String> headers, byte[] body) {
+        static StoredResponse inFlight(String fingerprint) {
+            return new StoredResponse(fingerprint, 0, Map.of(), null);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.service.ClassService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+
+/**
+ * Request bodies accept session days by their English or Spanish name, in any case ("MONDAY",
+ * "Monday", "lunes"), the same names the Mongo reading converters in {@link MongoConfig} accept.
+ * Responses always carry the enum name ("MONDAY").
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer dayNames() {
+        return builder -> builder.deserializerByType(DayOfWeek.class, new DayOfWeekDeserializer());
+    }
+
+    static class DayOfWeekDeserializer extends StdScalarDeserializer<DayOfWeek> {
+
+        DayOfWeekDeserializer() {
+            super(DayOfWeek.class);
+        }
+
+        @Override
+        public DayOfWeek deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String name = parser.getValueAsString();
+            DayOfWeek day = ClassService.parseDay(name);
+            if (day == null) {
+                return (DayOfWeek) context.handleWeirdStringValue(DayOfWeek.class, name,
+                        "not a day name in English or Spanish");
+            }
+            return day;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.edu.eci.config;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -11,10 +16,15 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
+@Order(0)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class JwtFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtFilter.class);
+
     private final JwtService jwtService;
 
     public JwtFilter(JwtService jwtService) {
@@ -24,33 +34,24 @@ public class JwtFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        System.out.println("Header recibido: " + authHeader); // Debug 1
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            System.out.println("Token extraído: " + token); // Debug 2
-
-            try {
-                if (jwtService.validateToken(token)) {
-                    String userId = jwtService.getUserIdFromToken(token);
-                    System.out.println("Usuario autenticado: " + userId); // Debug 3
-
-                    // Establece la autenticación en el contexto
-                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            userId, null, Collections.emptyList());
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                } else {
-                    System.out.println("Token inválido"); // Debug 4
-                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    return;
-                }
-            } catch (Exception e) {
-                System.err.println("Error al validar el token: " + e.getMessage()); // Debug 5
+
+            // Una sola verificación: parseClaims valida la firma y devuelve el subject
+            Optional<String> userId = jwtService.parseClaims(token).map(Claims::getSubject);
+            if (userId.isEmpty()) {
+                log.debug("Token inválido");
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
+
+            // Establece la autenticación en el contexto
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                    userId.get(), null, Collections.emptyList());
+            SecurityContextHolder.getContext().setAuthentication(auth);
         } else {
-            System.out.println("No se encontró header 'Authorization' válido"); // Debug 6
+            log.trace("No se encontró header 'Authorization' válido");
         }
 
         filterChain.doFilter(request, response);
@@ -1,54 +1,131 @@
 package com.example.edu.eci.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 
 @Service
 public class JwtService {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+
     private static final String SECRET = "EPRiC0Bt0/2KcBRRWqVKhEWzModEtI6Q4K05RWuLgVQV4Xw92Ulk9kHPmQVjiRW5c9XtLNm4lgNoridiLgvZpg==";
     private static final SignatureAlgorithm ALGORITMO = SignatureAlgorithm.HS512; // Asegura HS512
 
+    // Tokens ya verificados: se guardan hasta su expiración (máximo MAX_CACHE_TTL)
+    private static final long MAX_CACHED_TOKENS = 10_000;
+    private static final Duration MAX_CACHE_TTL = Duration.ofMinutes(15);
+
     private final SecretKey key = Keys.hmacShaKeyFor(
             SECRET.getBytes(StandardCharsets.UTF_8) // Charset explícito
     );
 
-    public boolean validateToken(String token) {
+    // El parser es inmutable y thread-safe: se construye una sola vez
+    private final JwtParser parser = Jwts.parser()
+            .verifyWith(key) // Usa directamente la SecretKey
+            .build();
+
+    private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TOKENS)
+            .expireAfter(new Expiry<String, Claims>() {
+                @Override
+                public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                    return timeToLive(claims).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    /**
+     * Verifica el token una sola vez y devuelve sus claims. Los tokens ya verificados se
+     * responden desde caché (por digest SHA-256) hasta que expiran, sin repetir el HMAC.
+     *
+     * @return los claims del token, o vacío si el token es inválido o expiró.
+     */
+    public Optional<Claims> parseClaims(String token) {
+        if (token == null || token.isBlank()) {
+            log.debug("Token vacío o nulo");
+            return Optional.empty();
+        }
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
-            Jwts.parser()
-                    .verifyWith(key) // Usa directamente la SecretKey
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (!timeToLive(claims).isZero()) {
+                verifiedTokens.put(digest, claims);
+            }
+            return Optional.of(claims);
         } catch (ExpiredJwtException ex) {
-            System.err.println("Token expirado: " + ex.getMessage());
+            log.debug("Token expirado: {}", ex.getMessage());
         } catch (UnsupportedJwtException ex) {
-            System.err.println("Token no soportado: " + ex.getMessage());
+            log.debug("Token no soportado: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
-            System.err.println("Token mal formado: " + ex.getMessage());
+            log.debug("Token mal formado: {}", ex.getMessage());
         } catch (SignatureException ex) {
-            System.err.println("Firma inválida: " + ex.getMessage());
+            log.debug("Firma inválida: {}", ex.getMessage());
+        } catch (JwtException ex) {
+            log.debug("Token rechazado: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
-            System.err.println("Token vacío o nulo: " + ex.getMessage());
+            log.debug("Token vacío o nulo: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public boolean validateToken(String token) {
+        return parseClaims(token).isPresent();
     }
 
     public String getUserIdFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return parseClaims(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Token inválido"));
     }
 
+    private static Duration timeToLive(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return MAX_CACHE_TTL;
+        }
+        long millis = expiration.getTime() - System.currentTimeMillis();
+        if (millis <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(Math.min(millis, MAX_CACHE_TTL.toMillis()));
+    }
 
-}
\ No newline at end of file
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.service.ClassService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Conversiones de lectura para los documentos escritos antes de que las sesiones tuvieran campos
+ * tipados.
+ *
+ * Las clases heredadas guardan {@code Session.day}, {@code startTime} y {@code endTime} como
+ * strings ("Monday", "2024-01-01T10:00"). Hasta que {@link SessionFieldsMigration} los reescriba
+ * se convierten al leer. Las fechas se convierten solo en esos dos campos
+ * ({@link SessionDateTime}); un valor que no se puede leer queda en null y se registra en el log.
+ */
+@Configuration
+public class MongoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoConfig.class);
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new StringToDayOfWeek()));
+    }
+
+    /**
+     * Inicio y fin de una sesión: una fecha BSON o, en documentos heredados, un string ISO. Se
+     * escribe como fecha, igual que cualquier otro LocalDateTime.
+     */
+    public static class SessionDateTime implements MongoValueConverter<LocalDateTime, Object> {
+
+        @Override
+        public LocalDateTime read(Object value, MongoConversionContext context) {
+            if (value instanceof Date date) {
+                return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+            }
+            if (value instanceof String text) {
+                try {
+                    return LocalDateTime.parse(text);
+                } catch (DateTimeParseException e) {
+                    log.warn("Fecha de sesión ilegible, se lee como null: {}", text);
+                    return null;
+                }
+            }
+            throw new IllegalArgumentException("Fecha de sesión de tipo inesperado: " + value.getClass().getName());
+        }
+
+        @Override
+        public Object write(LocalDateTime value, MongoConversionContext context) {
+            return Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+
+    @ReadingConverter
+    static class StringToDayOfWeek implements Converter<String, DayOfWeek> {
+        @Override
+        public DayOfWeek convert(String source) {
+            DayOfWeek day = ClassService.parseDay(source);
+            if (day == null) {
+                log.warn("Día de sesión desconocido, se lee como null: {}", source);
+            }
+            return day;
+        }
+    }
+}
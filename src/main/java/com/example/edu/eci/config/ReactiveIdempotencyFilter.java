@@ -0,0 +1,169 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.config.IdempotencyFilter.StoredResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link IdempotencyFilter} para el modo reactivo, con las mismas rutas, propiedades, llaves y
+ * respuestas. El cuerpo de la solicitud se lee completo para su hash antes de seguir la cadena; el
+ * de la primera respuesta se copia mientras se escribe y se guarda al terminar el intercambio. Va
+ * después de {@link ReactiveJwtFilter}, que autentica al usuario.
+ */
+@Component
+@Order(1)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveIdempotencyFilter implements WebFilter {
+
+    private final Set<String> paths;
+    private final Cache<String, StoredResponse> responses;
+
+    public ReactiveIdempotencyFilter(@Value("${extraclasses.idempotency.paths:/api/inscriptions/inscribe,/api/assistance/confirm}") Set<String> paths,
+                                     @Value("${extraclasses.idempotency.max-keys:100000}") long maxKeys,
+                                     @Value("${extraclasses.idempotency.ttl:PT24H}") Duration ttl) {
+        this.paths = paths;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String idempotencyKey = request.getHeaders().getFirst(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER);
+        if (!HttpMethod.POST.equals(request.getMethod())
+                || idempotencyKey == null
+                || !paths.contains(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyFilter.MAX_KEY_LENGTH) {
+            return reject(exchange.getResponse(), HttpStatus.BAD_REQUEST, "Idempotency-Key inválida");
+        }
+        String path = request.getPath().value();
+        Mono<String> key = ReactiveSecurityContextHolder.getContext()
+                .map(context -> IdempotencyFilter.key(context.getAuthentication(), path, idempotencyKey))
+                .defaultIfEmpty(IdempotencyFilter.key(null, path, idempotencyKey));
+        Mono<byte[]> body = DataBufferUtils.join(request.getBody())
+                .map(ReactiveIdempotencyFilter::bytes)
+                .defaultIfEmpty(new byte[0]);
+        return Mono.zip(key, body)
+                .flatMap(loaded -> handle(exchange, chain, loaded.getT1(), loaded.getT2()));
+    }
+
+    private Mono<Void> handle(ServerWebExchange exchange, WebFilterChain chain, String key, byte[] requestBody) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        String fingerprint = IdempotencyFilter.fingerprint(request.getURI().getRawQuery(), requestBody);
+
+        StoredResponse inFlight = StoredResponse.inFlight(fingerprint);
+        StoredResponse existing = responses.asMap().putIfAbsent(key, inFlight);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                return reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key ya usada con otra solicitud");
+            }
+            if (existing.body() == null) {
+                return reject(response, HttpStatus.CONFLICT, "Solicitud con la misma Idempotency-Key en curso");
+            }
+            return replay(existing, response);
+        }
+
+        // El cuerpo ya se leyó para el hash: la cadena recibe una copia
+        ServerHttpRequestDecorator replayedRequest = new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(response.bufferFactory().wrap(requestBody)));
+            }
+        };
+        AtomicReference<byte[]> body = new AtomicReference<>(new byte[0]);
+        ServerHttpResponseDecorator recorder = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> content) {
+                return DataBufferUtils.join(content).flatMap(joined -> {
+                    byte[] bytes = bytes(joined);
+                    body.set(bytes);
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> content) {
+                return writeWith(Flux.from(content).flatMapSequential(part -> part));
+            }
+        };
+
+        return chain.filter(exchange.mutate().request(replayedRequest).response(recorder).build())
+                .doOnError(e -> responses.asMap().remove(key, inFlight))
+                .doOnSuccess(done -> store(key, inFlight, response, body.get()));
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private void store(String key, StoredResponse inFlight, ServerHttpResponse response, byte[] body) {
+        int status = response.getStatusCode() == null ? HttpStatus.OK.value() : response.getStatusCode().value();
+        if (status >= 500) {
+            responses.asMap().remove(key, inFlight);
+            return;
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        IdempotencyFilter.STORED_HEADERS.forEach(name -> {
+            String value = response.getHeaders().getFirst(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        });
+        if (response.getHeaders().getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, response.getHeaders().getContentType().toString());
+        }
+        responses.put(key, new StoredResponse(inFlight.fingerprint(), status, headers, body));
+    }
+
+    private static Mono<Void> replay(StoredResponse stored, ServerHttpResponse response) {
+        response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+        stored.headers().forEach(response.getHeaders()::set);
+        response.getHeaders().set(IdempotencyFilter.REPLAYED_HEADER, "true");
+        response.getHeaders().setContentLength(stored.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(stored.body())));
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(message.getBytes(StandardCharsets.UTF_8))));
+    }
+}
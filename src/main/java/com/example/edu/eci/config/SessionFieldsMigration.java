@@ -0,0 +1,196 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.service.ClassService;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reescribe las sesiones heredadas de las clases, cuyos {@code day}, {@code startTime} y
+ * {@code endTime} son strings, como valores tipados (nombre del día, fechas BSON) mientras la
+ * aplicación sigue atendiendo.
+ *
+ * <p>Cada run convierte un chunk de clases en orden de {@code _id} con un solo bulk write
+ * desordenado y guarda el último id procesado en la colección {@code migrations}, así que un
+ * reinicio retoma donde quedó. El tamaño del chunk y la pausa entre chunks limitan la carga sobre
+ * la base de datos. Un documento solo se reescribe si sus sesiones no cambiaron desde que se
+ * leyeron. Las clases con sesiones que no se pueden leer no se tocan: sus ids quedan en
+ * {@code failedIds} del progreso y, una vez terminado el recorrido, se reintentan en el primer run
+ * de cada arranque (por ejemplo, después de corregir los datos a mano). Sin nada pendiente, los
+ * runs programados vuelven sin tocar la base de datos.
+ *
+ * <p>Se activa con {@code extraclasses.migration.session-fields.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "extraclasses.migration.session-fields.enabled", havingValue = "true")
+public class SessionFieldsMigration {
+
+    public static final String MIGRATION_ID = "class-session-fields";
+    static final String PROGRESS_COLLECTION = "migrations";
+    private static final String CLASSES_COLLECTION = "classes";
+
+    private static final Logger log = LoggerFactory.getLogger(SessionFieldsMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final int chunkSize;
+
+    // Una vez terminada no hay nada más que hacer; evita leer el progreso en cada run
+    private volatile boolean done;
+
+    public SessionFieldsMigration(MongoTemplate mongoTemplate,
+                                  @Value("${extraclasses.migration.session-fields.chunk-size:200}") int chunkSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${extraclasses.migration.session-fields.delay:PT1S}")
+    public void migrateNextChunk() {
+        if (done) {
+            return;
+        }
+        Document progress = mongoTemplate.findById(MIGRATION_ID, Document.class, PROGRESS_COLLECTION);
+        if (progress != null && progress.getBoolean("done", false)) {
+            retryFailed(progress.getList("failedIds", Object.class));
+            done = true;
+            return;
+        }
+
+        Query chunk = new Query();
+        if (progress != null && progress.get("lastId") != null) {
+            chunk.addCriteria(Criteria.where("_id").gt(progress.get("lastId")));
+        }
+        chunk.with(Sort.by("_id")).limit(chunkSize);
+        chunk.fields().include("sessions");
+        List<Document> classes = mongoTemplate.find(chunk, Document.class, CLASSES_COLLECTION);
+        List<Object> failed = new ArrayList<>();
+        int converted = convert(classes, failed);
+
+        boolean finished = classes.size() < chunkSize;
+        Update update = new Update()
+                .inc("converted", converted)
+                .inc("failed", failed.size())
+                .set("done", finished)
+                .set("updatedAt", new Date());
+        if (!failed.isEmpty()) {
+            update.addToSet("failedIds").each(failed.toArray());
+        }
+        if (!classes.isEmpty()) {
+            update.set("lastId", classes.get(classes.size() - 1).get("_id"));
+        }
+        saveProgress(update);
+        done = finished;
+        log.info("Migración de campos de sesión: {} clases leídas, {} convertidas, {} fallidas{}",
+                classes.size(), converted, failed.size(), finished ? ", terminada" : "");
+    }
+
+    /**
+     * Vuelve a intentar las clases que fallaron; las que ahora se convierten salen de la lista.
+     */
+    private void retryFailed(List<Object> failedIds) {
+        if (failedIds == null || failedIds.isEmpty()) {
+            return;
+        }
+        Query failedClasses = new Query(Criteria.where("_id").in(failedIds));
+        failedClasses.fields().include("sessions");
+        List<Document> classes = mongoTemplate.find(failedClasses, Document.class, CLASSES_COLLECTION);
+        List<Object> stillFailing = new ArrayList<>();
+        int converted = convert(classes, stillFailing);
+        // Las que ya no existen o ya no necesitan cambios también salen
+        List<Object> recovered = new ArrayList<>(failedIds);
+        recovered.removeAll(stillFailing);
+        if (!recovered.isEmpty()) {
+            saveProgress(new Update()
+                    .inc("converted", converted)
+                    .inc("failed", -recovered.size())
+                    .pullAll("failedIds", recovered.toArray())
+                    .set("updatedAt", new Date()));
+        }
+        log.info("Migración de campos de sesión: {} clases reintentadas, {} convertidas, {} siguen fallando: {}",
+                failedIds.size(), converted, stillFailing.size(), stillFailing);
+    }
+
+    /**
+     * Convierte las sesiones de {@code classes} en un bulk write y agrega a {@code failed} los ids
+     * de las que no se pudieron leer.
+     *
+     * @return cuántas clases se reescribieron.
+     */
+    private int convert(List<Document> classes, List<Object> failed) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CLASSES_COLLECTION);
+        int converted = 0;
+        for (Document clase : classes) {
+            List<Document> sessions = clase.getList("sessions", Document.class);
+            if (sessions == null) {
+                continue;
+            }
+            List<Document> typed;
+            try {
+                typed = convert(sessions);
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                log.warn("Clase {} sin migrar: {}", clase.get("_id"), e.getMessage());
+                failed.add(clase.get("_id"));
+                continue;
+            }
+            if (!typed.equals(sessions)) {
+                // Sin subir la versión: la clase se lee igual antes y después, así que su ETag sigue valiendo
+                bulk.updateOne(new Query(Criteria.where("_id").is(clase.get("_id")).and("sessions").is(sessions)),
+                        Update.update("sessions", typed));
+                converted++;
+            }
+        }
+        if (converted > 0) {
+            bulk.execute();
+        }
+        return converted;
+    }
+
+    private void saveProgress(Update update) {
+        mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(MIGRATION_ID)), update,
+                FindAndModifyOptions.options().upsert(true), Document.class, PROGRESS_COLLECTION);
+    }
+
+    private List<Document> convert(List<Document> sessions) {
+        List<Document> typed = new ArrayList<>(sessions.size());
+        for (Document session : sessions) {
+            Document copy = new Document(session);
+            if (session.get("startTime") instanceof String startTime) {
+                copy.put("startTime", toMongo(LocalDateTime.parse(startTime)));
+            }
+            if (session.get("endTime") instanceof String endTime) {
+                copy.put("endTime", toMongo(LocalDateTime.parse(endTime)));
+            }
+            if (session.get("day") instanceof String day) {
+                DayOfWeek dayOfWeek = ClassService.parseDay(day);
+                if (dayOfWeek == null) {
+                    throw new IllegalArgumentException("Día desconocido: " + day);
+                }
+                copy.put("day", dayOfWeek.name());
+            }
+            typed.add(copy);
+        }
+        return typed;
+    }
+
+    /** La misma representación con la que la capa de mapeo escribe un LocalDateTime. */
+    private Object toMongo(LocalDateTime value) {
+        return mongoTemplate.getConverter().convertToMongoType(value);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.edu.eci.config;
+
+import com.example.edu.eci.service.InscriptionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Finishes waitlist promotions left half done, e.g. by a crash between claiming the waitlist
+ * entry and inserting the user's assistances. A promotion still claimed after {@code stale-after}
+ * is taken as interrupted; the freed seat already belongs to that user.
+ *
+ * Enabled with {@code extraclasses.waitlist.promotion-recovery.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "extraclasses.waitlist.promotion-recovery.enabled", havingValue = "true")
+public class WaitlistPromotionRecoveryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistPromotionRecoveryJob.class);
+
+    private final InscriptionService inscriptionService;
+    private final Duration staleAfter;
+
+    public WaitlistPromotionRecoveryJob(InscriptionService inscriptionService,
+                                        @Value("${extraclasses.waitlist.promotion-recovery.stale-after:PT5M}") Duration staleAfter) {
+        this.inscriptionService = inscriptionService;
+        this.staleAfter = staleAfter;
+    }
+
+    @Scheduled(fixedDelayString = "${extraclasses.waitlist.promotion-recovery.delay:PT1M}")
+    public void recover() {
+        int recovered = inscriptionService.recoverStalePromotions(LocalDateTime.now().minus(staleAfter));
+        if (recovered > 0) {
+            log.info("Waitlist promotion recovery: {} interrupted promotions finished", recovered);
+        }
+    }
+}
@@ -1,22 +1,30 @@
 package com.example.edu.eci.controller;
 
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Absence;
 import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.enums.ConfirmationStatus;
 import com.example.edu.eci.service.AssistanceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Tag(name = "Asistencia", description = "API para gestionar asistencias a clases")
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/assistance")
 public class AssistanceController {
 
@@ -26,11 +34,34 @@ public class AssistanceController {
     @GetMapping("/confirmed")
     @Operation(
             summary = "Asistencias confirmadas",
-            description = "Obtiene todas las asistencias confirmadas"
+            description = "Obtiene las asistencias confirmadas, paginadas por cursor"
     )
-    public ResponseEntity<List<Assistance>> getAllConfirmed() {
-        List<Assistance> assistances = assistanceService.getAssistancesWithTrue();
-        return assistances.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(assistances);
+    public ResponseEntity<?> getAllConfirmed(
+            @Parameter(description = "Cursor devuelto por la página anterior (nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Assistance> page = assistanceService.getConfirmedPage(cursor, size);
+            return page.getItems().isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Operation(
+            summary = "Exportar asistencias confirmadas",
+            description = "Transmite las asistencias confirmadas como NDJSON (un JSON por línea). "
+                    + "Si se envía userId, exporta solo el histórico de ese usuario"
+    )
+    public ResponseEntity<StreamingResponseBody> exportConfirmed(
+            @Parameter(description = "ID del usuario (opcional)", example = "123")
+            @RequestParam(required = false) String userId) {
+        StreamingResponseBody body = out -> assistanceService.exportConfirmed(userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PostMapping("/confirm")
@@ -57,6 +88,29 @@ public class AssistanceController {
         }
     }
 
+    @PostMapping("/confirm/session")
+    @Operation(
+            summary = "Confirmar asistencia de una sesión completa",
+            description = "Confirma la asistencia de una lista de usuarios a una sesión y devuelve el resultado de cada uno "
+                    + "(CONFIRMED, ALREADY_CONFIRMED o NOT_ENROLLED)",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Resultado de la confirmación por usuario"),
+                    @ApiResponse(responseCode = "400", description = "Error en la solicitud")
+            }
+    )
+    public ResponseEntity<?> confirmSession(
+            @Parameter(description = "ID del instructor", required = true) @RequestParam String instructorId,
+            @Parameter(description = "ID de la clase", required = true) @RequestParam String classId,
+            @Parameter(description = "ID de la sesión", required = true) @RequestParam String sessionId,
+            @Parameter(description = "IDs de los usuarios a confirmar", required = true) @RequestBody List<String> userIds) {
+        try {
+            Map<String, ConfirmationStatus> results = assistanceService.confirmSession(classId, sessionId, userIds, instructorId);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/user/confirmed")
     @Operation(
             summary = "Cantidad de asistencias confirmadas en un periodo",
@@ -95,11 +149,19 @@ public class AssistanceController {
     @GetMapping("/absences")
     @Operation(
             summary = "Obtener inasistencias",
-            description = "Obtiene todas las asistencias no confirmadas en sesiones pasadas"
+            description = "Obtiene las inasistencias registradas (asistencias sin confirmar al terminar la sesión), paginadas por cursor"
     )
-    public ResponseEntity<List<Assistance>> getAllAbsences() {
-        List<Assistance> assistances = assistanceService.getAssistancesWithFalseBefore();
-        return assistances.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(assistances);
+    public ResponseEntity<?> getAllAbsences(
+            @Parameter(description = "Cursor devuelto por la página anterior (nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Absence> page = assistanceService.getAbsencesPage(cursor, size);
+            return page.getItems().isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     @GetMapping("/my-Historical")
     @Operation(
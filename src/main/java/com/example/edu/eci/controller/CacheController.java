@@ -0,0 +1,52 @@
+package com.example.edu.eci.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estadísticas de las cachés de {@link com.example.edu.eci.config.CacheConfig}. Se sirve en ambos
+ * modos de ejecución, que comparten las mismas cachés.
+ */
+@Tag(name = "Cache", description = "API para consultar las estadísticas de las cachés")
+@RestController
+@RequestMapping("/api/cache")
+@ConditionalOnWebApplication
+public class CacheController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @GetMapping("/stats")
+    @Operation(
+            summary = "Estadísticas de caché",
+            description = "Devuelve aciertos, fallos, desalojos y tamaño de cada caché"
+    )
+    public ResponseEntity<Map<String, Map<String, Object>>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                CacheStats cacheStats = cache.getNativeCache().stats();
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("size", cache.getNativeCache().estimatedSize());
+                values.put("hitCount", cacheStats.hitCount());
+                values.put("missCount", cacheStats.missCount());
+                values.put("hitRate", cacheStats.hitRate());
+                values.put("evictionCount", cacheStats.evictionCount());
+                stats.put(name, values);
+            }
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
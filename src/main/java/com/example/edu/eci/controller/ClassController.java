@@ -1,55 +1,181 @@
 package com.example.edu.eci.controller;
 
+import com.example.edu.eci.dto.ClassSummary;
+import com.example.edu.eci.dto.CursorPage;
 import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.service.CatalogSnapshot;
 import com.example.edu.eci.service.ClassService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Tag(name = "Clase", description = "API para gestionar clases")
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/classes")
 public class ClassController {
 
     @Autowired
     private ClassService classService;
 
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     @Operation(
             summary = "Obtener todas las clases",
-            description = "Obtiene una lista de todas las clases registradas"
+            description = "Obtiene las clases registradas, paginadas por cursor. Con fields= solo se leen y se "
+                    + "devuelven esos campos (el id siempre). La respuesta lleva un ETag; con If-None-Match se "
+                    + "responde 304 si la página no cambió"
     )
-    public ResponseEntity<List<Class>> getAllClasses() {
-        List<Class> classes = classService.getAllClasses();
-        if (classes.isEmpty()) {
-            return ResponseEntity.noContent().build();
+    public ResponseEntity<?> getAllClasses(
+            @Parameter(description = "Cursor devuelto por la página anterior (nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Campos a devolver, separados por coma", example = "name,type,startDate")
+            @RequestParam(required = false) String fields) {
+        try {
+            Set<String> selected = ClassService.parseFields(fields);
+            CursorPage<Class> page = classService.getClassesPage(cursor, size, selected);
+            if (page.getItems().isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            String etag = ClassETags.of(page, selected);
+            return selected == null
+                    ? ClassETags.ok(page, etag)
+                    : ClassETags.ok(ClassFields.select(objectMapper, page, selected), etag);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        return ResponseEntity.ok(classes);
+    }
+
+    @GetMapping("/summary")
+    @Operation(
+            summary = "Listado resumido de clases",
+            description = "Nombre, tipo, fechas y cupos disponibles de las clases, paginados por cursor. No lee "
+                    + "sesiones ni recursos. La respuesta lleva un ETag"
+    )
+    public ResponseEntity<?> getClassSummaries(
+            @Parameter(description = "Cursor devuelto por la página anterior (nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (por defecto 50, máximo 200)")
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<ClassSummary> page = classService.getClassSummariesPage(cursor, size);
+            if (page.getItems().isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ClassETags.ok(page, ClassETags.ofSummaries(page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/catalog")
+    @Operation(
+            summary = "Catálogo completo de clases",
+            description = "Todas las clases en una sola respuesta, ya serializada y comprimida en memoria; se "
+                    + "envía en gzip si el cliente lo acepta. Se actualiza poco después de cada cambio. "
+                    + "La respuesta lleva un ETag"
+    )
+    public ResponseEntity<byte[]> getCatalog(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return CatalogResponses.of(catalogSnapshot.current(), acceptEncoding);
     }
 
     @GetMapping("/class")
     @Operation(
             summary = "Obtener clase por ID",
-            description = "Obtiene los detalles de una clase específica por su ID",
+            description = "Obtiene los detalles de una clase específica por su ID; con fields= solo esos campos. "
+                    + "El ETag es la versión de la clase (y los campos pedidos); con If-None-Match se responde 304 "
+                    + "si no cambió",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Clase encontrada"),
+                    @ApiResponse(responseCode = "304", description = "La clase no cambió"),
+                    @ApiResponse(responseCode = "400", description = "Campo desconocido en fields"),
                     @ApiResponse(responseCode = "404", description = "Clase no encontrada")
             }
     )
-    public ResponseEntity<Class> getClassById(
+    public ResponseEntity<?> getClassById(
             @Parameter(description = "ID de la clase", required = true, example = "abc123")
-            @RequestParam String classId) {
+            @RequestParam String classId,
+            @Parameter(description = "Campos a devolver, separados por coma", example = "name,sessions")
+            @RequestParam(required = false) String fields) {
+        Set<String> selected;
+        try {
+            selected = ClassService.parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        // La clase completa sale de la caché, así que el recorte se hace en memoria
         return classService.getClassById(classId)
-                .map(ResponseEntity::ok)
+                .<ResponseEntity<?>>map(clase -> ClassETags.ok(
+                        selected == null ? clase : ClassFields.select(objectMapper, clase, selected),
+                        ClassETags.of(clase, selected)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/sessions")
+    @Operation(
+            summary = "Obtener sesiones de una clase",
+            description = "Obtiene las ocurrencias de las sesiones de una clase, ordenadas por fecha de inicio",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Sesiones encontradas"),
+                    @ApiResponse(responseCode = "204", description = "La clase no tiene sesiones")
+            }
+    )
+    public ResponseEntity<List<SessionOccurrence>> getSessions(
+            @Parameter(description = "ID de la clase", required = true, example = "abc123")
+            @RequestParam String classId) {
+        List<SessionOccurrence> sessions = classService.getSessions(classId);
+        if (sessions.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(sessions);
+    }
+
+    @GetMapping("/schedule")
+    @Operation(
+            summary = "Obtener el horario de una clase en un rango",
+            description = "Calcula las sesiones de la clase que empiezan dentro del rango a partir de su regla de repetición",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Sesiones del rango"),
+                    @ApiResponse(responseCode = "400", description = "Rango inválido o clase no encontrada")
+            }
+    )
+    public ResponseEntity<?> getSchedule(
+            @Parameter(description = "ID de la clase", required = true, example = "abc123")
+            @RequestParam String classId,
+            @Parameter(description = "Inicio del rango (inclusive)", required = true, example = "2024-01-01T00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Fin del rango (exclusivo)", required = true, example = "2024-01-08T00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(classService.getSchedule(classId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping
             @Operation(
                     summary = "Crear una nueva clase",
@@ -59,29 +185,44 @@ public class ClassController {
                             @ApiResponse(responseCode = "400", description = "Error en la solicitud")
                     }
             )
-            public ResponseEntity<Class> createClass(@Valid @RequestBody Class newClass) {
-                Class createdClass = classService.createClass(newClass);
-                return ResponseEntity.status(201).body(createdClass);
+            public ResponseEntity<?> createClass(@Valid @RequestBody Class newClass) {
+                try {
+                    Class createdClass = classService.createClass(newClass);
+                    return ResponseEntity.status(201).body(createdClass);
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().body(e.getMessage());
+                }
             }
 
 
     @PutMapping("/update")
     @Operation(
             summary = "Actualizar una clase",
-            description = "Actualiza los detalles de una clase existente",
+            description = "Actualiza los detalles de una clase existente. Con If-Match (el ETag leído) solo se "
+                    + "actualiza si la clase no cambió desde entonces",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Clase actualizada exitosamente"),
-                    @ApiResponse(responseCode = "404", description = "Clase no encontrada")
+                    @ApiResponse(responseCode = "400", description = "Tipo de repetición no soportado"),
+                    @ApiResponse(responseCode = "404", description = "Clase no encontrada"),
+                    @ApiResponse(responseCode = "412", description = "La clase cambió desde el ETag enviado")
             }
     )
-    public ResponseEntity<Class> updateClass(
+    public ResponseEntity<?> updateClass(
             @Parameter(description = "ID de la clase a actualizar", required = true, example = "abc123")
             @RequestParam String id,
+            @Parameter(description = "ETag de la versión que se está modificando", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Parameter(description = "Datos actualizados de la clase", required = true)
             @Valid @RequestBody Class updatedClass) {
-        return classService.updateClass(id, updatedClass)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        try {
+            return classService.updateClass(id, updatedClass, ClassETags.expectedVersion(ifMatch))
+                    .<ResponseEntity<?>>map(clase -> ClassETags.ok(clase, ClassETags.of(clase)))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/delete")
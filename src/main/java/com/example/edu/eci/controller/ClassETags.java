@@ -0,0 +1,107 @@
+package com.example.edu.eci.controller;
+
+import com.example.edu.eci.dto.ClassSummary;
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Class;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * ETags de las respuestas de clases, derivados de la versión de cada documento ({@code @Version}).
+ * Con el ETag en la respuesta, Spring contesta 304 a un If-None-Match que coincida sin serializar
+ * el cuerpo (en ambos modos de ejecución).
+ */
+final class ClassETags {
+
+    private ClassETags() {
+    }
+
+    /** ETag de una clase: su versión. Null si la clase aún no tiene versión. */
+    static String of(Class clase) {
+        return clase.getVersion() == null ? null : "\"" + clase.getVersion() + "\"";
+    }
+
+    /**
+     * ETag de una clase con solo los campos pedidos: su versión seguida de los campos, porque es
+     * otra representación que la clase completa. Sin selección, el mismo ETag que {@link #of(Class)}.
+     */
+    static String of(Class clase, Set<String> fields) {
+        String etag = of(clase);
+        if (etag == null || fields == null) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + String.join(",", new TreeSet<>(fields)) + "\"";
+    }
+
+    /**
+     * ETag de una página: hash (FNV-1a de 64 bits) de los ids y versiones de sus clases, del
+     * cursor siguiente y de los campos pedidos. Cambia si alguna clase de la página cambia, se
+     * agrega o se elimina.
+     */
+    static String of(CursorPage<Class> page, Set<String> fields) {
+        return of(page, String.valueOf(fields), clase -> clase.getId() + ' ' + clase.getVersion());
+    }
+
+    /** ETag de una página de resúmenes; incluye los cupos, que cambian sin cambiar la versión. */
+    static String ofSummaries(CursorPage<ClassSummary> page) {
+        return of(page, "summary",
+                summary -> summary.getId() + ' ' + summary.getVersion() + ' ' + summary.getRemainingSeats());
+    }
+
+    private static <T> String of(CursorPage<T> page, String variant, Function<T, String> itemTag) {
+        long hash = mix(0xcbf29ce484222325L, variant);
+        for (T item : page.getItems()) {
+            hash = mix(hash, itemTag.apply(item));
+        }
+        hash = mix(hash, String.valueOf(page.getNextCursor()));
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /** 200 con el cuerpo y, si lo hay, el ETag. */
+    static <T> ResponseEntity<T> ok(T body, String etag) {
+        return etag == null ? ResponseEntity.ok(body) : ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    /**
+     * Versión esperada según el header If-Match; null si no viene o es {@code *}. Acepta también el
+     * ETag de una lectura con fields=, que lleva la misma versión.
+     *
+     * @throws IllegalArgumentException si no es un ETag de clase.
+     * @throws OptimisticLockingFailureException si es un ETag débil: If-Match usa la comparación
+     *         fuerte (RFC 9110), con la que un ETag débil nunca coincide.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new OptimisticLockingFailureException("If-Match no admite ETags débiles: " + ifMatch);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match inválido: " + ifMatch);
+        }
+        String version = tag.substring(1, tag.length() - 1);
+        int fields = version.indexOf('-');
+        if (fields > 0) {
+            version = version.substring(0, fields);
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match inválido: " + ifMatch);
+        }
+    }
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return (hash ^ 0xff) * 0x100000001b3L; // separador entre valores
+    }
+}
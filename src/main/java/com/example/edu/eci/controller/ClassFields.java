@@ -0,0 +1,38 @@
+package com.example.edu.eci.controller;
+
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Class;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Respuestas con solo los campos pedidos en {@code fields=}. Se arman con el mismo ObjectMapper
+ * de las respuestas completas, así los valores (fechas, enums) salen con el mismo formato.
+ */
+final class ClassFields {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private ClassFields() {
+    }
+
+    static Map<String, Object> select(ObjectMapper objectMapper, Class clase, Set<String> fields) {
+        Map<String, Object> all = objectMapper.convertValue(clase, MAP_TYPE);
+        Map<String, Object> selected = new LinkedHashMap<>();
+        fields.forEach(field -> selected.put(field, all.get(field)));
+        return selected;
+    }
+
+    static CursorPage<Map<String, Object>> select(ObjectMapper objectMapper, CursorPage<Class> page, Set<String> fields) {
+        List<Map<String, Object>> items = page.getItems().stream()
+                .map(clase -> select(objectMapper, clase, fields))
+                .toList();
+        return new CursorPage<>(items, page.getNextCursor());
+    }
+}
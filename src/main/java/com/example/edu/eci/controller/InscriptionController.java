@@ -1,42 +1,68 @@
 package com.example.edu.eci.controller;
 
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.dto.EnrollmentTicket;
 import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.service.EnrollmentQueue;
 import com.example.edu.eci.service.InscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/inscriptions")
 
 @Tag(name = "Inscripcion", description = "API para gestionar inscripcion a clases")
 
 public class InscriptionController {
 
+    private static final int MAX_WAIT_SECONDS = 30;
+    private static final String QUEUE_FULL_RETRY_AFTER_SECONDS = "5";
+
     @Autowired
     private InscriptionService inscriptionService;
 
+    @Autowired
+    private EnrollmentQueue enrollmentQueue;
+
     @GetMapping
     @Operation(
             summary = "Get pending class assistances",
-            description = "Retrieves all assistances that are not confirmed and belong to classes with upcoming sessions"
+            description = "Retrieves the assistances that are not confirmed and belong to classes with upcoming sessions, one cursor page at a time"
     )
-    public ResponseEntity<List<Assistance>> getPendingAssistances() {
-        List<Assistance> pendingAssistances = inscriptionService.findFutureUnconfirmedAssistances();
+    public ResponseEntity<?> getPendingAssistances(
+            @Parameter(description = "Cursor returned by the previous page (nextCursor)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, max 200)")
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Assistance> pendingAssistances = inscriptionService.findFutureUnconfirmedPage(cursor, size);
 
-        if (pendingAssistances.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
+            if (pendingAssistances.getItems().isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
 
-        return ResponseEntity.ok(pendingAssistances);
+            return ResponseEntity.ok(pendingAssistances);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/my-inscriptions")
@@ -64,13 +90,16 @@ public class InscriptionController {
     @PostMapping("/inscribe")
     @Operation(
             summary = "inscribir usuario a clase",
-            description = "Inscribir un usuario a una clase específica",
+            description = "Encola la inscripción de un usuario a una clase y devuelve un tiquete de inmediato. "
+                    + "El resultado se consulta en /api/inscriptions/tickets/{ticketId}; si la clase está llena "
+                    + "el usuario queda en lista de espera (WAITLISTED). El tiquete solo existe en la instancia "
+                    + "que lo emitió y no sobrevive a un reinicio",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Usuario inscrito exitosamente"),
-                    @ApiResponse(responseCode = "400", description = "Error en la solicitud")
+                    @ApiResponse(responseCode = "202", description = "Inscripción encolada"),
+                    @ApiResponse(responseCode = "429", description = "Cola de inscripciones llena")
             }
     )
-    public ResponseEntity<String> inscribeUser(
+    public ResponseEntity<?> inscribeUser(
             @Parameter(description = "ID del usuario", required = true, example = "123")
             @RequestParam String userId,
 
@@ -83,9 +112,90 @@ public class InscriptionController {
 
     {
 
+        return enrollmentQueue.submit(userId, classId, startDate)
+                .<ResponseEntity<?>>map(ticket -> ResponseEntity
+                        .accepted()
+                        .location(URI.create("/api/inscriptions/tickets/" + ticket.getId()))
+                        .body(ticket))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, QUEUE_FULL_RETRY_AFTER_SECONDS)
+                        .body("Cola de inscripciones llena, intente más tarde"));
+    }
+
+    @GetMapping("/tickets/{ticketId}")
+    @Operation(
+            summary = "Consultar tiquete de inscripción",
+            description = "Devuelve el estado de una inscripción encolada. Con wait > 0 espera hasta ese número "
+                    + "de segundos (máximo 30) a que la inscripción termine antes de responder. Los tiquetes "
+                    + "se guardan en memoria en la instancia que los emitió: consultados en otra instancia o "
+                    + "después de un reinicio responden 404, y el resultado se ve entonces en "
+                    + "/api/inscriptions/my-inscriptions o /api/inscriptions/waitlist/position",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Estado del tiquete"),
+                    @ApiResponse(responseCode = "404", description = "Tiquete no encontrado, expirado o emitido por otra instancia")
+            }
+    )
+    public CompletableFuture<ResponseEntity<EnrollmentTicket>> getTicket(
+            @Parameter(description = "ID del tiquete", required = true)
+            @PathVariable String ticketId,
+            @Parameter(description = "Segundos a esperar el resultado (0 a 30)")
+            @RequestParam(defaultValue = "0") int wait) {
+
+        Optional<EnrollmentTicket> ticket = enrollmentQueue.getTicket(ticketId);
+        if (ticket.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        if (wait <= 0 || ticket.get().isDone()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(ticket.get()));
+        }
+        // Copia: el timeout de esta espera no debe completar el tiquete para los demás
+        return ticket.get().outcome().copy()
+                .completeOnTimeout(ticket.get(), Math.min(wait, MAX_WAIT_SECONDS), TimeUnit.SECONDS)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/waitlist/position")
+    @Operation(
+            summary = "Posición en la lista de espera",
+            description = "Devuelve la posición (desde 1) del usuario en la lista de espera de una clase llena. "
+                    + "Al cancelarse una inscripción, el primero de la lista queda inscrito automáticamente",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Posición en la lista"),
+                    @ApiResponse(responseCode = "404", description = "El usuario no está en la lista de espera")
+            }
+    )
+    public ResponseEntity<Long> getWaitlistPosition(
+            @Parameter(description = "ID del usuario", required = true, example = "123")
+            @RequestParam String userId,
+            @Parameter(description = "ID de la clase", required = true, example = "abc123")
+            @RequestParam String classId) {
+        return inscriptionService.getWaitlistPosition(userId, classId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/inscribe/bulk")
+    @Operation(
+            summary = "inscribir varios usuarios a una clase",
+            description = "Inscribe una lista de usuarios a una clase y devuelve el resultado de cada uno",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Resultado de la inscripción por usuario"),
+                    @ApiResponse(responseCode = "400", description = "Error en la solicitud")
+            }
+    )
+    public ResponseEntity<?> inscribeUsers(
+            @Parameter(description = "ID de la clase", required = true, example = "abc123")
+            @RequestParam String classId,
+
+            @Parameter(description = "Fecha de inicio de la clase", required = true, example = "")
+            @RequestParam LocalDate startDate,
+
+            @Parameter(description = "IDs de los usuarios a inscribir", required = true)
+            @RequestBody List<String> userIds) {
+
         try {
-            inscriptionService.inscribeUser(userId, classId, startDate);
-            return ResponseEntity.ok("Usuario inscrito exitosamente");
+            Map<String, String> results = inscriptionService.inscribeUsers(userIds, classId, startDate);
+            return ResponseEntity.ok(results);
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -94,7 +204,8 @@ public class InscriptionController {
     @DeleteMapping("/delete")
     @Operation(
             summary = "eliminar inscripcion de usuario a clase",
-            description = "Elimina la inscripción de un usuario a una clase específica",
+            description = "Elimina la inscripción de un usuario a una clase específica y pasa el cupo al primero "
+                    + "de la lista de espera. Si el usuario solo estaba en la lista de espera, sale de ella",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Inscripción eliminada exitosamente"),
                     @ApiResponse(responseCode = "400", description = "Error en la solicitud"),
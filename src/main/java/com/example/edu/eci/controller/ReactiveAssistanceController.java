@@ -0,0 +1,110 @@
+package com.example.edu.eci.controller;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.service.ReactiveAssistanceService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Mismo contrato que {@link AssistanceController}, servido por WebFlux en el modo reactivo.
+ */
+@Tag(name = "Asistencia", description = "API para gestionar asistencias a clases")
+@RestController
+@RequestMapping("/api/assistance")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAssistanceController {
+
+    @Autowired
+    private ReactiveAssistanceService assistanceService;
+
+    @GetMapping("/confirmed")
+    public Mono<ResponseEntity<?>> getAllConfirmed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return assistanceService.getConfirmedPage(cursor, size)
+                .<ResponseEntity<?>>map(page -> page.getItems().isEmpty()
+                        ? ResponseEntity.noContent().build()
+                        : ResponseEntity.ok(page))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    /**
+     * WebFlux escribe cada elemento del {@link Flux} como una línea NDJSON a medida que llega.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Assistance> exportConfirmed(@RequestParam(required = false) String userId) {
+        return assistanceService.exportConfirmed(userId);
+    }
+
+    @PostMapping("/confirm")
+    public Mono<ResponseEntity<String>> confirmAssistance(
+            @RequestParam String userId,
+            @RequestParam String instructorId,
+            @RequestParam String classId,
+            @RequestParam String SessionId) {
+        return assistanceService.confirmAssistance(userId, classId, SessionId, instructorId)
+                .thenReturn(ResponseEntity.ok("Asistencia confirmada exitosamente"))
+                .onErrorResume(e -> e instanceof IllegalArgumentException || e instanceof IllegalStateException,
+                        e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @PostMapping("/confirm/session")
+    public Mono<ResponseEntity<?>> confirmSession(
+            @RequestParam String instructorId,
+            @RequestParam String classId,
+            @RequestParam String sessionId,
+            @RequestBody List<String> userIds) {
+        return assistanceService.confirmSession(classId, sessionId, userIds, instructorId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/user/confirmed")
+    public Mono<ResponseEntity<?>> numberClassesAttended(
+            @RequestParam String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return assistanceService.countConfirmedAttendances(userId, start, end)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalStateException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/user/class")
+    public Mono<ResponseEntity<?>> numberClassesAttendedByClass(
+            @RequestParam String userId,
+            @RequestParam String classId) {
+        return assistanceService.countAttendancesByClass(userId, classId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalStateException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/absences")
+    public Mono<ResponseEntity<?>> getAllAbsences(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return assistanceService.getAbsencesPage(cursor, size)
+                .<ResponseEntity<?>>map(page -> page.getItems().isEmpty()
+                        ? ResponseEntity.noContent().build()
+                        : ResponseEntity.ok(page))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/my-Historical")
+    public Mono<ResponseEntity<List<Assistance>>> getHistoricByUser(@RequestParam String userId) {
+        return assistanceService.findAssistancesHistoricByUser(userId)
+                .collectList()
+                .map(assistances -> assistances.isEmpty()
+                        ? ResponseEntity.noContent().<List<Assistance>>build()
+                        : ResponseEntity.ok(assistances));
+    }
+}
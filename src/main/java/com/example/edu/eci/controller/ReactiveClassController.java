@@ -0,0 +1,145 @@
+package com.example.edu.eci.controller;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.service.CatalogSnapshot;
+import com.example.edu.eci.service.ClassService;
+import com.example.edu.eci.service.ReactiveClassService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Mismo contrato que {@link ClassController}, servido por WebFlux en el modo reactivo.
+ */
+@Tag(name = "Clase", description = "API para gestionar clases")
+@RestController
+@RequestMapping("/api/classes")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveClassController {
+
+    @Autowired
+    private ReactiveClassService classService;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> getAllClasses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        return Mono.fromCallable(() -> Optional.ofNullable(ClassService.parseFields(fields)))
+                .flatMap(selected -> classService.getClassesPage(cursor, size, selected.orElse(null))
+                        .<ResponseEntity<?>>map(page -> page.getItems().isEmpty()
+                                ? ResponseEntity.noContent().build()
+                                : ClassETags.ok(selected.<Object>map(set -> ClassFields.select(objectMapper, page, set))
+                                        .orElse(page), ClassETags.of(page, selected.orElse(null)))))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/summary")
+    public Mono<ResponseEntity<?>> getClassSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return classService.getClassSummariesPage(cursor, size)
+                .<ResponseEntity<?>>map(page -> page.getItems().isEmpty()
+                        ? ResponseEntity.noContent().build()
+                        : ClassETags.ok(page, ClassETags.ofSummaries(page)))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/catalog")
+    public Mono<ResponseEntity<byte[]>> getCatalog(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Solo la primera lectura consulta la base de datos (bloqueante); luego es un campo volátil
+        return Mono.fromCallable(catalogSnapshot::current)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(snapshot -> CatalogResponses.of(snapshot, acceptEncoding));
+    }
+
+    @GetMapping("/class")
+    public Mono<ResponseEntity<?>> getClassById(@RequestParam String classId,
+                                                @RequestParam(required = false) String fields) {
+        return Mono.fromCallable(() -> Optional.ofNullable(ClassService.parseFields(fields)))
+                .flatMap(selected -> classService.getClassById(classId)
+                        .<ResponseEntity<?>>map(clase -> ClassETags.ok(selected
+                                .<Object>map(set -> ClassFields.select(objectMapper, clase, set))
+                                .orElse(clase), ClassETags.of(clase, selected.orElse(null)))))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/sessions")
+    public Mono<ResponseEntity<List<SessionOccurrence>>> getSessions(@RequestParam String classId) {
+        return classService.getSessions(classId)
+                .map(sessions -> sessions.isEmpty()
+                        ? ResponseEntity.noContent().<List<SessionOccurrence>>build()
+                        : ResponseEntity.ok(sessions));
+    }
+
+    @GetMapping("/schedule")
+    public Mono<ResponseEntity<?>> getSchedule(
+            @RequestParam String classId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return classService.getSchedule(classId, from, to)
+                .collectList()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createClass(@Valid @RequestBody Class newClass) {
+        return classService.createClass(newClass)
+                .<ResponseEntity<?>>map(createdClass -> ResponseEntity.status(201).body(createdClass))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @PutMapping("/update")
+    public Mono<ResponseEntity<?>> updateClass(@RequestParam String id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @Valid @RequestBody Class updatedClass) {
+        return Mono.fromCallable(() -> Optional.ofNullable(ClassETags.expectedVersion(ifMatch)))
+                .flatMap(expectedVersion -> classService.updateClass(id, updatedClass, expectedVersion.orElse(null)))
+                .<ResponseEntity<?>>map(clase -> ClassETags.ok(clase, ClassETags.of(clase)))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())))
+                .onErrorResume(OptimisticLockingFailureException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage())));
+    }
+
+    @DeleteMapping("/delete")
+    public Mono<ResponseEntity<Void>> deleteClass(@RequestParam String id) {
+        return classService.deleteClass(id)
+                .map(deleted -> deleted
+                        ? ResponseEntity.ok().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    @GetMapping("/type")
+    public Mono<ResponseEntity<List<Class>>> getClassesByType(@RequestParam String classType) {
+        return classService.getClassesByType(classType)
+                .collectList()
+                .map(classes -> classes.isEmpty()
+                        ? ResponseEntity.notFound().<List<Class>>build()
+                        : ResponseEntity.ok(classes));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.edu.eci.controller;
+
+import com.example.edu.eci.dto.EnrollmentTicket;
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.service.ReactiveEnrollmentQueue;
+import com.example.edu.eci.service.ReactiveInscriptionService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Mismo contrato que {@link InscriptionController}, servido por WebFlux en el modo reactivo.
+ */
+@Tag(name = "Inscripcion", description = "API para gestionar inscripcion a clases")
+@RestController
+@RequestMapping("/api/inscriptions")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveInscriptionController {
+
+    private static final int MAX_WAIT_SECONDS = 30;
+    private static final String QUEUE_FULL_RETRY_AFTER_SECONDS = "5";
+
+    @Autowired
+    private ReactiveInscriptionService inscriptionService;
+
+    @Autowired
+    private ReactiveEnrollmentQueue enrollmentQueue;
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> getPendingAssistances(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return inscriptionService.findFutureUnconfirmedPage(cursor, size)
+                .<ResponseEntity<?>>map(page -> page.getItems().isEmpty()
+                        ? ResponseEntity.noContent().build()
+                        : ResponseEntity.ok(page))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/my-inscriptions")
+    public Mono<ResponseEntity<List<Assistance>>> getPendingAssistancesByUser(@RequestParam String userId) {
+        return inscriptionService.findFutureUnconfirmedAssistancesByUser(userId)
+                .collectList()
+                .map(assistances -> assistances.isEmpty()
+                        ? ResponseEntity.noContent().<List<Assistance>>build()
+                        : ResponseEntity.ok(assistances));
+    }
+
+    @PostMapping("/inscribe")
+    public Mono<ResponseEntity<?>> inscribeUser(
+            @RequestParam String userId,
+            @RequestParam String classId,
+            @RequestParam LocalDate startDate) {
+        return Mono.just(enrollmentQueue.submit(userId, classId, startDate)
+                .<ResponseEntity<?>>map(ticket -> ResponseEntity
+                        .accepted()
+                        .location(URI.create("/api/inscriptions/tickets/" + ticket.getId()))
+                        .body(ticket))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, QUEUE_FULL_RETRY_AFTER_SECONDS)
+                        .body("Cola de inscripciones llena, intente más tarde")));
+    }
+
+    @GetMapping("/tickets/{ticketId}")
+    public Mono<ResponseEntity<EnrollmentTicket>> getTicket(
+            @PathVariable String ticketId,
+            @RequestParam(defaultValue = "0") int wait) {
+        return Mono.justOrEmpty(enrollmentQueue.getTicket(ticketId))
+                .flatMap(ticket -> wait <= 0 || ticket.isDone()
+                        ? Mono.just(ticket)
+                        // Copia: cancelar esta espera no debe cancelar el tiquete para los demás
+                        : Mono.fromFuture(ticket.outcome().copy())
+                                .timeout(Duration.ofSeconds(Math.min(wait, MAX_WAIT_SECONDS)), Mono.just(ticket)))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/waitlist/position")
+    public Mono<ResponseEntity<Long>> getWaitlistPosition(
+            @RequestParam String userId,
+            @RequestParam String classId) {
+        return inscriptionService.getWaitlistPosition(userId, classId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/inscribe/bulk")
+    public Mono<ResponseEntity<?>> inscribeUsers(
+            @RequestParam String classId,
+            @RequestParam LocalDate startDate,
+            @RequestBody List<String> userIds) {
+        return inscriptionService.inscribeUsers(userIds, classId, startDate)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(ReactiveInscriptionController::isRejection, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @DeleteMapping("/delete")
+    public Mono<ResponseEntity<String>> deleteInscription(
+            @RequestParam String userId,
+            @RequestParam String classId) {
+        return inscriptionService.deleteInscription(userId, classId)
+                .thenReturn(ResponseEntity.ok("Inscripción eliminada exitosamente"))
+                .onErrorResume(ReactiveInscriptionController::isRejection, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    private static boolean isRejection(Throwable e) {
+        return e instanceof IllegalArgumentException || e instanceof IllegalStateException;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.edu.eci.controller;
+
+import com.example.edu.eci.model.User;
+import com.example.edu.eci.service.ReactiveUserService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mismo contrato que {@link UserController}, servido por WebFlux en el modo reactivo.
+ */
+@Tag(name = "User", description = "API para obtener la informacion de los usuarios")
+@RestController
+@RequestMapping("/api/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @GetMapping("/id")
+    public Mono<ResponseEntity<User>> getUsersbyId(@RequestParam String userId) {
+        return userService.getUserById(userId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<User>> createUser(@Valid @RequestBody User newUser) {
+        return userService.createUser(newUser)
+                .map(createdUser -> ResponseEntity.status(201).body(createdUser));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.edu.eci.dto;
+
+import com.example.edu.eci.model.Class;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Resumen de una clase para el listado: sin sesiones ni recursos, con los cupos disponibles.
+ * Se arma desde una consulta que solo trae {@link #FIELDS} de la base de datos.
+ */
+@Getter
+@AllArgsConstructor
+public class ClassSummary {
+
+    /** Campos de {@link Class} que se leen para armar el resumen. */
+    public static final Set<String> FIELDS = Set.of("id", "name", "type", "startDate", "endDate", "maxStudents", "version");
+
+    private String id;
+    private String name;
+    private String type;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int maxStudents;
+    private int remainingSeats;
+    private Long version;
+
+    public static ClassSummary of(Class clase, int reservedSeats) {
+        return new ClassSummary(clase.getId(), clase.getName(), clase.getType(), clase.getStartDate(),
+                clase.getEndDate(), clase.getMaxStudents(), Math.max(0, clase.getMaxStudents() - reservedSeats),
+                clase.getVersion());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.edu.eci.dto;
+
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tiquete de una inscripción encolada. El cliente lo recibe de inmediato y consulta su estado
+ * hasta que pasa a un estado final ({@code INSCRIBED}, {@code REJECTED} o {@code FAILED}).
+ */
+@Getter
+public class EnrollmentTicket {
+
+    private final String id = UUID.randomUUID().toString();
+    private final String userId;
+    private final String classId;
+    private final LocalDate startDate;
+    private final Instant createdAt = Instant.now();
+    private volatile EnrollmentStatus status = EnrollmentStatus.QUEUED;
+    private volatile String message;
+
+    @Getter(AccessLevel.NONE)
+    private final CompletableFuture<EnrollmentTicket> outcome = new CompletableFuture<>();
+
+    public EnrollmentTicket(String userId, String classId, LocalDate startDate) {
+        this.userId = userId;
+        this.classId = classId;
+        this.startDate = startDate;
+    }
+
+    public boolean isDone() {
+        return outcome.isDone();
+    }
+
+    public void start() {
+        status = EnrollmentStatus.PROCESSING;
+    }
+
+    public void finish(EnrollmentStatus status, String message) {
+        this.status = status;
+        this.message = message;
+        outcome.complete(this);
+    }
+
+    /**
+     * Se completa con el propio tiquete cuando llega a un estado final.
+     */
+    public CompletableFuture<EnrollmentTicket> outcome() {
+        return outcome;
+    }
+}
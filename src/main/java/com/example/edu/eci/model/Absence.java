@@ -0,0 +1,30 @@
+package com.example.edu.eci.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Inasistencia registrada: una asistencia que seguía sin confirmar cuando terminó su sesión. La
+ * escribe {@link com.example.edu.eci.config.AbsenceMarkingJob} y su id es el de la asistencia.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Document(collection = "absences")
+@CompoundIndex(name = "user_class", def = "{ 'userId': 1, 'classId': 1 }")
+public class Absence {
+    @Id
+    private String id;
+    private String userId;
+    private String classId;
+    private String sessionId;
+    private LocalDate startTime;
+}
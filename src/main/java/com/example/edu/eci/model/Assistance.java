@@ -1,6 +1,7 @@
 package com.example.edu.eci.model;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,6 +15,12 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Document(collection = "assistances")
+// Cada índice corresponde a un grupo de consultas de AssistanceRepository; ver AssistanceIndexVerifier.
+@CompoundIndex(name = "user_class_session", def = "{ 'userId': 1, 'classId': 1, 'sessionId': 1 }")
+@CompoundIndex(name = "class_user", def = "{ 'classId': 1, 'userId': 1 }")
+@CompoundIndex(name = "confirm_startTime", def = "{ 'confirm': 1, 'startTime': 1 }")
+@CompoundIndex(name = "user_confirm_startTime", def = "{ 'userId': 1, 'confirm': 1, 'startTime': 1 }")
+@CompoundIndex(name = "confirm_id", def = "{ 'confirm': 1, '_id': 1 }")
 public class Assistance {
     @Id
     private String id;
@@ -0,0 +1,38 @@
+package com.example.edu.eci.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.YearMonth;
+import java.util.Date;
+
+/**
+ * Conteo materializado de asistencias confirmadas de un usuario, por clase o por mes. El id
+ * identifica el contador ({@link #byClassId}, {@link #byMonthId}), así que leerlo es un findById.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Document(collection = "attendance_counters")
+public class AttendanceCounter {
+    @Id
+    private String id;
+    private String userId;
+    private String classId; // Solo en contadores por clase
+    private String month;   // Solo en contadores por mes, formato yyyy-MM
+    private long count;
+    private Date updatedAt;
+
+    public static String byClassId(String userId, String classId) {
+        return "class:" + userId + ":" + classId;
+    }
+
+    public static String byMonthId(String userId, YearMonth month) {
+        return "month:" + userId + ":" + month;
+    }
+}
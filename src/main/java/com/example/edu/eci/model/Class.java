@@ -1,11 +1,16 @@
 package com.example.edu.eci.model;
+import com.example.edu.eci.config.MongoConfig;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.convert.ValueConverter;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 @NoArgsConstructor
@@ -26,6 +31,9 @@ public class Class {
     private String instructorId;
     private String repetition; // Tipo de repetición (e.g., "weekly", "monthly")
     private LocalDate endTimeRepetition;
+    private List<LocalDate> excludedDates; // Fechas sin sesión (festivos, semana de receso, ...)
+    @Version
+    private Long version; // Sube con cada escritura; es el ETag de la clase
 
     @Getter
     @Setter
@@ -41,8 +49,10 @@ public class Class {
     @NoArgsConstructor
     public static class Session {
         private String id;
-        private String day;
-        private String startTime;
-        private String endTime;
+        private DayOfWeek day;
+        @ValueConverter(MongoConfig.SessionDateTime.class) // Acepta también los strings de documentos heredados
+        private LocalDateTime startTime;
+        @ValueConverter(MongoConfig.SessionDateTime.class)
+        private LocalDateTime endTime;
     }
 }
@@ -0,0 +1,23 @@
+package com.example.edu.eci.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Contador de cupos reservados por clase. El id es el mismo de la clase,
+ * de modo que reservar o liberar un cupo es una sola actualización atómica.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Document(collection = "class_seats")
+public class ClassSeats {
+    @Id
+    private String classId;
+    private int reserved;
+}
@@ -0,0 +1,41 @@
+package com.example.edu.eci.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una ocurrencia concreta de una sesión de clase. La clase guarda solo las plantillas
+ * ({@link Class.Session}); cada ocurrencia generada a partir de ellas es un documento propio.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Document(collection = "session_occurrences")
+@CompoundIndex(name = "class_startTime", def = "{ 'classId': 1, 'startTime': 1 }")
+// Recorrido de AbsenceMarkingJob por sesiones terminadas
+@CompoundIndex(name = "endTime_id", def = "{ 'endTime': 1, '_id': 1 }")
+// Y por las escritas después de que su fin quedó atrás
+@CompoundIndex(name = "updatedAt_id", def = "{ 'updatedAt': 1, '_id': 1 }")
+public class SessionOccurrence {
+    @Id
+    private String id;
+    private String classId;
+    private String sessionId; // Plantilla (Class.Session) que generó la ocurrencia
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private LocalDateTime updatedAt; // Última vez que se insertó o cambió su fin
+
+    public SessionOccurrence(String id, String classId, String sessionId, LocalDateTime startTime, LocalDateTime endTime) {
+        this.id = id;
+        this.classId = classId;
+        this.sessionId = sessionId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+}
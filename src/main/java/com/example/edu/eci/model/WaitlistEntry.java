@@ -0,0 +1,39 @@
+package com.example.edu.eci.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Un usuario esperando cupo en una clase llena. El índice class_order mantiene cada lista
+ * ordenada por llegada, así que tomar al primero es una búsqueda en el índice y no un sort.
+ *
+ * <p>Mientras se promueve, la entrada sigue en la colección con {@code promotingAt}; se borra
+ * cuando sus asistencias ya están guardadas. Una entrada que quedó marcada mucho tiempo es una
+ * promoción interrumpida, y el cupo ya es suyo.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Document(collection = "waitlist")
+@CompoundIndex(name = "class_user", def = "{ 'classId': 1, 'userId': 1 }", unique = true)
+@CompoundIndex(name = "class_order", def = "{ 'classId': 1, 'requestedAt': 1, '_id': 1 }")
+public class WaitlistEntry {
+    @Id
+    private String id;
+    private String classId;
+    private String userId;
+    private LocalDate startDate; // Fecha de inicio pedida, se usa al promover
+    private LocalDateTime requestedAt;
+    @Indexed(sparse = true)
+    private LocalDateTime promotingAt; // Null mientras espera
+}
@@ -0,0 +1,7 @@
+package com.example.edu.eci.model.enums;
+
+public enum ConfirmationStatus {
+    CONFIRMED,                  // Confirmed by this request
+    ALREADY_CONFIRMED,          // Was already confirmed before the request
+    NOT_ENROLLED                // The user has no assistance for the session
+}
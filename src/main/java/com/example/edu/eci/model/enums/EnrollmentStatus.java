@@ -0,0 +1,10 @@
+package com.example.edu.eci.model.enums;
+
+public enum EnrollmentStatus {
+    QUEUED,                     // En espera en el carril de su clase
+    PROCESSING,                 // La inscripción está en curso
+    INSCRIBED,                  // El usuario quedó inscrito
+    WAITLISTED,                 // La clase estaba llena; el usuario espera un cupo
+    REJECTED,                   // Falló una regla de negocio (no existe, ya inscrito, sin cupos)
+    FAILED                      // Error inesperado; el cliente puede enviarla de nuevo
+}
@@ -0,0 +1,41 @@
+package com.example.edu.eci.model.enums;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+public enum Repetition {
+    WEEKLY(ChronoUnit.WEEKS, 1),     // Cada semana
+    BIWEEKLY(ChronoUnit.WEEKS, 2),   // Cada dos semanas
+    MONTHLY(ChronoUnit.MONTHS, 1);   // Cada mes, el mismo día del mes
+
+    private final ChronoUnit unit;
+    private final int amount;
+
+    Repetition(ChronoUnit unit, int amount) {
+        this.unit = unit;
+        this.amount = amount;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    public int getAmount() {
+        return amount;
+    }
+
+    /**
+     * Interpreta el campo {@code repetition} de una clase ("weekly", "Monthly", ...). Sin valor se
+     * asume semanal.
+     */
+    public static Repetition from(String repetition) {
+        if (repetition == null || repetition.isBlank()) {
+            return WEEKLY;
+        }
+        try {
+            return valueOf(repetition.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de repetición no soportado: " + repetition);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Absence;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface AbsenceRepository extends MongoRepository<Absence, String>, AbsenceRepositoryCustom {
+    void deleteByUserIdAndClassId(String userId, String classId);
+}
@@ -0,0 +1,31 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Absence;
+import com.example.edu.eci.model.SessionOccurrence;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AbsenceRepositoryCustom {
+
+    /**
+     * Registra como inasistencia cada asistencia sin confirmar de las ocurrencias indicadas, con
+     * una agregación que escribe directamente en la colección ($merge). Las ya registradas se
+     * dejan como están, así que repetir una ocurrencia no duplica nada.
+     */
+    void recordFor(Collection<SessionOccurrence> endedOccurrences);
+
+    /**
+     * Para clases sin ocurrencias guardadas (creadas antes de que existieran): las repeticiones de
+     * una sesión comparten el id de la plantilla, así que cada asistencia se reconoce por clase,
+     * sesión y fecha de inicio. Registra las asistencias sin confirmar de las sesiones terminadas
+     * indicadas; como en {@link #recordFor}, las ya registradas no cambian.
+     */
+    void recordForLegacySessions(Collection<SessionOccurrence> endedSessions);
+
+    /**
+     * Página por keyset: hasta limit inasistencias con id mayor a afterId, ordenadas por id.
+     * Con afterId null empieza desde el principio.
+     */
+    List<Absence> findPage(String afterId, int limit);
+}
@@ -0,0 +1,73 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Absence;
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.SessionOccurrence;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public class AbsenceRepositoryImpl implements AbsenceRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordFor(Collection<SessionOccurrence> endedOccurrences) {
+        if (endedOccurrences == null || endedOccurrences.isEmpty()) {
+            return;
+        }
+        List<String> classIds = endedOccurrences.stream().map(SessionOccurrence::getClassId).distinct().toList();
+        List<String> sessionIds = endedOccurrences.stream().map(SessionOccurrence::getId).toList();
+
+        // classId primero para que el $match use el índice class_user de asistencias.
+        merge(new Document("classId", new Document("$in", classIds))
+                .append("sessionId", new Document("$in", sessionIds))
+                .append("confirm", false));
+    }
+
+    @Override
+    public void recordForLegacySessions(Collection<SessionOccurrence> endedSessions) {
+        if (endedSessions == null || endedSessions.isEmpty()) {
+            return;
+        }
+        List<Document> sessions = endedSessions.stream()
+                .map(session -> new Document("classId", session.getClassId())
+                        .append("sessionId", session.getSessionId())
+                        // Documento crudo: la fecha se pasa como la guarda Spring, en la zona del sistema
+                        .append("startTime", Date.from(session.getStartTime().toLocalDate()
+                                .atStartOfDay(ZoneId.systemDefault()).toInstant())))
+                .toList();
+        merge(new Document("$or", sessions).append("confirm", false));
+    }
+
+    private void merge(Document unconfirmed) {
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Assistance.class)).aggregate(List.of(
+                new Document("$match", unconfirmed),
+                new Document("$project", new Document("userId", 1)
+                        .append("classId", 1)
+                        .append("sessionId", 1)
+                        .append("startTime", 1)),
+                new Document("$merge", new Document("into", mongoTemplate.getCollectionName(Absence.class))
+                        .append("whenMatched", "keepExisting")
+                        .append("whenNotMatched", "insert")))).toCollection();
+    }
+
+    @Override
+    public List<Absence> findPage(String afterId, int limit) {
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        return mongoTemplate.find(query, Absence.class);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.edu.eci.repository;
 
 import com.example.edu.eci.model.Assistance;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
@@ -8,15 +9,15 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface AssistanceRepository extends MongoRepository<Assistance, String> {
+public interface AssistanceRepository extends MongoRepository<Assistance, String>, AssistanceRepositoryCustom {
     boolean existsByUserIdAndClassId(String userId, String classId);
     long countByClassId(String claseId);
     List<Assistance> findByConfirmTrue();
-    void deleteByUserIdAndClassId(String userId, String classId);
-    int countByUserIdAndConfirmTrueAndStartTimeBetween(String userId, LocalDateTime startTime, LocalDateTime startTime2);
-    int countByUserIdAndClassIdAndConfirmTrue(String userId, String classId);
-    List<Assistance> findByConfirmFalseAndStartTimeIsBefore(LocalDateTime now);
+    long deleteByUserIdAndClassId(String userId, String classId);
+    @Query(value = "{ 'userId': ?0, 'confirm': true, 'startTime': { $gte: ?1, $lte: ?2 } }", count = true)
+    long countConfirmedByUserIdAndStartTimeIn(String userId, LocalDate from, LocalDate to);
     List<Assistance> findByConfirmFalseAndClassIdIn(List<String> classIds);
     Optional<Assistance> findByUserIdAndClassIdAndSessionId(String userId, String classId, String sessionId);
     List<Assistance> findByUserIdAndConfirmFalseAndClassIdIn(String userId, List<String> classIds);
@@ -25,4 +26,13 @@ public interface AssistanceRepository extends MongoRepository<Assistance, String
     List<Assistance> findByStartTimeAfterAndConfirmIsFalse(LocalDateTime dateTime);
     List<Assistance> findByUserIdAndStartTimeAfterAndConfirmIsFalse(String userId, LocalDateTime dateTime);
     List<Assistance> findByUserIdAndConfirmIsTrue(String userId);
+    List<Assistance> findByUserIdAndClassIdAndConfirmIsTrue(String userId, String classId);
+    @Query(value = "{ 'classId': ?0, 'userId': { $in: ?1 } }", fields = "{ 'userId': 1 }")
+    List<Assistance> findUserIdsByClassIdAndUserIdIn(String classId, List<String> userIds);
+    @Query(value = "{ 'userId': ?0, 'classId': ?1 }", fields = "{ 'sessionId': 1 }")
+    List<Assistance> findSessionIdsByUserIdAndClassId(String userId, String classId);
+    @Meta(cursorBatchSize = 500)
+    Stream<Assistance> streamByConfirmTrue();
+    @Meta(cursorBatchSize = 500)
+    Stream<Assistance> streamByUserIdAndConfirmIsTrue(String userId);
 }
@@ -0,0 +1,49 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface AssistanceRepositoryCustom {
+
+    /**
+     * Inserta todas las asistencias en un único bulk write no ordenado,
+     * en lugar de un round trip por documento.
+     */
+    void insertAll(List<Assistance> assistances);
+
+    /**
+     * Marca como confirmada la asistencia del usuario a la sesión solo si aún no lo estaba, en
+     * una única operación atómica (findAndModify).
+     *
+     * @return la asistencia antes de confirmarla, o vacío si ya estaba confirmada o no existe.
+     */
+    Optional<Assistance> confirm(String userId, String classId, String sessionId, String instructorId);
+
+    /**
+     * Asistencias de los usuarios indicados a una sesión, proyectadas a id, userId, startTime y
+     * confirm: lo necesario para confirmar la lista sin traer los documentos completos.
+     */
+    List<Assistance> findRoster(String classId, String sessionId, Collection<String> userIds);
+
+    /**
+     * Confirma las asistencias indicadas que aún no lo estuvieran en un único bulk write no
+     * ordenado, con el mismo filtro condicional que {@link #confirm(String, String, String, String)}.
+     *
+     * @return los ids que confirmó esta llamada; los demás ya estaban confirmados.
+     */
+    Set<String> confirmAll(Collection<String> ids, String instructorId);
+
+    /*
+     * Consultas paginadas por keyset: devuelven hasta limit asistencias con id mayor a afterId,
+     * ordenadas por id sobre el índice { confirm, _id }. Con afterId null empiezan desde el principio.
+     */
+
+    List<Assistance> findConfirmedPage(String afterId, int limit);
+
+    List<Assistance> findUnconfirmedAfterPage(LocalDateTime after, String afterId, int limit);
+}
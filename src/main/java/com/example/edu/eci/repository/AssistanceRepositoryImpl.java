@@ -0,0 +1,127 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class AssistanceRepositoryImpl implements AssistanceRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void insertAll(List<Assistance> assistances) {
+        if (assistances == null || assistances.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Assistance.class)
+                .insert(assistances)
+                .execute();
+    }
+
+    @Override
+    public Optional<Assistance> confirm(String userId, String classId, String sessionId, String instructorId) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                unconfirmedQuery(userId, classId, sessionId), confirmation(instructorId), Assistance.class));
+    }
+
+    @Override
+    public List<Assistance> findRoster(String classId, String sessionId, Collection<String> userIds) {
+        return mongoTemplate.find(rosterQuery(classId, sessionId, userIds), Assistance.class);
+    }
+
+    @Override
+    public Set<String> confirmAll(Collection<String> ids, String instructorId) {
+        if (ids == null || ids.isEmpty()) {
+            return Set.of();
+        }
+        // Marca del lote: permite saber qué documentos cambió este bulk si otra confirmación se adelantó.
+        String batchId = new ObjectId().toHexString();
+        Update update = confirmation(instructorId).set("confirmBatchId", batchId);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Assistance.class);
+        ids.forEach(id -> bulk.updateOne(unconfirmedByIdQuery(id), update));
+        Set<String> confirmed = bulk.execute().getModifiedCount() == ids.size()
+                ? new LinkedHashSet<>(ids)
+                : mongoTemplate.find(batchQuery(ids, batchId), Assistance.class).stream()
+                        .map(Assistance::getId)
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+        // La marca solo sirve para la lectura anterior; no se deja en los documentos
+        mongoTemplate.updateMulti(batchQuery(ids, batchId), clearBatch(), Assistance.class);
+        return confirmed;
+    }
+
+    @Override
+    public List<Assistance> findConfirmedPage(String afterId, int limit) {
+        return mongoTemplate.find(confirmedPageQuery(afterId, limit), Assistance.class);
+    }
+
+    @Override
+    public List<Assistance> findUnconfirmedAfterPage(LocalDateTime after, String afterId, int limit) {
+        return mongoTemplate.find(unconfirmedAfterPageQuery(after, afterId, limit), Assistance.class);
+    }
+
+    /*
+     * Consultas compartidas con ReactiveAssistanceRepositoryImpl, para que ambos modos de ejecución
+     * usen exactamente las mismas formas (ver AssistanceIndexVerifier).
+     */
+
+    static Query unconfirmedQuery(String userId, String classId, String sessionId) {
+        return new Query(Criteria.where("userId").is(userId).and("classId").is(classId)
+                .and("sessionId").is(sessionId).and("confirm").is(false));
+    }
+
+    static Query unconfirmedByIdQuery(String id) {
+        return new Query(Criteria.where("_id").is(id).and("confirm").is(false));
+    }
+
+    static Update confirmation(String instructorId) {
+        return new Update().set("confirm", true).set("instructorId", instructorId);
+    }
+
+    static Query rosterQuery(String classId, String sessionId, Collection<String> userIds) {
+        Query query = new Query(Criteria.where("userId").in(userIds).and("classId").is(classId).and("sessionId").is(sessionId));
+        query.fields().include("userId", "startTime", "confirm");
+        return query;
+    }
+
+    static Update clearBatch() {
+        return new Update().unset("confirmBatchId");
+    }
+
+    static Query batchQuery(Collection<String> ids, String batchId) {
+        Query query = new Query(Criteria.where("_id").in(ids).and("confirmBatchId").is(batchId));
+        query.fields().include("_id");
+        return query;
+    }
+
+    static Query confirmedPageQuery(String afterId, int limit) {
+        return pageQuery(Criteria.where("confirm").is(true), afterId, limit);
+    }
+
+    static Query unconfirmedAfterPageQuery(LocalDateTime after, String afterId, int limit) {
+        return pageQuery(Criteria.where("confirm").is(false).and("startTime").gt(after), afterId, limit);
+    }
+
+    private static Query pageQuery(Criteria criteria, String afterId, int limit) {
+        if (afterId != null) {
+            criteria.and("_id").gt(afterId);
+        }
+        return new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+    }
+}
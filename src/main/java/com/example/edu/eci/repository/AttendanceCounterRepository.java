@@ -0,0 +1,9 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.AttendanceCounter;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AttendanceCounterRepository extends MongoRepository<AttendanceCounter, String>, AttendanceCounterRepositoryCustom {
+}
@@ -0,0 +1,35 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AttendanceCounterRepositoryCustom {
+
+    /**
+     * Suma una asistencia confirmada al contador del usuario en la clase y, si {@code date} no es
+     * null, al del mes correspondiente. Ambos upserts van en un solo bulk write.
+     */
+    void increment(String userId, String classId, LocalDate date);
+
+    /**
+     * Como {@link #increment(String, String, LocalDate)} para cada asistencia, con todos los
+     * upserts en un solo bulk write.
+     */
+    void incrementAll(List<Assistance> confirmed);
+
+    /**
+     * Resta de sus contadores las asistencias confirmadas que se van a borrar, p. ej. al cancelar
+     * una inscripción, y elimina los contadores que quedan en cero. Todo va en un solo bulk write.
+     */
+    void decrementAll(List<Assistance> removed);
+
+    /**
+     * Recalcula todos los contadores desde las asistencias confirmadas con agregaciones que
+     * escriben directamente en la colección ($merge) y elimina los contadores que ya no
+     * corresponden a ninguna asistencia. Un contador que cambió mientras se reconstruía se deja
+     * como está, para no perder ese cambio.
+     */
+    void rebuild();
+}
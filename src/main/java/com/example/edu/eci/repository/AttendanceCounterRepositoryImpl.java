@@ -0,0 +1,155 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.AttendanceCounter;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class AttendanceCounterRepositoryImpl implements AttendanceCounterRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(String userId, String classId, LocalDate date) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceCounter.class);
+        addIncrements(bulk, new Date(), userId, classId, date);
+        bulk.execute();
+    }
+
+    @Override
+    public void incrementAll(List<Assistance> confirmed) {
+        if (confirmed == null || confirmed.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceCounter.class);
+        confirmed.forEach(assistance -> addIncrements(bulk, now,
+                assistance.getUserId(), assistance.getClassId(), assistance.getStartTime()));
+        bulk.execute();
+    }
+
+    @Override
+    public void decrementAll(List<Assistance> removed) {
+        if (removed == null || removed.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        // Ordenado: los contadores en cero se borran después de restarles
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AttendanceCounter.class);
+        List<String> counterIds = counterIds(removed);
+        counterIds.forEach(id -> bulk.updateOne(byId(id), decrement(now)));
+        bulk.remove(emptyCounters(counterIds));
+        bulk.execute();
+    }
+
+    private static void addIncrements(BulkOperations bulk, Date now, String userId, String classId, LocalDate date) {
+        bulk.upsert(byId(AttendanceCounter.byClassId(userId, classId)), classIncrement(userId, classId, now));
+        if (date != null) {
+            YearMonth month = YearMonth.from(date);
+            bulk.upsert(byId(AttendanceCounter.byMonthId(userId, month)), monthIncrement(userId, month, now));
+        }
+    }
+
+    /* Upserts compartidos con ReactiveAttendanceCounterRepositoryImpl. */
+
+    static Update classIncrement(String userId, String classId, Date now) {
+        return new Update()
+                .inc("count", 1)
+                .set("updatedAt", now)
+                .setOnInsert("userId", userId)
+                .setOnInsert("classId", classId);
+    }
+
+    static Update monthIncrement(String userId, YearMonth month, Date now) {
+        return new Update()
+                .inc("count", 1)
+                .set("updatedAt", now)
+                .setOnInsert("userId", userId)
+                .setOnInsert("month", month.toString());
+    }
+
+    /** Un id por contador a restar; se repite si varias asistencias caen en el mismo. */
+    static List<String> counterIds(List<Assistance> assistances) {
+        List<String> ids = new ArrayList<>();
+        assistances.forEach(assistance -> {
+            ids.add(AttendanceCounter.byClassId(assistance.getUserId(), assistance.getClassId()));
+            if (assistance.getStartTime() != null) {
+                ids.add(AttendanceCounter.byMonthId(assistance.getUserId(), YearMonth.from(assistance.getStartTime())));
+            }
+        });
+        return ids;
+    }
+
+    static Update decrement(Date now) {
+        return new Update()
+                .inc("count", -1)
+                .set("updatedAt", now);
+    }
+
+    static Query emptyCounters(List<String> ids) {
+        return new Query(Criteria.where("_id").in(ids).and("count").lte(0));
+    }
+
+    @Override
+    public void rebuild() {
+        Date rebuiltAt = new Date();
+        String assistances = mongoTemplate.getCollectionName(Assistance.class);
+        String counters = mongoTemplate.getCollectionName(AttendanceCounter.class);
+        // Un contador con updatedAt posterior a rebuiltAt se incrementó o decrementó durante la
+        // reconstrucción: reemplazarlo borraría ese cambio, así que se conserva.
+        Document merge = new Document("$merge", new Document("into", counters)
+                .append("whenMatched", List.of(new Document("$replaceWith", new Document("$cond", List.of(
+                        new Document("$lt", List.of("$updatedAt", rebuiltAt)), "$$new", "$$ROOT")))))
+                .append("whenNotMatched", "insert"));
+
+        mongoTemplate.getCollection(assistances).aggregate(List.of(
+                new Document("$match", new Document("confirm", true)
+                        .append("userId", new Document("$type", "string"))
+                        .append("classId", new Document("$type", "string"))),
+                new Document("$group", new Document("_id", new Document("userId", "$userId").append("classId", "$classId"))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$project", new Document("_id", new Document("$concat", List.of("class:", "$_id.userId", ":", "$_id.classId")))
+                        .append("userId", "$_id.userId")
+                        .append("classId", "$_id.classId")
+                        .append("count", 1)
+                        .append("updatedAt", rebuiltAt)),
+                merge)).toCollection();
+
+        // startTime se guarda como la medianoche local del día, así que el mes se calcula en la zona del servidor.
+        Document month = new Document("$dateToString", new Document("format", "%Y-%m")
+                .append("date", "$startTime")
+                .append("timezone", ZoneId.systemDefault().getId()));
+        mongoTemplate.getCollection(assistances).aggregate(List.of(
+                new Document("$match", new Document("confirm", true)
+                        .append("userId", new Document("$type", "string"))
+                        .append("startTime", new Document("$type", "date"))),
+                new Document("$group", new Document("_id", new Document("userId", "$userId").append("month", month))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$project", new Document("_id", new Document("$concat", List.of("month:", "$_id.userId", ":", "$_id.month")))
+                        .append("userId", "$_id.userId")
+                        .append("month", "$_id.month")
+                        .append("count", 1)
+                        .append("updatedAt", rebuiltAt)),
+                merge)).toCollection();
+
+        // Lo que no se reescribió ni se incrementó durante la reconstrucción ya no tiene asistencias.
+        mongoTemplate.remove(new Query(Criteria.where("updatedAt").lt(rebuiltAt)), AttendanceCounter.class);
+    }
+
+    static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
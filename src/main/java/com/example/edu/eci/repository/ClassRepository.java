@@ -9,9 +9,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface ClassRepository extends MongoRepository<Class, String> {
-    @Query("{ 'sessions': { $elemMatch: { 'day': ?0, 'startTime': { $gte: ?1 }, 'endTime': { $lte: ?2 } } } }")
-    List<Class> findByStartTimeBetween(String day, String startTime, String endTime);
+public interface ClassRepository extends MongoRepository<Class, String>, ClassRepositoryCustom {
     List<Class> findClassByType(String type);
     List<Class> findByEndDateAfterOrEndDateEquals(LocalDate endDate, LocalDate endDate2);
 }
@@ -0,0 +1,21 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Class;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ClassRepositoryCustom {
+
+    /**
+     * Devuelve hasta {@code limit} clases con id mayor a {@code afterId}, ordenadas por id.
+     * Con {@code afterId} null empieza desde el principio.
+     */
+    List<Class> findPage(String afterId, int limit);
+
+    /**
+     * Como {@link #findPage(String, int)}, pero la consulta solo trae los campos {@code fields},
+     * el id y la versión; los demás quedan en null (o en cero) en las clases devueltas.
+     */
+    List<Class> findPage(String afterId, int limit, Collection<String> fields);
+}
@@ -0,0 +1,40 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Class;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public class ClassRepositoryImpl implements ClassRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Class> findPage(String afterId, int limit) {
+        return mongoTemplate.find(pageQuery(afterId, limit, null), Class.class);
+    }
+
+    @Override
+    public List<Class> findPage(String afterId, int limit, Collection<String> fields) {
+        return mongoTemplate.find(pageQuery(afterId, limit, fields), Class.class);
+    }
+
+    static Query pageQuery(String afterId, int limit, Collection<String> fields) {
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        }
+        if (fields != null) {
+            // La versión siempre se trae: de ella salen los ETags
+            fields.forEach(query.fields()::include);
+            query.fields().include("version");
+        }
+        return query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.ClassSeats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClassSeatsRepository extends MongoRepository<ClassSeats, String>, ClassSeatsRepositoryCustom {
+}
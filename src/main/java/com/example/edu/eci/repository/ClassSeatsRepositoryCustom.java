@@ -0,0 +1,18 @@
+package com.example.edu.eci.repository;
+
+public interface ClassSeatsRepositoryCustom {
+
+    /**
+     * Reserva un cupo solo si {@code reserved < maxStudents}, en una única operación atómica.
+     * Una clase sin contador (creada antes de que existieran) recibe uno con sus inscritos
+     * actuales antes de reservar.
+     *
+     * @return true si el cupo quedó reservado, false si la clase está llena.
+     */
+    boolean tryReserve(String classId, int maxStudents);
+
+    /**
+     * Libera un cupo previamente reservado, sin dejar el contador por debajo de cero.
+     */
+    void release(String classId);
+}
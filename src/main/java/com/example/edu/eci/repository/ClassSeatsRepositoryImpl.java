@@ -0,0 +1,66 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.ClassSeats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class ClassSeatsRepositoryImpl implements ClassSeatsRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean tryReserve(String classId, int maxStudents) {
+        if (maxStudents <= 0) {
+            return false;
+        }
+        Query query = reserveQuery(classId, maxStudents);
+        Update update = new Update().inc("reserved", 1);
+        if (mongoTemplate.updateFirst(query, update, ClassSeats.class).getModifiedCount() == 1) {
+            return true;
+        }
+        if (mongoTemplate.exists(seatsQuery(classId), ClassSeats.class)) {
+            return false; // Llena
+        }
+        // Clase creada antes de los contadores: se crea el suyo con los inscritos que ya tiene
+        seed(classId);
+        return mongoTemplate.updateFirst(query, update, ClassSeats.class).getModifiedCount() == 1;
+    }
+
+    private void seed(String classId) {
+        int enrolled = mongoTemplate.findDistinct(enrolledQuery(classId), "userId", Assistance.class, String.class).size();
+        try {
+            mongoTemplate.insert(new ClassSeats(classId, enrolled));
+        } catch (DuplicateKeyException e) {
+            // Otro request lo creó al mismo tiempo con la misma cuenta
+        }
+    }
+
+    @Override
+    public void release(String classId) {
+        mongoTemplate.updateFirst(releaseQuery(classId), new Update().inc("reserved", -1), ClassSeats.class);
+    }
+
+    /* Compartidas con ReactiveClassSeatsRepositoryImpl. */
+
+    static Query reserveQuery(String classId, int maxStudents) {
+        return new Query(Criteria.where("_id").is(classId).and("reserved").lt(maxStudents));
+    }
+
+    static Query seatsQuery(String classId) {
+        return new Query(Criteria.where("_id").is(classId));
+    }
+
+    static Query enrolledQuery(String classId) {
+        return new Query(Criteria.where("classId").is(classId));
+    }
+
+    static Query releaseQuery(String classId) {
+        return new Query(Criteria.where("_id").is(classId).and("reserved").gt(0));
+    }
+}
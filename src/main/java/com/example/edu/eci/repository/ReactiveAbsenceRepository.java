@@ -0,0 +1,14 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Absence;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAbsenceRepository extends ReactiveMongoRepository<Absence, String> {
+    Mono<Void> deleteByUserIdAndClassId(String userId, String classId);
+    // Páginas por keyset, como AbsenceRepository.findPage
+    Flux<Absence> findAllByOrderByIdAsc(Limit limit);
+    Flux<Absence> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+}
@@ -0,0 +1,32 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Variante reactiva de {@link AssistanceRepository} para el modo de ejecución reactivo. Las
+ * consultas tienen las mismas formas que las de la versión bloqueante, así que las cubren los
+ * mismos índices (ver AssistanceIndexVerifier).
+ */
+public interface ReactiveAssistanceRepository extends ReactiveMongoRepository<Assistance, String>, ReactiveAssistanceRepositoryCustom {
+    Mono<Boolean> existsByUserIdAndClassId(String userId, String classId);
+    Mono<Long> deleteByUserIdAndClassId(String userId, String classId);
+    @Query(value = "{ 'userId': ?0, 'confirm': true, 'startTime': { $gte: ?1, $lte: ?2 } }", count = true)
+    Mono<Long> countConfirmedByUserIdAndStartTimeIn(String userId, LocalDate from, LocalDate to);
+    Mono<Assistance> findByUserIdAndClassIdAndSessionId(String userId, String classId, String sessionId);
+    Flux<Assistance> findByUserIdAndStartTimeAfterAndConfirmIsFalse(String userId, LocalDateTime dateTime);
+    Flux<Assistance> findByUserIdAndConfirmIsTrue(String userId);
+    Flux<Assistance> findByUserIdAndClassIdAndConfirmIsTrue(String userId, String classId);
+    @Query(value = "{ 'classId': ?0, 'userId': { $in: ?1 } }", fields = "{ 'userId': 1 }")
+    Flux<Assistance> findUserIdsByClassIdAndUserIdIn(String classId, List<String> userIds);
+    @Meta(cursorBatchSize = 500)
+    Flux<Assistance> findByConfirmTrue();
+}
@@ -0,0 +1,29 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mismas operaciones que {@link AssistanceRepositoryCustom}, sin bloquear.
+ */
+public interface ReactiveAssistanceRepositoryCustom {
+
+    Mono<Void> insertAll(List<Assistance> assistances);
+
+    /** Vacío si la asistencia ya estaba confirmada o no existe. */
+    Mono<Assistance> confirm(String userId, String classId, String sessionId, String instructorId);
+
+    Flux<Assistance> findRoster(String classId, String sessionId, Collection<String> userIds);
+
+    Mono<Set<String>> confirmAll(Collection<String> ids, String instructorId);
+
+    Flux<Assistance> findConfirmedPage(String afterId, int limit);
+
+    Flux<Assistance> findUnconfirmedAfterPage(LocalDateTime after, String afterId, int limit);
+}
@@ -0,0 +1,74 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ReactiveAssistanceRepositoryImpl implements ReactiveAssistanceRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> insertAll(List<Assistance> assistances) {
+        if (assistances == null || assistances.isEmpty()) {
+            return Mono.empty();
+        }
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Assistance.class)
+                .insert(assistances)
+                .execute()
+                .then();
+    }
+
+    @Override
+    public Mono<Assistance> confirm(String userId, String classId, String sessionId, String instructorId) {
+        return mongoTemplate.findAndModify(AssistanceRepositoryImpl.unconfirmedQuery(userId, classId, sessionId),
+                AssistanceRepositoryImpl.confirmation(instructorId), Assistance.class);
+    }
+
+    @Override
+    public Flux<Assistance> findRoster(String classId, String sessionId, Collection<String> userIds) {
+        return mongoTemplate.find(AssistanceRepositoryImpl.rosterQuery(classId, sessionId, userIds), Assistance.class);
+    }
+
+    @Override
+    public Mono<Set<String>> confirmAll(Collection<String> ids, String instructorId) {
+        if (ids == null || ids.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        String batchId = new ObjectId().toHexString();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Assistance.class);
+        ids.forEach(id -> bulk.updateOne(AssistanceRepositoryImpl.unconfirmedByIdQuery(id),
+                AssistanceRepositoryImpl.confirmation(instructorId).set("confirmBatchId", batchId)));
+        return bulk.execute().flatMap(result -> result.getModifiedCount() == ids.size()
+                        ? Mono.just(new LinkedHashSet<>(ids))
+                        : mongoTemplate.find(AssistanceRepositoryImpl.batchQuery(ids, batchId), Assistance.class)
+                                .map(Assistance::getId)
+                                .collect(Collectors.toCollection(LinkedHashSet::new)))
+                .flatMap(confirmed -> mongoTemplate.updateMulti(AssistanceRepositoryImpl.batchQuery(ids, batchId),
+                                AssistanceRepositoryImpl.clearBatch(), Assistance.class)
+                        .thenReturn(confirmed));
+    }
+
+    @Override
+    public Flux<Assistance> findConfirmedPage(String afterId, int limit) {
+        return mongoTemplate.find(AssistanceRepositoryImpl.confirmedPageQuery(afterId, limit), Assistance.class);
+    }
+
+    @Override
+    public Flux<Assistance> findUnconfirmedAfterPage(LocalDateTime after, String afterId, int limit) {
+        return mongoTemplate.find(AssistanceRepositoryImpl.unconfirmedAfterPageQuery(after, afterId, limit), Assistance.class);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.AttendanceCounter;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveAttendanceCounterRepository extends ReactiveMongoRepository<AttendanceCounter, String>, ReactiveAttendanceCounterRepositoryCustom {
+}
@@ -0,0 +1,20 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Mismos incrementos y decrementos que {@link AttendanceCounterRepositoryCustom}, sin bloquear. La
+ * reconstrucción sigue siendo del job bloqueante.
+ */
+public interface ReactiveAttendanceCounterRepositoryCustom {
+
+    Mono<Void> increment(String userId, String classId, LocalDate date);
+
+    Mono<Void> incrementAll(List<Assistance> confirmed);
+
+    Mono<Void> decrementAll(List<Assistance> removed);
+}
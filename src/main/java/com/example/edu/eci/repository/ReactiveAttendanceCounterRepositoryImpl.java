@@ -0,0 +1,62 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.AttendanceCounter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Date;
+import java.util.List;
+
+public class ReactiveAttendanceCounterRepositoryImpl implements ReactiveAttendanceCounterRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Void> increment(String userId, String classId, LocalDate date) {
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceCounter.class);
+        addIncrements(bulk, new Date(), userId, classId, date);
+        return bulk.execute().then();
+    }
+
+    @Override
+    public Mono<Void> incrementAll(List<Assistance> confirmed) {
+        if (confirmed == null || confirmed.isEmpty()) {
+            return Mono.empty();
+        }
+        Date now = new Date();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceCounter.class);
+        confirmed.forEach(assistance -> addIncrements(bulk, now,
+                assistance.getUserId(), assistance.getClassId(), assistance.getStartTime()));
+        return bulk.execute().then();
+    }
+
+    @Override
+    public Mono<Void> decrementAll(List<Assistance> removed) {
+        if (removed == null || removed.isEmpty()) {
+            return Mono.empty();
+        }
+        Date now = new Date();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AttendanceCounter.class);
+        List<String> counterIds = AttendanceCounterRepositoryImpl.counterIds(removed);
+        counterIds.forEach(id -> bulk.updateOne(AttendanceCounterRepositoryImpl.byId(id), AttendanceCounterRepositoryImpl.decrement(now)));
+        bulk.remove(AttendanceCounterRepositoryImpl.emptyCounters(counterIds));
+        return bulk.execute().then();
+    }
+
+    private static void addIncrements(ReactiveBulkOperations bulk, Date now, String userId, String classId, LocalDate date) {
+        bulk.upsert(AttendanceCounterRepositoryImpl.byId(AttendanceCounter.byClassId(userId, classId)),
+                AttendanceCounterRepositoryImpl.classIncrement(userId, classId, now));
+        if (date != null) {
+            YearMonth month = YearMonth.from(date);
+            bulk.upsert(AttendanceCounterRepositoryImpl.byId(AttendanceCounter.byMonthId(userId, month)),
+                    AttendanceCounterRepositoryImpl.monthIncrement(userId, month, now));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Class;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Variante reactiva de {@link ClassRepository} para el modo de ejecución reactivo.
+ */
+public interface ReactiveClassRepository extends ReactiveMongoRepository<Class, String>, ReactiveClassRepositoryCustom {
+    Flux<Class> findClassByType(String type);
+    // Páginas por keyset, como ClassRepository.findPage
+    Flux<Class> findAllByOrderByIdAsc(Limit limit);
+    Flux<Class> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+}
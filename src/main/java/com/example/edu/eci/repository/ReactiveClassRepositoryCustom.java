@@ -0,0 +1,14 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Class;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public interface ReactiveClassRepositoryCustom {
+
+    /**
+     * Igual que {@link ClassRepositoryCustom#findPage(String, int, Collection)}.
+     */
+    Flux<Class> findPage(String afterId, int limit, Collection<String> fields);
+}
@@ -0,0 +1,19 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Class;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+public class ReactiveClassRepositoryImpl implements ReactiveClassRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<Class> findPage(String afterId, int limit, Collection<String> fields) {
+        return mongoTemplate.find(ClassRepositoryImpl.pageQuery(afterId, limit, fields), Class.class);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.ClassSeats;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveClassSeatsRepository extends ReactiveMongoRepository<ClassSeats, String>, ReactiveClassSeatsRepositoryCustom {
+}
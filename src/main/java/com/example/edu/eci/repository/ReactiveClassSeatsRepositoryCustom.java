@@ -0,0 +1,13 @@
+package com.example.edu.eci.repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Mismas operaciones atómicas que {@link ClassSeatsRepositoryCustom}, sin bloquear.
+ */
+public interface ReactiveClassSeatsRepositoryCustom {
+
+    Mono<Boolean> tryReserve(String classId, int maxStudents);
+
+    Mono<Void> release(String classId);
+}
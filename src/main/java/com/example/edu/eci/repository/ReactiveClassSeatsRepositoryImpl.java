@@ -0,0 +1,45 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.ClassSeats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+public class ReactiveClassSeatsRepositoryImpl implements ReactiveClassSeatsRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Boolean> tryReserve(String classId, int maxStudents) {
+        if (maxStudents <= 0) {
+            return Mono.just(false);
+        }
+        Query query = ClassSeatsRepositoryImpl.reserveQuery(classId, maxStudents);
+        Update update = new Update().inc("reserved", 1);
+        Mono<Boolean> reserve = Mono.defer(() -> mongoTemplate.updateFirst(query, update, ClassSeats.class))
+                .map(result -> result.getModifiedCount() == 1);
+        // Igual que ClassSeatsRepositoryImpl: sin contador se crea con los inscritos actuales
+        return reserve.flatMap(reserved -> reserved ? Mono.just(true)
+                : mongoTemplate.exists(ClassSeatsRepositoryImpl.seatsQuery(classId), ClassSeats.class)
+                        .flatMap(exists -> exists ? Mono.just(false) : seed(classId).then(reserve)));
+    }
+
+    private Mono<Void> seed(String classId) {
+        return mongoTemplate.findDistinct(ClassSeatsRepositoryImpl.enrolledQuery(classId), "userId", Assistance.class, String.class)
+                .count()
+                .flatMap(enrolled -> mongoTemplate.insert(new ClassSeats(classId, enrolled.intValue())))
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.empty())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> release(String classId) {
+        return mongoTemplate.updateFirst(ClassSeatsRepositoryImpl.releaseQuery(classId),
+                new Update().inc("reserved", -1), ClassSeats.class).then();
+    }
+}
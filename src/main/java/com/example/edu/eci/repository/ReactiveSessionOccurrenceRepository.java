@@ -0,0 +1,11 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.SessionOccurrence;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveSessionOccurrenceRepository extends ReactiveMongoRepository<SessionOccurrence, String> {
+    Flux<SessionOccurrence> findByClassIdOrderByStartTimeAsc(String classId);
+    Mono<Void> deleteByClassId(String classId);
+}
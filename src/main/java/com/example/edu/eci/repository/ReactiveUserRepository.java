@@ -0,0 +1,10 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.User;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * Variante reactiva de {@link UserRepository} para el modo de ejecución reactivo.
+ */
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+}
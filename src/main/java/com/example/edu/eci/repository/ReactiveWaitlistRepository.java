@@ -0,0 +1,19 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.WaitlistEntry;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface ReactiveWaitlistRepository extends ReactiveMongoRepository<WaitlistEntry, String>, ReactiveWaitlistRepositoryCustom {
+    Mono<WaitlistEntry> findByClassIdAndUserId(String classId, String userId);
+
+    Mono<Long> countByClassIdAndRequestedAtLessThan(String classId, LocalDateTime requestedAt);
+
+    Mono<Long> deleteByClassIdAndUserId(String classId, String userId);
+
+    Mono<Long> deleteByClassIdAndUserIdAndPromotingAtIsNull(String classId, String userId);
+
+    Mono<Void> deleteByClassId(String classId);
+}
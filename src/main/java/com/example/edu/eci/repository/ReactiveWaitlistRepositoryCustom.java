@@ -0,0 +1,15 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.WaitlistEntry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mismas operaciones atómicas que {@link WaitlistRepositoryCustom}, sin bloquear. Las promociones
+ * interrumpidas las termina el job de recuperación con el repositorio bloqueante.
+ */
+public interface ReactiveWaitlistRepositoryCustom {
+
+    Mono<WaitlistEntry> claimFirst(String classId);
+
+    Mono<Void> unclaim(String id);
+}
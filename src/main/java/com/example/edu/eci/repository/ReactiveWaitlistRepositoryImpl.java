@@ -0,0 +1,24 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.WaitlistEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Mono;
+
+public class ReactiveWaitlistRepositoryImpl implements ReactiveWaitlistRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<WaitlistEntry> claimFirst(String classId) {
+        return mongoTemplate.findAndModify(WaitlistRepositoryImpl.claimFirstQuery(classId), WaitlistRepositoryImpl.claim(),
+                FindAndModifyOptions.options().returnNew(true), WaitlistEntry.class);
+    }
+
+    @Override
+    public Mono<Void> unclaim(String id) {
+        return mongoTemplate.updateFirst(WaitlistRepositoryImpl.byId(id), WaitlistRepositoryImpl.unclaim(), WaitlistEntry.class).then();
+    }
+}
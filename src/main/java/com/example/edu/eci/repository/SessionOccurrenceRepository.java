@@ -0,0 +1,13 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.SessionOccurrence;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SessionOccurrenceRepository extends MongoRepository<SessionOccurrence, String> {
+    List<SessionOccurrence> findByClassIdOrderByStartTimeAsc(String classId);
+    void deleteByClassId(String classId);
+}
@@ -0,0 +1,19 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.WaitlistEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface WaitlistRepository extends MongoRepository<WaitlistEntry, String>, WaitlistRepositoryCustom {
+    Optional<WaitlistEntry> findByClassIdAndUserId(String classId, String userId);
+
+    long countByClassIdAndRequestedAtLessThan(String classId, LocalDateTime requestedAt);
+
+    long deleteByClassIdAndUserId(String classId, String userId);
+
+    long deleteByClassIdAndUserIdAndPromotingAtIsNull(String classId, String userId);
+
+    void deleteByClassId(String classId);
+}
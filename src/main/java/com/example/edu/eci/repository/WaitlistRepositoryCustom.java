@@ -0,0 +1,28 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.WaitlistEntry;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface WaitlistRepositoryCustom {
+
+    /**
+     * Marca para promoción al usuario que lleva más tiempo esperando en la clase, en una sola
+     * operación atómica (findAndModify): dos cancelaciones simultáneas nunca promueven al mismo
+     * usuario. La entrada sigue en la colección hasta que la promoción termina
+     * ({@code deleteById}) o se deshace ({@link #unclaim}).
+     */
+    Optional<WaitlistEntry> claimFirst(String classId);
+
+    /**
+     * Vuelve a marcar y devuelve una promoción que empezó antes de {@code startedBefore} y no
+     * terminó.
+     */
+    Optional<WaitlistEntry> claimStale(LocalDateTime startedBefore);
+
+    /**
+     * Devuelve la entrada a la lista, en su posición original.
+     */
+    void unclaim(String id);
+}
@@ -0,0 +1,59 @@
+package com.example.edu.eci.repository;
+
+import com.example.edu.eci.model.WaitlistEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public class WaitlistRepositoryImpl implements WaitlistRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<WaitlistEntry> claimFirst(String classId) {
+        return claim(claimFirstQuery(classId));
+    }
+
+    @Override
+    public Optional<WaitlistEntry> claimStale(LocalDateTime startedBefore) {
+        return claim(new Query(Criteria.where("promotingAt").lt(startedBefore)));
+    }
+
+    @Override
+    public void unclaim(String id) {
+        mongoTemplate.updateFirst(byId(id), unclaim(), WaitlistEntry.class);
+    }
+
+    private Optional<WaitlistEntry> claim(Query query) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, claim(),
+                FindAndModifyOptions.options().returnNew(true), WaitlistEntry.class));
+    }
+
+    /* Compartidas con ReactiveWaitlistRepositoryImpl. */
+
+    static Query claimFirstQuery(String classId) {
+        // Mismo orden que el índice class_order: el primero se lee sin ordenar en memoria
+        return new Query(Criteria.where("classId").is(classId).and("promotingAt").is(null))
+                .with(Sort.by("requestedAt", "_id"));
+    }
+
+    static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    static Update claim() {
+        return new Update().set("promotingAt", LocalDateTime.now());
+    }
+
+    static Update unclaim() {
+        return new Update().unset("promotingAt");
+    }
+}
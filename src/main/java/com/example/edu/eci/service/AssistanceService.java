@@ -1,57 +1,162 @@
 package com.example.edu.eci.service;
 
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Absence;
 import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.AttendanceCounter;
 import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
 import com.example.edu.eci.model.User;
+import com.example.edu.eci.model.enums.ConfirmationStatus;
+import com.example.edu.eci.repository.AbsenceRepository;
 import com.example.edu.eci.repository.AssistanceRepository;
-import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.AttendanceCounterRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
 import com.example.edu.eci.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class AssistanceService {
 
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     @Autowired
     private AssistanceRepository assistanceRepository;
 
     @Autowired
-    private ClassRepository classRepository;
+    private ClassService classService;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ClassSeatsRepository classSeatsRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AttendanceCounterRepository attendanceCounterRepository;
+
+    @Autowired
+    private AbsenceRepository absenceRepository;
+
     public void confirmAssistance(String userId, String classId, String sessionId, String instructorId) {
-        Optional<Assistance> assistanceOpt = assistanceRepository.findByUserIdAndClassIdAndSessionId(userId, classId, sessionId);
+        // Un solo findAndModify condicional: dos confirmaciones concurrentes no pueden pasar ambas.
+        Optional<Assistance> confirmed = assistanceRepository.confirm(userId, classId, sessionId, instructorId);
 
-        if (assistanceOpt.isEmpty()) {
-            throw new IllegalArgumentException("No existe inscripción para esta sesión");
+        if (confirmed.isEmpty()) {
+            // Solo cuando no se confirmó hace falta saber por qué.
+            if (assistanceRepository.findByUserIdAndClassIdAndSessionId(userId, classId, sessionId).isEmpty()) {
+                throw new IllegalArgumentException("No existe inscripción para esta sesión");
+            }
+            throw new IllegalStateException("Asistencia ya confirmada para esta sesión");
         }
 
-        Assistance assistance = assistanceOpt.get();
+        Assistance assistance = confirmed.get();
+        attendanceCounterRepository.increment(userId, classId, assistance.getStartTime());
+        if (assistance.getStartTime() == null || !assistance.getStartTime().isAfter(LocalDate.now())) {
+            // La sesión pudo haberse registrado ya como inasistencia.
+            absenceRepository.deleteById(assistance.getId());
+        }
+    }
 
-        if (assistance.isConfirm()) {
-            throw new IllegalStateException("Asistencia ya confirmada para esta sesión");
+    /**
+     * Confirma de una vez la asistencia de varios usuarios a una sesión. Lee solo el estado de la
+     * lista (una consulta proyectada), confirma las pendientes en un único bulk write condicional y
+     * suma los contadores de las que efectivamente confirmó en otro.
+     *
+     * @return el resultado por usuario, en el orden recibido
+     */
+    public Map<String, ConfirmationStatus> confirmSession(String classId, String sessionId, List<String> userIds, String instructorId) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new IllegalArgumentException("La lista de usuarios no puede estar vacía");
         }
+        Map<String, Assistance> roster = new HashMap<>();
+        for (Assistance assistance : assistanceRepository.findRoster(classId, sessionId, new LinkedHashSet<>(userIds))) {
+            assistance.setClassId(classId);
+            roster.put(assistance.getUserId(), assistance);
+        }
+
+        List<String> pendingIds = roster.values().stream()
+                .filter(assistance -> !assistance.isConfirm())
+                .map(Assistance::getId)
+                .toList();
+        Set<String> confirmedIds = assistanceRepository.confirmAll(pendingIds, instructorId);
 
-        assistance.setConfirm(true);
-        assistance.setInstructorId(instructorId);
-        assistanceRepository.save(assistance);
+        Map<String, ConfirmationStatus> results = new LinkedHashMap<>();
+        List<Assistance> confirmed = new ArrayList<>();
+        for (String userId : userIds) {
+            if (results.containsKey(userId)) {
+                continue;
+            }
+            Assistance assistance = roster.get(userId);
+            if (assistance == null) {
+                results.put(userId, ConfirmationStatus.NOT_ENROLLED);
+            } else if (confirmedIds.contains(assistance.getId())) {
+                results.put(userId, ConfirmationStatus.CONFIRMED);
+                confirmed.add(assistance);
+            } else {
+                results.put(userId, ConfirmationStatus.ALREADY_CONFIRMED);
+            }
+        }
+        attendanceCounterRepository.incrementAll(confirmed);
+        if (!confirmedIds.isEmpty()) {
+            absenceRepository.deleteAllById(confirmedIds);
+        }
+        return results;
     }
 
     public List<Assistance> getAssistancesWithTrue() {
         return assistanceRepository.findByConfirmTrue();
     }
 
+    public CursorPage<Assistance> getConfirmedPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<Assistance> fetched = assistanceRepository.findConfirmedPage(CursorPage.decodeCursor(cursor), pageSize + 1);
+        return CursorPage.of(fetched, pageSize, Assistance::getId);
+    }
+
+    /**
+     * Asistencias confirmadas del usuario entre {@code start} y {@code end}, inclusive. Los meses
+     * completos del rango se leen de los contadores mensuales; solo los meses parciales de los
+     * extremos se cuentan sobre las asistencias.
+     */
     public long countConfirmedAttendances(String userId, LocalDate start, LocalDate end) {
-        long confirmedCount = assistanceRepository.countByUserIdAndConfirmTrueAndStartTimeBetween(
-                userId, start.atStartOfDay(), end.atTime(LocalTime.MAX));
+        long confirmedCount = 0;
+        List<String> fullMonths = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(start); !month.isAfter(YearMonth.from(end)); month = month.plusMonths(1)) {
+            LocalDate from = start.isAfter(month.atDay(1)) ? start : month.atDay(1);
+            LocalDate to = end.isBefore(month.atEndOfMonth()) ? end : month.atEndOfMonth();
+            if (from.equals(month.atDay(1)) && to.equals(month.atEndOfMonth())) {
+                fullMonths.add(AttendanceCounter.byMonthId(userId, month));
+            } else {
+                confirmedCount += assistanceRepository.countConfirmedByUserIdAndStartTimeIn(userId, from, to);
+            }
+        }
+        if (!fullMonths.isEmpty()) {
+            for (AttendanceCounter counter : attendanceCounterRepository.findAllById(fullMonths)) {
+                confirmedCount += counter.getCount();
+            }
+        }
         if (confirmedCount == 0) {
             throw new IllegalStateException("No hay asistencias registradas para este usuario");
         }
@@ -59,20 +164,28 @@ public class AssistanceService {
     }
 
     public long countAttendancesByClass(String userId, String classId) {
-        long confirmedCount = assistanceRepository.countByUserIdAndClassIdAndConfirmTrue(userId, classId);
+        long confirmedCount = attendanceCounterRepository.findById(AttendanceCounter.byClassId(userId, classId))
+                .map(AttendanceCounter::getCount)
+                .orElse(0L);
         if (confirmedCount == 0) {
             throw new IllegalStateException("No hay asistencias registradas");
         }
         return confirmedCount;
     }
 
-    public List<Assistance> getAssistancesWithFalseBefore() {
-        return assistanceRepository.findByConfirmFalseAndStartTimeIsBefore(LocalDateTime.now());
+    /**
+     * Inasistencias ya registradas por {@link com.example.edu.eci.config.AbsenceMarkingJob}; no
+     * recorre las asistencias.
+     */
+    public CursorPage<Absence> getAbsencesPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<Absence> fetched = absenceRepository.findPage(CursorPage.decodeCursor(cursor), pageSize + 1);
+        return CursorPage.of(fetched, pageSize, Absence::getId);
     }
 
     public void completeInscription(String userId, String classId) {
         Optional<User> userOpt = userRepository.findById(userId);
-        Optional<Class> classOpt = classRepository.findById(classId);
+        Optional<Class> classOpt = classService.getClassById(classId);
 
         if (userOpt.isEmpty() || classOpt.isEmpty()) {
             throw new IllegalArgumentException("Usuario o clase no encontrada");
@@ -85,22 +198,62 @@ public class AssistanceService {
             throw new IllegalStateException("Usuario ya inscrito en esta clase");
         }
 
-        long inscribedCount = assistanceRepository.countByClassId(classId);
-        if (inscribedCount >= clase.getMaxStudents()) {
+        if (!classSeatsRepository.tryReserve(classId, clase.getMaxStudents())) {
             throw new IllegalStateException("Capacidad máxima alcanzada");
         }
 
-        for (Class.Session session : clase.getSessions()) {
+        List<Assistance> assistances = new ArrayList<>();
+        for (SessionOccurrence session : classService.getSessions(classId)) {
             Assistance assistance = new Assistance();
             assistance.setUserId(userId);
             assistance.setClassId(classId);
             assistance.setSessionId(session.getId());
-            assistance.setStartTime(LocalDate.now());
+            assistance.setStartTime(session.getStartTime().toLocalDate());
             assistance.setConfirm(false);
-            assistanceRepository.save(assistance);
+            assistances.add(assistance);
+        }
+
+        try {
+            assistanceRepository.insertAll(assistances);
+        } catch (RuntimeException e) {
+            // El bulk write es desordenado: parte de las asistencias pudo quedar guardada
+            try {
+                assistanceRepository.deleteByUserIdAndClassId(userId, classId);
+                classSeatsRepository.release(classId);
+            } catch (RuntimeException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            throw e;
         }
     }
     public List<Assistance> findAssistancesHistoricByUser(String userId) {
         return assistanceRepository.findByUserIdAndConfirmIsTrue(userId);
     }
+
+    /**
+     * Escribe las asistencias confirmadas (todas, o solo las de {@code userId} si no es null) como
+     * NDJSON, leyéndolas de un cursor de Mongo sin cargarlas en memoria. Si el cliente se desconecta,
+     * la escritura falla con IOException y el cursor se cierra.
+     *
+     * @return cantidad de asistencias escritas.
+     */
+    public long exportConfirmed(String userId, OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<Assistance> assistances = userId == null
+                ? assistanceRepository.streamByConfirmTrue()
+                : assistanceRepository.streamByUserIdAndConfirmIsTrue(userId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            Iterator<Assistance> iterator = assistances.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return written;
+    }
 }
@@ -0,0 +1,155 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.repository.ClassRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Catálogo de clases ya serializado: el JSON de la lista completa de clases y su versión en
+ * gzip, como arreglos de bytes que no cambian. Leer el catálogo no pasa por Jackson ni por la
+ * base de datos; la respuesta es escribir uno de los dos arreglos.
+ *
+ * <p>Se arma en la primera lectura. Cada {@link ClassChangedEvent} programa una reconstrucción en
+ * un hilo aparte; mientras tanto se sigue sirviendo el catálogo anterior, y varios cambios
+ * seguidos se juntan en una sola reconstrucción. También se reconstruye periódicamente para
+ * recoger cambios de otras instancias.
+ *
+ * <p>Lee las clases del repositorio y no de {@link ClassService#getAllClasses}: el evento se
+ * publica antes de que se invalide la caché del catálogo, así que esa caché podría devolver la
+ * lista anterior al cambio.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    /**
+     * Un catálogo armado. {@code etag} identifica el contenido en JSON plano.
+     */
+    public record Snapshot(byte[] json, byte[] gzip, String etag, int classCount) {
+
+        /** ETag de la versión en gzip: es otra representación, así que lleva otro ETag. */
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+
+    @Autowired
+    private ClassRepository classRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuilder =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("catalog-snapshot-"));
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * El catálogo vigente; lo arma si aún no existe.
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            return snapshot != null ? snapshot : rebuild();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onClassChanged(ClassChangedEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Reconstruye el catálogo desde la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${extraclasses.catalog-snapshot.refresh-interval:PT5M}",
+            initialDelayString = "${extraclasses.catalog-snapshot.refresh-interval:PT5M}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    private void requestRebuild() {
+        if (snapshot == null) {
+            return; // Aún no se ha armado; la primera lectura lo hará
+        }
+        // Si ya hay una reconstrucción en espera, esa recogerá también este cambio
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildPending.set(false);
+                lock.lock();
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo reconstruir el catálogo; se sigue sirviendo el anterior", e);
+                } finally {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+
+    private Snapshot rebuild() {
+        List<Class> classes = classRepository.findAll();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(classes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo", e);
+        }
+        Snapshot built = new Snapshot(json, gzip(json), "\"" + DigestUtils.md5DigestAsHex(json) + "\"", classes.size());
+        snapshot = built;
+        log.debug("Catálogo armado: {} clases, {} bytes, {} bytes en gzip",
+                built.classCount(), json.length, built.gzip().length);
+        return built;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        // Se comprime una vez por cambio y se sirve miles de veces: vale la pena el nivel máximo
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+}
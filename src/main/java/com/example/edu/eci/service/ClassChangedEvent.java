@@ -0,0 +1,12 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.model.Class;
+
+/**
+ * Publicado por {@link ClassService} cuando se crea, actualiza o elimina una clase.
+ *
+ * @param classId id de la clase.
+ * @param clase   estado nuevo de la clase, o null si fue eliminada.
+ */
+public record ClassChangedEvent(String classId, Class clase) {
+}
@@ -1,16 +1,33 @@
 package com.example.edu.eci.service;
 
+import com.example.edu.eci.config.CacheConfig;
+import com.example.edu.eci.dto.ClassSummary;
+import com.example.edu.eci.dto.CursorPage;
 import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.ClassSeats;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.model.enums.Repetition;
 import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
+import com.example.edu.eci.repository.SessionOccurrenceRepository;
+import com.example.edu.eci.repository.WaitlistRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ClassService {
@@ -18,29 +35,188 @@ public class ClassService {
     @Autowired
     private ClassRepository classRepository;
 
+    @Autowired
+    private ClassSeatsRepository classSeatsRepository;
+
+    @Autowired
+    private SessionOccurrenceRepository sessionOccurrenceRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final Map<String, DayOfWeek> SPANISH_DAYS = Map.of(
+            "LUNES", DayOfWeek.MONDAY,
+            "MARTES", DayOfWeek.TUESDAY,
+            "MIERCOLES", DayOfWeek.WEDNESDAY,
+            "MIÉRCOLES", DayOfWeek.WEDNESDAY,
+            "JUEVES", DayOfWeek.THURSDAY,
+            "VIERNES", DayOfWeek.FRIDAY,
+            "SABADO", DayOfWeek.SATURDAY,
+            "SÁBADO", DayOfWeek.SATURDAY,
+            "DOMINGO", DayOfWeek.SUNDAY
+    );
+
+    // Campos de Class que se pueden pedir con fields=
+    private static final Set<String> SELECTABLE_FIELDS = Set.of(
+            "id", "name", "maxStudents", "type", "startDate", "endDate", "sessions", "resources",
+            "instructorId", "repetition", "endTimeRepetition", "excludedDates", "version");
+
     public List<Class> getAllClasses() {
         return classRepository.findAll();
     }
 
+    public CursorPage<Class> getClassesPage(String cursor, Integer size) {
+        return getClassesPage(cursor, size, null);
+    }
+
+    /**
+     * Página de clases con solo los campos {@code fields} (ver {@link #parseFields}); los demás no
+     * salen de la base de datos. Con {@code fields} null trae las clases completas.
+     */
+    public CursorPage<Class> getClassesPage(String cursor, Integer size, Set<String> fields) {
+        int pageSize = CursorPage.clampSize(size);
+        String afterId = CursorPage.decodeCursor(cursor);
+        List<Class> fetched = fields == null
+                ? classRepository.findPage(afterId, pageSize + 1)
+                : classRepository.findPage(afterId, pageSize + 1, fields);
+        return CursorPage.of(fetched, pageSize, Class::getId);
+    }
+
+    /**
+     * Página de resúmenes para el listado de clases: una consulta que solo trae
+     * {@link ClassSummary#FIELDS} y otra por los cupos reservados de las clases de la página.
+     */
+    public CursorPage<ClassSummary> getClassSummariesPage(String cursor, Integer size) {
+        CursorPage<Class> page = getClassesPage(cursor, size, ClassSummary.FIELDS);
+        Map<String, Integer> reserved = new HashMap<>();
+        if (!page.getItems().isEmpty()) {
+            classSeatsRepository.findAllById(page.getItems().stream().map(Class::getId).toList())
+                    .forEach(seats -> reserved.put(seats.getClassId(), seats.getReserved()));
+        }
+        return new CursorPage<>(page.getItems().stream()
+                .map(clase -> ClassSummary.of(clase, reserved.getOrDefault(clase.getId(), 0)))
+                .toList(), page.getNextCursor());
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CLASSES_CACHE, key = "#id")
     public Optional<Class> getClassById(String id) {
         return classRepository.findById(id);
     }
 
+    /**
+     * Ocurrencias de las sesiones de la clase, ordenadas por fecha de inicio. Las clases creadas
+     * antes de la colección de ocurrencias aún guardan sus sesiones expandidas en el documento;
+     * en ese caso se usan esas sesiones.
+     */
+    @Cacheable(cacheNames = CacheConfig.CLASS_SESSIONS_CACHE, key = "#classId")
+    public List<SessionOccurrence> getSessions(String classId) {
+        List<SessionOccurrence> occurrences = sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(classId);
+        if (!occurrences.isEmpty()) {
+            return occurrences;
+        }
+        return classRepository.findById(classId)
+                .filter(clase -> clase.getSessions() != null)
+                .map(clase -> clase.getSessions().stream()
+                        .map(session -> {
+                            SessionOccurrence occurrence = toOccurrence(classId, session);
+                            occurrence.setId(session.getId());
+                            return occurrence;
+                        })
+                        .toList())
+                .orElse(List.of());
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CLASSES_CACHE, key = "#result.id"),
+            @CacheEvict(cacheNames = CacheConfig.CLASS_SESSIONS_CACHE, key = "#result.id")
+    })
     public Class createClass(Class newClass) {
+        Repetition.from(newClass.getRepetition());
+        newClass.setSessions(SessionRecurrence.templates(newClass));
         Class savedClass = classRepository.save(newClass);
-        if (newClass.getSessions() != null && !newClass.getSessions().isEmpty()) {
-            List<Class.Session> repeatedSessions = generateRepeatedSessions(newClass);
-            savedClass.getSessions().addAll(repeatedSessions);
-            classRepository.save(savedClass);
+        classSeatsRepository.save(new ClassSeats(savedClass.getId(), 0));
+        List<SessionOccurrence> occurrences = occurrencesOf(savedClass);
+        if (!occurrences.isEmpty()) {
+            sessionOccurrenceRepository.insert(occurrences);
         }
-
+        eventPublisher.publishEvent(new ClassChangedEvent(savedClass.getId(), savedClass));
         return savedClass;
     }
 
-    public Optional<Class> updateClass(String id, Class updatedClass) {
-        if (classRepository.existsById(id)) {
+    /**
+     * Ocurrencias de la clase, cada plantilla más sus repeticiones, que se guardan como documentos
+     * propios. El documento de la clase conserva solo las plantillas.
+     */
+    static List<SessionOccurrence> occurrencesOf(Class clase) {
+        if (clase.getSessions() == null || clase.getSessions().isEmpty()) {
+            return List.of();
+        }
+        return OccurrenceChanges.unique(SessionRecurrence.occurrences(clase, null, null)
+                .map(session -> toOccurrence(clase.getId(), session))
+                .toList());
+    }
+
+    /**
+     * Lleva las ocurrencias guardadas de la clase a las de sus plantillas actuales sin tocar las
+     * que no cambian, para que las asistencias sigan apuntando a ellas.
+     */
+    private void syncOccurrences(Class clase) {
+        OccurrenceChanges changes = OccurrenceChanges.between(
+                sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(clase.getId()), occurrencesOf(clase));
+        if (!changes.toDelete().isEmpty()) {
+            sessionOccurrenceRepository.deleteAllById(changes.toDelete());
+        }
+        if (!changes.toUpdate().isEmpty()) {
+            sessionOccurrenceRepository.saveAll(changes.toUpdate());
+        }
+        if (!changes.toInsert().isEmpty()) {
+            sessionOccurrenceRepository.insert(changes.toInsert());
+        }
+    }
+
+    /**
+     * La ocurrencia de {@code session}, con un id que depende solo de la clase, la plantilla y el
+     * inicio: regenerar las ocurrencias da los mismos ids.
+     */
+    static SessionOccurrence toOccurrence(String classId, Class.Session session) {
+        SessionOccurrence occurrence = new SessionOccurrence(classId + ":" + session.getId() + ":" + session.getStartTime(),
+                classId, session.getId(), session.getStartTime(), session.getEndTime());
+        occurrence.setUpdatedAt(LocalDateTime.now());
+        return occurrence;
+    }
+
+    /**
+     * Reemplaza la clase. Con {@code expectedVersion} (el If-Match del cliente) solo se guarda si
+     * la clase sigue en esa versión; sin él gana la última escritura.
+     *
+     * @throws OptimisticLockingFailureException si la clase cambió desde {@code expectedVersion}.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CLASSES_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.CLASS_SESSIONS_CACHE, key = "#id")
+    })
+    public Optional<Class> updateClass(String id, Class updatedClass, Long expectedVersion) {
+        Optional<Class> current = classRepository.findById(id);
+        if (current.isPresent()) {
+            Repetition.from(updatedClass.getRepetition());
+            Long currentVersion = current.get().getVersion();
+            if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+                throw new OptimisticLockingFailureException("La clase fue modificada (versión " + currentVersion + ")");
+            }
             updatedClass.setId(id);
-            return Optional.of(classRepository.save(updatedClass));
+            updatedClass.setSessions(SessionRecurrence.templates(updatedClass));
+            // save() compara esta versión en el filtro: una escritura concurrente también falla
+            updatedClass.setVersion(expectedVersion != null ? expectedVersion : currentVersion);
+            Class savedClass = classRepository.save(updatedClass);
+            syncOccurrences(savedClass);
+            eventPublisher.publishEvent(new ClassChangedEvent(id, savedClass));
+            return Optional.of(savedClass);
         }
         return Optional.empty();
     }
@@ -49,57 +225,90 @@ public class ClassService {
         return classRepository.findClassByType(type);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CLASSES_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.CLASS_SESSIONS_CACHE, key = "#id")
+    })
     public boolean deleteClass(String id) {
         if (classRepository.existsById(id)) {
             classRepository.deleteById(id);
+            classSeatsRepository.deleteById(id);
+            sessionOccurrenceRepository.deleteByClassId(id);
+            waitlistRepository.deleteByClassId(id);
+            eventPublisher.publishEvent(new ClassChangedEvent(id, null));
             return true;
         }
         return false;
     }
 
+    /**
+     * Clases con alguna sesión el día {@code day} que empiece en o después de {@code startTime} y
+     * termine en o antes de {@code endTime} (fechas ISO, p. ej. 2024-01-01T10:00). Se responde
+     * desde el {@link ScheduleIndex} en memoria, sin consultar la base de datos.
+     */
     public List<Class> getClassesByDateRange(String day, String startTime, String endTime) {
-        return classRepository.findByStartTimeBetween(day, startTime, endTime);
+        return scheduleIndex.find(parseDay(day), LocalDateTime.parse(startTime), LocalDateTime.parse(endTime));
     }
 
-    public List<Class.Session> generateRepeatedSessions(Class baseClass) {
-        List<Class.Session> repeatedSessions = new ArrayList<>();
-
-        if (baseClass == null || baseClass.getSessions() == null || baseClass.getSessions().isEmpty()) {
-            return repeatedSessions;
+    /**
+     * Interpreta el nombre de un día en inglés o español ("Monday", "lunes"); null si no se reconoce.
+     */
+    public static DayOfWeek parseDay(String day) {
+        if (day == null || day.isBlank()) {
+            return null;
         }
-        LocalDate repetitionEndDate = baseClass.getEndDate();
-        if (repetitionEndDate == null) {
-            return repeatedSessions;
+        String normalized = day.trim().toUpperCase(Locale.ROOT);
+        try {
+            return DayOfWeek.valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            return SPANISH_DAYS.get(normalized);
         }
+    }
 
-        Class.Session initialSessionTemplate = baseClass.getSessions().get(0);
-
-        LocalDateTime currentScheduledStartTime = LocalDateTime.parse(initialSessionTemplate.getStartTime());
-        LocalDateTime currentScheduledEndTime = LocalDateTime.parse(initialSessionTemplate.getEndTime());
-
-        ChronoUnit repetitionUnit = ChronoUnit.WEEKS;
-
-        while (true) {
-            LocalDateTime nextStartTime = currentScheduledStartTime.plus(1, repetitionUnit);
-            LocalDateTime nextEndTime = currentScheduledEndTime.plus(1, repetitionUnit);
-
-            if (nextStartTime.toLocalDate().isAfter(repetitionEndDate)) {
-                break;
+    /**
+     * Interpreta el selector {@code fields=}: nombres de campos de {@link Class} separados por coma.
+     * El id siempre se incluye.
+     *
+     * @return los campos pedidos, o null si no se pidió ninguno.
+     * @throws IllegalArgumentException si algún campo no existe en la clase.
+     */
+    public static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
             }
+            if (!SELECTABLE_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Campo desconocido: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
 
-            Class.Session repeatedSession = new Class.Session(
-                    initialSessionTemplate.getId(),
-                    initialSessionTemplate.getDay(),
-                    nextStartTime.toString(),
-                    nextEndTime.toString()
-            );
-            repeatedSessions.add(repeatedSession);
+    /**
+     * Repeticiones de las plantillas de la clase según su regla, sin incluir las plantillas.
+     */
+    public List<Class.Session> generateRepeatedSessions(Class baseClass) {
+        return SessionRecurrence.repetitions(baseClass).toList();
+    }
 
-            currentScheduledStartTime = nextStartTime;
-            currentScheduledEndTime = nextEndTime;
+    /**
+     * Sesiones de la clase que empiezan en {@code [from, to)}, calculadas a partir de sus
+     * plantillas sin expandir el resto del periodo.
+     */
+    public List<Class.Session> getSchedule(String classId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("El inicio del rango debe ser anterior al fin");
         }
-
-        return repeatedSessions;
+        Class clase = classRepository.findById(classId)
+                .orElseThrow(() -> new IllegalArgumentException("Clase no encontrada"));
+        return SessionRecurrence.occurrences(clase, from, to).toList();
     }
 
 }
\ No newline at end of file
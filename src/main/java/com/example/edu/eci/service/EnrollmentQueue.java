@@ -0,0 +1,253 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.dto.EnrollmentTicket;
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de inscripciones para la apertura de inscripciones, cuando todos los estudiantes llegan a
+ * la vez. {@link #submit} responde de inmediato con un tiquete y un grupo fijo de workers ejecuta
+ * {@link InscriptionService#inscribeUser} en segundo plano.
+ *
+ * <p>Las solicitudes se agrupan en un carril por clase. Dentro de un carril se atienden en orden
+ * de llegada y de a una, así que no compiten por los cupos de la misma clase; entre carriles los
+ * workers van por turnos, una solicitud por clase, para que una clase muy pedida no deje
+ * esperando a las demás. Nunca hay más de {@code workers} inscripciones en curso: la base de
+ * datos recibe un ritmo de escrituras acotado sin importar cuántos clientes lleguen.
+ *
+ * <p>La cola admite a lo sumo {@code capacity} solicitudes pendientes. Un tiquete pendiente se
+ * guarda mientras lo esté, por mucho que espere; uno terminado, hasta {@code ticket-ttl} después
+ * de terminar. Al apagarse, las solicitudes que seguían en espera terminan como {@code FAILED}
+ * para que el cliente sepa que debe enviarlas de nuevo.
+ *
+ * <p>Los tiquetes viven solo en la memoria de esta instancia: consultados en otra instancia
+ * detrás del balanceador, o después de un reinicio, responden 404. Con varias instancias el
+ * balanceador debe mantener al cliente en la misma (sesión fija); si el tiquete se perdió, el
+ * estado real se ve en las inscripciones del usuario o en su posición en la lista de espera.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EnrollmentQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentQueue.class);
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(10);
+
+    private final InscriptionService inscriptionService;
+    private final int capacity;
+    private final Cache<String, EnrollmentTicket> tickets;
+    private final ExecutorService workers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition laneReady = lock.newCondition();
+    // Carriles con solicitudes; un carril está en ready o lo tiene un worker, nunca ambos
+    private final Map<String, Queue<EnrollmentTicket>> lanes = new HashMap<>();
+    private final Queue<String> ready = new ArrayDeque<>();
+    // Tiquete pendiente por usuario y clase, para no encolar dos veces la misma inscripción
+    private final Map<String, EnrollmentTicket> pendingByEnrollment = new HashMap<>();
+    private boolean running = true;
+
+    public EnrollmentQueue(InscriptionService inscriptionService,
+                           @Value("${extraclasses.enrollment-queue.workers:4}") int workers,
+                           @Value("${extraclasses.enrollment-queue.capacity:10000}") int capacity,
+                           @Value("${extraclasses.enrollment-queue.ticket-ttl:PT15M}") Duration ticketTtl) {
+        this.inscriptionService = inscriptionService;
+        this.capacity = capacity;
+        this.tickets = Caffeine.newBuilder()
+                .expireAfter(new TicketExpiry(ticketTtl))
+                .build();
+        this.workers = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("enrollment-"));
+        for (int i = 0; i < workers; i++) {
+            this.workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Encola la inscripción de un usuario. Si ya hay una pendiente para el mismo usuario y clase
+     * devuelve ese tiquete.
+     *
+     * @return el tiquete, o vacío si la cola está llena o apagándose.
+     */
+    public Optional<EnrollmentTicket> submit(String userId, String classId, LocalDate startDate) {
+        lock.lock();
+        try {
+            String enrollment = userId + '|' + classId;
+            EnrollmentTicket existing = pendingByEnrollment.get(enrollment);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            if (!running || pendingByEnrollment.size() >= capacity) {
+                return Optional.empty();
+            }
+            EnrollmentTicket ticket = new EnrollmentTicket(userId, classId, startDate);
+            tickets.put(ticket.getId(), ticket);
+            pendingByEnrollment.put(enrollment, ticket);
+            Queue<EnrollmentTicket> lane = lanes.get(classId);
+            if (lane == null) {
+                lane = new ArrayDeque<>();
+                lanes.put(classId, lane);
+                ready.add(classId);
+                laneReady.signal();
+            }
+            lane.add(ticket);
+            return Optional.of(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<EnrollmentTicket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId));
+    }
+
+    /**
+     * Solicitudes en espera o en curso.
+     */
+    public int pending() {
+        lock.lock();
+        try {
+            return pendingByEnrollment.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            String classId;
+            EnrollmentTicket ticket;
+            lock.lock();
+            try {
+                while (running && ready.isEmpty()) {
+                    laneReady.await();
+                }
+                if (!running) {
+                    return;
+                }
+                classId = ready.poll();
+                ticket = lanes.get(classId).peek();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            process(ticket);
+
+            lock.lock();
+            try {
+                Queue<EnrollmentTicket> lane = lanes.get(classId);
+                lane.poll();
+                pendingByEnrollment.remove(ticket.getUserId() + '|' + classId);
+                if (lane.isEmpty()) {
+                    lanes.remove(classId);
+                } else {
+                    // Al final de la fila: las demás clases tienen su turno antes
+                    ready.add(classId);
+                    laneReady.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void process(EnrollmentTicket ticket) {
+        ticket.start();
+        try {
+            EnrollmentStatus status = inscriptionService.inscribeUser(
+                    ticket.getUserId(), ticket.getClassId(), ticket.getStartDate());
+            ticket.finish(status, status == EnrollmentStatus.WAITLISTED
+                    ? InscriptionService.WAITLISTED
+                    : InscriptionService.INSCRIBED);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            ticket.finish(EnrollmentStatus.REJECTED, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Inscripción encolada {} falló", ticket.getId(), e);
+            ticket.finish(EnrollmentStatus.FAILED, "Error procesando la inscripción, intente de nuevo");
+        }
+        // Volver a guardarlo recalcula su expiración: desde aquí cuenta el TTL
+        tickets.put(ticket.getId(), ticket);
+    }
+
+    /**
+     * Deja de aceptar solicitudes y termina como {@code FAILED} las que seguían en espera. Las que
+     * un worker ya está procesando se dejan terminar.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            lanes.forEach((classId, lane) -> {
+                // Un carril que no está en ready lo tiene un worker: su primer tiquete está en curso
+                EnrollmentTicket inProgress = ready.contains(classId) ? null : lane.poll();
+                lane.forEach(ticket -> {
+                    pendingByEnrollment.remove(ticket.getUserId() + '|' + classId);
+                    ticket.finish(EnrollmentStatus.FAILED, "El servicio se está reiniciando, intente de nuevo");
+                    tickets.put(ticket.getId(), ticket);
+                });
+                lane.clear();
+                if (inProgress != null) {
+                    lane.add(inProgress);
+                }
+            });
+            lanes.values().removeIf(Queue::isEmpty);
+            ready.clear();
+            laneReady.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_GRACE.toSeconds(), TimeUnit.SECONDS)) {
+                log.warn("{} inscripciones encoladas seguían en curso al apagar", pending());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Los tiquetes pendientes no expiran; los terminados, {@code ttl} después de su última escritura.
+     */
+    record TicketExpiry(Duration ttl) implements Expiry<String, EnrollmentTicket> {
+
+        @Override
+        public long expireAfterCreate(String id, EnrollmentTicket ticket, long currentTime) {
+            return ticket.isDone() ? ttl.toNanos() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, EnrollmentTicket ticket, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, ticket, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, EnrollmentTicket ticket, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,38 +1,73 @@
 package com.example.edu.eci.service;
 
+import com.example.edu.eci.dto.CursorPage;
 import com.example.edu.eci.model.Assistance;
 import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
 import com.example.edu.eci.model.User;
+import com.example.edu.eci.model.WaitlistEntry;
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import com.example.edu.eci.repository.AbsenceRepository;
 import com.example.edu.eci.repository.AssistanceRepository;
-import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.AttendanceCounterRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
 import com.example.edu.eci.repository.UserRepository;
+import com.example.edu.eci.repository.WaitlistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import static java.time.LocalTime.now;
-
 @Service
 public class InscriptionService {
 
+    static final String INSCRIBED = "Usuario inscrito exitosamente";
+    static final String WAITLISTED = "Clase llena: usuario en lista de espera";
+
+    private static final Logger log = LoggerFactory.getLogger(InscriptionService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private ClassRepository classRepository;
+    private ClassService classService;
 
     @Autowired
     private AssistanceRepository assistanceRepository;
 
-    public void inscribeUser(String userId, String classId, LocalDate startDate) {
+    @Autowired
+    private ClassSeatsRepository classSeatsRepository;
+
+    @Autowired
+    private AbsenceRepository absenceRepository;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private AttendanceCounterRepository attendanceCounterRepository;
+
+    /**
+     * Inscribe al usuario o, si la clase está llena, lo deja en su lista de espera; será inscrito
+     * automáticamente cuando se libere un cupo ({@link #deleteInscription}).
+     *
+     * @return {@code INSCRIBED} o {@code WAITLISTED}.
+     */
+    public EnrollmentStatus inscribeUser(String userId, String classId, LocalDate startDate) {
         Optional<User> userOpt = userRepository.findById(userId);
-        Optional<Class> claseOpt = classRepository.findById(classId);
+        Optional<Class> claseOpt = classService.getClassById(classId);
 
         if (userOpt.isEmpty() || claseOpt.isEmpty()) {
             throw new IllegalArgumentException("Usuario o clase no encontrada");
@@ -45,26 +80,132 @@ public class InscriptionService {
             throw new IllegalStateException("Usuario ya inscrito en la clase");
         }
 
-        long inscribedCount = assistanceRepository.countByClassId(classId);
-        if (inscribedCount >= clase.getMaxStudents()) {
-            throw new IllegalStateException("Capacidad máxima alcanzada");
+        if (!classSeatsRepository.tryReserve(classId, clase.getMaxStudents())) {
+            if (clase.getMaxStudents() <= 0) {
+                throw new IllegalStateException("Capacidad máxima alcanzada");
+            }
+            joinWaitlist(userId, classId, startDate);
+            // Un cupo pudo liberarse entre la reserva fallida y el registro en la lista
+            if (!classSeatsRepository.tryReserve(classId, clase.getMaxStudents())) {
+                return EnrollmentStatus.WAITLISTED;
+            }
+            if (waitlistRepository.deleteByClassIdAndUserIdAndPromotingAtIsNull(classId, userId) == 0) {
+                // Una cancelación ya lo está promoviendo con su propio cupo. Esa promoción aún puede
+                // fallar y devolverlo a la lista, así que sigue en espera hasta que termine
+                classSeatsRepository.release(classId);
+                return EnrollmentStatus.WAITLISTED;
+            }
+        }
+
+        try {
+            assistanceRepository.insertAll(buildAssistances(userId, classId, classService.getSessions(classId), startDate));
+        } catch (RuntimeException e) {
+            undoInscription(userId, classId, e);
+            throw e;
+        }
+        return EnrollmentStatus.INSCRIBED;
+    }
+
+    /**
+     * Deshace una inscripción cuyo bulk write falló: al ser desordenado, parte de las asistencias
+     * pudo quedar guardada. Se borran y se libera el cupo. Si esto también falla, el error se
+     * agrega a {@code cause}.
+     */
+    private void undoInscription(String userId, String classId, RuntimeException cause) {
+        try {
+            assistanceRepository.deleteByUserIdAndClassId(userId, classId);
+            classSeatsRepository.release(classId);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void joinWaitlist(String userId, String classId, LocalDate startDate) {
+        try {
+            waitlistRepository.insert(new WaitlistEntry(null, classId, userId, startDate, LocalDateTime.now(), null));
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Usuario ya está en la lista de espera de la clase");
+        }
+    }
+
+    /**
+     * Posición (desde 1) del usuario en la lista de espera de la clase.
+     */
+    public Optional<Long> getWaitlistPosition(String userId, String classId) {
+        return waitlistRepository.findByClassIdAndUserId(classId, userId)
+                .map(entry -> waitlistRepository.countByClassIdAndRequestedAtLessThan(classId, entry.getRequestedAt()) + 1);
+    }
+
+    /**
+     * Inscribe varios usuarios a la misma clase. La clase y los usuarios se consultan una sola vez
+     * y todas las asistencias se insertan en un único bulk write.
+     *
+     * @return el resultado por usuario, en el orden recibido.
+     */
+    public Map<String, String> inscribeUsers(List<String> userIds, String classId, LocalDate startDate) {
+        Class clase = classService.getClassById(classId)
+                .orElseThrow(() -> new IllegalArgumentException("Clase no encontrada"));
+
+        Set<String> existingUsers = userRepository.findAllById(userIds).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        Set<String> alreadyInscribed = assistanceRepository.findUserIdsByClassIdAndUserIdIn(classId, userIds).stream()
+                .map(Assistance::getUserId)
+                .collect(Collectors.toSet());
+
+        List<SessionOccurrence> sessions = classService.getSessions(classId);
+        Map<String, String> results = new LinkedHashMap<>();
+        List<String> reservedUsers = new ArrayList<>();
+        List<Assistance> assistances = new ArrayList<>();
+        for (String userId : userIds) {
+            if (results.containsKey(userId)) {
+                continue;
+            }
+            if (!existingUsers.contains(userId)) {
+                results.put(userId, "Usuario no encontrado");
+            } else if (alreadyInscribed.contains(userId)) {
+                results.put(userId, "Usuario ya inscrito en la clase");
+            } else if (!classSeatsRepository.tryReserve(classId, clase.getMaxStudents())) {
+                results.put(userId, "Capacidad máxima alcanzada");
+            } else {
+                reservedUsers.add(userId);
+                assistances.addAll(buildAssistances(userId, classId, sessions, startDate));
+                results.put(userId, INSCRIBED);
+            }
         }
 
+        try {
+            assistanceRepository.insertAll(assistances);
+        } catch (RuntimeException e) {
+            reservedUsers.forEach(userId -> undoInscription(userId, classId, e));
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Una asistencia a nivel de clase más una por cada ocurrencia de sesión.
+     */
+    static List<Assistance> buildAssistances(String userId, String classId, List<SessionOccurrence> sessions, LocalDate startDate) {
+        List<Assistance> assistances = new ArrayList<>();
+
         Assistance classAssistance = new Assistance();
         classAssistance.setUserId(userId);
         classAssistance.setStartTime(startDate);
         classAssistance.setClassId(classId);
         classAssistance.setConfirm(false);
-        assistanceRepository.save(classAssistance);
+        assistances.add(classAssistance);
 
-        clase.getSessions().forEach(session -> {
+        sessions.forEach(session -> {
             Assistance sessionAssistance = new Assistance();
             sessionAssistance.setUserId(userId);
             sessionAssistance.setClassId(classId);
             sessionAssistance.setSessionId(session.getId());
+            sessionAssistance.setStartTime(session.getStartTime().toLocalDate());
             sessionAssistance.setConfirm(false);
-            assistanceRepository.save(sessionAssistance);
+            assistances.add(sessionAssistance);
         });
+        return assistances;
     }
 
     public List<Assistance> findFutureUnconfirmedAssistances() {
@@ -72,15 +213,112 @@ public class InscriptionService {
         return assistanceRepository.findByStartTimeAfterAndConfirmIsFalse(now);
     }
 
+    public CursorPage<Assistance> findFutureUnconfirmedPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<Assistance> fetched = assistanceRepository.findUnconfirmedAfterPage(
+                LocalDateTime.now(), CursorPage.decodeCursor(cursor), pageSize + 1);
+        return CursorPage.of(fetched, pageSize, Assistance::getId);
+    }
+
     public List<Assistance> findFutureUnconfirmedAssistancesByUser(String userId) {
         LocalDateTime now = LocalDateTime.now();
         return assistanceRepository.findByUserIdAndStartTimeAfterAndConfirmIsFalse(userId, now);
     }
 
+    /**
+     * Elimina la inscripción y pasa el cupo al primero de la lista de espera, si hay alguno; el
+     * cupo no se libera en el medio, así que nadie que llegue después puede quitárselo. Si el
+     * usuario no estaba inscrito pero sí esperando, sale de la lista. Las asistencias confirmadas
+     * que se borran se restan de los contadores de asistencia.
+     *
+     * <p>El borrado decide si la inscripción existía: de dos cancelaciones simultáneas solo la que
+     * borra asistencias libera el cupo, así el contador de cupos no se descuenta dos veces.
+     */
     public void deleteInscription(String userId, String classId) {
-        if (!assistanceRepository.existsByUserIdAndClassId(userId, classId)) {
+        // Se leen antes de borrar; después ya no se sabría cuáles estaban confirmadas
+        List<Assistance> confirmed = assistanceRepository.findByUserIdAndClassIdAndConfirmIsTrue(userId, classId);
+        if (assistanceRepository.deleteByUserIdAndClassId(userId, classId) == 0) {
+            if (waitlistRepository.deleteByClassIdAndUserId(classId, userId) > 0) {
+                return;
+            }
             throw new IllegalArgumentException("La inscripción no existe.");
         }
-        assistanceRepository.deleteByUserIdAndClassId(userId, classId);
+        attendanceCounterRepository.decrementAll(confirmed);
+        absenceRepository.deleteByUserIdAndClassId(userId, classId);
+        if (!promoteNext(classId)) {
+            classSeatsRepository.release(classId);
+        }
+    }
+
+    /**
+     * Inscribe al primero de la lista de espera usando el cupo que se acaba de liberar. La entrada
+     * se marca antes de insertar sus asistencias y se borra después, así que una caída en el
+     * medio no pierde al usuario: {@link #recoverStalePromotions} la termina.
+     *
+     * @return false si nadie ocupó el cupo.
+     */
+    private boolean promoteNext(String classId) {
+        Optional<WaitlistEntry> next;
+        while ((next = waitlistRepository.claimFirst(classId)).isPresent()) {
+            WaitlistEntry entry = next.get();
+            if (assistanceRepository.existsByUserIdAndClassId(entry.getUserId(), classId)) {
+                waitlistRepository.deleteById(entry.getId());
+                continue;
+            }
+            try {
+                assistanceRepository.insertAll(buildAssistances(entry.getUserId(), classId,
+                        classService.getSessions(classId), entry.getStartDate()));
+                waitlistRepository.deleteById(entry.getId());
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("No se pudo promover al usuario {} en la clase {}", entry.getUserId(), classId, e);
+                return abandonPromotion(entry);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deshace una promoción fallida: borra las asistencias que alcanzaron a insertarse y devuelve
+     * al usuario a la lista con su posición original; la cancelación en sí ya se hizo. Si ni eso
+     * se puede, la entrada queda marcada con el cupo reservado y se termina más tarde.
+     *
+     * @return true si el cupo sigue reservado para el usuario.
+     */
+    private boolean abandonPromotion(WaitlistEntry entry) {
+        try {
+            assistanceRepository.deleteByUserIdAndClassId(entry.getUserId(), entry.getClassId());
+            waitlistRepository.unclaim(entry.getId());
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Promoción del usuario {} en la clase {} pendiente de recuperar", entry.getUserId(), entry.getClassId(), e);
+            return true;
+        }
+    }
+
+    /**
+     * Termina las promociones que empezaron antes de {@code startedBefore} y no llegaron a borrar
+     * su entrada, p. ej. porque el proceso se cayó. El cupo ya es del usuario: se insertan las
+     * asistencias que le falten y se borra la entrada.
+     *
+     * @return cuántas promociones se terminaron.
+     */
+    public int recoverStalePromotions(LocalDateTime startedBefore) {
+        int recovered = 0;
+        Optional<WaitlistEntry> stale;
+        while ((stale = waitlistRepository.claimStale(startedBefore)).isPresent()) {
+            WaitlistEntry entry = stale.get();
+            Set<String> stored = new HashSet<>();
+            assistanceRepository.findSessionIdsByUserIdAndClassId(entry.getUserId(), entry.getClassId())
+                    .forEach(assistance -> stored.add(assistance.getSessionId()));
+            List<Assistance> missing = buildAssistances(entry.getUserId(), entry.getClassId(),
+                    classService.getSessions(entry.getClassId()), entry.getStartDate()).stream()
+                    .filter(assistance -> !stored.contains(assistance.getSessionId()))
+                    .toList();
+            assistanceRepository.insertAll(missing);
+            waitlistRepository.deleteById(entry.getId());
+            recovered++;
+        }
+        return recovered;
     }
 }
@@ -0,0 +1,64 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.model.SessionOccurrence;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Lo que hay que escribir para pasar de las ocurrencias guardadas de una clase a las que generan
+ * sus plantillas actuales. Una ocurrencia se reconoce por su plantilla y su inicio: las que siguen
+ * existiendo conservan su id, al que apuntan las asistencias, y solo se reescriben si cambió su fin.
+ */
+record OccurrenceChanges(List<SessionOccurrence> toInsert,
+                         List<SessionOccurrence> toUpdate,
+                         List<String> toDelete) {
+
+    static OccurrenceChanges between(List<SessionOccurrence> stored, List<SessionOccurrence> generated) {
+        Map<Key, SessionOccurrence> existing = new HashMap<>();
+        List<String> toDelete = new ArrayList<>();
+        for (SessionOccurrence occurrence : stored) {
+            if (existing.putIfAbsent(Key.of(occurrence), occurrence) != null) {
+                toDelete.add(occurrence.getId()); // Copia repetida de una misma ocurrencia
+            }
+        }
+        List<SessionOccurrence> toInsert = new ArrayList<>();
+        List<SessionOccurrence> toUpdate = new ArrayList<>();
+        for (SessionOccurrence occurrence : unique(generated)) {
+            SessionOccurrence current = existing.remove(Key.of(occurrence));
+            if (current == null) {
+                toInsert.add(occurrence);
+            } else if (!Objects.equals(current.getEndTime(), occurrence.getEndTime())) {
+                current.setEndTime(occurrence.getEndTime());
+                current.setUpdatedAt(occurrence.getUpdatedAt());
+                toUpdate.add(current);
+            }
+        }
+        existing.values().forEach(occurrence -> toDelete.add(occurrence.getId()));
+        return new OccurrenceChanges(toInsert, toUpdate, toDelete);
+    }
+
+    /**
+     * Una ocurrencia por plantilla e inicio; dos iguales tendrían el mismo id.
+     */
+    static List<SessionOccurrence> unique(List<SessionOccurrence> occurrences) {
+        Map<Key, SessionOccurrence> byKey = new LinkedHashMap<>();
+        occurrences.forEach(occurrence -> byKey.putIfAbsent(Key.of(occurrence), occurrence));
+        return byKey.size() == occurrences.size() ? occurrences : new ArrayList<>(byKey.values());
+    }
+
+    boolean isEmpty() {
+        return toInsert.isEmpty() && toUpdate.isEmpty() && toDelete.isEmpty();
+    }
+
+    private record Key(String sessionId, LocalDateTime startTime) {
+        static Key of(SessionOccurrence occurrence) {
+            return new Key(occurrence.getSessionId(), occurrence.getStartTime());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Absence;
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.AttendanceCounter;
+import com.example.edu.eci.model.enums.ConfirmationStatus;
+import com.example.edu.eci.repository.ReactiveAbsenceRepository;
+import com.example.edu.eci.repository.ReactiveAssistanceRepository;
+import com.example.edu.eci.repository.ReactiveAttendanceCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Versión no bloqueante de {@link AssistanceService} para el modo reactivo. Usa las mismas
+ * escrituras condicionales y los mismos contadores materializados.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAssistanceService {
+
+    @Autowired
+    private ReactiveAssistanceRepository assistanceRepository;
+
+    @Autowired
+    private ReactiveAttendanceCounterRepository attendanceCounterRepository;
+
+    @Autowired
+    private ReactiveAbsenceRepository absenceRepository;
+
+    public Mono<Void> confirmAssistance(String userId, String classId, String sessionId, String instructorId) {
+        return assistanceRepository.confirm(userId, classId, sessionId, instructorId)
+                .switchIfEmpty(Mono.defer(() -> assistanceRepository.findByUserIdAndClassIdAndSessionId(userId, classId, sessionId)
+                        .flatMap(existing -> Mono.<Assistance>error(new IllegalStateException("Asistencia ya confirmada para esta sesión")))
+                        .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("No existe inscripción para esta sesión")))))
+                .flatMap(assistance -> {
+                    Mono<Void> counted = attendanceCounterRepository.increment(userId, classId, assistance.getStartTime());
+                    if (assistance.getStartTime() == null || !assistance.getStartTime().isAfter(LocalDate.now())) {
+                        return counted.then(absenceRepository.deleteById(assistance.getId()));
+                    }
+                    return counted;
+                });
+    }
+
+    /**
+     * Igual que {@link AssistanceService#confirmSession}: una lectura proyectada de la lista, un
+     * bulk write condicional y otro para los contadores.
+     *
+     * @return el resultado por usuario, en el orden recibido
+     */
+    public Mono<Map<String, ConfirmationStatus>> confirmSession(String classId, String sessionId, List<String> userIds, String instructorId) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("La lista de usuarios no puede estar vacía"));
+        }
+        return assistanceRepository.findRoster(classId, sessionId, new LinkedHashSet<>(userIds))
+                .doOnNext(assistance -> assistance.setClassId(classId))
+                .collectMap(Assistance::getUserId, Function.identity())
+                .flatMap(roster -> assistanceRepository.confirmAll(roster.values().stream()
+                                .filter(assistance -> !assistance.isConfirm())
+                                .map(Assistance::getId)
+                                .toList(), instructorId)
+                        .flatMap(confirmedIds -> {
+                            Map<String, ConfirmationStatus> results = new LinkedHashMap<>();
+                            List<Assistance> confirmed = new ArrayList<>();
+                            for (String userId : userIds) {
+                                if (results.containsKey(userId)) {
+                                    continue;
+                                }
+                                Assistance assistance = roster.get(userId);
+                                if (assistance == null) {
+                                    results.put(userId, ConfirmationStatus.NOT_ENROLLED);
+                                } else if (confirmedIds.contains(assistance.getId())) {
+                                    results.put(userId, ConfirmationStatus.CONFIRMED);
+                                    confirmed.add(assistance);
+                                } else {
+                                    results.put(userId, ConfirmationStatus.ALREADY_CONFIRMED);
+                                }
+                            }
+                            Mono<Void> absences = confirmedIds.isEmpty() ? Mono.empty() : absenceRepository.deleteAllById(confirmedIds);
+                            return attendanceCounterRepository.incrementAll(confirmed)
+                                    .then(absences)
+                                    .thenReturn(results);
+                        }));
+    }
+
+    public Mono<CursorPage<Assistance>> getConfirmedPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        return Mono.fromCallable(() -> Optional.ofNullable(CursorPage.decodeCursor(cursor)))
+                .flatMap(afterId -> assistanceRepository.findConfirmedPage(afterId.orElse(null), pageSize + 1).collectList())
+                .map(fetched -> CursorPage.of(fetched, pageSize, Assistance::getId));
+    }
+
+    /**
+     * Igual que {@link AssistanceService#countConfirmedAttendances}: meses completos desde los
+     * contadores y solo los meses parciales de los extremos sobre las asistencias.
+     */
+    public Mono<Long> countConfirmedAttendances(String userId, LocalDate start, LocalDate end) {
+        List<Mono<Long>> partialMonths = new ArrayList<>();
+        List<String> fullMonths = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(start); !month.isAfter(YearMonth.from(end)); month = month.plusMonths(1)) {
+            LocalDate from = start.isAfter(month.atDay(1)) ? start : month.atDay(1);
+            LocalDate to = end.isBefore(month.atEndOfMonth()) ? end : month.atEndOfMonth();
+            if (from.equals(month.atDay(1)) && to.equals(month.atEndOfMonth())) {
+                fullMonths.add(AttendanceCounter.byMonthId(userId, month));
+            } else {
+                partialMonths.add(assistanceRepository.countConfirmedByUserIdAndStartTimeIn(userId, from, to));
+            }
+        }
+        Flux<Long> counters = fullMonths.isEmpty()
+                ? Flux.empty()
+                : attendanceCounterRepository.findAllById(fullMonths).map(AttendanceCounter::getCount);
+        return Flux.merge(Flux.merge(partialMonths), counters)
+                .reduce(0L, Long::sum)
+                .flatMap(count -> count == 0
+                        ? Mono.error(new IllegalStateException("No hay asistencias registradas para este usuario"))
+                        : Mono.just(count));
+    }
+
+    public Mono<Long> countAttendancesByClass(String userId, String classId) {
+        return attendanceCounterRepository.findById(AttendanceCounter.byClassId(userId, classId))
+                .map(AttendanceCounter::getCount)
+                .filter(count -> count > 0)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No hay asistencias registradas")));
+    }
+
+    public Mono<CursorPage<Absence>> getAbsencesPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        return Mono.fromCallable(() -> Optional.ofNullable(CursorPage.decodeCursor(cursor)))
+                .flatMap(afterId -> afterId
+                        .map(id -> absenceRepository.findByIdGreaterThanOrderByIdAsc(id, Limit.of(pageSize + 1)))
+                        .orElseGet(() -> absenceRepository.findAllByOrderByIdAsc(Limit.of(pageSize + 1)))
+                        .collectList())
+                .map(fetched -> CursorPage.of(fetched, pageSize, Absence::getId));
+    }
+
+    public Flux<Assistance> findAssistancesHistoricByUser(String userId) {
+        return assistanceRepository.findByUserIdAndConfirmIsTrue(userId);
+    }
+
+    /**
+     * Asistencias confirmadas (todas, o solo las de {@code userId} si no es null) leídas del
+     * cursor de Mongo a medida que el cliente las consume; el controlador las escribe como NDJSON.
+     */
+    public Flux<Assistance> exportConfirmed(String userId) {
+        return userId == null
+                ? assistanceRepository.findByConfirmTrue()
+                : assistanceRepository.findByUserIdAndConfirmIsTrue(userId);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.config.CacheConfig;
+import com.example.edu.eci.dto.ClassSummary;
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.ClassSeats;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.model.enums.Repetition;
+import com.example.edu.eci.repository.ReactiveClassRepository;
+import com.example.edu.eci.repository.ReactiveClassSeatsRepository;
+import com.example.edu.eci.repository.ReactiveSessionOccurrenceRepository;
+import com.example.edu.eci.repository.ReactiveWaitlistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Versión no bloqueante de {@link ClassService} para el modo reactivo. Comparte con ella las
+ * cachés de Caffeine (se leen y se invalidan a mano, porque {@code @Cacheable} no aplica a
+ * {@link Mono}) y publica los mismos {@link ClassChangedEvent}.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveClassService {
+
+    @Autowired
+    private ReactiveClassRepository classRepository;
+
+    @Autowired
+    private ReactiveClassSeatsRepository classSeatsRepository;
+
+    @Autowired
+    private ReactiveSessionOccurrenceRepository sessionOccurrenceRepository;
+
+    @Autowired
+    private ReactiveWaitlistRepository waitlistRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public Mono<CursorPage<Class>> getClassesPage(String cursor, Integer size) {
+        return getClassesPage(cursor, size, null);
+    }
+
+    /**
+     * Como {@link ClassService#getClassesPage(String, Integer, Set)}.
+     */
+    public Mono<CursorPage<Class>> getClassesPage(String cursor, Integer size, Set<String> fields) {
+        int pageSize = CursorPage.clampSize(size);
+        return Mono.fromCallable(() -> Optional.ofNullable(CursorPage.decodeCursor(cursor)))
+                .flatMap(afterId -> findPage(afterId.orElse(null), pageSize + 1, fields).collectList())
+                .map(fetched -> CursorPage.of(fetched, pageSize, Class::getId));
+    }
+
+    private Flux<Class> findPage(String afterId, int limit, Set<String> fields) {
+        if (fields != null) {
+            return classRepository.findPage(afterId, limit, fields);
+        }
+        return afterId == null
+                ? classRepository.findAllByOrderByIdAsc(Limit.of(limit))
+                : classRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    /**
+     * Como {@link ClassService#getClassSummariesPage}.
+     */
+    public Mono<CursorPage<ClassSummary>> getClassSummariesPage(String cursor, Integer size) {
+        return getClassesPage(cursor, size, ClassSummary.FIELDS)
+                .flatMap(page -> classSeatsRepository.findAllById(page.getItems().stream().map(Class::getId).toList())
+                        .collectMap(ClassSeats::getClassId, ClassSeats::getReserved)
+                        .map(reserved -> new CursorPage<>(page.getItems().stream()
+                                .map(clase -> ClassSummary.of(clase, reserved.getOrDefault(clase.getId(), 0)))
+                                .toList(), page.getNextCursor())));
+    }
+
+    public Mono<Class> getClassById(String id) {
+        return cached(CacheConfig.CLASSES_CACHE, id, () -> classRepository.findById(id));
+    }
+
+    /**
+     * Igual que {@link ClassService#getSessions}: si la clase no tiene ocurrencias guardadas se
+     * usan las sesiones expandidas en su documento.
+     */
+    public Mono<List<SessionOccurrence>> getSessions(String classId) {
+        return cached(CacheConfig.CLASS_SESSIONS_CACHE, classId, () ->
+                sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(classId)
+                        .collectList()
+                        .flatMap(occurrences -> occurrences.isEmpty() ? legacySessions(classId) : Mono.just(occurrences)));
+    }
+
+    private Mono<List<SessionOccurrence>> legacySessions(String classId) {
+        return classRepository.findById(classId)
+                .filter(clase -> clase.getSessions() != null)
+                .map(clase -> clase.getSessions().stream()
+                        .map(session -> {
+                            SessionOccurrence occurrence = ClassService.toOccurrence(classId, session);
+                            occurrence.setId(session.getId());
+                            return occurrence;
+                        })
+                        .toList())
+                .defaultIfEmpty(List.of());
+    }
+
+    public Mono<Class> createClass(Class newClass) {
+        return Mono.fromRunnable(() -> {
+                    Repetition.from(newClass.getRepetition());
+                    newClass.setSessions(SessionRecurrence.templates(newClass));
+                })
+                .then(Mono.defer(() -> classRepository.save(newClass)))
+                .flatMap(savedClass -> classSeatsRepository.save(new ClassSeats(savedClass.getId(), 0))
+                        .then(insertOccurrences(ClassService.occurrencesOf(savedClass)))
+                        .thenReturn(savedClass))
+                .doOnNext(savedClass -> changed(savedClass.getId(), savedClass));
+    }
+
+    /**
+     * Como {@link ClassService#updateClass}: con {@code expectedVersion} falla con
+     * {@link OptimisticLockingFailureException} si la clase ya cambió.
+     */
+    public Mono<Class> updateClass(String id, Class updatedClass, Long expectedVersion) {
+        return classRepository.findById(id)
+                .flatMap(current -> {
+                    Repetition.from(updatedClass.getRepetition());
+                    if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "La clase fue modificada (versión " + current.getVersion() + ")"));
+                    }
+                    updatedClass.setId(id);
+                    updatedClass.setSessions(SessionRecurrence.templates(updatedClass));
+                    updatedClass.setVersion(expectedVersion != null ? expectedVersion : current.getVersion());
+                    return classRepository.save(updatedClass);
+                })
+                .flatMap(savedClass -> syncOccurrences(savedClass).thenReturn(savedClass))
+                .doOnNext(savedClass -> changed(id, savedClass));
+    }
+
+    public Mono<Boolean> deleteClass(String id) {
+        return classRepository.existsById(id)
+                .flatMap(exists -> !exists ? Mono.just(false) : classRepository.deleteById(id)
+                        .then(classSeatsRepository.deleteById(id))
+                        .then(sessionOccurrenceRepository.deleteByClassId(id))
+                        .then(waitlistRepository.deleteByClassId(id))
+                        .then(Mono.fromRunnable(() -> changed(id, null)))
+                        .thenReturn(true));
+    }
+
+    public Flux<Class> getClassesByType(String type) {
+        return classRepository.findClassByType(type);
+    }
+
+    public Flux<Class.Session> getSchedule(String classId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Flux.error(new IllegalArgumentException("El inicio del rango debe ser anterior al fin"));
+        }
+        return classRepository.findById(classId)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Clase no encontrada")))
+                .flatMapMany(clase -> Flux.fromStream(SessionRecurrence.occurrences(clase, from, to)));
+    }
+
+    private Mono<Void> insertOccurrences(List<SessionOccurrence> occurrences) {
+        return occurrences.isEmpty() ? Mono.empty() : sessionOccurrenceRepository.insert(occurrences).then();
+    }
+
+    /**
+     * Como en {@link ClassService}: solo se escriben las ocurrencias que cambiaron, y las demás
+     * conservan su id.
+     */
+    private Mono<Void> syncOccurrences(Class clase) {
+        return sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(clase.getId())
+                .collectList()
+                .map(stored -> OccurrenceChanges.between(stored, ClassService.occurrencesOf(clase)))
+                .flatMap(changes -> (changes.toDelete().isEmpty() ? Mono.<Void>empty()
+                        : sessionOccurrenceRepository.deleteAllById(changes.toDelete()))
+                        .then(changes.toUpdate().isEmpty() ? Mono.<Void>empty()
+                                : sessionOccurrenceRepository.saveAll(changes.toUpdate()).then())
+                        .then(insertOccurrences(changes.toInsert())));
+    }
+
+    /**
+     * Invalida las mismas entradas que las anotaciones de {@link ClassService} y avisa del cambio.
+     */
+    private void changed(String id, Class clase) {
+        evict(CacheConfig.CLASSES_CACHE, id);
+        evict(CacheConfig.CLASS_SESSIONS_CACHE, id);
+        eventPublisher.publishEvent(new ClassChangedEvent(id, clase));
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * Lee de la caché en memoria (sin bloquear) y, si no está, carga y guarda el resultado.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> cached(String cacheName, String key, Supplier<Mono<T>> loader) {
+        return Mono.defer(() -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                return loader.get();
+            }
+            Cache.ValueWrapper hit = cache.get(key);
+            if (hit != null) {
+                return Mono.justOrEmpty((T) hit.get());
+            }
+            return loader.get().doOnNext(value -> cache.put(key, value));
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.dto.EnrollmentTicket;
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Versión de {@link EnrollmentQueue} para el modo reactivo, con el mismo contrato de tiquetes:
+ * {@link #submit} responde de inmediato y {@link ReactiveInscriptionService#inscribeUser} se
+ * ejecuta en segundo plano. No hacen falta carriles ni workers, porque la inscripción no ocupa
+ * un hilo mientras espera a la base de datos; las reservas atómicas de cupo bastan para que las
+ * solicitudes de una misma clase no se pisen.
+ *
+ * <p>Admite a lo sumo {@code capacity} inscripciones en curso, lo que acota igual las escrituras
+ * simultáneas. Los tiquetes se guardan como en la versión bloqueante, también solo en la memoria
+ * de esta instancia. Al apagarse deja de aceptar solicitudes; las que estaban en curso se dejan
+ * terminar.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEnrollmentQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveEnrollmentQueue.class);
+
+    private final ReactiveInscriptionService inscriptionService;
+    private final int capacity;
+    private final Cache<String, EnrollmentTicket> tickets;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Tiquete en curso por usuario y clase, para no inscribir dos veces a la vez
+    private final Map<String, EnrollmentTicket> pendingByEnrollment = new HashMap<>();
+    private boolean running = true;
+
+    public ReactiveEnrollmentQueue(ReactiveInscriptionService inscriptionService,
+                                   @Value("${extraclasses.enrollment-queue.capacity:10000}") int capacity,
+                                   @Value("${extraclasses.enrollment-queue.ticket-ttl:PT15M}") Duration ticketTtl) {
+        this.inscriptionService = inscriptionService;
+        this.capacity = capacity;
+        this.tickets = Caffeine.newBuilder()
+                .expireAfter(new EnrollmentQueue.TicketExpiry(ticketTtl))
+                .build();
+    }
+
+    /**
+     * Inicia la inscripción de un usuario. Si ya hay una en curso para el mismo usuario y clase
+     * devuelve ese tiquete.
+     *
+     * @return el tiquete, o vacío si se alcanzó la capacidad o se está apagando.
+     */
+    public Optional<EnrollmentTicket> submit(String userId, String classId, LocalDate startDate) {
+        EnrollmentTicket ticket;
+        lock.lock();
+        try {
+            EnrollmentTicket existing = pendingByEnrollment.get(userId + '|' + classId);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            if (!running || pendingByEnrollment.size() >= capacity) {
+                return Optional.empty();
+            }
+            ticket = new EnrollmentTicket(userId, classId, startDate);
+            tickets.put(ticket.getId(), ticket);
+            pendingByEnrollment.put(userId + '|' + classId, ticket);
+        } finally {
+            lock.unlock();
+        }
+        process(ticket).subscribe();
+        return Optional.of(ticket);
+    }
+
+    public Optional<EnrollmentTicket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId));
+    }
+
+    /**
+     * Inscripciones en curso.
+     */
+    public int pending() {
+        lock.lock();
+        try {
+            return pendingByEnrollment.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Mono<Void> process(EnrollmentTicket ticket) {
+        return Mono.defer(() -> {
+                    ticket.start();
+                    return inscriptionService.inscribeUser(ticket.getUserId(), ticket.getClassId(), ticket.getStartDate());
+                })
+                .doOnNext(status -> ticket.finish(status, status == EnrollmentStatus.WAITLISTED
+                        ? InscriptionService.WAITLISTED
+                        : InscriptionService.INSCRIBED))
+                .onErrorResume(e -> {
+                    if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+                        ticket.finish(EnrollmentStatus.REJECTED, e.getMessage());
+                    } else {
+                        log.warn("Inscripción {} falló", ticket.getId(), e);
+                        ticket.finish(EnrollmentStatus.FAILED, "Error procesando la inscripción, intente de nuevo");
+                    }
+                    return Mono.empty();
+                })
+                .doFinally(signal -> {
+                    lock.lock();
+                    try {
+                        pendingByEnrollment.remove(ticket.getUserId() + '|' + ticket.getClassId());
+                    } finally {
+                        lock.unlock();
+                    }
+                    // Volver a guardarlo recalcula su expiración: desde aquí cuenta el TTL
+                    tickets.put(ticket.getId(), ticket);
+                })
+                .then();
+    }
+
+    /**
+     * Deja de aceptar solicitudes. Las inscripciones en curso se dejan terminar.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.model.User;
+import com.example.edu.eci.model.WaitlistEntry;
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import com.example.edu.eci.repository.ReactiveAbsenceRepository;
+import com.example.edu.eci.repository.ReactiveAssistanceRepository;
+import com.example.edu.eci.repository.ReactiveAttendanceCounterRepository;
+import com.example.edu.eci.repository.ReactiveClassSeatsRepository;
+import com.example.edu.eci.repository.ReactiveUserRepository;
+import com.example.edu.eci.repository.ReactiveWaitlistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Versión no bloqueante de {@link InscriptionService} para el modo reactivo. Las reglas y los
+ * mensajes son los mismos; los errores se emiten como señal en lugar de lanzarse.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveInscriptionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveInscriptionService.class);
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private ReactiveClassService classService;
+
+    @Autowired
+    private ReactiveAssistanceRepository assistanceRepository;
+
+    @Autowired
+    private ReactiveClassSeatsRepository classSeatsRepository;
+
+    @Autowired
+    private ReactiveAbsenceRepository absenceRepository;
+
+    @Autowired
+    private ReactiveWaitlistRepository waitlistRepository;
+
+    @Autowired
+    private ReactiveAttendanceCounterRepository attendanceCounterRepository;
+
+    /**
+     * Como {@link InscriptionService#inscribeUser}: inscribe al usuario o, si la clase está llena,
+     * lo deja en su lista de espera.
+     *
+     * @return {@code INSCRIBED} o {@code WAITLISTED}.
+     */
+    public Mono<EnrollmentStatus> inscribeUser(String userId, String classId, LocalDate startDate) {
+        return userRepository.existsById(userId)
+                .zipWith(classService.getClassById(classId).map(Optional::of).defaultIfEmpty(Optional.empty()))
+                .flatMap(found -> found.getT1() && found.getT2().isPresent()
+                        ? Mono.just(found.getT2().get())
+                        : Mono.error(new IllegalArgumentException("Usuario o clase no encontrada")))
+                .flatMap(clase -> assistanceRepository.existsByUserIdAndClassId(userId, classId)
+                        .flatMap(inscribed -> inscribed
+                                ? Mono.error(new IllegalStateException("Usuario ya inscrito en la clase"))
+                                : reserveOrWait(clase, userId, startDate)));
+    }
+
+    private Mono<EnrollmentStatus> reserveOrWait(Class clase, String userId, LocalDate startDate) {
+        String classId = clase.getId();
+        return classSeatsRepository.tryReserve(classId, clase.getMaxStudents())
+                .flatMap(reserved -> {
+                    if (reserved) {
+                        return insertAssistances(userId, classId, startDate);
+                    }
+                    if (clase.getMaxStudents() <= 0) {
+                        return Mono.error(new IllegalStateException("Capacidad máxima alcanzada"));
+                    }
+                    // Un cupo pudo liberarse entre la reserva fallida y el registro en la lista
+                    return joinWaitlist(userId, classId, startDate)
+                            .then(Mono.defer(() -> classSeatsRepository.tryReserve(classId, clase.getMaxStudents())))
+                            .flatMap(freed -> freed
+                                    ? leaveWaitlist(userId, classId, startDate)
+                                    : Mono.just(EnrollmentStatus.WAITLISTED));
+                });
+    }
+
+    private Mono<EnrollmentStatus> leaveWaitlist(String userId, String classId, LocalDate startDate) {
+        return waitlistRepository.deleteByClassIdAndUserIdAndPromotingAtIsNull(classId, userId)
+                .flatMap(deleted -> deleted > 0
+                        ? insertAssistances(userId, classId, startDate)
+                        // Una cancelación ya lo está promoviendo con su propio cupo; sigue en espera
+                        // hasta que esa promoción termine, porque aún puede fallar
+                        : classSeatsRepository.release(classId).thenReturn(EnrollmentStatus.WAITLISTED));
+    }
+
+    private Mono<EnrollmentStatus> insertAssistances(String userId, String classId, LocalDate startDate) {
+        return classService.getSessions(classId)
+                .flatMap(sessions -> assistanceRepository.insertAll(
+                        InscriptionService.buildAssistances(userId, classId, sessions, startDate)))
+                .onErrorResume(e -> undoInscription(userId, classId, e))
+                .thenReturn(EnrollmentStatus.INSCRIBED);
+    }
+
+    private Mono<WaitlistEntry> joinWaitlist(String userId, String classId, LocalDate startDate) {
+        return waitlistRepository.insert(new WaitlistEntry(null, classId, userId, startDate, LocalDateTime.now(), null))
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new IllegalStateException("Usuario ya está en la lista de espera de la clase"));
+    }
+
+    /**
+     * Posición (desde 1) del usuario en la lista de espera de la clase.
+     */
+    public Mono<Long> getWaitlistPosition(String userId, String classId) {
+        return waitlistRepository.findByClassIdAndUserId(classId, userId)
+                .flatMap(entry -> waitlistRepository.countByClassIdAndRequestedAtLessThan(classId, entry.getRequestedAt()))
+                .map(ahead -> ahead + 1);
+    }
+
+    /**
+     * Como {@code InscriptionService#undoInscription}: borra lo que alcanzó a insertarse y libera
+     * el cupo. Se emite siempre el error original; si la limpieza falla, va como suprimido.
+     */
+    private Mono<Void> undoInscription(String userId, String classId, Throwable cause) {
+        return assistanceRepository.deleteByUserIdAndClassId(userId, classId)
+                .then(Mono.defer(() -> classSeatsRepository.release(classId)))
+                .onErrorResume(cleanup -> {
+                    cause.addSuppressed(cleanup);
+                    return Mono.empty();
+                })
+                .then(Mono.error(cause));
+    }
+
+    /**
+     * Inscribe varios usuarios a la misma clase. Como en {@link InscriptionService#inscribeUsers},
+     * la clase y los usuarios se consultan una sola vez y las asistencias van en un único bulk write.
+     *
+     * @return el resultado por usuario, en el orden recibido.
+     */
+    public Mono<Map<String, String>> inscribeUsers(List<String> userIds, String classId, LocalDate startDate) {
+        return classService.getClassById(classId)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Clase no encontrada")))
+                .flatMap(clase -> Mono.zip(
+                                userRepository.findAllById(userIds).map(User::getId).collect(Collectors.toSet()),
+                                assistanceRepository.findUserIdsByClassIdAndUserIdIn(classId, userIds)
+                                        .map(Assistance::getUserId).collect(Collectors.toSet()),
+                                classService.getSessions(classId))
+                        .flatMap(loaded -> Flux.fromIterable(new LinkedHashSet<>(userIds))
+                                .concatMap(userId -> status(userId, clase, loaded.getT1(), loaded.getT2())
+                                        .map(status -> Map.entry(userId, status)))
+                                .collect(LinkedHashMap<String, String>::new, (results, entry) -> results.put(entry.getKey(), entry.getValue()))
+                                .flatMap(results -> insertReserved(results, classId, loaded.getT3(), startDate))));
+    }
+
+    private Mono<String> status(String userId, Class clase, Set<String> existingUsers, Set<String> alreadyInscribed) {
+        if (!existingUsers.contains(userId)) {
+            return Mono.just("Usuario no encontrado");
+        }
+        if (alreadyInscribed.contains(userId)) {
+            return Mono.just("Usuario ya inscrito en la clase");
+        }
+        return classSeatsRepository.tryReserve(clase.getId(), clase.getMaxStudents())
+                .map(reserved -> reserved ? InscriptionService.INSCRIBED : "Capacidad máxima alcanzada");
+    }
+
+    private Mono<Map<String, String>> insertReserved(Map<String, String> results, String classId,
+                                                     List<SessionOccurrence> sessions, LocalDate startDate) {
+        List<String> reservedUsers = results.entrySet().stream()
+                .filter(entry -> InscriptionService.INSCRIBED.equals(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        List<Assistance> assistances = reservedUsers.stream()
+                .flatMap(userId -> InscriptionService.buildAssistances(userId, classId, sessions, startDate).stream())
+                .toList();
+        return assistanceRepository.insertAll(assistances)
+                .onErrorResume(e -> Flux.fromIterable(reservedUsers)
+                        .concatMap(userId -> undoInscription(userId, classId, e).onErrorResume(same -> Mono.empty()))
+                        .then(Mono.error(e)))
+                .thenReturn(results);
+    }
+
+    public Mono<CursorPage<Assistance>> findFutureUnconfirmedPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        return Mono.fromCallable(() -> Optional.ofNullable(CursorPage.decodeCursor(cursor)))
+                .flatMap(afterId -> assistanceRepository.findUnconfirmedAfterPage(
+                        LocalDateTime.now(), afterId.orElse(null), pageSize + 1).collectList())
+                .map(fetched -> CursorPage.of(fetched, pageSize, Assistance::getId));
+    }
+
+    public Flux<Assistance> findFutureUnconfirmedAssistancesByUser(String userId) {
+        return assistanceRepository.findByUserIdAndStartTimeAfterAndConfirmIsFalse(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Como {@link InscriptionService#deleteInscription}: el cupo liberado pasa al primero de la
+     * lista de espera, si hay alguien, y un usuario que solo estaba esperando sale de la lista; las
+     * asistencias confirmadas que se borran se restan de los contadores.
+     * Este modo no deja a nadie en espera, pero sí atiende las listas creadas en modo servlet.
+     * Como allá, solo la cancelación que borra asistencias libera el cupo.
+     */
+    public Mono<Void> deleteInscription(String userId, String classId) {
+        return assistanceRepository.findByUserIdAndClassIdAndConfirmIsTrue(userId, classId).collectList()
+                .flatMap(confirmed -> assistanceRepository.deleteByUserIdAndClassId(userId, classId)
+                        .flatMap(deleted -> deleted > 0
+                                ? attendanceCounterRepository.decrementAll(confirmed)
+                                        .then(Mono.defer(() -> absenceRepository.deleteByUserIdAndClassId(userId, classId)))
+                                        .then(Mono.defer(() -> promoteNext(classId)))
+                                        .flatMap(promoted -> promoted ? Mono.<Void>empty() : classSeatsRepository.release(classId))
+                                : waitlistRepository.deleteByClassIdAndUserId(classId, userId)
+                                        .flatMap(removed -> removed > 0
+                                                ? Mono.<Void>empty()
+                                                : Mono.error(new IllegalArgumentException("La inscripción no existe.")))));
+    }
+
+    /**
+     * Versión no bloqueante de {@code InscriptionService#promoteNext}; las promociones que queden
+     * a medias las termina {@link InscriptionService#recoverStalePromotions}.
+     *
+     * @return false si nadie ocupó el cupo.
+     */
+    private Mono<Boolean> promoteNext(String classId) {
+        return waitlistRepository.claimFirst(classId)
+                .flatMap(entry -> assistanceRepository.existsByUserIdAndClassId(entry.getUserId(), classId)
+                        .flatMap(inscribed -> inscribed
+                                ? waitlistRepository.deleteById(entry.getId()).then(Mono.defer(() -> promoteNext(classId)))
+                                : promote(entry)))
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Boolean> promote(WaitlistEntry entry) {
+        return classService.getSessions(entry.getClassId())
+                .flatMap(sessions -> assistanceRepository.insertAll(InscriptionService.buildAssistances(
+                        entry.getUserId(), entry.getClassId(), sessions, entry.getStartDate())))
+                .then(Mono.defer(() -> waitlistRepository.deleteById(entry.getId())))
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    log.warn("No se pudo promover al usuario {} en la clase {}", entry.getUserId(), entry.getClassId(), e);
+                    return abandonPromotion(entry);
+                });
+    }
+
+    /**
+     * Como {@code InscriptionService#abandonPromotion}.
+     *
+     * @return true si el cupo sigue reservado para el usuario.
+     */
+    private Mono<Boolean> abandonPromotion(WaitlistEntry entry) {
+        return assistanceRepository.deleteByUserIdAndClassId(entry.getUserId(), entry.getClassId())
+                .then(Mono.defer(() -> waitlistRepository.unclaim(entry.getId())))
+                .thenReturn(false)
+                .onErrorResume(e -> {
+                    log.warn("Promoción del usuario {} en la clase {} pendiente de recuperar", entry.getUserId(), entry.getClassId(), e);
+                    return Mono.just(true);
+                });
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.model.User;
+import com.example.edu.eci.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    public Mono<User> getUserById(String id) {
+        return userRepository.findById(id);
+    }
+
+    public Mono<User> createUser(User newUser) {
+        return userRepository.save(newUser);
+    }
+}
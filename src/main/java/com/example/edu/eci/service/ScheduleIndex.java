@@ -0,0 +1,220 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.repository.ClassRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice en memoria de las ocurrencias de todas las clases, para responder "qué clases tienen
+ * sesión el día X entre T1 y T2" sin ir a la base de datos.
+ *
+ * <p>Por cada día de la semana guarda arreglos paralelos ordenados por inicio: inicio y fin en
+ * minutos desde epoch y el índice de la clase. Una consulta hace búsqueda binaria del primer
+ * inicio dentro del rango y recorre solo las ocurrencias que empiezan en él.
+ *
+ * <p>Se carga en la primera consulta, se actualiza con cada {@link ClassChangedEvent} y se
+ * reconstruye desde la base de datos periódicamente para recoger cambios de otras instancias.
+ */
+@Component
+public class ScheduleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleIndex.class);
+
+    // Lock en lugar de synchronized: la carga consulta la base de datos y, con hilos virtuales,
+    // un bloque synchronized fija el hilo portador mientras espera.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    private ClassRepository classRepository;
+
+    private Map<String, Class> classes = Map.of();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Clases con alguna ocurrencia que empiece en o después de {@code from} y termine en o antes
+     * de {@code to}, en el día {@code day} (cualquier día si es null).
+     */
+    public List<Class> find(DayOfWeek day, LocalDateTime from, LocalDateTime to) {
+        Snapshot current = current();
+        int lo = toEpochMinuteCeiling(from);
+        int hi = toEpochMinute(to);
+        Set<Class> result = new LinkedHashSet<>();
+        for (int d = 0; d < DayOfWeek.values().length; d++) {
+            if (day != null && day.ordinal() != d) {
+                continue;
+            }
+            DaySlice slice = current.days[d];
+            for (int i = slice.lowerBound(lo); i < slice.starts.length && slice.starts[i] <= hi; i++) {
+                if (slice.ends[i] <= hi) {
+                    result.add(current.classes[slice.classIndexes[i]]);
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${extraclasses.schedule-index.refresh-interval:PT5M}",
+            initialDelayString = "${extraclasses.schedule-index.refresh-interval:PT5M}")
+    public void refresh() {
+        lock.lock();
+        try {
+            load();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * El índice vigente; lo carga si aún no existe.
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.lock();
+        try {
+            // Otra consulta pudo cargarlo mientras se esperaba el lock
+            return snapshot != null ? snapshot : load();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Snapshot load() {
+        Map<String, Class> loaded = new HashMap<>();
+        classRepository.findAll().forEach(clase -> loaded.put(clase.getId(), clase));
+        classes = loaded;
+        snapshot = Snapshot.build(loaded.values());
+        log.debug("Índice de horario cargado: {} clases", loaded.size());
+        return snapshot;
+    }
+
+    @EventListener
+    public void onClassChanged(ClassChangedEvent event) {
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                return; // Aún no se ha cargado; la primera consulta lo hará
+            }
+            Map<String, Class> updated = new HashMap<>(classes);
+            if (event.clase() == null) {
+                updated.remove(event.classId());
+            } else {
+                updated.put(event.classId(), event.clase());
+            }
+            classes = updated;
+            snapshot = Snapshot.build(updated.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int toEpochMinute(LocalDateTime time) {
+        return Math.toIntExact(Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    private static int toEpochMinuteCeiling(LocalDateTime time) {
+        return Math.toIntExact(-Math.floorDiv(-time.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    private static final class Snapshot {
+        private final Class[] classes;
+        private final DaySlice[] days;
+
+        private Snapshot(Class[] classes, DaySlice[] days) {
+            this.classes = classes;
+            this.days = days;
+        }
+
+        static Snapshot build(Iterable<Class> source) {
+            List<Class> indexed = new ArrayList<>();
+            List<List<int[]>> byDay = new ArrayList<>();
+            for (int d = 0; d < DayOfWeek.values().length; d++) {
+                byDay.add(new ArrayList<>());
+            }
+            for (Class clase : source) {
+                int classIndex = indexed.size();
+                List<int[]> entries;
+                try {
+                    entries = SessionRecurrence.occurrences(clase, null, null)
+                            .map(session -> new int[]{toEpochMinute(session.getStartTime()),
+                                    toEpochMinute(session.getEndTime()), classIndex,
+                                    session.getStartTime().getDayOfWeek().ordinal()})
+                            .toList();
+                } catch (IllegalArgumentException e) {
+                    log.warn("Clase {} sin indexar en el horario: {}", clase.getId(), e.getMessage());
+                    continue;
+                }
+                entries.forEach(entry -> byDay.get(entry[3]).add(entry));
+                indexed.add(clase);
+            }
+            DaySlice[] days = new DaySlice[byDay.size()];
+            for (int d = 0; d < days.length; d++) {
+                days[d] = DaySlice.of(byDay.get(d));
+            }
+            return new Snapshot(indexed.toArray(new Class[0]), days);
+        }
+    }
+
+    private static final class DaySlice {
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] classIndexes;
+
+        private DaySlice(int[] starts, int[] ends, int[] classIndexes) {
+            this.starts = starts;
+            this.ends = ends;
+            this.classIndexes = classIndexes;
+        }
+
+        static DaySlice of(List<int[]> entries) {
+            entries.sort(Comparator.comparingInt(entry -> entry[0]));
+            int[] starts = new int[entries.size()];
+            int[] ends = new int[entries.size()];
+            int[] classIndexes = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                starts[i] = entries.get(i)[0];
+                ends[i] = entries.get(i)[1];
+                classIndexes[i] = entries.get(i)[2];
+            }
+            return new DaySlice(starts, ends, classIndexes);
+        }
+
+        /** Primera posición con inicio mayor o igual a {@code minute}. */
+        int lowerBound(int minute) {
+            int lo = 0;
+            int hi = starts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < minute) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.edu.eci.service;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.enums.Repetition;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Expande las plantillas de sesión de una clase según su regla de repetición ({@link Repetition};
+ * sin regla se asume semanal). Las ocurrencias se calculan de
+ * forma perezosa y en orden cronológico, saltando directamente al inicio de la ventana pedida, así
+ * que consultar un rango corto no recorre el periodo completo.
+ *
+ * <p>Cada plantilla se repite hasta {@code endTimeRepetition} (o {@code endDate} si no está
+ * definida), inclusive. Sin fecha de fin la plantilla no se repite. Las fechas de
+ * {@code excludedDates} se omiten.
+ */
+public final class SessionRecurrence {
+
+    private SessionRecurrence() {
+    }
+
+    /**
+     * Ocurrencias (incluidas las plantillas) que empiezan en {@code [from, to)}. Cualquiera de los
+     * dos límites puede ser null.
+     */
+    public static Stream<Class.Session> occurrences(Class clase, LocalDateTime from, LocalDateTime to) {
+        return stream(clase, from, to, 0);
+    }
+
+    /**
+     * Solo las repeticiones: las ocurrencias de todas las plantillas sin contar la plantilla misma.
+     */
+    public static Stream<Class.Session> repetitions(Class clase) {
+        return stream(clase, null, null, 1);
+    }
+
+    /**
+     * Las plantillas de la clase. Las clases guardadas antes de la colección de ocurrencias tienen
+     * en {@code sessions} cada plantilla seguida de sus repeticiones, todas con el id de la
+     * plantilla; expandirlas de nuevo duplicaría cada sesión. Se descarta toda sesión que comparte
+     * id y duración con otra que empieza antes (o a la vez) y cae justo en uno de sus pasos de
+     * repetición. El orden de las plantillas que quedan no cambia.
+     */
+    public static List<Class.Session> templates(Class clase) {
+        List<Class.Session> sessions = clase.getSessions();
+        if (sessions == null || sessions.size() < 2) {
+            return sessions;
+        }
+        Repetition repetition = Repetition.from(clase.getRepetition());
+        List<Class.Session> byStart = new ArrayList<>(sessions);
+        byStart.sort(Comparator.comparing(Class.Session::getStartTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        List<Class.Session> kept = new ArrayList<>();
+        Set<Class.Session> repeated = new HashSet<>(); // Session no redefine equals: por identidad
+        for (Class.Session session : byStart) {
+            if (kept.stream().anyMatch(template -> isRepetition(template, session, repetition))) {
+                repeated.add(session);
+            } else {
+                kept.add(session);
+            }
+        }
+        if (repeated.isEmpty()) {
+            return sessions;
+        }
+        return sessions.stream().filter(session -> !repeated.contains(session)).toList();
+    }
+
+    private static boolean isRepetition(Class.Session template, Class.Session session, Repetition repetition) {
+        if (template.getId() == null || !template.getId().equals(session.getId())
+                || template.getStartTime() == null || template.getEndTime() == null
+                || session.getStartTime() == null || session.getEndTime() == null) {
+            return false;
+        }
+        if (!Duration.between(template.getStartTime(), template.getEndTime())
+                .equals(Duration.between(session.getStartTime(), session.getEndTime()))) {
+            return false;
+        }
+        long steps = repetition.getUnit().between(template.getStartTime(), session.getStartTime()) / repetition.getAmount();
+        return template.getStartTime().plus(steps * repetition.getAmount(), repetition.getUnit())
+                .equals(session.getStartTime());
+    }
+
+    private static Stream<Class.Session> stream(Class clase, LocalDateTime from, LocalDateTime to, long firstIndex) {
+        if (clase == null || clase.getSessions() == null || clase.getSessions().isEmpty()) {
+            return Stream.empty();
+        }
+        Repetition repetition = Repetition.from(clase.getRepetition());
+        LocalDate until = clase.getEndTimeRepetition() != null ? clase.getEndTimeRepetition() : clase.getEndDate();
+        Set<LocalDate> excluded = clase.getExcludedDates() == null ? Set.of() : new HashSet<>(clase.getExcludedDates());
+
+        PriorityQueue<TemplateCursor> cursors = new PriorityQueue<>(Comparator.comparing(TemplateCursor::currentStart));
+        for (Class.Session template : clase.getSessions()) {
+            TemplateCursor cursor = new TemplateCursor(template, repetition, until, to, excluded, firstIndex);
+            if (cursor.seek(from)) {
+                cursors.add(cursor);
+            }
+        }
+
+        Iterator<Class.Session> iterator = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !cursors.isEmpty();
+            }
+
+            @Override
+            public Class.Session next() {
+                TemplateCursor cursor = cursors.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                Class.Session occurrence = cursor.current();
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+                return occurrence;
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Recorre las ocurrencias de una plantilla. La k-ésima se calcula desde la plantilla y no desde
+     * la anterior, para que la repetición mensual no arrastre el ajuste de fin de mes.
+     */
+    private static final class TemplateCursor {
+        private final Class.Session template;
+        private final LocalDateTime templateStart;
+        private final Duration duration;
+        private final Repetition repetition;
+        private final LocalDate until;
+        private final LocalDateTime to;
+        private final Collection<LocalDate> excluded;
+        private long index;
+        private LocalDateTime currentStart;
+
+        TemplateCursor(Class.Session template, Repetition repetition, LocalDate until, LocalDateTime to,
+                       Collection<LocalDate> excluded, long firstIndex) {
+            if (template.getStartTime() == null || template.getEndTime() == null) {
+                throw new IllegalArgumentException("Sesión sin fecha de inicio o fin: " + template.getId());
+            }
+            this.template = template;
+            this.templateStart = template.getStartTime();
+            this.duration = Duration.between(templateStart, template.getEndTime());
+            this.repetition = repetition;
+            this.until = until;
+            this.to = to;
+            this.excluded = excluded;
+            this.index = firstIndex;
+        }
+
+        /** Se posiciona en la primera ocurrencia que empieza en o después de {@code from}. */
+        boolean seek(LocalDateTime from) {
+            if (from != null && from.isAfter(templateStart)) {
+                long steps = repetition.getUnit().between(templateStart, from) / repetition.getAmount();
+                index = Math.max(index, steps);
+            }
+            currentStart = startAt(index);
+            while (from != null && currentStart.isBefore(from)) {
+                currentStart = startAt(++index);
+            }
+            return settle();
+        }
+
+        boolean advance() {
+            currentStart = startAt(++index);
+            return settle();
+        }
+
+        LocalDateTime currentStart() {
+            return currentStart;
+        }
+
+        Class.Session current() {
+            return new Class.Session(template.getId(), currentStart.getDayOfWeek(),
+                    currentStart, currentStart.plus(duration));
+        }
+
+        private LocalDateTime startAt(long k) {
+            return templateStart.plus(k * repetition.getAmount(), repetition.getUnit());
+        }
+
+        /** Salta las fechas excluidas; false si ya no quedan ocurrencias dentro de los límites. */
+        private boolean settle() {
+            while (inBounds() && excluded.contains(currentStart.toLocalDate())) {
+                currentStart = startAt(++index);
+            }
+            return inBounds();
+        }
+
+        private boolean inBounds() {
+            if (index > 0 && (until == null || currentStart.toLocalDate().isAfter(until))) {
+                return false;
+            }
+            return to == null || currentStart.isBefore(to);
+        }
+    }
+}
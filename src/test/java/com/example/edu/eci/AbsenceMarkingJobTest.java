@@ -0,0 +1,199 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.AbsenceMarkingJob;
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.repository.AbsenceRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AbsenceMarkingJobTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private AbsenceRepository absenceRepository;
+
+    @Captor
+    private ArgumentCaptor<Query> queries;
+
+    @Captor
+    private ArgumentCaptor<Update> updates;
+
+    @Captor
+    private ArgumentCaptor<List<SessionOccurrence>> legacySessions;
+
+    private AbsenceMarkingJob job;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        job = new AbsenceMarkingJob(mongoTemplate, absenceRepository, 2);
+    }
+
+    private static SessionOccurrence occurrence(String id, String end) {
+        LocalDateTime endTime = LocalDateTime.parse(end);
+        return new SessionOccurrence(id, "class1", "1", endTime.minusHours(1), endTime);
+    }
+
+    private static Date date(String time) {
+        return Date.from(LocalDateTime.parse(time).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    void shouldProcessEndedSessionsInChunksAndAdvanceWatermark() {
+        SessionOccurrence first = occurrence("o1", "2024-01-01T11:00");
+        SessionOccurrence second = occurrence("o2", "2024-01-01T11:00");
+        SessionOccurrence third = occurrence("o3", "2024-01-08T11:00");
+        when(mongoTemplate.find(any(Query.class), eq(SessionOccurrence.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+
+        job.markEndedSessions();
+
+        verify(absenceRepository).recordFor(List.of(first, second));
+        verify(absenceRepository).recordFor(List.of(third));
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(SessionOccurrence.class));
+        // El segundo chunk continúa después de (11:00, o2), sin repetir ni saltar empates
+        assertTrue(queries.getAllValues().get(1).getQueryObject().toString().contains("o2"));
+        assertEquals(2, queries.getAllValues().get(1).getLimit());
+
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), updates.capture(),
+                any(FindAndModifyOptions.class), eq(Document.class), eq("watermarks"));
+        Document last = updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class);
+        assertEquals("o3", last.get("lastId"));
+        assertEquals(date("2024-01-08T11:00"), last.get("endTime"));
+        assertNotNull(updates.getAllValues().get(2).getUpdateObject().get("$set", Document.class).get("lastRun"));
+    }
+
+    @Test
+    void shouldResumeFromStoredWatermark() {
+        when(mongoTemplate.findById(AbsenceMarkingJob.WATERMARK_ID, Document.class, "watermarks"))
+                .thenReturn(new Document("_id", AbsenceMarkingJob.WATERMARK_ID).append("endTime", date("2024-01-01T11:00")).append("lastId", "o2"));
+
+        job.markEndedSessions();
+
+        verify(mongoTemplate).find(queries.capture(), eq(SessionOccurrence.class));
+        String filter = queries.getValue().getQueryObject().toString();
+        assertTrue(filter.contains("$or"));
+        assertTrue(filter.contains("o2"));
+    }
+
+    @Test
+    void shouldRecordOccurrencesWrittenAfterTheyEnded() {
+        when(mongoTemplate.findById(AbsenceMarkingJob.WATERMARK_ID, Document.class, "watermarks"))
+                .thenReturn(new Document("_id", AbsenceMarkingJob.WATERMARK_ID)
+                        .append("endTime", date("2024-01-08T11:00")).append("lastId", "o3")
+                        .append("lastRun", date("2024-01-08T12:00")));
+        // Creada después del último run, pero con un fin anterior al watermark
+        SessionOccurrence late = occurrence("o0", "2023-12-01T11:00");
+        late.setUpdatedAt(LocalDateTime.parse("2024-01-08T12:03"));
+        when(mongoTemplate.find(any(Query.class), eq(SessionOccurrence.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(late));
+
+        job.markEndedSessions();
+
+        verify(absenceRepository).recordFor(List.of(late));
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(SessionOccurrence.class));
+        Query lateWrites = queries.getAllValues().get(1);
+        assertEquals(new Document("updatedAt", 1).append("_id", 1), lateWrites.getSortObject());
+        // Desde el run anterior menos el margen para escrituras en curso
+        assertEquals(LocalDateTime.parse("2024-01-08T11:59"), lateWrites.getQueryObject().get("updatedAt", Document.class).get("$gte"));
+    }
+
+    private void legacyClass(Class.Session... sessions) {
+        Class legacy = new Class();
+        legacy.setId("legacy");
+        Class current = new Class();
+        current.setId("class1");
+        Class withSessions = new Class();
+        withSessions.setId("legacy");
+        withSessions.setSessions(List.of(sessions));
+        when(mongoTemplate.find(any(Query.class), eq(Class.class)))
+                .thenReturn(List.of(legacy, current))
+                .thenReturn(List.of(withSessions));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("classId"), eq(SessionOccurrence.class), eq(String.class)))
+                .thenReturn(List.of("class1"));
+    }
+
+    @Test
+    void shouldRecordEndedSessionsOfClassesWithoutOccurrences() {
+        LocalDateTime now = LocalDateTime.now();
+        Class.Session ended = new Class.Session("1", null, now.minusDays(7).minusHours(2), now.minusDays(7).minusHours(1));
+        // Empezó hoy pero aún no termina: no es inasistencia todavía
+        Class.Session running = new Class.Session("1", null, now.minusHours(1), now.plusHours(1));
+        legacyClass(ended, running);
+
+        job.markEndedSessions();
+
+        verify(absenceRepository).recordForLegacySessions(legacySessions.capture());
+        assertEquals(1, legacySessions.getValue().size());
+        assertEquals("legacy", legacySessions.getValue().get(0).getClassId());
+        assertEquals("1", legacySessions.getValue().get(0).getSessionId());
+        assertEquals(ended.getStartTime(), legacySessions.getValue().get(0).getStartTime());
+    }
+
+    @Test
+    void shouldOnlyRecordLegacySessionsEndedSinceLastRunAndLookUpClassesOnce() {
+        LocalDateTime lastRun = LocalDateTime.now().minusMinutes(5);
+        when(mongoTemplate.findById(AbsenceMarkingJob.WATERMARK_ID, Document.class, "watermarks"))
+                .thenReturn(new Document("_id", AbsenceMarkingJob.WATERMARK_ID).append("lastRun",
+                        Date.from(lastRun.atZone(ZoneId.systemDefault()).toInstant())));
+        Class.Session before = new Class.Session("1", null, lastRun.minusHours(2), lastRun.minusHours(1));
+        Class.Session since = new Class.Session("1", null, lastRun.minusHours(1), lastRun.plusMinutes(1));
+        legacyClass(before, since);
+
+        job.markEndedSessions();
+        job.markEndedSessions();
+
+        verify(absenceRepository, times(2)).recordForLegacySessions(legacySessions.capture());
+        assertEquals(List.of(since.getStartTime()), legacySessions.getAllValues().get(0).stream().map(SessionOccurrence::getStartTime).toList());
+        verify(mongoTemplate, times(1)).findDistinct(any(Query.class), eq("classId"), eq(SessionOccurrence.class), eq(String.class));
+    }
+
+    @Test
+    void shouldSkipLegacyPassWhenEveryClassHasOccurrences() {
+        when(mongoTemplate.findDistinct(any(Query.class), eq("classId"), eq(SessionOccurrence.class), eq(String.class)))
+                .thenReturn(List.of());
+
+        job.markEndedSessions();
+        job.markEndedSessions();
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Class.class));
+        verify(absenceRepository, never()).recordForLegacySessions(anyList());
+    }
+
+    @Test
+    void shouldOnlyStampRunWithoutNewEndedSessions() {
+        job.markEndedSessions();
+
+        verify(absenceRepository, never()).recordFor(anyList());
+        verify(mongoTemplate).findAndModify(any(Query.class), updates.capture(),
+                any(FindAndModifyOptions.class), eq(Document.class), eq("watermarks"));
+        Document set = updates.getValue().getUpdateObject().get("$set", Document.class);
+        assertFalse(set.containsKey("endTime"));
+        assertTrue(set.containsKey("lastRun"));
+    }
+}
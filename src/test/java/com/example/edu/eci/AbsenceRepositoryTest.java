@@ -0,0 +1,114 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Absence;
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.repository.AbsenceRepositoryImpl;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AbsenceRepositoryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> assistances;
+
+    @Mock
+    private AggregateIterable<Document> aggregateIterable;
+
+    @InjectMocks
+    private AbsenceRepositoryImpl absenceRepository;
+
+    @Captor
+    private ArgumentCaptor<List<Document>> pipeline;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(Assistance.class)).thenReturn("assistances");
+        when(mongoTemplate.getCollectionName(Absence.class)).thenReturn("absences");
+        when(mongoTemplate.getCollection("assistances")).thenReturn(assistances);
+        when(assistances.aggregate(anyList())).thenReturn(aggregateIterable);
+    }
+
+    @Test
+    void recordForShouldMergeUnconfirmedAssistancesOfEndedSessions() {
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 11, 0);
+        absenceRepository.recordFor(List.of(
+                new SessionOccurrence("o1", "class1", "1", end.minusHours(1), end),
+                new SessionOccurrence("o2", "class1", "2", end.minusHours(1), end)));
+
+        verify(assistances).aggregate(pipeline.capture());
+        verify(aggregateIterable).toCollection();
+        Document match = pipeline.getValue().get(0).get("$match", Document.class);
+        assertEquals(new Document("$in", List.of("class1")), match.get("classId"));
+        assertEquals(new Document("$in", List.of("o1", "o2")), match.get("sessionId"));
+        assertEquals(false, match.get("confirm"));
+        Document merge = pipeline.getValue().get(2).get("$merge", Document.class);
+        assertEquals("absences", merge.get("into"));
+        assertEquals("keepExisting", merge.get("whenMatched"));
+    }
+
+    @Test
+    void recordForShouldSkipEmptyChunks() {
+        absenceRepository.recordFor(List.of());
+
+        verifyNoInteractions(assistances);
+    }
+
+    @Test
+    void recordForLegacySessionsShouldMatchEachSessionByTemplateAndDate() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 8, 10, 0);
+        absenceRepository.recordForLegacySessions(List.of(new SessionOccurrence("1", "legacy", "1", start, start.plusHours(1))));
+
+        verify(assistances).aggregate(pipeline.capture());
+        verify(aggregateIterable).toCollection();
+        Document match = pipeline.getValue().get(0).get("$match", Document.class);
+        assertEquals(false, match.get("confirm"));
+        assertEquals(List.of(new Document("classId", "legacy").append("sessionId", "1")
+                        .append("startTime", Date.from(start.toLocalDate().atStartOfDay(ZoneId.systemDefault()).toInstant()))),
+                match.get("$or"));
+        assertEquals("keepExisting", pipeline.getValue().get(2).get("$merge", Document.class).get("whenMatched"));
+    }
+
+    @Test
+    void recordForLegacySessionsShouldSkipWhenThereAreNone() {
+        absenceRepository.recordForLegacySessions(List.of());
+
+        verifyNoInteractions(assistances);
+    }
+
+    @Test
+    void findPageShouldSortByIdAndStartAfterCursor() {
+        absenceRepository.findPage("a2", 11);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Absence.class));
+        assertEquals(new Document("$gt", "a2"), query.getValue().getQueryObject().get("_id"));
+        assertEquals(new Document("_id", 1), query.getValue().getSortObject());
+        assertEquals(11, query.getValue().getLimit());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.AssistanceIndexVerifier;
+import com.example.edu.eci.repository.AssistanceRepository;
+import com.example.edu.eci.repository.AssistanceRepositoryCustom;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AssistanceIndexVerifierTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private FindIterable<Document> findIterable;
+
+    private AssistanceIndexVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(any())).thenReturn("assistances");
+        when(mongoTemplate.getCollection("assistances")).thenReturn(collection);
+        when(collection.find(any(Document.class))).thenReturn(findIterable);
+        verifier = new AssistanceIndexVerifier(mongoTemplate);
+    }
+
+    @Test
+    void everyRepositoryQueryMethodShouldHaveAVerifiedShape() {
+        List<String> missing = Stream.of(AssistanceRepository.class, AssistanceRepositoryCustom.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                .map(Method::getName)
+                .filter(name -> !AssistanceIndexVerifier.WRITE_ONLY_METHODS.contains(name))
+                .filter(name -> !AssistanceIndexVerifier.QUERY_SHAPES.containsKey(name))
+                .toList();
+
+        assertTrue(missing.isEmpty(), "Métodos de AssistanceRepository sin forma de consulta verificada: " + missing);
+    }
+
+    @Test
+    void usesCollectionScanShouldFindNestedCollscan() {
+        Document plan = Document.parse("{ stage: 'FETCH', inputStage: { stage: 'OR', inputStages: ["
+                + "{ stage: 'IXSCAN' }, { stage: 'COLLSCAN' } ] } }");
+
+        assertTrue(AssistanceIndexVerifier.usesCollectionScan(plan));
+    }
+
+    @Test
+    void usesCollectionScanShouldAcceptIndexedPlans() {
+        Document plan = Document.parse("{ stage: 'FETCH', inputStage: { stage: 'IXSCAN', indexName: 'class_user' } }");
+
+        assertFalse(AssistanceIndexVerifier.usesCollectionScan(plan));
+    }
+
+    @Test
+    void runShouldFailWhenAnyQueryUsesCollectionScan() {
+        when(findIterable.explain()).thenReturn(Document.parse("{ queryPlanner: { winningPlan: { stage: 'COLLSCAN' } } }"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> verifier.run(null));
+        assertTrue(e.getMessage().contains("countByClassId"));
+    }
+
+    @Test
+    void runShouldPassWhenEveryQueryUsesAnIndex() {
+        when(findIterable.explain()).thenReturn(Document.parse(
+                "{ queryPlanner: { winningPlan: { stage: 'FETCH', inputStage: { stage: 'IXSCAN' } } } }"));
+
+        assertDoesNotThrow(() -> verifier.run(null));
+        verify(collection, times(AssistanceIndexVerifier.QUERY_SHAPES.size())).find(any(Document.class));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.repository.AssistanceRepositoryImpl;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.bson.Document;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AssistanceRepositoryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private AssistanceRepositoryImpl assistanceRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Assistance.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void insertAllShouldUseSingleUnorderedBulkWrite() {
+        List<Assistance> assistances = List.of(new Assistance(), new Assistance(), new Assistance());
+
+        assistanceRepository.insertAll(assistances);
+
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.UNORDERED, Assistance.class);
+        verify(bulkOperations).insert(assistances);
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    void confirmShouldFindAndModifyOnlyUnconfirmedAssistance() {
+        Assistance before = new Assistance();
+        before.setId("a1");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Assistance.class))).thenReturn(before);
+
+        assertEquals(Optional.of(before), assistanceRepository.confirm("u1", "c1", "s1", "instructor1"));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(), eq(Assistance.class));
+        Document filter = queryCaptor.getValue().getQueryObject();
+        assertEquals("u1", filter.get("userId"));
+        assertEquals("c1", filter.get("classId"));
+        assertEquals("s1", filter.get("sessionId"));
+        assertEquals(false, filter.get("confirm"));
+        Document set = updateCaptor.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(true, set.get("confirm"));
+        assertEquals("instructor1", set.get("instructorId"));
+    }
+
+    @Test
+    void confirmShouldReportAlreadyConfirmedAssistance() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Assistance.class))).thenReturn(null);
+
+        assertTrue(assistanceRepository.confirm("u1", "c1", "s1", "instructor1").isEmpty());
+    }
+
+    @Test
+    void findRosterShouldProjectOnlyConfirmationState() {
+        assistanceRepository.findRoster("c1", "s1", List.of("u1", "u2"));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Assistance.class));
+        Query query = queryCaptor.getValue();
+        assertEquals(new Document("$in", List.of("u1", "u2")), query.getQueryObject().get("userId"));
+        assertEquals("s1", query.getQueryObject().get("sessionId"));
+        assertEquals(new Document("userId", 1).append("startTime", 1).append("confirm", 1), query.getFieldsObject());
+    }
+
+    @Test
+    void confirmAllShouldUseOneConditionalBulkWrite() {
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+
+        Set<String> confirmed = assistanceRepository.confirmAll(List.of("a1", "a2"), "instructor1");
+
+        assertEquals(Set.of("a1", "a2"), confirmed);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations, times(2)).updateOne(queryCaptor.capture(), any(Update.class));
+        verify(bulkOperations, times(1)).execute();
+        assertEquals(false, queryCaptor.getAllValues().get(0).getQueryObject().get("confirm"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Assistance.class));
+        ArgumentCaptor<Update> clearCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), clearCaptor.capture(), eq(Assistance.class));
+        assertEquals(new Document("confirmBatchId", 1), clearCaptor.getValue().getUpdateObject().get("$unset"));
+    }
+
+    @Test
+    void confirmAllShouldReadBackBatchWhenSomeWereAlreadyConfirmed() {
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 1, List.of(), List.of()));
+        Assistance mine = new Assistance();
+        mine.setId("a2");
+        when(mongoTemplate.find(any(Query.class), eq(Assistance.class))).thenReturn(List.of(mine));
+
+        Set<String> confirmed = assistanceRepository.confirmAll(List.of("a1", "a2"), "instructor1");
+
+        assertEquals(Set.of("a2"), confirmed);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), updateCaptor.capture());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Assistance.class));
+        Object batchId = updateCaptor.getValue().getUpdateObject().get("$set", Document.class).get("confirmBatchId");
+        assertNotNull(batchId);
+        assertEquals(batchId, queryCaptor.getValue().getQueryObject().get("confirmBatchId"));
+        // Después de leer el lote, la marca se quita de los documentos que la llevan
+        ArgumentCaptor<Query> clearCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(clearCaptor.capture(), any(Update.class), eq(Assistance.class));
+        assertEquals(batchId, clearCaptor.getValue().getQueryObject().get("confirmBatchId"));
+    }
+
+    @Test
+    void confirmAllShouldSkipEmptyBatches() {
+        assertTrue(assistanceRepository.confirmAll(List.of(), "instructor1").isEmpty());
+        verifyNoInteractions(bulkOperations);
+    }
+
+    @Test
+    void findConfirmedPageShouldSortByIdAndStartAfterCursor() {
+        assistanceRepository.findConfirmedPage("65f000000000000000000001", 11);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Assistance.class));
+        Query query = queryCaptor.getValue();
+        assertEquals(true, query.getQueryObject().get("confirm"));
+        assertEquals("65f000000000000000000001", query.getQueryObject().get("_id", Document.class).get("$gt"));
+        assertEquals(new Document("_id", 1), query.getSortObject());
+        assertEquals(11, query.getLimit());
+    }
+
+    @Test
+    void unconfirmedAfterPageShouldFilterByStartTime() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assistanceRepository.findUnconfirmedAfterPage(now, null, 5);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Assistance.class));
+        Document after = queryCaptor.getValue().getQueryObject();
+        assertEquals(false, after.get("confirm"));
+        assertEquals(now, after.get("startTime", Document.class).get("$gt"));
+        assertFalse(after.containsKey("_id"));
+    }
+
+    @Test
+    void insertAllShouldSkipEmptyBatches() {
+        assistanceRepository.insertAll(List.of());
+        assistanceRepository.insertAll(null);
+
+        verifyNoInteractions(mongoTemplate);
+    }
+}
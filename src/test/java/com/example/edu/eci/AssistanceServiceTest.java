@@ -1,23 +1,43 @@
 package com.example.edu.eci;
 import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
 import com.example.edu.eci.model.User;
+import com.example.edu.eci.model.enums.ConfirmationStatus;
 
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Absence;
 import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.AttendanceCounter;
+import com.example.edu.eci.repository.AbsenceRepository;
 import com.example.edu.eci.repository.AssistanceRepository;
-import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.AttendanceCounterRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
 import com.example.edu.eci.repository.UserRepository;
+import com.example.edu.eci.service.ClassService;
 import com.example.edu.eci.service.AssistanceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class AssistanceServiceTest {
@@ -32,16 +52,73 @@ class AssistanceServiceTest {
     private AssistanceRepository assistanceRepository;
 
     @Mock
-    private ClassRepository classRepository;
+    private ClassService classService;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ClassSeatsRepository classSeatsRepository;
+
+    @Mock
+    private AttendanceCounterRepository attendanceCounterRepository;
+
+    @Mock
+    private AbsenceRepository absenceRepository;
+
+    @Captor
+    private ArgumentCaptor<List<Assistance>> assistancesCaptor;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
     }
 
+    private static Assistance rosterEntry(String id, String userId, boolean confirm) {
+        Assistance assistance = new Assistance();
+        assistance.setId(id);
+        assistance.setUserId(userId);
+        assistance.setStartTime(LocalDate.of(2024, 1, 8));
+        assistance.setConfirm(confirm);
+        return assistance;
+    }
+
+    @Test
+    void confirmSessionShouldReportResultPerUserAndCountOnlyNewConfirmations() {
+        when(assistanceRepository.findRoster(eq("class1"), eq("session1"), anyCollection())).thenReturn(List.of(
+                rosterEntry("a1", "user1", false),
+                rosterEntry("a2", "user2", true),
+                rosterEntry("a4", "user4", false)));
+        // user4 lo confirmó otra petición entre la lectura y el bulk write
+        when(assistanceRepository.confirmAll(List.of("a1", "a4"), "instructor1")).thenReturn(Set.of("a1"));
+
+        Map<String, ConfirmationStatus> results = assistanceService.confirmSession("class1", "session1",
+                List.of("user1", "user2", "user3", "user4"), "instructor1");
+
+        assertEquals(List.of("user1", "user2", "user3", "user4"), List.copyOf(results.keySet()));
+        assertEquals(ConfirmationStatus.CONFIRMED, results.get("user1"));
+        assertEquals(ConfirmationStatus.ALREADY_CONFIRMED, results.get("user2"));
+        assertEquals(ConfirmationStatus.NOT_ENROLLED, results.get("user3"));
+        assertEquals(ConfirmationStatus.ALREADY_CONFIRMED, results.get("user4"));
+        verify(attendanceCounterRepository).incrementAll(assistancesCaptor.capture());
+        assertEquals(1, assistancesCaptor.getValue().size());
+        assertEquals("user1", assistancesCaptor.getValue().get(0).getUserId());
+        assertEquals("class1", assistancesCaptor.getValue().get(0).getClassId());
+        verify(absenceRepository).deleteAllById(Set.of("a1"));
+        verify(assistanceRepository, never()).findByUserIdAndClassIdAndSessionId(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void confirmSessionShouldRejectEmptyRoster() {
+        assertThrows(IllegalArgumentException.class, () ->
+                assistanceService.confirmSession("class1", "session1", List.of(), "instructor1"));
+        verifyNoInteractions(attendanceCounterRepository);
+    }
+
     @Test
     void confirmAssistanceShouldThrowExceptionWhenNoInscriptionExistsForSession() {
         when(assistanceRepository.findByUserIdAndClassIdAndSessionId("user1", "class1", "session1"))
@@ -68,20 +145,20 @@ class AssistanceServiceTest {
 
     @Test
     void confirmAssistanceShouldConfirmSuccessfullyWhenValid() {
-        Assistance assistance = new Assistance();
-        assistance.setUserId("user1");
-        assistance.setClassId("class1");
-        assistance.setSessionId("session1");
-        assistance.setConfirm(false);
+        Assistance before = new Assistance();
+        before.setId("a1");
+        before.setStartTime(LocalDate.of(2024, 1, 8));
+        before.setConfirm(false);
 
-        when(assistanceRepository.findByUserIdAndClassIdAndSessionId("user1", "class1", "session1"))
-                .thenReturn(Optional.of(assistance));
+        when(assistanceRepository.confirm("user1", "class1", "session1", "instructor1"))
+                .thenReturn(Optional.of(before));
 
         assistanceService.confirmAssistance("user1", "class1", "session1", "instructor1");
 
-        assertTrue(assistance.isConfirm());
-        assertEquals("instructor1", assistance.getInstructorId());
-        verify(assistanceRepository).save(assistance);
+        verify(assistanceRepository, never()).findByUserIdAndClassIdAndSessionId(anyString(), anyString(), anyString());
+        verify(assistanceRepository, never()).save(any(Assistance.class));
+        verify(attendanceCounterRepository).increment("user1", "class1", LocalDate.of(2024, 1, 8));
+        verify(absenceRepository).deleteById("a1");
     }
 
     @Test
@@ -103,25 +180,32 @@ class AssistanceServiceTest {
     }
 
     @Test
-    void getAssistancesWithFalseBeforeShouldReturnListOfUnconfirmedAssistancesBeforeNow() {
+    void getConfirmedPageShouldReadOneExtraElementToDetectNextPage() {
         Assistance assistance1 = new Assistance();
-        assistance1.setConfirm(false);
-        assistance1.setStartTime(LocalDate.now().minusDays(1));
-
+        assistance1.setId("a1");
         Assistance assistance2 = new Assistance();
-        assistance2.setConfirm(false);
-        assistance2.setStartTime(LocalDate.now().minusDays(2));
+        assistance2.setId("a2");
+        when(assistanceRepository.findConfirmedPage(null, 2)).thenReturn(List.of(assistance1, assistance2));
+
+        CursorPage<Assistance> page = assistanceService.getConfirmedPage(null, 1);
 
-        when(assistanceRepository.findByConfirmFalseAndStartTimeIsBefore(any(LocalDateTime.class)))
-                .thenReturn(List.of(assistance1, assistance2));
+        assertEquals(1, page.getItems().size());
+        assertEquals("a1", CursorPage.decodeCursor(page.getNextCursor()));
+    }
 
-        List<Assistance> result = assistanceService.getAssistancesWithFalseBefore();
+    @Test
+    void getAbsencesPageShouldReadRecordedAbsencesFromCursor() {
+        Absence absence = new Absence();
+        absence.setId("a3");
+        when(absenceRepository.findPage("a2", 11)).thenReturn(List.of(absence));
 
-        assertEquals(2, result.size());
-        assertFalse(result.get(0).isConfirm());
-        assertFalse(result.get(1).isConfirm());
-        verify(assistanceRepository).findByConfirmFalseAndStartTimeIsBefore(any(LocalDateTime.class));
+        CursorPage<Absence> page = assistanceService.getAbsencesPage(CursorPage.encodeCursor("a2"), 10);
+
+        assertEquals(List.of(absence), page.getItems());
+        assertNull(page.getNextCursor());
+        verifyNoInteractions(assistanceRepository);
     }
+
     @Test
     void confirmAssistanceShouldThrowExceptionWhenSessionNotFound() {
         when(assistanceRepository.findByUserIdAndClassIdAndSessionId("user1", "class1", "session1"))
@@ -148,37 +232,86 @@ class AssistanceServiceTest {
 
     @Test
     void confirmAssistanceShouldConfirmSuccessfully() {
+        Assistance before = new Assistance();
+        before.setId("a1");
+        before.setStartTime(LocalDate.of(2024, 1, 8));
+        before.setConfirm(false);
+
+        when(assistanceRepository.confirm("user1", "class1", "session1", "instructor1"))
+                .thenReturn(Optional.of(before));
+
+        assistanceService.confirmAssistance("user1", "class1", "session1", "instructor1");
+
+        verify(assistanceRepository, never()).findByUserIdAndClassIdAndSessionId(anyString(), anyString(), anyString());
+        verify(assistanceRepository, never()).save(any(Assistance.class));
+        verify(attendanceCounterRepository).increment("user1", "class1", LocalDate.of(2024, 1, 8));
+        verify(absenceRepository).deleteById("a1");
+    }
+
+    @Test
+    void confirmAssistanceShouldNotTouchAbsencesForFutureSessions() {
+        Assistance before = new Assistance();
+        before.setId("a1");
+        before.setStartTime(LocalDate.now().plusDays(7));
+        when(assistanceRepository.confirm("user1", "class1", "session1", "instructor1"))
+                .thenReturn(Optional.of(before));
+
+        assistanceService.confirmAssistance("user1", "class1", "session1", "instructor1");
+
+        verifyNoInteractions(absenceRepository);
+    }
+
+    @Test
+    void confirmAssistanceShouldNotCountWhenAlreadyConfirmed() {
         Assistance assistance = new Assistance();
-        assistance.setUserId("user1");
-        assistance.setClassId("class1");
-        assistance.setSessionId("session1");
-        assistance.setConfirm(false);
+        assistance.setId("a1");
+        assistance.setConfirm(true);
 
+        when(assistanceRepository.confirm("user1", "class1", "session1", "instructor1"))
+                .thenReturn(Optional.empty());
         when(assistanceRepository.findByUserIdAndClassIdAndSessionId("user1", "class1", "session1"))
                 .thenReturn(Optional.of(assistance));
 
-        assistanceService.confirmAssistance("user1", "class1", "session1", "instructor1");
-
-        assertTrue(assistance.isConfirm());
-        assertEquals("instructor1", assistance.getInstructorId());
-        verify(assistanceRepository).save(assistance);
+        assertThrows(IllegalStateException.class, () ->
+                assistanceService.confirmAssistance("user1", "class1", "session1", "instructor1"));
+        verifyNoInteractions(attendanceCounterRepository);
     }
 
     @Test
-    void countConfirmedAttendancesShouldReturnCountWhenAttendancesExist() {
+    void countConfirmedAttendancesShouldReadMonthlyCountersForFullMonths() {
         String userId = "user1";
         LocalDate start = LocalDate.of(2024, 1, 1);
-        LocalDate end = LocalDate.of(2024, 1, 31);
+        LocalDate end = LocalDate.of(2024, 2, 29);
+        List<String> months = List.of(AttendanceCounter.byMonthId(userId, YearMonth.of(2024, 1)),
+                AttendanceCounter.byMonthId(userId, YearMonth.of(2024, 2)));
 
-        when(assistanceRepository.countByUserIdAndConfirmTrueAndStartTimeBetween(
-                userId, start.atStartOfDay(), end.atTime(LocalTime.MAX)))
-                .thenReturn(5);
+        when(attendanceCounterRepository.findAllById(months)).thenReturn(List.of(
+                new AttendanceCounter(months.get(0), userId, null, "2024-01", 3, null),
+                new AttendanceCounter(months.get(1), userId, null, "2024-02", 2, null)));
 
         long result = assistanceService.countConfirmedAttendances(userId, start, end);
 
         assertEquals(5L, result);
-        verify(assistanceRepository).countByUserIdAndConfirmTrueAndStartTimeBetween(
-                userId, start.atStartOfDay(), end.atTime(LocalTime.MAX));
+        verify(assistanceRepository, never()).countConfirmedByUserIdAndStartTimeIn(anyString(), any(), any());
+    }
+
+    @Test
+    void countConfirmedAttendancesShouldCountPartialEdgeMonthsFromAssistances() {
+        String userId = "user1";
+        LocalDate start = LocalDate.of(2024, 1, 15);
+        LocalDate end = LocalDate.of(2024, 3, 10);
+        String february = AttendanceCounter.byMonthId(userId, YearMonth.of(2024, 2));
+
+        when(assistanceRepository.countConfirmedByUserIdAndStartTimeIn(userId, start, LocalDate.of(2024, 1, 31)))
+                .thenReturn(4L);
+        when(assistanceRepository.countConfirmedByUserIdAndStartTimeIn(userId, LocalDate.of(2024, 3, 1), end))
+                .thenReturn(1L);
+        when(attendanceCounterRepository.findAllById(List.of(february))).thenReturn(List.of(
+                new AttendanceCounter(february, userId, null, "2024-02", 6, null)));
+
+        long result = assistanceService.countConfirmedAttendances(userId, start, end);
+
+        assertEquals(11L, result);
     }
 
     @Test
@@ -187,30 +320,27 @@ class AssistanceServiceTest {
         LocalDate start = LocalDate.of(2024, 1, 1);
         LocalDate end = LocalDate.of(2024, 1, 31);
 
-        when(assistanceRepository.countByUserIdAndConfirmTrueAndStartTimeBetween(
-                userId, start.atStartOfDay(), end.atTime(LocalTime.MAX)))
-                .thenReturn(0);
+        when(attendanceCounterRepository.findAllById(anyList())).thenReturn(List.of());
 
         Exception exception = assertThrows(IllegalStateException.class, () ->
                 assistanceService.countConfirmedAttendances(userId, start, end));
 
         assertEquals("No hay asistencias registradas para este usuario", exception.getMessage());
-        verify(assistanceRepository).countByUserIdAndConfirmTrueAndStartTimeBetween(
-                userId, start.atStartOfDay(), end.atTime(LocalTime.MAX));
     }
 
     @Test
     void countAttendancesByClassShouldReturnCountWhenAttendancesExist() {
         String userId = "user1";
         String classId = "class1";
+        String counterId = AttendanceCounter.byClassId(userId, classId);
 
-        when(assistanceRepository.countByUserIdAndClassIdAndConfirmTrue(userId, classId))
-                .thenReturn(3);
+        when(attendanceCounterRepository.findById(counterId))
+                .thenReturn(Optional.of(new AttendanceCounter(counterId, userId, classId, null, 3, null)));
 
         long result = assistanceService.countAttendancesByClass(userId, classId);
 
         assertEquals(3L, result);
-        verify(assistanceRepository).countByUserIdAndClassIdAndConfirmTrue(userId, classId);
+        verifyNoInteractions(assistanceRepository);
     }
 
     @Test
@@ -218,19 +348,18 @@ class AssistanceServiceTest {
         String userId = "user1";
         String classId = "class1";
 
-        when(assistanceRepository.countByUserIdAndClassIdAndConfirmTrue(userId, classId))
-                .thenReturn(0);
+        when(attendanceCounterRepository.findById(AttendanceCounter.byClassId(userId, classId)))
+                .thenReturn(Optional.empty());
 
         Exception exception = assertThrows(IllegalStateException.class, () ->
                 assistanceService.countAttendancesByClass(userId, classId));
 
         assertEquals("No hay asistencias registradas", exception.getMessage());
-        verify(assistanceRepository).countByUserIdAndClassIdAndConfirmTrue(userId, classId);
     }
     @Test
     void completeInscriptionShouldThrowExceptionWhenUserNotFound() {
         when(userRepository.findById("user1")).thenReturn(Optional.empty());
-        when(classRepository.findById("class1")).thenReturn(Optional.of(new Class()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(new Class()));
 
         assertThrows(IllegalArgumentException.class, () ->
                 assistanceService.completeInscription("user1", "class1"));
@@ -239,7 +368,7 @@ class AssistanceServiceTest {
     @Test
     void completeInscriptionShouldThrowExceptionWhenClassNotFound() {
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.empty());
+        when(classService.getClassById("class1")).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () ->
                 assistanceService.completeInscription("user1", "class1"));
@@ -248,7 +377,7 @@ class AssistanceServiceTest {
     @Test
     void completeInscriptionShouldThrowExceptionWhenUserAlreadyInscribed() {
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.of(new Class()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(new Class()));
         when(assistanceRepository.existsByUserIdAndClassId("user1", "class1")).thenReturn(true);
 
         assertThrows(IllegalStateException.class, () ->
@@ -261,9 +390,9 @@ class AssistanceServiceTest {
         clase.setMaxStudents(1);
 
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.of(clase));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
         when(assistanceRepository.existsByUserIdAndClassId("user1", "class1")).thenReturn(false);
-        when(assistanceRepository.countByClassId("class1")).thenReturn(1L);
+        when(classSeatsRepository.tryReserve("class1", 1)).thenReturn(false);
 
         assertThrows(IllegalStateException.class, () ->
                 assistanceService.completeInscription("user1", "class1"));
@@ -280,18 +409,95 @@ class AssistanceServiceTest {
         Class clase = new Class();
         clase.setMaxStudents(10);
         clase.setSessions(List.of(session1, session2));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 8, 9, 0);
 
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.of(clase));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
+        when(classService.getSessions("class1")).thenReturn(List.of(
+                new SessionOccurrence("occ1", "class1", "session1", start, start.plusHours(1)),
+                new SessionOccurrence("occ2", "class1", "session2", start.plusWeeks(1), start.plusWeeks(1).plusHours(1))));
         when(assistanceRepository.existsByUserIdAndClassId("user1", "class1")).thenReturn(false);
-        when(assistanceRepository.countByClassId("class1")).thenReturn(0L);
+        when(classSeatsRepository.tryReserve("class1", 10)).thenReturn(true);
 
         assistanceService.completeInscription("user1", "class1");
 
-        verify(assistanceRepository, times(2)).save(any(Assistance.class));
+        verify(assistanceRepository, times(1)).insertAll(assistancesCaptor.capture());
+        assertEquals(2, assistancesCaptor.getValue().size());
+        assertEquals("occ2", assistancesCaptor.getValue().get(1).getSessionId());
+        assertEquals(start.plusWeeks(1).toLocalDate(), assistancesCaptor.getValue().get(1).getStartTime());
+        verify(assistanceRepository, never()).save(any(Assistance.class));
+        verify(classSeatsRepository, never()).release(anyString());
     }
 
+    @Test
+    void completeInscriptionShouldReleaseSeatWhenSavingFails() {
+        Class.Session session1 = new Class.Session();
+        session1.setId("session1");
 
+        Class clase = new Class();
+        clase.setMaxStudents(10);
+        clase.setSessions(List.of(session1));
 
+        when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
+        when(classSeatsRepository.tryReserve("class1", 10)).thenReturn(true);
+        doThrow(new RuntimeException("db down")).when(assistanceRepository).insertAll(anyList());
 
+        assertThrows(RuntimeException.class, () ->
+                assistanceService.completeInscription("user1", "class1"));
+        verify(assistanceRepository).deleteByUserIdAndClassId("user1", "class1");
+        verify(classSeatsRepository).release("class1");
+    }
+
+    @Test
+    void exportConfirmedShouldWriteOneJsonDocumentPerLine() throws IOException {
+        Assistance assistance1 = new Assistance();
+        assistance1.setId("a1");
+        assistance1.setConfirm(true);
+        assistance1.setStartTime(LocalDate.of(2024, 3, 1));
+        Assistance assistance2 = new Assistance();
+        assistance2.setId("a2");
+        assistance2.setConfirm(true);
+
+        when(assistanceRepository.streamByConfirmTrue()).thenReturn(Stream.of(assistance1, assistance2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = assistanceService.exportConfirmed(null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":\"a1\""));
+        assertTrue(lines[0].contains("\"startTime\":\"2024-03-01\""));
+        assertTrue(lines[1].contains("\"id\":\"a2\""));
+        verify(assistanceRepository, never()).findByConfirmTrue();
+    }
+
+    @Test
+    void exportConfirmedShouldStreamOnlyTheUserHistoryWhenUserIdIsGiven() throws IOException {
+        Assistance assistance = new Assistance();
+        assistance.setUserId("user1");
+        when(assistanceRepository.streamByUserIdAndConfirmIsTrue("user1")).thenReturn(Stream.of(assistance));
+
+        long written = assistanceService.exportConfirmed("user1", new ByteArrayOutputStream());
+
+        assertEquals(1, written);
+        verify(assistanceRepository, never()).streamByConfirmTrue();
+    }
+
+    @Test
+    void exportConfirmedShouldCloseCursorWhenClientDisconnects() {
+        AtomicBoolean cursorClosed = new AtomicBoolean(false);
+        Stream<Assistance> cursor = Stream.generate(Assistance::new).onClose(() -> cursorClosed.set(true));
+        when(assistanceRepository.streamByConfirmTrue()).thenReturn(cursor);
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> assistanceService.exportConfirmed(null, disconnected));
+        assertTrue(cursorClosed.get());
+    }
 }
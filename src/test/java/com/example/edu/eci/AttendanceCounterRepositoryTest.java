@@ -0,0 +1,165 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.AttendanceCounter;
+import com.example.edu.eci.repository.AttendanceCounterRepositoryImpl;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AttendanceCounterRepositoryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private MongoCollection<Document> assistances;
+
+    @Mock
+    private AggregateIterable<Document> aggregateIterable;
+
+    @InjectMocks
+    private AttendanceCounterRepositoryImpl attendanceCounterRepository;
+
+    @Captor
+    private ArgumentCaptor<List<Document>> pipelines;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(AttendanceCounter.class))).thenReturn(bulkOperations);
+        when(mongoTemplate.getCollectionName(Assistance.class)).thenReturn("assistances");
+        when(mongoTemplate.getCollectionName(AttendanceCounter.class)).thenReturn("attendance_counters");
+        when(mongoTemplate.getCollection("assistances")).thenReturn(assistances);
+        when(assistances.aggregate(anyList())).thenReturn(aggregateIterable);
+    }
+
+    @Test
+    void incrementShouldUpsertClassAndMonthCountersInOneBulkWrite() {
+        attendanceCounterRepository.increment("user1", "class1", LocalDate.of(2024, 3, 15));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).upsert(queryCaptor.capture(), updateCaptor.capture());
+        verify(bulkOperations, times(1)).execute();
+        assertEquals("class:user1:class1", queryCaptor.getAllValues().get(0).getQueryObject().get("_id"));
+        assertEquals("month:user1:2024-03", queryCaptor.getAllValues().get(1).getQueryObject().get("_id"));
+        Document update = updateCaptor.getAllValues().get(1).getUpdateObject();
+        assertEquals(1, update.get("$inc", Document.class).get("count"));
+        assertEquals("2024-03", update.get("$setOnInsert", Document.class).get("month"));
+    }
+
+    @Test
+    void incrementAllShouldUpsertEveryCounterInOneBulkWrite() {
+        Assistance first = new Assistance();
+        first.setUserId("user1");
+        first.setClassId("class1");
+        first.setStartTime(LocalDate.of(2024, 3, 15));
+        Assistance second = new Assistance();
+        second.setUserId("user2");
+        second.setClassId("class1");
+        second.setStartTime(LocalDate.of(2024, 3, 15));
+
+        attendanceCounterRepository.incrementAll(List.of(first, second));
+
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceCounter.class);
+        verify(bulkOperations, times(4)).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    void incrementAllShouldSkipEmptyBatches() {
+        attendanceCounterRepository.incrementAll(List.of());
+
+        verifyNoInteractions(bulkOperations);
+    }
+
+    @Test
+    void incrementShouldSkipMonthCounterWithoutDate() {
+        attendanceCounterRepository.increment("user1", "class1", null);
+
+        verify(bulkOperations, times(1)).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void decrementAllShouldDecrementCountersAndThenRemoveEmptyOnes() {
+        Assistance dated = new Assistance();
+        dated.setUserId("user1");
+        dated.setClassId("class1");
+        dated.setStartTime(LocalDate.of(2024, 3, 15));
+        Assistance undated = new Assistance();
+        undated.setUserId("user1");
+        undated.setClassId("class1");
+
+        attendanceCounterRepository.decrementAll(List.of(dated, undated));
+
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.ORDERED, AttendanceCounter.class);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        InOrder inOrder = inOrder(bulkOperations);
+        inOrder.verify(bulkOperations, times(3)).updateOne(queryCaptor.capture(), updateCaptor.capture());
+        inOrder.verify(bulkOperations).remove(queryCaptor.capture());
+        inOrder.verify(bulkOperations).execute();
+        assertEquals(List.of("class:user1:class1", "month:user1:2024-03", "class:user1:class1"),
+                queryCaptor.getAllValues().subList(0, 3).stream().map(query -> query.getQueryObject().get("_id")).toList());
+        assertEquals(-1, updateCaptor.getValue().getUpdateObject().get("$inc", Document.class).get("count"));
+        assertEquals(new Document("$lte", 0), queryCaptor.getValue().getQueryObject().get("count"));
+        verify(bulkOperations, never()).upsert(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    void decrementAllShouldSkipEmptyBatches() {
+        attendanceCounterRepository.decrementAll(List.of());
+
+        verifyNoInteractions(bulkOperations);
+    }
+
+    @Test
+    void rebuildShouldMergeAggregatesAndRemoveStaleCounters() {
+        attendanceCounterRepository.rebuild();
+
+        verify(assistances, times(2)).aggregate(pipelines.capture());
+        verify(aggregateIterable, times(2)).toCollection();
+        for (List<Document> pipeline : pipelines.getAllValues()) {
+            Document match = pipeline.get(0).get("$match", Document.class);
+            assertEquals(true, match.get("confirm"));
+            Document merge = pipeline.get(pipeline.size() - 1).get("$merge", Document.class);
+            assertEquals("attendance_counters", merge.get("into"));
+        }
+        Date rebuiltAt = pipelines.getValue().get(2).get("$project", Document.class).get("updatedAt", Date.class);
+        // Solo se reemplaza un contador que no cambió durante la reconstrucción
+        Document merge = pipelines.getValue().get(3).get("$merge", Document.class);
+        assertEquals(List.of(new Document("$replaceWith", new Document("$cond", List.of(
+                new Document("$lt", List.of("$updatedAt", rebuiltAt)), "$$new", "$$ROOT")))), merge.get("whenMatched"));
+
+        ArgumentCaptor<Query> removeCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removeCaptor.capture(), eq(AttendanceCounter.class));
+        assertEquals(new Document("$lt", rebuiltAt), removeCaptor.getValue().getQueryObject().get("updatedAt"));
+    }
+}
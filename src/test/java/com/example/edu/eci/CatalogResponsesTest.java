@@ -0,0 +1,32 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.controller.CatalogResponses;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogResponsesTest {
+
+    @Test
+    void shouldAcceptGzipOrWildcard() {
+        assertTrue(CatalogResponses.acceptsGzip("gzip"));
+        assertTrue(CatalogResponses.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(CatalogResponses.acceptsGzip("br, *"));
+        assertFalse(CatalogResponses.acceptsGzip(null));
+        assertFalse(CatalogResponses.acceptsGzip("br, deflate"));
+    }
+
+    @Test
+    void shouldRefuseGzipWithZeroQuality() {
+        assertFalse(CatalogResponses.acceptsGzip("gzip;q=0"));
+        assertFalse(CatalogResponses.acceptsGzip("*;q=0.0"));
+    }
+
+    @Test
+    void explicitGzipShouldWinOverWildcard() {
+        // El * no vuelve a admitir un gzip rechazado explícitamente, en cualquier orden
+        assertFalse(CatalogResponses.acceptsGzip("gzip;q=0, *"));
+        assertFalse(CatalogResponses.acceptsGzip("*, gzip;q=0"));
+        assertTrue(CatalogResponses.acceptsGzip("gzip, *;q=0"));
+    }
+}
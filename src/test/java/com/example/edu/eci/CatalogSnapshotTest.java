@@ -0,0 +1,134 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.service.CatalogSnapshot;
+import com.example.edu.eci.service.ClassChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogSnapshotTest {
+
+    @Mock
+    private ClassRepository classRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @InjectMocks
+    private CatalogSnapshot catalogSnapshot;
+
+    private Class yoga;
+    private Class chess;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        yoga = namedClass("yoga");
+        chess = namedClass("chess");
+        when(classRepository.findAll()).thenReturn(List.of(yoga));
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogSnapshot.shutdown();
+    }
+
+    private static Class namedClass(String id) {
+        Class clase = new Class();
+        clase.setId(id);
+        clase.setName(id);
+        clase.setStartDate(LocalDate.of(2024, 1, 1));
+        return clase;
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private CatalogSnapshot.Snapshot awaitClassCount(int classCount) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            CatalogSnapshot.Snapshot snapshot = catalogSnapshot.current();
+            if (snapshot.classCount() == classCount) {
+                return snapshot;
+            }
+            Thread.sleep(10);
+        }
+        fail("El catálogo no se reconstruyó");
+        return null;
+    }
+
+    @Test
+    void shouldBuildOnceAndServeSameBytes() throws IOException {
+        CatalogSnapshot.Snapshot first = catalogSnapshot.current();
+        CatalogSnapshot.Snapshot second = catalogSnapshot.current();
+
+        assertSame(first, second);
+        assertEquals(objectMapper.writeValueAsString(List.of(yoga)), new String(first.json()));
+        assertTrue(new String(first.json()).contains("\"startDate\":\"2024-01-01\""));
+        assertArrayEquals(first.json(), gunzip(first.gzip()));
+        verify(classRepository, times(1)).findAll();
+    }
+
+    @Test
+    void gzipShouldHaveItsOwnETag() {
+        CatalogSnapshot.Snapshot snapshot = catalogSnapshot.current();
+
+        assertTrue(snapshot.etag().startsWith("\"") && snapshot.etag().endsWith("\""));
+        assertEquals(snapshot.etag().substring(0, snapshot.etag().length() - 1) + "-gzip\"", snapshot.gzipEtag());
+    }
+
+    @Test
+    void shouldNotLoadOnChangeBeforeFirstRead() {
+        catalogSnapshot.onClassChanged(new ClassChangedEvent("yoga", yoga));
+        catalogSnapshot.refresh();
+
+        verifyNoInteractions(classRepository);
+    }
+
+    @Test
+    void shouldRebuildInBackgroundAfterChange() throws Exception {
+        CatalogSnapshot.Snapshot before = catalogSnapshot.current();
+        when(classRepository.findAll()).thenReturn(List.of(yoga, chess));
+
+        catalogSnapshot.onClassChanged(new ClassChangedEvent("chess", chess));
+
+        CatalogSnapshot.Snapshot after = awaitClassCount(2);
+        assertNotEquals(before.etag(), after.etag());
+        assertTrue(new String(after.json()).contains("\"id\":\"chess\""));
+    }
+
+    @Test
+    void shouldKeepServingPreviousSnapshotWhenRebuildFails() throws Exception {
+        CatalogSnapshot.Snapshot before = catalogSnapshot.current();
+        when(classRepository.findAll()).thenThrow(new IllegalStateException("down"));
+
+        catalogSnapshot.refresh();
+        verify(classRepository, timeout(2000).times(2)).findAll();
+
+        assertSame(before, catalogSnapshot.current());
+
+        doReturn(List.of(yoga, chess)).when(classRepository).findAll();
+        catalogSnapshot.refresh();
+        awaitClassCount(2);
+    }
+}
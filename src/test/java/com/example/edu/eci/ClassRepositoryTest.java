@@ -0,0 +1,83 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.repository.ClassRepositoryImpl;
+import com.example.edu.eci.repository.ReactiveClassRepositoryImpl;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ClassRepositoryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ClassRepositoryImpl classRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void findPageShouldStartFromTheBeginningWithoutCursor() {
+        classRepository.findPage(null, 51);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Class.class));
+        assertTrue(queryCaptor.getValue().getQueryObject().isEmpty());
+        assertEquals(new Document("_id", 1), queryCaptor.getValue().getSortObject());
+        assertEquals(51, queryCaptor.getValue().getLimit());
+    }
+
+    @Test
+    void findPageShouldContinueAfterCursor() {
+        classRepository.findPage("65f000000000000000000001", 10);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Class.class));
+        assertEquals("65f000000000000000000001",
+                queryCaptor.getValue().getQueryObject().get("_id", Document.class).get("$gt"));
+    }
+
+    @Test
+    void findPageShouldProjectRequestedFieldsAndVersion() {
+        classRepository.findPage(null, 10, Set.of("name"));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Class.class));
+        assertEquals(new Document("name", 1).append("version", 1), queryCaptor.getValue().getFieldsObject());
+    }
+
+    @Test
+    void reactiveFindPageShouldUseSameQuery() {
+        ReactiveMongoTemplate reactiveTemplate = mock(ReactiveMongoTemplate.class);
+        ReactiveClassRepositoryImpl reactiveRepository = new ReactiveClassRepositoryImpl();
+        ReflectionTestUtils.setField(reactiveRepository, "mongoTemplate", reactiveTemplate);
+        when(reactiveTemplate.find(any(Query.class), eq(Class.class))).thenReturn(Flux.empty());
+
+        reactiveRepository.findPage("a", 5, Set.of("type")).blockLast();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(reactiveTemplate).find(queryCaptor.capture(), eq(Class.class));
+        assertEquals(new Document("type", 1).append("version", 1), queryCaptor.getValue().getFieldsObject());
+        assertEquals(5, queryCaptor.getValue().getLimit());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.ClassSeatsBackfill;
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.ClassSeats;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ClassSeatsBackfillTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> assistances;
+
+    @Mock
+    private AggregateIterable<Document> aggregateIterable;
+
+    @Captor
+    private ArgumentCaptor<List<Document>> pipeline;
+
+    private ClassSeatsBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(Assistance.class)).thenReturn("assistances");
+        when(mongoTemplate.getCollectionName(ClassSeats.class)).thenReturn("class_seats");
+        when(mongoTemplate.getCollection("assistances")).thenReturn(assistances);
+        when(assistances.aggregate(anyList())).thenReturn(aggregateIterable);
+        backfill = new ClassSeatsBackfill(mongoTemplate);
+    }
+
+    @Test
+    void shouldCountDistinctUsersPerClassWithoutOverwritingCounters() {
+        backfill.run(null);
+
+        verify(assistances).aggregate(pipeline.capture());
+        verify(aggregateIterable).toCollection();
+        assertEquals(new Document("classId", "$classId").append("userId", "$userId"),
+                pipeline.getValue().get(0).get("$group", Document.class).get("_id"));
+        assertEquals("$_id.classId", pipeline.getValue().get(1).get("$group", Document.class).get("_id"));
+        Document merge = pipeline.getValue().get(2).get("$merge", Document.class);
+        assertEquals("class_seats", merge.get("into"));
+        assertEquals("keepExisting", merge.get("whenMatched"));
+    }
+
+    @Test
+    void shouldNotFailStartupWhenDatabaseIsUnavailable() {
+        doThrow(new MongoTimeoutException("down")).when(aggregateIterable).toCollection();
+
+        assertDoesNotThrow(() -> backfill.run(null));
+    }
+}
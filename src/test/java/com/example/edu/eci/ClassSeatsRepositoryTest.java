@@ -0,0 +1,108 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.ClassSeats;
+import com.example.edu.eci.repository.ClassSeatsRepositoryImpl;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ClassSeatsRepositoryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ClassSeatsRepositoryImpl classSeatsRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void tryReserveShouldIncrementOnlyWhenBelowCapacity() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(classSeatsRepository.tryReserve("class1", 10));
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(queryCaptor.capture(), updateCaptor.capture(), eq(ClassSeats.class));
+        assertEquals("class1", queryCaptor.getValue().getQueryObject().get("_id"));
+        assertEquals(10, queryCaptor.getValue().getQueryObject().get("reserved", Document.class).get("$lt"));
+        assertEquals(1, updateCaptor.getValue().getUpdateObject().get("$inc", Document.class).get("reserved"));
+        verify(mongoTemplate, never()).insert(any(ClassSeats.class));
+    }
+
+    @Test
+    void tryReserveShouldFailWhenCounterIsFull() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.exists(any(Query.class), eq(ClassSeats.class))).thenReturn(true);
+
+        assertFalse(classSeatsRepository.tryReserve("class1", 10));
+        verify(mongoTemplate, never()).insert(any(ClassSeats.class));
+    }
+
+    @Test
+    void tryReserveShouldSeedMissingCounterFromExistingEnrollments() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.exists(any(Query.class), eq(ClassSeats.class))).thenReturn(false);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("userId"), eq(Assistance.class), eq(String.class)))
+                .thenReturn(List.of("user1", "user2", "user3"));
+
+        assertTrue(classSeatsRepository.tryReserve("class1", 10));
+
+        ArgumentCaptor<ClassSeats> seatsCaptor = ArgumentCaptor.forClass(ClassSeats.class);
+        verify(mongoTemplate).insert(seatsCaptor.capture());
+        assertEquals("class1", seatsCaptor.getValue().getClassId());
+        assertEquals(3, seatsCaptor.getValue().getReserved());
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class));
+    }
+
+    @Test
+    void tryReserveShouldReserveWhenCounterWasSeededConcurrently() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.exists(any(Query.class), eq(ClassSeats.class))).thenReturn(false);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("userId"), eq(Assistance.class), eq(String.class)))
+                .thenReturn(List.of());
+        when(mongoTemplate.insert(any(ClassSeats.class))).thenThrow(new DuplicateKeyException("duplicate _id"));
+
+        assertTrue(classSeatsRepository.tryReserve("class1", 10));
+    }
+
+    @Test
+    void tryReserveShouldRejectClassesWithoutCapacity() {
+        assertFalse(classSeatsRepository.tryReserve("class1", 0));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void releaseShouldNeverDecrementBelowZero() {
+        classSeatsRepository.release("class1");
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(queryCaptor.capture(), any(Update.class), eq(ClassSeats.class));
+        assertEquals(0, queryCaptor.getValue().getQueryObject().get("reserved", Document.class).get("$gt"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.CacheConfig;
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
+import com.example.edu.eci.repository.SessionOccurrenceRepository;
+import com.example.edu.eci.repository.WaitlistRepository;
+import com.example.edu.eci.service.ClassService;
+import com.example.edu.eci.service.ScheduleIndex;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class ClassServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, ClassService.class})
+    static class TestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+                    CacheConfig.CLASSES_CACHE, CacheConfig.CLASS_SESSIONS_CACHE);
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+            return cacheManager;
+        }
+    }
+
+    @MockitoBean
+    private ClassRepository classRepository;
+
+    @MockitoBean
+    private ClassSeatsRepository classSeatsRepository;
+
+    @MockitoBean
+    private SessionOccurrenceRepository sessionOccurrenceRepository;
+
+    @MockitoBean
+    private WaitlistRepository waitlistRepository;
+
+    @MockitoBean
+    private ScheduleIndex scheduleIndex;
+
+    @Autowired
+    private ClassService classService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Class clase;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        clase = new Class();
+        clase.setId("class1");
+        clase.setName("Yoga");
+    }
+
+    @Test
+    void getClassByIdShouldHitTheRepositoryOnlyOnce() {
+        when(classRepository.findById("class1")).thenReturn(Optional.of(clase));
+
+        classService.getClassById("class1");
+        Optional<Class> cached = classService.getClassById("class1");
+
+        assertTrue(cached.isPresent());
+        verify(classRepository, times(1)).findById("class1");
+    }
+
+    @Test
+    void updateClassShouldInvalidateEntry() {
+        when(classRepository.findById("class1")).thenReturn(Optional.of(clase));
+        when(classRepository.save(clase)).thenReturn(clase);
+
+        classService.getClassById("class1");
+        classService.updateClass("class1", clase, null);
+        classService.getClassById("class1");
+
+        // Una lectura antes, la de updateClass (versión actual) y otra después de invalidar
+        verify(classRepository, times(3)).findById("class1");
+    }
+
+    @Test
+    void deleteClassShouldInvalidateEntry() {
+        when(classRepository.findById("class1")).thenReturn(Optional.of(clase)).thenReturn(Optional.empty());
+        when(classRepository.existsById("class1")).thenReturn(true);
+
+        classService.getClassById("class1");
+        classService.deleteClass("class1");
+
+        assertTrue(classService.getClassById("class1").isEmpty());
+    }
+}
@@ -1,21 +1,36 @@
 package com.example.edu.eci;
 
+import com.example.edu.eci.dto.ClassSummary;
+import com.example.edu.eci.dto.CursorPage;
 import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.ClassSeats;
+import com.example.edu.eci.model.SessionOccurrence;
 import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
+import com.example.edu.eci.repository.SessionOccurrenceRepository;
+import com.example.edu.eci.repository.WaitlistRepository;
+import com.example.edu.eci.service.ClassChangedEvent;
 import com.example.edu.eci.service.ClassService;
+import com.example.edu.eci.service.ScheduleIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,9 +41,27 @@ class ClassServiceTest {
     @Mock
     private ClassRepository classRepository;
 
+    @Mock
+    private ClassSeatsRepository classSeatsRepository;
+
+    @Mock
+    private SessionOccurrenceRepository sessionOccurrenceRepository;
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private ScheduleIndex scheduleIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ClassService classService;
 
+    @Captor
+    private ArgumentCaptor<List<SessionOccurrence>> occurrencesCaptor;
+
     private Class testClass1;
     private Class testClass2;
     private final String testId = "12345";
@@ -54,6 +87,86 @@ class ClassServiceTest {
         verify(classRepository, times(1)).findAll();
     }
 
+    @Test
+    void getClassesPage_shouldReturnNextCursorWhenMoreResultsExist() {
+        when(classRepository.findPage(null, 2)).thenReturn(List.of(testClass1, testClass2));
+
+        CursorPage<Class> page = classService.getClassesPage(null, 1);
+
+        assertEquals(List.of(testClass1), page.getItems());
+        assertEquals(testId, CursorPage.decodeCursor(page.getNextCursor()));
+    }
+
+    @Test
+    void getClassesPage_shouldContinueFromCursorAndEndWithoutNextCursor() {
+        String cursor = CursorPage.encodeCursor(testId);
+        when(classRepository.findPage(testId, CursorPage.DEFAULT_SIZE + 1)).thenReturn(List.of(testClass2));
+
+        CursorPage<Class> page = classService.getClassesPage(cursor, null);
+
+        assertEquals(List.of(testClass2), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getClassesPage_shouldCapPageSize() {
+        when(classRepository.findPage(null, CursorPage.MAX_SIZE + 1)).thenReturn(List.of());
+
+        classService.getClassesPage(null, 10_000);
+
+        verify(classRepository).findPage(null, CursorPage.MAX_SIZE + 1);
+    }
+
+    @Test
+    void getClassesPage_shouldProjectSelectedFields() {
+        Set<String> fields = ClassService.parseFields("name");
+        when(classRepository.findPage(null, 11, fields)).thenReturn(List.of(testClass1));
+
+        CursorPage<Class> page = classService.getClassesPage(null, 10, fields);
+
+        assertEquals(List.of(testClass1), page.getItems());
+        verify(classRepository, never()).findPage(null, 11);
+    }
+
+    @Test
+    void getClassSummariesPage_shouldProjectSummaryFieldsAndAddRemainingSeats() {
+        testClass1.setMaxStudents(10);
+        testClass2.setMaxStudents(5);
+        when(classRepository.findPage(null, 3, ClassSummary.FIELDS)).thenReturn(List.of(testClass1, testClass2));
+        when(classSeatsRepository.findAllById(List.of(testId, "67890"))).thenReturn(List.of(new ClassSeats(testId, 4)));
+
+        CursorPage<ClassSummary> page = classService.getClassSummariesPage(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("Math 101", page.getItems().get(0).getName());
+        assertEquals(6, page.getItems().get(0).getRemainingSeats());
+        assertEquals(5, page.getItems().get(1).getRemainingSeats());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getClassSummariesPage_shouldSkipSeatsLookupForEmptyPage() {
+        when(classRepository.findPage(null, CursorPage.DEFAULT_SIZE + 1, ClassSummary.FIELDS)).thenReturn(List.of());
+
+        assertTrue(classService.getClassSummariesPage(null, null).getItems().isEmpty());
+        verifyNoInteractions(classSeatsRepository);
+    }
+
+    @Test
+    void parseFields_shouldAlwaysIncludeIdAndRejectUnknownFields() {
+        assertNull(ClassService.parseFields(null));
+        assertNull(ClassService.parseFields(" "));
+        assertEquals(List.of("id", "name", "startDate"), List.copyOf(ClassService.parseFields("name, startDate,,id")));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ClassService.parseFields("name,password"));
+        assertEquals("Campo desconocido: password", e.getMessage());
+    }
+
+    @Test
+    void getClassesPage_shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> classService.getClassesPage("%%%", 10));
+    }
+
     @Test
     void getClassById_Found() {
         when(classRepository.findById(testId)).thenReturn(Optional.of(testClass1));
@@ -78,24 +191,132 @@ class ClassServiceTest {
 
     @Test
     void updateClass_Success() {
-        when(classRepository.existsById(testId)).thenReturn(true);
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass2));
         when(classRepository.save(testClass1)).thenReturn(testClass1);
 
-        Optional<Class> result = classService.updateClass(testId, testClass1);
+        Optional<Class> result = classService.updateClass(testId, testClass1, null);
 
         assertTrue(result.isPresent());
         verify(classRepository, times(1)).save(testClass1);
+        verify(sessionOccurrenceRepository, never()).deleteByClassId(testId);
+    }
+
+    @Test
+    void updateClass_shouldRegenerateOccurrences() {
+        testClass1.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
+        testClass1.setEndDate(LocalDate.of(2024, 1, 8));
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass2));
+        when(classRepository.save(testClass1)).thenReturn(testClass1);
+
+        classService.updateClass(testId, testClass1, null);
+
+        verify(sessionOccurrenceRepository).insert(occurrencesCaptor.capture());
+        assertEquals(2, occurrencesCaptor.getValue().size());
+        verify(eventPublisher).publishEvent(new ClassChangedEvent(testId, testClass1));
+    }
+
+    @Test
+    void updateClass_shouldKeepIdsOfExistingOccurrences() {
+        testClass1.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
+        testClass1.setEndDate(LocalDate.of(2024, 1, 22));
+        testClass1.setExcludedDates(List.of(LocalDate.of(2024, 1, 15)));
+        // Ocurrencias guardadas antes del cambio, con los ids a los que apuntan las asistencias
+        SessionOccurrence first = new SessionOccurrence("o1", testId, "1", LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"));
+        SessionOccurrence second = new SessionOccurrence("o2", testId, "1", LocalDateTime.parse("2024-01-08T10:00"), LocalDateTime.parse("2024-01-08T11:00"));
+        SessionOccurrence excluded = new SessionOccurrence("o3", testId, "1", LocalDateTime.parse("2024-01-15T10:00"), LocalDateTime.parse("2024-01-15T11:00"));
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass2));
+        when(classRepository.save(testClass1)).thenReturn(testClass1);
+        when(sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(testId)).thenReturn(List.of(first, second, excluded));
+
+        classService.updateClass(testId, testClass1, null);
+
+        verify(sessionOccurrenceRepository, never()).deleteByClassId(testId);
+        verify(sessionOccurrenceRepository, never()).saveAll(anyList());
+        verify(sessionOccurrenceRepository).deleteAllById(List.of("o3"));
+        verify(sessionOccurrenceRepository).insert(occurrencesCaptor.capture());
+        List<SessionOccurrence> inserted = occurrencesCaptor.getValue();
+        assertEquals(1, inserted.size());
+        assertEquals(testId + ":1:2024-01-22T10:00", inserted.get(0).getId());
+    }
+
+    @Test
+    void updateClass_shouldRewriteOnlyOccurrencesWhoseEndChanged() {
+        testClass1.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:30"))));
+        SessionOccurrence stored = new SessionOccurrence("o1", testId, "1", LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"));
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass2));
+        when(classRepository.save(testClass1)).thenReturn(testClass1);
+        when(sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(testId)).thenReturn(List.of(stored));
+
+        classService.updateClass(testId, testClass1, null);
+
+        verify(sessionOccurrenceRepository).saveAll(occurrencesCaptor.capture());
+        assertEquals("o1", occurrencesCaptor.getValue().get(0).getId());
+        assertEquals(LocalDateTime.parse("2024-01-01T11:30"), occurrencesCaptor.getValue().get(0).getEndTime());
+        // Para que AbsenceMarkingJob la recoja aunque su nuevo fin ya haya pasado
+        assertNotNull(occurrencesCaptor.getValue().get(0).getUpdatedAt());
+        verify(sessionOccurrenceRepository, never()).insert(anyList());
+        verify(sessionOccurrenceRepository, never()).deleteAllById(anyList());
+    }
+
+    @Test
+    void updateClass_shouldCollapseLegacyExpandedSessions() {
+        testClass1.setSessions(List.of(
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-08T10:00"), LocalDateTime.parse("2024-01-08T11:00"))));
+        testClass1.setEndDate(LocalDate.of(2024, 1, 8));
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass2));
+        when(classRepository.save(testClass1)).thenReturn(testClass1);
+
+        classService.updateClass(testId, testClass1, null);
+
+        assertEquals(1, testClass1.getSessions().size());
+        verify(sessionOccurrenceRepository).insert(occurrencesCaptor.capture());
+        assertEquals(2, occurrencesCaptor.getValue().size());
     }
 
     @Test
     void updateClass_Fail() {
-        when(classRepository.existsById("invalid")).thenReturn(false);
+        when(classRepository.findById("invalid")).thenReturn(Optional.empty());
 
-        Optional<Class> result = classService.updateClass("invalid", testClass1);
+        Optional<Class> result = classService.updateClass("invalid", testClass1, null);
 
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void updateClass_shouldSaveWithStoredVersionWhenNoneExpected() {
+        testClass2.setVersion(4L);
+        testClass1.setVersion(null);
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass2));
+        when(classRepository.save(testClass1)).thenReturn(testClass1);
+
+        classService.updateClass(testId, testClass1, null);
+
+        assertEquals(4L, testClass1.getVersion());
+        assertEquals(testId, testClass1.getId());
+    }
+
+    @Test
+    void updateClass_shouldRejectStaleExpectedVersion() {
+        testClass2.setVersion(5L);
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass2));
+
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                classService.updateClass(testId, testClass1, 4L));
+        verify(classRepository, never()).save(any(Class.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateClass_shouldSaveWithExpectedVersion() {
+        testClass2.setVersion(5L);
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass2));
+        when(classRepository.save(testClass1)).thenReturn(testClass1);
+
+        assertTrue(classService.updateClass(testId, testClass1, 5L).isPresent());
+        assertEquals(5L, testClass1.getVersion());
+    }
+
     @Test
     void deleteClass_Success() {
         when(classRepository.existsById(testId)).thenReturn(true);
@@ -104,6 +325,78 @@ class ClassServiceTest {
 
         assertTrue(result);
         verify(classRepository, times(1)).deleteById(testId);
+        verify(classSeatsRepository).deleteById(testId);
+        verify(sessionOccurrenceRepository).deleteByClassId(testId);
+        verify(waitlistRepository).deleteByClassId(testId);
+        verify(eventPublisher).publishEvent(new ClassChangedEvent(testId, null));
+    }
+
+    @Test
+    void getSchedule_shouldExpandOnlyTheRequestedWindow() {
+        testClass1.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
+        testClass1.setEndDate(LocalDate.of(2024, 12, 31));
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass1));
+
+        List<Class.Session> result = classService.getSchedule(testId,
+                LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 12, 0, 0));
+
+        assertEquals(List.of("2024-03-04T10:00", "2024-03-11T10:00"),
+                result.stream().map(session -> session.getStartTime().toString()).toList());
+    }
+
+    @Test
+    void getSchedule_shouldRejectEmptyRange() {
+        LocalDateTime from = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> classService.getSchedule(testId, from, from));
+        verify(classRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void createClass_shouldRejectUnsupportedRepetitionBeforeSaving() {
+        Class newClass = new Class();
+        newClass.setRepetition("daily");
+
+        assertThrows(IllegalArgumentException.class, () -> classService.createClass(newClass));
+        verify(classRepository, never()).save(any(Class.class));
+    }
+
+    @Test
+    void getSessions_shouldReadOccurrences() {
+        SessionOccurrence occurrence = new SessionOccurrence("occ1", testId, "1",
+                LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 1, 11, 0));
+        when(sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(testId)).thenReturn(List.of(occurrence));
+
+        List<SessionOccurrence> result = classService.getSessions(testId);
+
+        assertEquals(List.of(occurrence), result);
+        verify(classRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getSessions_shouldFallBackToEmbeddedSessionsForLegacyClasses() {
+        testClass1.setSessions(List.of(
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-08T10:00"), LocalDateTime.parse("2024-01-08T11:00"))));
+        when(sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(testId)).thenReturn(List.of());
+        when(classRepository.findById(testId)).thenReturn(Optional.of(testClass1));
+
+        List<SessionOccurrence> result = classService.getSessions(testId);
+
+        assertEquals(2, result.size());
+        assertEquals("1", result.get(0).getId());
+        assertEquals(LocalDateTime.of(2024, 1, 8, 10, 0), result.get(1).getStartTime());
+    }
+
+    @Test
+    void getClassesByDateRange_shouldAnswerFromScheduleIndex() {
+        when(scheduleIndex.find(DayOfWeek.MONDAY, LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 7, 23, 59)))
+                .thenReturn(List.of(testClass1));
+
+        List<Class> result = classService.getClassesByDateRange("lunes", "2024-01-01T00:00", "2024-01-07T23:59");
+
+        assertEquals(List.of(testClass1), result);
+        verifyNoInteractions(classRepository, sessionOccurrenceRepository);
     }
 
     @Test
@@ -131,6 +424,20 @@ class ClassServiceTest {
         verify(classRepository, times(1)).save(newClass);
     }
 
+    @Test
+    void createClass_shouldInitializeSeatCounter() {
+        Class newClass = new Class();
+        newClass.setId("123");
+
+        when(classRepository.save(newClass)).thenReturn(newClass);
+
+        classService.createClass(newClass);
+
+        ArgumentCaptor<ClassSeats> seatsCaptor = ArgumentCaptor.forClass(ClassSeats.class);
+        verify(classSeatsRepository).save(seatsCaptor.capture());
+        assertEquals("123", seatsCaptor.getValue().getClassId());
+        assertEquals(0, seatsCaptor.getValue().getReserved());
+    }
 
     @Test
     void deleteClass_shouldNotDelete_whenClassDoesNotExist() {
@@ -147,14 +454,14 @@ class ClassServiceTest {
     void generateRepeatedSessions_shouldGenerateSessionsUntilEndDate() {
         Class baseClass = new Class();
         baseClass.setEndDate(LocalDate.of(2024, 1, 22));
-        baseClass.setSessions(List.of(new Class.Session("1","Monday", "2024-01-01T10:00", "2024-01-01T11:00")));
+        baseClass.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
 
         List<Class.Session> result = classService.generateRepeatedSessions(baseClass);
 
         assertEquals(3, result.size());
-        assertEquals("2024-01-08T10:00", result.get(0).getStartTime());
-        assertEquals("2024-01-15T10:00", result.get(1).getStartTime());
-        assertEquals("2024-01-22T10:00", result.get(2).getStartTime());
+        assertEquals(LocalDateTime.parse("2024-01-08T10:00"), result.get(0).getStartTime());
+        assertEquals(LocalDateTime.parse("2024-01-15T10:00"), result.get(1).getStartTime());
+        assertEquals(LocalDateTime.parse("2024-01-22T10:00"), result.get(2).getStartTime());
     }
 
     @Test
@@ -172,7 +479,7 @@ class ClassServiceTest {
     void generateRepeatedSessions_shouldReturnEmptyList_whenEndDateBeforeStartDate() {
         Class baseClass = new Class();
         baseClass.setEndDate(LocalDate.of(2023, 12, 31));
-        baseClass.setSessions(List.of(new Class.Session("1","Monday", "2024-01-01T10:00", "2024-01-01T11:00")));
+        baseClass.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
 
         List<Class.Session> result = classService.generateRepeatedSessions(baseClass);
 
@@ -212,21 +519,28 @@ class ClassServiceTest {
     void createClass_shouldSaveClassWithRepeatedSessions_whenSessionsAreProvided() {
         Class newClass = new Class();
         newClass.setId("123");
-        newClass.setSessions(List.of(new Class.Session("1","Monday", "2024-01-01T10:00", "2024-01-01T11:00")));
+        newClass.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
         newClass.setEndDate(LocalDate.of(2024, 1, 22));
 
         Class savedClass = new Class();
         savedClass.setId("123");
         savedClass.setSessions(new ArrayList<>(newClass.getSessions()));
+        savedClass.setEndDate(newClass.getEndDate());
 
         when(classRepository.save(newClass)).thenReturn(savedClass);
-        when(classRepository.save(savedClass)).thenReturn(savedClass);
 
         Class result = classService.createClass(newClass);
 
         assertNotNull(result);
-        assertEquals(4, result.getSessions().size()); // Original + 3 repeated sessions
-        verify(classRepository, times(2)).save(any(Class.class));
+        assertEquals(1, result.getSessions().size()); // La clase conserva solo la plantilla
+        verify(classRepository, times(1)).save(any(Class.class));
+
+        verify(sessionOccurrenceRepository).insert(occurrencesCaptor.capture());
+        List<SessionOccurrence> occurrences = occurrencesCaptor.getValue();
+        assertEquals(4, occurrences.size()); // Original + 3 repeated sessions
+        assertEquals("123:1:2024-01-01T10:00", occurrences.get(0).getId());
+        assertTrue(occurrences.stream().allMatch(o -> "123".equals(o.getClassId()) && "1".equals(o.getSessionId())));
+        assertEquals(LocalDateTime.of(2024, 1, 22, 10, 0), occurrences.get(3).getStartTime());
     }
 
     @Test
@@ -287,7 +601,7 @@ class ClassServiceTest {
     @Test
     void generateRepeatedSessions_shouldReturnEmptyList_whenEndDateIsNull() {
         Class baseClass = new Class();
-        baseClass.setSessions(List.of(new Class.Session("1","Monday", "2024-01-01T10:00", "2024-01-01T11:00")));
+        baseClass.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
         baseClass.setEndDate(null);
 
         List<Class.Session> result = classService.generateRepeatedSessions(baseClass);
@@ -0,0 +1,56 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.ClassVersionBackfill;
+import com.example.edu.eci.model.Class;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ClassVersionBackfillTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ClassVersionBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        backfill = new ClassVersionBackfill(mongoTemplate);
+    }
+
+    @Test
+    void shouldVersionOnlyClassesWithoutVersion() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        backfill.run(null);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Class.class));
+        assertEquals(new Document("$exists", false), query.getValue().getQueryObject().get("version"));
+        assertEquals(0L, update.getValue().getUpdateObject().get("$set", Document.class).get("version"));
+    }
+
+    @Test
+    void shouldNotFailStartupWhenDatabaseIsUnavailable() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Class.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertDoesNotThrow(() -> backfill.run(null));
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.dto.EnrollmentTicket;
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import com.example.edu.eci.service.EnrollmentQueue;
+import com.example.edu.eci.service.InscriptionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class EnrollmentQueueTest {
+
+    @Mock
+    private InscriptionService inscriptionService;
+
+    private EnrollmentQueue queue;
+
+    private final LocalDate startDate = LocalDate.now().plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(inscriptionService.inscribeUser(anyString(), anyString(), any())).thenReturn(EnrollmentStatus.INSCRIBED);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    private EnrollmentQueue queue(int workers, int capacity) {
+        queue = new EnrollmentQueue(inscriptionService, workers, capacity, Duration.ofMinutes(1));
+        return queue;
+    }
+
+    private static EnrollmentTicket await(EnrollmentTicket ticket) throws Exception {
+        return ticket.outcome().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldInscribeInBackgroundAndKeepTicket() throws Exception {
+        EnrollmentTicket ticket = queue(2, 10).submit("user1", "class1", startDate).orElseThrow();
+
+        assertEquals(EnrollmentStatus.INSCRIBED, await(ticket).getStatus());
+        assertEquals("Usuario inscrito exitosamente", ticket.getMessage());
+        verify(inscriptionService).inscribeUser("user1", "class1", startDate);
+        assertSame(ticket, queue.getTicket(ticket.getId()).orElseThrow());
+        assertTrue(queue.getTicket("unknown").isEmpty());
+    }
+
+    @Test
+    void shouldReportWaitlistedEnrollment() throws Exception {
+        when(inscriptionService.inscribeUser("user1", "full", startDate)).thenReturn(EnrollmentStatus.WAITLISTED);
+
+        EnrollmentTicket ticket = await(queue(1, 10).submit("user1", "full", startDate).orElseThrow());
+
+        assertEquals(EnrollmentStatus.WAITLISTED, ticket.getStatus());
+        assertEquals("Clase llena: usuario en lista de espera", ticket.getMessage());
+    }
+
+    @Test
+    void shouldReportBusinessErrorsAndFailures() throws Exception {
+        doThrow(new IllegalStateException("Capacidad máxima alcanzada"))
+                .when(inscriptionService).inscribeUser("full", "class1", startDate);
+        doThrow(new RuntimeException("timeout"))
+                .when(inscriptionService).inscribeUser("broken", "class1", startDate);
+        queue(1, 10);
+
+        EnrollmentTicket rejected = await(queue.submit("full", "class1", startDate).orElseThrow());
+        EnrollmentTicket failed = await(queue.submit("broken", "class1", startDate).orElseThrow());
+
+        assertEquals(EnrollmentStatus.REJECTED, rejected.getStatus());
+        assertEquals("Capacidad máxima alcanzada", rejected.getMessage());
+        assertEquals(EnrollmentStatus.FAILED, failed.getStatus());
+    }
+
+    @Test
+    void shouldServeClassesInTurnsAndEachClassInArrivalOrder() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            String userId = invocation.getArgument(0);
+            order.add(userId);
+            if (userId.equals("a1")) {
+                firstStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(inscriptionService).inscribeUser(anyString(), anyString(), any());
+        queue(1, 10);
+
+        queue.submit("a1", "A", startDate);
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        queue.submit("a2", "A", startDate);
+        queue.submit("a3", "A", startDate);
+        EnrollmentTicket last = queue.submit("b1", "B", startDate).orElseThrow();
+        assertEquals(4, queue.pending());
+        release.countDown();
+
+        await(last);
+        verify(inscriptionService, timeout(5000).times(4)).inscribeUser(anyString(), anyString(), any());
+        assertEquals(List.of("a1", "b1", "a2", "a3"), order);
+    }
+
+    @Test
+    void shouldRejectWhenFullAndReuseTicketOfPendingEnrollment() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+                .when(inscriptionService).inscribeUser(anyString(), anyString(), any());
+        queue(1, 2);
+
+        EnrollmentTicket first = queue.submit("user1", "class1", startDate).orElseThrow();
+        queue.submit("user2", "class1", startDate).orElseThrow();
+
+        assertSame(first, queue.submit("user1", "class1", startDate).orElseThrow());
+        assertTrue(queue.submit("user3", "class1", startDate).isEmpty());
+
+        release.countDown();
+        await(first);
+        verify(inscriptionService, times(1)).inscribeUser("user1", "class1", startDate);
+    }
+
+    @Test
+    void shutdownShouldFailQueuedTicketsAndLetRunningOneFinish() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return EnrollmentStatus.INSCRIBED;
+        }).when(inscriptionService).inscribeUser(anyString(), anyString(), any());
+        queue(1, 10);
+
+        EnrollmentTicket running = queue.submit("a1", "A", startDate).orElseThrow();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        EnrollmentTicket sameClass = queue.submit("a2", "A", startDate).orElseThrow();
+        EnrollmentTicket otherClass = queue.submit("b1", "B", startDate).orElseThrow();
+        Thread shutdown = new Thread(queue::shutdown);
+        shutdown.start();
+
+        assertEquals(EnrollmentStatus.FAILED, await(sameClass).getStatus());
+        assertEquals(EnrollmentStatus.FAILED, await(otherClass).getStatus());
+        assertFalse(running.isDone());
+        release.countDown();
+        assertEquals(EnrollmentStatus.INSCRIBED, await(running).getStatus());
+        shutdown.join(5000);
+        assertEquals(0, queue.pending());
+        assertTrue(queue.submit("c1", "C", startDate).isEmpty());
+        verify(inscriptionService, times(1)).inscribeUser(anyString(), anyString(), any());
+    }
+
+    @Test
+    void pendingTicketsShouldNotExpire() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return EnrollmentStatus.INSCRIBED;
+        }).when(inscriptionService).inscribeUser(anyString(), anyString(), any());
+        queue = new EnrollmentQueue(inscriptionService, 1, 10, Duration.ofMillis(50));
+
+        EnrollmentTicket processing = queue.submit("user1", "class1", startDate).orElseThrow();
+        EnrollmentTicket queued = queue.submit("user2", "class1", startDate).orElseThrow();
+        Thread.sleep(200);
+
+        assertTrue(queue.getTicket(processing.getId()).isPresent());
+        assertTrue(queue.getTicket(queued.getId()).isPresent());
+
+        release.countDown();
+        await(queued);
+        Thread.sleep(200);
+        // Terminado, el TTL sí corre
+        assertTrue(queue.getTicket(queued.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.IdempotencyFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+    private FilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(Set.of("/api/inscriptions/inscribe"), 100, Duration.ofMinutes(5));
+        executions = new AtomicInteger();
+        chain = (request, response) -> {
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(202);
+            http.setHeader(HttpHeaders.LOCATION, "/api/inscriptions/tickets/t" + executions.incrementAndGet());
+            http.setContentType("application/json");
+            http.getWriter().write("{\"id\":\"t" + executions.get() + "\"}");
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest post(String key, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/inscriptions/inscribe");
+        request.setQueryString(query);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void shouldReplayFirstResponseWithoutRunningChainAgain() throws Exception {
+        MockHttpServletResponse first = send(post("k1", "userId=u1&classId=c1"), chain);
+        MockHttpServletResponse retry = send(post("k1", "userId=u1&classId=c1"), chain);
+
+        assertEquals(1, executions.get());
+        assertEquals(202, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("/api/inscriptions/tickets/t1", retry.getHeader(HttpHeaders.LOCATION));
+        assertTrue(retry.getContentType().startsWith("application/json"));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void shouldRunEveryRequestWithoutKeyOrOnOtherPaths() throws Exception {
+        send(post(null, "userId=u1"), chain);
+        send(post(null, "userId=u1"), chain);
+        MockHttpServletRequest other = new MockHttpServletRequest("POST", "/api/classes");
+        other.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "k1");
+        send(other, chain);
+        send(other, chain);
+
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithOtherParameters() throws Exception {
+        send(post("k1", "userId=u1"), chain);
+        MockHttpServletResponse reused = send(post("k1", "userId=u2"), chain);
+
+        assertEquals(422, reused.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithOtherBodyAndPassBodyToChain() throws Exception {
+        List<String> bodies = new ArrayList<>();
+        FilterChain reading = (request, response) -> {
+            bodies.add(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            chain.doFilter(request, response);
+        };
+        MockHttpServletRequest first = post("k1", "classId=c1");
+        first.setContent("[\"u1\"]".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest other = post("k1", "classId=c1");
+        other.setContent("[\"u2\"]".getBytes(StandardCharsets.UTF_8));
+
+        send(first, reading);
+        MockHttpServletResponse reused = send(other, reading);
+
+        assertEquals(422, reused.getStatus());
+        assertEquals(List.of("[\"u1\"]"), bodies);
+    }
+
+    @Test
+    void shouldScopeKeysToAuthenticatedUser() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user1", null, List.of()));
+        send(post("k1", "userId=u1"), chain);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user2", null, List.of()));
+        MockHttpServletResponse otherUser = send(post("k1", "userId=u1"), chain);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user1", null, List.of()));
+        MockHttpServletResponse retry = send(post("k1", "userId=u1"), chain);
+
+        assertNull(otherUser.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldRejectDuplicateWhileFirstIsRunning() throws Exception {
+        MockHttpServletResponse[] duplicate = new MockHttpServletResponse[1];
+        send(post("k1", "userId=u1"), (request, response) -> {
+            duplicate[0] = new MockHttpServletResponse();
+            filter.doFilter(post("k1", "userId=u1"), duplicate[0], chain);
+            chain.doFilter(request, response);
+        });
+
+        assertEquals(409, duplicate[0].getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldNotStoreServerErrors() throws Exception {
+        send(post("k1", "userId=u1"), (request, response) -> ((HttpServletResponse) response).setStatus(503));
+        assertThrows(IllegalStateException.class, () -> send(post("k2", "userId=u1"), (request, response) -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        send(post("k1", "userId=u1"), chain);
+        send(post("k2", "userId=u1"), chain);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldRejectInvalidKey() throws Exception {
+        assertEquals(400, send(post(" ", "userId=u1"), chain).getStatus());
+        assertEquals(400, send(post("k".repeat(256), "userId=u1"), chain).getStatus());
+        assertEquals(0, executions.get());
+    }
+}
@@ -1,19 +1,30 @@
 package com.example.edu.eci;
 
+import com.example.edu.eci.dto.CursorPage;
 import com.example.edu.eci.model.Assistance;
 import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
 import com.example.edu.eci.model.User;
+import com.example.edu.eci.model.WaitlistEntry;
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import com.example.edu.eci.repository.AbsenceRepository;
 import com.example.edu.eci.repository.AssistanceRepository;
-import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.repository.AttendanceCounterRepository;
+import com.example.edu.eci.repository.ClassSeatsRepository;
 import com.example.edu.eci.repository.UserRepository;
+import com.example.edu.eci.repository.WaitlistRepository;
+import com.example.edu.eci.service.ClassService;
 import com.example.edu.eci.service.InscriptionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DuplicateKeyException;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,11 +39,26 @@ class InscriptionServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private ClassRepository classRepository;
+    private ClassService classService;
 
     @Mock
     private AssistanceRepository assistanceRepository;
 
+    @Mock
+    private ClassSeatsRepository classSeatsRepository;
+
+    @Mock
+    private AbsenceRepository absenceRepository;
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private AttendanceCounterRepository attendanceCounterRepository;
+
+    @Captor
+    private ArgumentCaptor<List<Assistance>> assistancesCaptor;
+
     private final LocalDate testStartTime = LocalDate.now().plusDays(1);
 
     @BeforeEach
@@ -50,7 +76,7 @@ class InscriptionServiceTest {
     @Test
     void shouldFailWhenClassNotFound() {
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.empty());
+        when(classService.getClassById("class1")).thenReturn(Optional.empty());
         assertThrows(IllegalArgumentException.class, () ->
                 inscriptionService.inscribeUser("user1", "class1", testStartTime));
     }
@@ -58,7 +84,7 @@ class InscriptionServiceTest {
     @Test
     void shouldFailWhenUserAlreadyInscribed() {
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.of(new Class()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(new Class()));
         when(assistanceRepository.existsByUserIdAndClassId("user1", "class1")).thenReturn(true);
         assertThrows(IllegalStateException.class, () ->
                 inscriptionService.inscribeUser("user1", "class1", testStartTime));
@@ -69,10 +95,12 @@ class InscriptionServiceTest {
         Class clase = new Class();
         clase.setMaxStudents(0);
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.of(clase));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
         when(assistanceRepository.existsByUserIdAndClassId("user1", "class1")).thenReturn(false);
+        when(classSeatsRepository.tryReserve("class1", 0)).thenReturn(false);
         assertThrows(IllegalStateException.class, () ->
                 inscriptionService.inscribeUser("user1", "class1", testStartTime));
+        verify(assistanceRepository, never()).save(any(Assistance.class));
     }
 
     @Test
@@ -89,46 +117,154 @@ class InscriptionServiceTest {
         // Crear sesión válida
         Class.Session session = new Class.Session();
         session.setId("sess1");
-        session.setDay("Monday");
-        session.setStartTime("09:00");
-        session.setEndTime("10:00");
+        session.setDay(DayOfWeek.MONDAY);
+        session.setStartTime(LocalDateTime.of(2024, 1, 8, 9, 0));
+        session.setEndTime(LocalDateTime.of(2024, 1, 8, 10, 0));
         clase.setSessions(List.of(session));
+        LocalDateTime occurrenceStart = LocalDateTime.of(2024, 1, 8, 9, 0);
+        SessionOccurrence occurrence = new SessionOccurrence("occ1", "class1", "sess1", occurrenceStart, occurrenceStart.plusHours(1));
 
         // Mockear las dependencias
         when(userRepository.findById("user1")).thenReturn(Optional.of(user));
-        when(classRepository.findById("class1")).thenReturn(Optional.of(clase));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
+        when(classService.getSessions("class1")).thenReturn(List.of(occurrence));
         when(assistanceRepository.existsByUserIdAndClassId("user1", "class1")).thenReturn(false);
-        when(assistanceRepository.countByClassId("class1")).thenReturn(5L);
-
-        // Mockear el save para devolver un objeto Assistance con los datos correctos
-        when(assistanceRepository.save(any(Assistance.class))).thenAnswer(invocation -> {
-            Assistance a = invocation.getArgument(0);
-            // Asegurar que startTime no sea null
-            if (a.getStartTime() == null) {
-                a.setStartTime(testStartTime);
-            }
-            return a;
-        });
+        when(classSeatsRepository.tryReserve("class1", 10)).thenReturn(true);
 
         // Act
-        assertDoesNotThrow(() -> inscriptionService.inscribeUser("user1", "class1", testStartTime));
+        assertEquals(EnrollmentStatus.INSCRIBED, inscriptionService.inscribeUser("user1", "class1", testStartTime));
 
         // Assert
-        ArgumentCaptor<Assistance> assistanceCaptor = ArgumentCaptor.forClass(Assistance.class);
-        verify(assistanceRepository, atLeastOnce()).save(assistanceCaptor.capture());
+        verify(assistanceRepository).insertAll(assistancesCaptor.capture());
+        verify(assistanceRepository, never()).save(any(Assistance.class));
 
-        Assistance savedAssistance = assistanceCaptor.getValue();
+        List<Assistance> savedAssistances = assistancesCaptor.getValue();
+        assertEquals(2, savedAssistances.size(), "Una asistencia de clase y una por sesión");
+        Assistance savedAssistance = savedAssistances.get(0);
         assertNotNull(savedAssistance.getStartTime(), "El startTime no debería ser null");
         assertEquals("user1", savedAssistance.getUserId());
         assertEquals("class1", savedAssistance.getClassId());
         assertEquals(testStartTime, savedAssistance.getStartTime());
         assertFalse(savedAssistance.isConfirm());
+        assertEquals("occ1", savedAssistances.get(1).getSessionId());
+        assertEquals(occurrenceStart.toLocalDate(), savedAssistances.get(1).getStartTime());
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    private Class fullClass() {
+        Class clase = new Class();
+        clase.setId("class1");
+        clase.setMaxStudents(1);
+        clase.setSessions(List.of());
+        when(userRepository.findById("user2")).thenReturn(Optional.of(new User()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
+        return clase;
+    }
+
+    @Test
+    void shouldWaitlistUserWhenClassIsFull() {
+        fullClass();
+        when(classSeatsRepository.tryReserve("class1", 1)).thenReturn(false);
+
+        assertEquals(EnrollmentStatus.WAITLISTED, inscriptionService.inscribeUser("user2", "class1", testStartTime));
+
+        ArgumentCaptor<WaitlistEntry> entryCaptor = ArgumentCaptor.forClass(WaitlistEntry.class);
+        verify(waitlistRepository).insert(entryCaptor.capture());
+        assertEquals("user2", entryCaptor.getValue().getUserId());
+        assertEquals(testStartTime, entryCaptor.getValue().getStartDate());
+        assertNotNull(entryCaptor.getValue().getRequestedAt());
+        verify(assistanceRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void shouldRejectUserAlreadyWaiting() {
+        fullClass();
+        when(classSeatsRepository.tryReserve("class1", 1)).thenReturn(false);
+        when(waitlistRepository.insert(any(WaitlistEntry.class))).thenThrow(new DuplicateKeyException("class_user"));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+                inscriptionService.inscribeUser("user2", "class1", testStartTime));
+        assertEquals("Usuario ya está en la lista de espera de la clase", error.getMessage());
+    }
+
+    @Test
+    void shouldTakeSeatFreedWhileJoiningWaitlist() {
+        fullClass();
+        when(classSeatsRepository.tryReserve("class1", 1)).thenReturn(false, true);
+        when(waitlistRepository.deleteByClassIdAndUserIdAndPromotingAtIsNull("class1", "user2")).thenReturn(1L);
+
+        assertEquals(EnrollmentStatus.INSCRIBED, inscriptionService.inscribeUser("user2", "class1", testStartTime));
+
+        verify(assistanceRepository).insertAll(anyList());
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void shouldStayWaitlistedAndReturnExtraSeatWhenAlreadyPromoted() {
+        fullClass();
+        when(classSeatsRepository.tryReserve("class1", 1)).thenReturn(false, true);
+        when(waitlistRepository.deleteByClassIdAndUserIdAndPromotingAtIsNull("class1", "user2")).thenReturn(0L);
+
+        // La promoción en curso aún puede fallar: no se informa inscrito antes de tiempo
+        assertEquals(EnrollmentStatus.WAITLISTED, inscriptionService.inscribeUser("user2", "class1", testStartTime));
+
+        verify(classSeatsRepository).release("class1");
+        verify(assistanceRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void shouldReportWaitlistPosition() {
+        LocalDateTime requestedAt = LocalDateTime.now();
+        when(waitlistRepository.findByClassIdAndUserId("class1", "user2"))
+                .thenReturn(Optional.of(new WaitlistEntry("w1", "class1", "user2", testStartTime, requestedAt, null)));
+        when(waitlistRepository.countByClassIdAndRequestedAtLessThan("class1", requestedAt)).thenReturn(2L);
+
+        assertEquals(Optional.of(3L), inscriptionService.getWaitlistPosition("user2", "class1"));
+        assertTrue(inscriptionService.getWaitlistPosition("user3", "class1").isEmpty());
+    }
+
+    @Test
+    void shouldReleaseSeatWhenSavingAssistancesFails() {
+        Class clase = new Class();
+        clase.setId("class1");
+        clase.setMaxStudents(10);
+        clase.setSessions(List.of());
+
+        when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
+        when(classSeatsRepository.tryReserve("class1", 10)).thenReturn(true);
+        doThrow(new RuntimeException("db down")).when(assistanceRepository).insertAll(anyList());
+
+        assertThrows(RuntimeException.class, () ->
+                inscriptionService.inscribeUser("user1", "class1", testStartTime));
+        // El bulk write pudo guardar parte de las asistencias antes de fallar
+        verify(assistanceRepository).deleteByUserIdAndClassId("user1", "class1");
+        verify(classSeatsRepository).release("class1");
+    }
+
+    @Test
+    void shouldKeepOriginalErrorWhenUndoingInscriptionFails() {
+        Class clase = new Class();
+        clase.setId("class1");
+        clase.setMaxStudents(10);
+
+        when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
+        when(classSeatsRepository.tryReserve("class1", 10)).thenReturn(true);
+        doThrow(new RuntimeException("db down")).when(assistanceRepository).insertAll(anyList());
+        doThrow(new RuntimeException("still down")).when(assistanceRepository).deleteByUserIdAndClassId("user1", "class1");
+
+        RuntimeException error = assertThrows(RuntimeException.class, () ->
+                inscriptionService.inscribeUser("user1", "class1", testStartTime));
+        assertEquals("db down", error.getMessage());
+        assertEquals("still down", error.getSuppressed()[0].getMessage());
+        verify(classSeatsRepository, never()).release(anyString());
     }
 
     @Test
     void shouldFailWhenStartTimeIsNull() {
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.of(new Class()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(new Class()));
 
         // Cambiar la excepción esperada a IllegalStateException
         assertThrows(IllegalStateException.class, () ->
@@ -139,26 +275,209 @@ class InscriptionServiceTest {
     void shouldFailWhenStartTimeIsInThePast() {
         LocalDate pastTime = LocalDate.now().minusDays(1);
         when(userRepository.findById("user1")).thenReturn(Optional.of(new User()));
-        when(classRepository.findById("class1")).thenReturn(Optional.of(new Class()));
+        when(classService.getClassById("class1")).thenReturn(Optional.of(new Class()));
 
         // Cambiar la excepción esperada a IllegalStateException
         assertThrows(IllegalStateException.class, () ->
                 inscriptionService.inscribeUser("user1", "class1", pastTime));
     }
 
+    @Test
+    void inscribeUsersShouldReportResultPerUserAndInsertOnce() {
+        Class clase = new Class();
+        clase.setId("class1");
+        clase.setMaxStudents(2);
+        Class.Session session = new Class.Session();
+        session.setId("sess1");
+        clase.setSessions(List.of(session));
+
+        User user1 = new User();
+        user1.setId("user1");
+        User user2 = new User();
+        user2.setId("user2");
+        User user3 = new User();
+        user3.setId("user3");
+        Assistance existing = new Assistance();
+        existing.setUserId("user2");
+        List<String> userIds = List.of("user1", "user2", "user3", "ghost");
+
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
+        when(classService.getSessions("class1")).thenReturn(List.of(
+                new SessionOccurrence("occ1", "class1", "sess1", LocalDateTime.of(2024, 1, 8, 9, 0), LocalDateTime.of(2024, 1, 8, 10, 0))));
+        when(userRepository.findAllById(userIds)).thenReturn(List.of(user1, user2, user3));
+        when(assistanceRepository.findUserIdsByClassIdAndUserIdIn("class1", userIds)).thenReturn(List.of(existing));
+        when(classSeatsRepository.tryReserve("class1", 2)).thenReturn(true, false);
+
+        Map<String, String> results = inscriptionService.inscribeUsers(userIds, "class1", testStartTime);
+
+        assertEquals("Usuario inscrito exitosamente", results.get("user1"));
+        assertEquals("Usuario ya inscrito en la clase", results.get("user2"));
+        assertEquals("Capacidad máxima alcanzada", results.get("user3"));
+        assertEquals("Usuario no encontrado", results.get("ghost"));
+
+        verify(assistanceRepository, times(1)).insertAll(assistancesCaptor.capture());
+        assertEquals(2, assistancesCaptor.getValue().size());
+        assertTrue(assistancesCaptor.getValue().stream().allMatch(a -> "user1".equals(a.getUserId())));
+    }
+
+    @Test
+    void inscribeUsersShouldReleaseReservedSeatsWhenBulkInsertFails() {
+        Class clase = new Class();
+        clase.setId("class1");
+        clase.setMaxStudents(5);
+        User user1 = new User();
+        user1.setId("user1");
+        User user2 = new User();
+        user2.setId("user2");
+        List<String> userIds = List.of("user1", "user2");
+
+        when(classService.getClassById("class1")).thenReturn(Optional.of(clase));
+        when(userRepository.findAllById(userIds)).thenReturn(List.of(user1, user2));
+        when(classSeatsRepository.tryReserve("class1", 5)).thenReturn(true);
+        doThrow(new RuntimeException("db down")).when(assistanceRepository).insertAll(anyList());
+
+        assertThrows(RuntimeException.class, () ->
+                inscriptionService.inscribeUsers(userIds, "class1", testStartTime));
+        verify(assistanceRepository).deleteByUserIdAndClassId("user1", "class1");
+        verify(assistanceRepository).deleteByUserIdAndClassId("user2", "class1");
+        verify(classSeatsRepository, times(2)).release("class1");
+    }
+
+    @Test
+    void inscribeUsersShouldFailWhenClassNotFound() {
+        when(classService.getClassById("class1")).thenReturn(Optional.empty());
+        assertThrows(IllegalArgumentException.class, () ->
+                inscriptionService.inscribeUsers(List.of("user1"), "class1", testStartTime));
+    }
+
     // Los tests de deleteInscription no necesitan cambios
     @Test
     void shouldDeleteInscriptionSuccessfully() {
-        when(assistanceRepository.existsByUserIdAndClassId("user1", "class1")).thenReturn(true);
+        when(assistanceRepository.deleteByUserIdAndClassId("user1", "class1")).thenReturn(2L);
         assertDoesNotThrow(() -> inscriptionService.deleteInscription("user1", "class1"));
         verify(assistanceRepository).deleteByUserIdAndClassId("user1", "class1");
+        verify(absenceRepository).deleteByUserIdAndClassId("user1", "class1");
+        verify(classSeatsRepository).release("class1");
+    }
+
+    @Test
+    void deleteInscriptionShouldSubtractConfirmedAssistancesFromCounters() {
+        Assistance confirmed = new Assistance();
+        confirmed.setUserId("user1");
+        confirmed.setClassId("class1");
+        confirmed.setConfirm(true);
+        when(assistanceRepository.deleteByUserIdAndClassId("user1", "class1")).thenReturn(2L);
+        when(assistanceRepository.findByUserIdAndClassIdAndConfirmIsTrue("user1", "class1")).thenReturn(List.of(confirmed));
+
+        inscriptionService.deleteInscription("user1", "class1");
+
+        InOrder inOrder = inOrder(assistanceRepository, attendanceCounterRepository);
+        inOrder.verify(assistanceRepository).deleteByUserIdAndClassId("user1", "class1");
+        inOrder.verify(attendanceCounterRepository).decrementAll(List.of(confirmed));
+    }
+
+    @Test
+    void deleteInscriptionShouldHandSeatToFirstWaitingUser() {
+        LocalDateTime occurrenceStart = LocalDateTime.of(2024, 1, 8, 9, 0);
+        when(assistanceRepository.deleteByUserIdAndClassId("user1", "class1")).thenReturn(2L);
+        when(waitlistRepository.claimFirst("class1"))
+                .thenReturn(Optional.of(new WaitlistEntry("w1", "class1", "inscribed", testStartTime, LocalDateTime.now(), LocalDateTime.now())))
+                .thenReturn(Optional.of(new WaitlistEntry("w2", "class1", "user2", testStartTime, LocalDateTime.now(), LocalDateTime.now())));
+        when(assistanceRepository.existsByUserIdAndClassId("inscribed", "class1")).thenReturn(true);
+        when(classService.getSessions("class1")).thenReturn(List.of(
+                new SessionOccurrence("occ1", "class1", "sess1", occurrenceStart, occurrenceStart.plusHours(1))));
+
+        inscriptionService.deleteInscription("user1", "class1");
+
+        InOrder order = inOrder(assistanceRepository, waitlistRepository);
+        order.verify(waitlistRepository).deleteById("w1"); // Ya inscrito: solo sale de la lista
+        order.verify(assistanceRepository).insertAll(assistancesCaptor.capture());
+        order.verify(waitlistRepository).deleteById("w2"); // La entrada se borra después de insertar
+        assertEquals(2, assistancesCaptor.getValue().size());
+        assertEquals("user2", assistancesCaptor.getValue().get(0).getUserId());
+        assertEquals(testStartTime, assistancesCaptor.getValue().get(0).getStartTime());
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void deleteInscriptionShouldUndoPartialPromotionAndRequeueUser() {
+        WaitlistEntry entry = new WaitlistEntry("w1", "class1", "user2", testStartTime, LocalDateTime.now(), LocalDateTime.now());
+        when(assistanceRepository.deleteByUserIdAndClassId("user1", "class1")).thenReturn(2L);
+        when(waitlistRepository.claimFirst("class1")).thenReturn(Optional.of(entry));
+        doThrow(new RuntimeException("db down")).when(assistanceRepository).insertAll(anyList());
+
+        assertDoesNotThrow(() -> inscriptionService.deleteInscription("user1", "class1"));
+
+        verify(assistanceRepository).deleteByUserIdAndClassId("user2", "class1");
+        verify(waitlistRepository).unclaim("w1");
+        verify(waitlistRepository, never()).deleteById("w1");
+        verify(classSeatsRepository).release("class1");
+    }
+
+    @Test
+    void deleteInscriptionShouldKeepSeatForPromotionThatCannotBeUndone() {
+        WaitlistEntry entry = new WaitlistEntry("w1", "class1", "user2", testStartTime, LocalDateTime.now(), LocalDateTime.now());
+        when(assistanceRepository.deleteByUserIdAndClassId("user1", "class1")).thenReturn(2L);
+        when(waitlistRepository.claimFirst("class1")).thenReturn(Optional.of(entry));
+        doThrow(new RuntimeException("db down")).when(assistanceRepository).insertAll(anyList());
+        doThrow(new RuntimeException("db down")).when(waitlistRepository).unclaim("w1");
+
+        assertDoesNotThrow(() -> inscriptionService.deleteInscription("user1", "class1"));
+
+        // La entrada queda marcada: recoverStalePromotions la termina con este cupo
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void recoverStalePromotionsShouldInsertMissingAssistancesAndRemoveEntry() {
+        LocalDateTime occurrenceStart = LocalDateTime.of(2024, 1, 8, 9, 0);
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(5);
+        WaitlistEntry entry = new WaitlistEntry("w1", "class1", "user2", testStartTime, LocalDateTime.now(), cutoff.minusMinutes(1));
+        when(waitlistRepository.claimStale(cutoff)).thenReturn(Optional.of(entry)).thenReturn(Optional.empty());
+        when(classService.getSessions("class1")).thenReturn(List.of(
+                new SessionOccurrence("occ1", "class1", "sess1", occurrenceStart, occurrenceStart.plusHours(1)),
+                new SessionOccurrence("occ2", "class1", "sess1", occurrenceStart.plusWeeks(1), occurrenceStart.plusWeeks(1).plusHours(1))));
+        Assistance classLevel = new Assistance();
+        Assistance first = new Assistance();
+        first.setSessionId("occ1");
+        when(assistanceRepository.findSessionIdsByUserIdAndClassId("user2", "class1")).thenReturn(List.of(classLevel, first));
+
+        assertEquals(1, inscriptionService.recoverStalePromotions(cutoff));
+
+        verify(assistanceRepository).insertAll(assistancesCaptor.capture());
+        assertEquals(List.of("occ2"), assistancesCaptor.getValue().stream().map(Assistance::getSessionId).toList());
+        verify(waitlistRepository).deleteById("w1");
+    }
+
+    @Test
+    void deleteInscriptionShouldLeaveWaitlist() {
+        when(waitlistRepository.deleteByClassIdAndUserId("class1", "user2")).thenReturn(1L);
+
+        assertDoesNotThrow(() -> inscriptionService.deleteInscription("user2", "class1"));
+        verify(absenceRepository, never()).deleteByUserIdAndClassId(anyString(), anyString());
+        verify(classSeatsRepository, never()).release(anyString());
     }
 
     @Test
     void shouldFailToDeleteInscriptionWhenNotFound() {
-        when(assistanceRepository.existsByUserIdAndClassId("user1", "class1")).thenReturn(false);
         assertThrows(IllegalArgumentException.class, () ->
                 inscriptionService.deleteInscription("user1", "class1"));
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void concurrentCancellationShouldReleaseSeatOnce() {
+        // La otra cancelación ya borró las asistencias: esta no borra nada y no libera el cupo
+        when(assistanceRepository.deleteByUserIdAndClassId("user1", "class1")).thenReturn(2L).thenReturn(0L);
+
+        inscriptionService.deleteInscription("user1", "class1");
+        assertThrows(IllegalArgumentException.class, () ->
+                inscriptionService.deleteInscription("user1", "class1"));
+
+        verify(classSeatsRepository, times(1)).release("class1");
+        verify(waitlistRepository, times(1)).claimFirst("class1");
+        verify(attendanceCounterRepository, times(1)).decrementAll(anyList());
+        verify(assistanceRepository, never()).existsByUserIdAndClassId("user1", "class1");
     }
 
     // Tests actualizados para manejar startTime
@@ -182,6 +501,22 @@ class InscriptionServiceTest {
         assertFalse(result.get(0).isConfirm());
     }
 
+    @Test
+    void shouldReturnFutureUnconfirmedAssistancesOnePageAtATime() {
+        Assistance a1 = new Assistance();
+        a1.setId("a1");
+        Assistance a2 = new Assistance();
+        a2.setId("a2");
+
+        when(assistanceRepository.findUnconfirmedAfterPage(any(LocalDateTime.class), isNull(), eq(2)))
+                .thenReturn(List.of(a1, a2));
+
+        CursorPage<Assistance> page = inscriptionService.findFutureUnconfirmedPage(null, 1);
+
+        assertEquals(List.of(a1), page.getItems());
+        assertEquals("a1", CursorPage.decodeCursor(page.getNextCursor()));
+    }
+
     @Test
     void shouldReturnFutureUnconfirmedAssistancesByUser() {
         String userId = "user1";
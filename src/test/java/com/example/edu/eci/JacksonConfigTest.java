@@ -0,0 +1,51 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.JacksonConfig;
+import com.example.edu.eci.model.Class;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacksonConfigTest {
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().dayNames().customize(builder);
+        objectMapper = builder.build();
+    }
+
+    private Class.Session session(String day) throws Exception {
+        return objectMapper.readValue("{\"id\":\"1\",\"day\":\"" + day + "\",\"startTime\":\"2025-06-02T10:00\"}", Class.Session.class);
+    }
+
+    @Test
+    void shouldReadDayNamesInEnglishOrSpanish() throws Exception {
+        assertEquals(DayOfWeek.MONDAY, session("MONDAY").getDay());
+        assertEquals(DayOfWeek.MONDAY, session("Monday").getDay());
+        assertEquals(DayOfWeek.MONDAY, session("lunes").getDay());
+        assertEquals(DayOfWeek.WEDNESDAY, session("Miércoles").getDay());
+        assertEquals(LocalDateTime.parse("2025-06-02T10:00"), session("lunes").getStartTime());
+    }
+
+    @Test
+    void shouldRejectUnknownDayNames() {
+        assertThrows(InvalidFormatException.class, () -> session("someday"));
+    }
+
+    @Test
+    void shouldWriteEnumName() throws Exception {
+        Class.Session session = new Class.Session("1", DayOfWeek.MONDAY, null, null);
+
+        assertTrue(objectMapper.writeValueAsString(session).contains("\"day\":\"MONDAY\""));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+    private SecretKey key;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        key = (SecretKey) ReflectionTestUtils.getField(jwtService, "key");
+    }
+
+    private String token(String subject, long expiresInMillis) {
+        return Jwts.builder()
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .signWith(key)
+                .compact();
+    }
+
+    @Test
+    void parseClaimsShouldReturnSubjectOfValidToken() {
+        Optional<Claims> claims = jwtService.parseClaims(token("user1", 60_000));
+
+        assertTrue(claims.isPresent());
+        assertEquals("user1", claims.get().getSubject());
+    }
+
+    @Test
+    void parseClaimsShouldServeRepeatedTokensFromCache() {
+        String token = token("user1", 60_000);
+
+        Claims first = jwtService.parseClaims(token).orElseThrow();
+        Claims second = jwtService.parseClaims(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void parseClaimsShouldRejectExpiredToken() {
+        assertTrue(jwtService.parseClaims(token("user1", -60_000)).isEmpty());
+    }
+
+    @Test
+    void parseClaimsShouldRejectTamperedToken() {
+        String token = token("user1", 60_000);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertTrue(jwtService.parseClaims(tampered).isEmpty());
+    }
+
+    @Test
+    void parseClaimsShouldRejectBlankAndMalformedTokens() {
+        assertTrue(jwtService.parseClaims(null).isEmpty());
+        assertTrue(jwtService.parseClaims("  ").isEmpty());
+        assertTrue(jwtService.parseClaims("not-a-jwt").isEmpty());
+    }
+
+    @Test
+    void validateAndGetUserIdShouldDelegateToParseClaims() {
+        String token = token("user1", 60_000);
+
+        assertTrue(jwtService.validateToken(token));
+        assertEquals("user1", jwtService.getUserIdFromToken(token));
+        assertFalse(jwtService.validateToken("not-a-jwt"));
+        assertThrows(JwtException.class, () -> jwtService.getUserIdFromToken("not-a-jwt"));
+    }
+}
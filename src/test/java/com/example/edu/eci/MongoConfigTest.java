@@ -0,0 +1,94 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.MongoConfig;
+import com.example.edu.eci.model.Class;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoConfigTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    private static Date date(String time) {
+        return Date.from(LocalDateTime.parse(time).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    void shouldReadLegacyAndTypedSessionFields() {
+        Document clase = new Document("_id", "c1").append("sessions", List.of(
+                new Document("_id", "1").append("day", "Lunes")
+                        .append("startTime", "2024-01-01T10:00").append("endTime", "2024-01-01T11:00"),
+                new Document("_id", "2").append("day", "TUESDAY")
+                        .append("startTime", date("2024-01-02T10:00")).append("endTime", date("2024-01-02T11:00"))));
+
+        Class read = converter.read(Class.class, clase);
+
+        assertEquals(DayOfWeek.MONDAY, read.getSessions().get(0).getDay());
+        assertEquals(LocalDateTime.parse("2024-01-01T10:00"), read.getSessions().get(0).getStartTime());
+        assertEquals(LocalDateTime.parse("2024-01-01T11:00"), read.getSessions().get(0).getEndTime());
+        assertEquals(DayOfWeek.TUESDAY, read.getSessions().get(1).getDay());
+        assertEquals(LocalDateTime.parse("2024-01-02T10:00"), read.getSessions().get(1).getStartTime());
+    }
+
+    @Test
+    void shouldReadUnparseableSessionTimeAsNull() {
+        Document clase = new Document("_id", "c1").append("sessions", List.of(
+                new Document("_id", "1").append("startTime", "09:00").append("endTime", "2024-01-01T11:00")));
+
+        Class read = converter.read(Class.class, clase);
+
+        assertNull(read.getSessions().get(0).getStartTime());
+        assertEquals(LocalDateTime.parse("2024-01-01T11:00"), read.getSessions().get(0).getEndTime());
+    }
+
+    @Test
+    void shouldWriteSessionTimesAsDates() {
+        Class clase = new Class();
+        clase.setId("c1");
+        clase.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY,
+                LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
+
+        Document written = new Document();
+        converter.write(clase, written);
+
+        Document session = written.getList("sessions", Document.class).get(0);
+        assertEquals(date("2024-01-01T10:00"), session.get("startTime"));
+        assertEquals(date("2024-01-01T11:00"), session.get("endTime"));
+    }
+
+    @Test
+    void shouldNotConvertStringsOutsideSessionTimes() {
+        // Solo las sesiones aceptan strings: otra fecha corrupta falla en vez de quedar en null
+        Document clase = new Document("_id", "c1").append("startDate", "no-es-fecha");
+
+        assertThrows(RuntimeException.class, () -> converter.read(Class.class, clase));
+        assertNull(converter.read(Class.class, new Document("_id", "c1").append("startDate", null)).getStartDate());
+        assertEquals(LocalDate.of(2024, 1, 1), converter.read(Class.class,
+                new Document("_id", "c1").append("startDate", date("2024-01-01T00:00"))).getStartDate());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.repository.ReactiveAssistanceRepositoryImpl;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveAssistanceRepositoryTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveBulkOperations bulkOperations;
+
+    @InjectMocks
+    private ReactiveAssistanceRepositoryImpl assistanceRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Assistance.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Assistance.class))).thenReturn(Flux.empty());
+    }
+
+    private static Assistance assistance(String id) {
+        Assistance assistance = new Assistance();
+        assistance.setId(id);
+        return assistance;
+    }
+
+    @Test
+    void insertAllShouldUseSingleUnorderedBulkWrite() {
+        List<Assistance> assistances = List.of(new Assistance(), new Assistance());
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        assistanceRepository.insertAll(assistances).block();
+
+        verify(bulkOperations).insert(assistances);
+        verify(bulkOperations, times(1)).execute();
+        assistanceRepository.insertAll(List.of()).block();
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.UNORDERED, Assistance.class);
+    }
+
+    @Test
+    void confirmShouldFindAndModifyOnlyUnconfirmedAssistance() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Assistance.class)))
+                .thenReturn(Mono.just(assistance("a1")));
+
+        assertEquals("a1", assistanceRepository.confirm("u1", "c1", "s1", "instructor1").block().getId());
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), any(Update.class), eq(Assistance.class));
+        assertEquals(false, queryCaptor.getValue().getQueryObject().get("confirm"));
+        assertEquals("s1", queryCaptor.getValue().getQueryObject().get("sessionId"));
+    }
+
+    @Test
+    void confirmAllShouldReadBackBatchOnlyWhenSomeWereAlreadyConfirmed() {
+        when(bulkOperations.execute())
+                .thenReturn(Mono.just(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of())))
+                .thenReturn(Mono.just(BulkWriteResult.acknowledged(0, 2, 0, 1, List.of(), List.of())));
+        when(mongoTemplate.find(any(Query.class), eq(Assistance.class))).thenReturn(Flux.just(assistance("a2")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Assistance.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(2, 2L, null)));
+
+        assertEquals(Set.of("a1", "a2"), assistanceRepository.confirmAll(List.of("a1", "a2"), "instructor1").block());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Assistance.class));
+
+        assertEquals(Set.of("a2"), assistanceRepository.confirmAll(List.of("a1", "a2"), "instructor1").block());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Assistance.class));
+        assertNotNull(queryCaptor.getValue().getQueryObject().get("confirmBatchId"));
+        assertTrue(assistanceRepository.confirmAll(List.of(), "instructor1").block().isEmpty());
+        // La marca del lote se quita después de cada confirmación
+        ArgumentCaptor<Update> clearCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), clearCaptor.capture(), eq(Assistance.class));
+        assertEquals(new Document("confirmBatchId", 1), clearCaptor.getValue().getUpdateObject().get("$unset"));
+    }
+
+    @Test
+    void readsShouldUseSameQueriesAsBlockingRepository() {
+        assistanceRepository.findRoster("c1", "s1", List.of("u1")).collectList().block();
+        assistanceRepository.findConfirmedPage("65f000000000000000000001", 11).collectList().block();
+        assistanceRepository.findUnconfirmedAfterPage(LocalDateTime.of(2024, 1, 1, 0, 0), null, 11).collectList().block();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).find(queryCaptor.capture(), eq(Assistance.class));
+        List<Query> queries = queryCaptor.getAllValues();
+        assertEquals(new Document("userId", 1).append("startTime", 1).append("confirm", 1), queries.get(0).getFieldsObject());
+        assertEquals(11, queries.get(1).getLimit());
+        assertEquals(false, queries.get(2).getQueryObject().get("confirm"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Absence;
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.AttendanceCounter;
+import com.example.edu.eci.model.enums.ConfirmationStatus;
+import com.example.edu.eci.repository.ReactiveAbsenceRepository;
+import com.example.edu.eci.repository.ReactiveAssistanceRepository;
+import com.example.edu.eci.repository.ReactiveAttendanceCounterRepository;
+import com.example.edu.eci.service.ReactiveAssistanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveAssistanceServiceTest {
+
+    @Mock
+    private ReactiveAssistanceRepository assistanceRepository;
+
+    @Mock
+    private ReactiveAttendanceCounterRepository attendanceCounterRepository;
+
+    @Mock
+    private ReactiveAbsenceRepository absenceRepository;
+
+    @InjectMocks
+    private ReactiveAssistanceService assistanceService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(attendanceCounterRepository.increment(anyString(), anyString(), any())).thenReturn(Mono.empty());
+        when(attendanceCounterRepository.incrementAll(anyList())).thenReturn(Mono.empty());
+        when(absenceRepository.deleteById(anyString())).thenReturn(Mono.empty());
+        when(absenceRepository.deleteAllById(anyIterable())).thenReturn(Mono.empty());
+    }
+
+    private static Assistance assistance(String id, String userId, boolean confirm, LocalDate startTime) {
+        Assistance assistance = new Assistance();
+        assistance.setId(id);
+        assistance.setUserId(userId);
+        assistance.setConfirm(confirm);
+        assistance.setStartTime(startTime);
+        return assistance;
+    }
+
+    @Test
+    void confirmAssistanceShouldCountAndClearPastAbsence() {
+        when(assistanceRepository.confirm("u1", "c1", "s1", "i1"))
+                .thenReturn(Mono.just(assistance("a1", "u1", false, LocalDate.of(2024, 1, 1))));
+
+        assistanceService.confirmAssistance("u1", "c1", "s1", "i1").block();
+
+        verify(attendanceCounterRepository).increment("u1", "c1", LocalDate.of(2024, 1, 1));
+        verify(absenceRepository).deleteById("a1");
+    }
+
+    @Test
+    void confirmAssistanceShouldExplainWhyNothingWasConfirmed() {
+        when(assistanceRepository.confirm(anyString(), anyString(), anyString(), anyString())).thenReturn(Mono.empty());
+        when(assistanceRepository.findByUserIdAndClassIdAndSessionId("u1", "c1", "s1"))
+                .thenReturn(Mono.just(assistance("a1", "u1", true, null)));
+        when(assistanceRepository.findByUserIdAndClassIdAndSessionId("u2", "c1", "s1")).thenReturn(Mono.empty());
+
+        assertThrows(IllegalStateException.class, () -> assistanceService.confirmAssistance("u1", "c1", "s1", "i1").block());
+        assertThrows(IllegalArgumentException.class, () -> assistanceService.confirmAssistance("u2", "c1", "s1", "i1").block());
+        verifyNoInteractions(attendanceCounterRepository);
+    }
+
+    @Test
+    void confirmSessionShouldReportEachUserAndCountOnlyConfirmed() {
+        when(assistanceRepository.findRoster(eq("c1"), eq("s1"), anyCollection())).thenReturn(Flux.just(
+                assistance("a1", "u1", false, LocalDate.of(2024, 1, 1)),
+                assistance("a2", "u2", true, LocalDate.of(2024, 1, 1))));
+        when(assistanceRepository.confirmAll(List.of("a1"), "i1")).thenReturn(Mono.just(Set.of("a1")));
+
+        Map<String, ConfirmationStatus> results = assistanceService.confirmSession("c1", "s1", List.of("u1", "u2", "u3"), "i1").block();
+
+        assertEquals(Map.of("u1", ConfirmationStatus.CONFIRMED, "u2", ConfirmationStatus.ALREADY_CONFIRMED,
+                "u3", ConfirmationStatus.NOT_ENROLLED), results);
+        verify(attendanceCounterRepository).incrementAll(argThat(confirmed -> confirmed.size() == 1
+                && "c1".equals(confirmed.get(0).getClassId())));
+        verify(absenceRepository).deleteAllById(Set.of("a1"));
+        assertThrows(IllegalArgumentException.class, () -> assistanceService.confirmSession("c1", "s1", List.of(), "i1").block());
+    }
+
+    @Test
+    void countConfirmedAttendancesShouldCombineCountersAndPartialMonths() {
+        when(attendanceCounterRepository.findAllById(List.of(AttendanceCounter.byMonthId("u1", YearMonth.of(2024, 2)))))
+                .thenReturn(Flux.just(new AttendanceCounter(null, "u1", null, null, 4, null)));
+        when(assistanceRepository.countConfirmedByUserIdAndStartTimeIn(eq("u1"), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Mono.just(1L));
+
+        assertEquals(6L, assistanceService.countConfirmedAttendances("u1", LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10)).block());
+    }
+
+    @Test
+    void countsShouldFailWhenThereAreNoAttendances() {
+        when(assistanceRepository.countConfirmedByUserIdAndStartTimeIn(anyString(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Mono.just(0L));
+        when(attendanceCounterRepository.findById(AttendanceCounter.byClassId("u1", "c1"))).thenReturn(Mono.empty());
+
+        assertThrows(IllegalStateException.class,
+                () -> assistanceService.countConfirmedAttendances("u1", LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3)).block());
+        assertThrows(IllegalStateException.class, () -> assistanceService.countAttendancesByClass("u1", "c1").block());
+    }
+
+    @Test
+    void countAttendancesByClassShouldReadClassCounter() {
+        when(attendanceCounterRepository.findById(AttendanceCounter.byClassId("u1", "c1")))
+                .thenReturn(Mono.just(new AttendanceCounter(null, "u1", "c1", null, 3, null)));
+
+        assertEquals(3L, assistanceService.countAttendancesByClass("u1", "c1").block());
+    }
+
+    @Test
+    void pagesAndExportShouldReadFromRepositories() {
+        when(assistanceRepository.findConfirmedPage(null, 3)).thenReturn(Flux.just(assistance("a1", "u1", true, null)));
+        when(absenceRepository.findByIdGreaterThanOrderByIdAsc("a0", Limit.of(3)))
+                .thenReturn(Flux.just(new Absence("a1", "u1", "c1", "s1", null)));
+        when(assistanceRepository.findByConfirmTrue()).thenReturn(Flux.just(assistance("a1", "u1", true, null)));
+        when(assistanceRepository.findByUserIdAndConfirmIsTrue("u1")).thenReturn(Flux.empty());
+
+        CursorPage<Assistance> confirmed = assistanceService.getConfirmedPage(null, 2).block();
+        CursorPage<Absence> absences = assistanceService.getAbsencesPage(CursorPage.encodeCursor("a0"), 2).block();
+
+        assertEquals(1, confirmed.getItems().size());
+        assertNull(confirmed.getNextCursor());
+        assertEquals("a1", absences.getItems().get(0).getId());
+        assertEquals(1, assistanceService.exportConfirmed(null).count().block());
+        assertEquals(0, assistanceService.exportConfirmed("u1").count().block());
+        assertTrue(assistanceService.findAssistancesHistoricByUser("u1").collectList().block().isEmpty());
+    }
+}
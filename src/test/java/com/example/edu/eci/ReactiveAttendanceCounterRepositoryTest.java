@@ -0,0 +1,102 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.AttendanceCounter;
+import com.example.edu.eci.repository.ReactiveAttendanceCounterRepositoryImpl;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveAttendanceCounterRepositoryTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveBulkOperations bulkOperations;
+
+    @InjectMocks
+    private ReactiveAttendanceCounterRepositoryImpl attendanceCounterRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(AttendanceCounter.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+    }
+
+    @Test
+    void incrementShouldUpsertClassAndMonthCountersInOneBulkWrite() {
+        attendanceCounterRepository.increment("u1", "c1", LocalDate.of(2024, 3, 15)).block();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations, times(2)).upsert(queries.capture(), any(Update.class));
+        verify(bulkOperations).execute();
+        assertEquals(List.of(AttendanceCounter.byClassId("u1", "c1"), AttendanceCounter.byMonthId("u1", YearMonth.of(2024, 3))),
+                queries.getAllValues().stream().map(query -> query.getQueryObject().get("_id")).toList());
+    }
+
+    @Test
+    void incrementAllShouldSkipEmptyBatches() {
+        attendanceCounterRepository.incrementAll(List.of()).block();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void incrementAllShouldOnlyCountClassWhenDateIsMissing() {
+        Assistance assistance = new Assistance();
+        assistance.setUserId("u1");
+        assistance.setClassId("c1");
+
+        attendanceCounterRepository.incrementAll(List.of(assistance)).block();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(1)).upsert(any(Query.class), updates.capture());
+        assertEquals(1, updates.getValue().getUpdateObject().get("$inc", Document.class).get("count"));
+    }
+
+    @Test
+    void decrementAllShouldDecrementCountersAndRemoveEmptyOnesInOrder() {
+        Assistance assistance = new Assistance();
+        assistance.setUserId("u1");
+        assistance.setClassId("c1");
+        assistance.setStartTime(LocalDate.of(2024, 3, 15));
+
+        attendanceCounterRepository.decrementAll(List.of(assistance)).block();
+
+        verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.ORDERED, AttendanceCounter.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), updates.capture());
+        assertEquals(-1, updates.getValue().getUpdateObject().get("$inc", Document.class).get("count"));
+        verify(bulkOperations).remove(any(Query.class));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void decrementAllShouldSkipEmptyBatches() {
+        assertNull(attendanceCounterRepository.decrementAll(List.of()).block());
+
+        verifyNoInteractions(bulkOperations);
+    }
+}
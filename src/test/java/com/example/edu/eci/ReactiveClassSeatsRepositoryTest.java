@@ -0,0 +1,95 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.ClassSeats;
+import com.example.edu.eci.repository.ReactiveClassSeatsRepositoryImpl;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveClassSeatsRepositoryTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ReactiveClassSeatsRepositoryImpl classSeatsRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void tryReserveShouldUseSameConditionalUpdateAsBlockingRepository() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        assertTrue(classSeatsRepository.tryReserve("class1", 10).block());
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(queryCaptor.capture(), any(Update.class), eq(ClassSeats.class));
+        assertEquals("class1", queryCaptor.getValue().getQueryObject().get("_id"));
+        assertEquals(10, queryCaptor.getValue().getQueryObject().get("reserved", Document.class).get("$lt"));
+    }
+
+    @Test
+    void tryReserveShouldReportFullClassWhenCounterExists() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+        when(mongoTemplate.exists(any(Query.class), eq(ClassSeats.class))).thenReturn(Mono.just(true));
+
+        assertFalse(classSeatsRepository.tryReserve("class1", 10).block());
+    }
+
+    @Test
+    void tryReserveShouldSeedMissingCounterFromExistingEnrollments() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mongoTemplate.exists(any(Query.class), eq(ClassSeats.class))).thenReturn(Mono.just(false));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("userId"), eq(Assistance.class), eq(String.class)))
+                .thenReturn(Flux.just("user1", "user2"));
+        when(mongoTemplate.insert(any(ClassSeats.class))).thenReturn(Mono.error(new DuplicateKeyException("duplicate _id")));
+
+        assertTrue(classSeatsRepository.tryReserve("class1", 10).block());
+
+        ArgumentCaptor<ClassSeats> seatsCaptor = ArgumentCaptor.forClass(ClassSeats.class);
+        verify(mongoTemplate).insert(seatsCaptor.capture());
+        assertEquals(2, seatsCaptor.getValue().getReserved());
+    }
+
+    @Test
+    void tryReserveShouldRejectClassesWithoutCapacity() {
+        assertFalse(classSeatsRepository.tryReserve("class1", 0).block());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void releaseShouldNeverDecrementBelowZero() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ClassSeats.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        classSeatsRepository.release("class1").block();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(queryCaptor.capture(), any(Update.class), eq(ClassSeats.class));
+        assertEquals(0, queryCaptor.getValue().getQueryObject().get("reserved", Document.class).get("$gt"));
+    }
+}
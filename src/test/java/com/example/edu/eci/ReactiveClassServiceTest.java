@@ -0,0 +1,216 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.CacheConfig;
+import com.example.edu.eci.dto.ClassSummary;
+import com.example.edu.eci.dto.CursorPage;
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.ClassSeats;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.repository.ReactiveClassRepository;
+import com.example.edu.eci.repository.ReactiveClassSeatsRepository;
+import com.example.edu.eci.repository.ReactiveSessionOccurrenceRepository;
+import com.example.edu.eci.repository.ReactiveWaitlistRepository;
+import com.example.edu.eci.service.ClassChangedEvent;
+import com.example.edu.eci.service.ReactiveClassService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReactiveClassServiceTest {
+
+    @Mock
+    private ReactiveClassRepository classRepository;
+
+    @Mock
+    private ReactiveClassSeatsRepository classSeatsRepository;
+
+    @Mock
+    private ReactiveSessionOccurrenceRepository sessionOccurrenceRepository;
+
+    @Mock
+    private ReactiveWaitlistRepository waitlistRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(
+            CacheConfig.CLASSES_CACHE, CacheConfig.CLASS_SESSIONS_CACHE);
+
+    @InjectMocks
+    private ReactiveClassService classService;
+
+    @Captor
+    private ArgumentCaptor<List<SessionOccurrence>> occurrencesCaptor;
+
+    private Class yoga;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        yoga = new Class();
+        yoga.setId("yoga");
+        yoga.setRepetition("weekly");
+        yoga.setEndTimeRepetition(LocalDate.of(2024, 1, 15));
+        yoga.setSessions(List.of(new Class.Session("1", null,
+                LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00"))));
+        when(classRepository.save(any(Class.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(classSeatsRepository.save(any(ClassSeats.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc(anyString())).thenReturn(Flux.empty());
+        when(sessionOccurrenceRepository.insert(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<SessionOccurrence>>getArgument(0)));
+        when(sessionOccurrenceRepository.saveAll(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<SessionOccurrence>>getArgument(0)));
+        when(sessionOccurrenceRepository.deleteAllById(anyList())).thenReturn(Mono.empty());
+        when(sessionOccurrenceRepository.deleteByClassId(anyString())).thenReturn(Mono.empty());
+        when(waitlistRepository.deleteByClassId(anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void getClassByIdShouldReadThroughSharedCache() {
+        when(classRepository.findById("yoga")).thenReturn(Mono.just(yoga));
+
+        assertSame(yoga, classService.getClassById("yoga").block());
+        assertSame(yoga, classService.getClassById("yoga").block());
+
+        verify(classRepository, times(1)).findById("yoga");
+        assertSame(yoga, cacheManager.getCache(CacheConfig.CLASSES_CACHE).get("yoga").get());
+    }
+
+    @Test
+    void getSessionsShouldFallBackToLegacySessions() {
+        when(sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc("yoga")).thenReturn(Flux.empty());
+        when(classRepository.findById("yoga")).thenReturn(Mono.just(yoga));
+
+        List<SessionOccurrence> sessions = classService.getSessions("yoga").block();
+
+        assertEquals(1, sessions.size());
+        assertEquals("1", sessions.get(0).getId());
+    }
+
+    @Test
+    void createClassShouldSaveOccurrencesEvictCachesAndPublishEvent() {
+        cacheManager.getCache(CacheConfig.CLASSES_CACHE).put("yoga", yoga);
+
+        classService.createClass(yoga).block();
+
+        verify(classSeatsRepository).save(any(ClassSeats.class));
+        verify(sessionOccurrenceRepository).insert(occurrencesCaptor.capture());
+        assertEquals(3, occurrencesCaptor.getValue().size());
+        verify(eventPublisher).publishEvent(new ClassChangedEvent("yoga", yoga));
+        assertNull(cacheManager.getCache(CacheConfig.CLASSES_CACHE).get("yoga"));
+    }
+
+    @Test
+    void createClassShouldRejectUnsupportedRepetition() {
+        yoga.setRepetition("daily");
+
+        assertThrows(IllegalArgumentException.class, () -> classService.createClass(yoga).block());
+        verify(classRepository, never()).save(any(Class.class));
+    }
+
+    @Test
+    void updateAndDeleteShouldOnlyTouchExistingClasses() {
+        when(classRepository.findById("yoga")).thenReturn(Mono.just(yoga));
+        when(classRepository.findById("missing")).thenReturn(Mono.empty());
+        when(classRepository.existsById("yoga")).thenReturn(Mono.just(true));
+        when(classRepository.existsById("missing")).thenReturn(Mono.just(false));
+        when(classRepository.deleteById("yoga")).thenReturn(Mono.empty());
+        when(classSeatsRepository.deleteById("yoga")).thenReturn(Mono.empty());
+
+        assertNull(classService.updateClass("missing", new Class(), null).block());
+        assertFalse(classService.deleteClass("missing").block());
+        assertSame(yoga, classService.updateClass("yoga", yoga, null).block());
+        assertTrue(classService.deleteClass("yoga").block());
+
+        verify(sessionOccurrenceRepository, times(1)).deleteByClassId("yoga");
+        verify(waitlistRepository, times(1)).deleteByClassId("yoga");
+        verify(eventPublisher).publishEvent(new ClassChangedEvent("yoga", null));
+    }
+
+    @Test
+    void updateShouldKeepIdsOfExistingOccurrences() {
+        yoga.setEndTimeRepetition(LocalDate.of(2024, 1, 8));
+        when(classRepository.findById("yoga")).thenReturn(Mono.just(yoga));
+        when(sessionOccurrenceRepository.findByClassIdOrderByStartTimeAsc("yoga")).thenReturn(Flux.just(
+                new SessionOccurrence("o1", "yoga", "1", LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")),
+                new SessionOccurrence("o2", "yoga", "1", LocalDateTime.parse("2024-01-15T10:00"), LocalDateTime.parse("2024-01-15T11:00"))));
+
+        classService.updateClass("yoga", yoga, null).block();
+
+        verify(sessionOccurrenceRepository).deleteAllById(List.of("o2"));
+        verify(sessionOccurrenceRepository).insert(occurrencesCaptor.capture());
+        assertEquals(List.of("yoga:1:2024-01-08T10:00"), occurrencesCaptor.getValue().stream().map(SessionOccurrence::getId).toList());
+        verify(sessionOccurrenceRepository, never()).saveAll(anyList());
+        verify(sessionOccurrenceRepository, never()).deleteByClassId("yoga");
+    }
+
+    @Test
+    void updateShouldRejectStaleExpectedVersion() {
+        yoga.setVersion(3L);
+        Class stored = new Class();
+        stored.setVersion(4L);
+        when(classRepository.findById("yoga")).thenReturn(Mono.just(stored));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> classService.updateClass("yoga", yoga, 3L).block());
+        verify(classRepository, never()).save(any(Class.class));
+
+        assertSame(yoga, classService.updateClass("yoga", yoga, 4L).block());
+        assertEquals(4L, yoga.getVersion());
+    }
+
+    @Test
+    void getClassSummariesPageShouldProjectAndAddRemainingSeats() {
+        yoga.setMaxStudents(3);
+        when(classRepository.findPage(null, 51, ClassSummary.FIELDS)).thenReturn(Flux.just(yoga));
+        when(classSeatsRepository.findAllById(List.of("yoga"))).thenReturn(Flux.just(new ClassSeats("yoga", 1)));
+
+        CursorPage<ClassSummary> page = classService.getClassSummariesPage(null, null).block();
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(2, page.getItems().get(0).getRemainingSeats());
+        verify(classRepository, never()).findAllByOrderByIdAsc(any(Limit.class));
+    }
+
+    @Test
+    void getClassesPageShouldContinueAfterCursor() {
+        when(classRepository.findByIdGreaterThanOrderByIdAsc("a", Limit.of(2))).thenReturn(Flux.just(yoga, new Class()));
+
+        CursorPage<Class> page = classService.getClassesPage(CursorPage.encodeCursor("a"), 1).block();
+
+        assertEquals(List.of(yoga), page.getItems());
+        assertEquals(CursorPage.encodeCursor("yoga"), page.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> classService.getClassesPage("%%", 1).block());
+    }
+
+    @Test
+    void getScheduleShouldValidateRangeAndClass() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(classRepository.findById("yoga")).thenReturn(Mono.just(yoga));
+        when(classRepository.findById("missing")).thenReturn(Mono.empty());
+
+        assertEquals(2, classService.getSchedule("yoga", from, from.plusDays(14)).collectList().block().size());
+        assertThrows(IllegalArgumentException.class, () -> classService.getSchedule("yoga", from, from).blockLast());
+        assertThrows(IllegalArgumentException.class, () -> classService.getSchedule("missing", from, from.plusDays(1)).blockLast());
+    }
+}
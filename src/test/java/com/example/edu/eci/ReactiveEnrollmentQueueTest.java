@@ -0,0 +1,102 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.dto.EnrollmentTicket;
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import com.example.edu.eci.service.ReactiveEnrollmentQueue;
+import com.example.edu.eci.service.ReactiveInscriptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReactiveEnrollmentQueueTest {
+
+    @Mock
+    private ReactiveInscriptionService inscriptionService;
+
+    private ReactiveEnrollmentQueue queue;
+
+    private final LocalDate startDate = LocalDate.now().plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(inscriptionService.inscribeUser(anyString(), anyString(), any())).thenReturn(Mono.just(EnrollmentStatus.INSCRIBED));
+        queue = new ReactiveEnrollmentQueue(inscriptionService, 2, Duration.ofMinutes(1));
+    }
+
+    private static EnrollmentTicket await(EnrollmentTicket ticket) throws Exception {
+        return ticket.outcome().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldInscribeAndKeepTicket() throws Exception {
+        EnrollmentTicket ticket = queue.submit("user1", "class1", startDate).orElseThrow();
+
+        assertEquals(EnrollmentStatus.INSCRIBED, await(ticket).getStatus());
+        assertEquals("Usuario inscrito exitosamente", ticket.getMessage());
+        assertSame(ticket, queue.getTicket(ticket.getId()).orElseThrow());
+        assertTrue(queue.getTicket("unknown").isEmpty());
+        assertEquals(0, queue.pending());
+    }
+
+    @Test
+    void shouldReportWaitlistedRejectedAndFailedEnrollments() throws Exception {
+        when(inscriptionService.inscribeUser("user1", "full", startDate)).thenReturn(Mono.just(EnrollmentStatus.WAITLISTED));
+        when(inscriptionService.inscribeUser("dup", "class1", startDate))
+                .thenReturn(Mono.error(new IllegalStateException("Usuario ya inscrito en la clase")));
+        when(inscriptionService.inscribeUser("broken", "class1", startDate)).thenReturn(Mono.error(new RuntimeException("timeout")));
+
+        EnrollmentTicket waitlisted = await(queue.submit("user1", "full", startDate).orElseThrow());
+        EnrollmentTicket rejected = await(queue.submit("dup", "class1", startDate).orElseThrow());
+        EnrollmentTicket failed = await(queue.submit("broken", "class1", startDate).orElseThrow());
+
+        assertEquals(EnrollmentStatus.WAITLISTED, waitlisted.getStatus());
+        assertEquals("Clase llena: usuario en lista de espera", waitlisted.getMessage());
+        assertEquals(EnrollmentStatus.REJECTED, rejected.getStatus());
+        assertEquals("Usuario ya inscrito en la clase", rejected.getMessage());
+        assertEquals(EnrollmentStatus.FAILED, failed.getStatus());
+    }
+
+    @Test
+    void shouldRejectWhenFullAndReuseTicketOfPendingEnrollment() throws Exception {
+        Sinks.One<EnrollmentStatus> release = Sinks.one();
+        when(inscriptionService.inscribeUser(anyString(), anyString(), any())).thenReturn(release.asMono());
+
+        EnrollmentTicket first = queue.submit("user1", "class1", startDate).orElseThrow();
+        queue.submit("user2", "class1", startDate).orElseThrow();
+
+        assertEquals(EnrollmentStatus.PROCESSING, first.getStatus());
+        assertSame(first, queue.submit("user1", "class1", startDate).orElseThrow());
+        assertTrue(queue.submit("user3", "class1", startDate).isEmpty());
+
+        release.tryEmitValue(EnrollmentStatus.INSCRIBED);
+        assertEquals(EnrollmentStatus.INSCRIBED, await(first).getStatus());
+        assertEquals(0, queue.pending());
+        verify(inscriptionService, times(1)).inscribeUser("user1", "class1", startDate);
+    }
+
+    @Test
+    void shutdownShouldStopAcceptingAndLetRunningOneFinish() throws Exception {
+        Sinks.One<EnrollmentStatus> release = Sinks.one();
+        when(inscriptionService.inscribeUser(anyString(), anyString(), any())).thenReturn(release.asMono());
+        EnrollmentTicket running = queue.submit("user1", "class1", startDate).orElseThrow();
+
+        queue.shutdown();
+
+        assertTrue(queue.submit("user2", "class1", startDate).isEmpty());
+        release.tryEmitValue(EnrollmentStatus.INSCRIBED);
+        assertEquals(EnrollmentStatus.INSCRIBED, await(running).getStatus());
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.IdempotencyFilter;
+import com.example.edu.eci.config.ReactiveIdempotencyFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveIdempotencyFilterTest {
+
+    private ReactiveIdempotencyFilter filter;
+    private AtomicInteger executions;
+    private WebFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ReactiveIdempotencyFilter(Set.of("/api/inscriptions/inscribe"), 100, Duration.ofMinutes(5));
+        executions = new AtomicInteger();
+        chain = exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.ACCEPTED);
+            response.getHeaders().setLocation(URI.create("/api/inscriptions/tickets/t" + executions.incrementAndGet()));
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] body = ("{\"id\":\"t" + executions.get() + "\"}").getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+
+    private static MockServerWebExchange post(String key, String query) {
+        return post(key, query, "");
+    }
+
+    private static MockServerWebExchange post(String key, String query, String body) {
+        MockServerHttpRequest.BodyBuilder request = MockServerHttpRequest.post("/api/inscriptions/inscribe?" + query);
+        if (key != null) {
+            request.header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        return MockServerWebExchange.from(request.body(body));
+    }
+
+    private MockServerHttpResponse send(MockServerWebExchange exchange, WebFilterChain chain) {
+        filter.filter(exchange, chain).block();
+        return exchange.getResponse();
+    }
+
+    private MockServerHttpResponse send(MockServerWebExchange exchange, WebFilterChain chain, String userId) {
+        filter.filter(exchange, chain)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken(userId, null, List.of())))
+                .block();
+        return exchange.getResponse();
+    }
+
+    @Test
+    void shouldReplayFirstResponseWithoutRunningChainAgain() {
+        MockServerHttpResponse first = send(post("k1", "userId=u1&classId=c1"), chain);
+        MockServerHttpResponse retry = send(post("k1", "userId=u1&classId=c1"), chain);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.ACCEPTED, retry.getStatusCode());
+        assertEquals(first.getBodyAsString().block(), retry.getBodyAsString().block());
+        assertEquals("/api/inscriptions/tickets/t1", retry.getHeaders().getFirst(HttpHeaders.LOCATION));
+        assertTrue(retry.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void shouldRunEveryRequestWithoutKeyOrOnOtherPaths() {
+        send(post(null, "userId=u1"), chain);
+        send(post(null, "userId=u1"), chain);
+        send(MockServerWebExchange.from(MockServerHttpRequest.post("/api/classes")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "k1")), chain);
+        send(MockServerWebExchange.from(MockServerHttpRequest.post("/api/classes")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "k1")), chain);
+
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithOtherParameters() {
+        send(post("k1", "userId=u1"), chain);
+        MockServerHttpResponse reused = send(post("k1", "userId=u2"), chain);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithOtherBodyAndPassBodyToChain() {
+        List<String> bodies = new ArrayList<>();
+        WebFilterChain reading = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+                .doOnNext(body -> bodies.add(body.toString(StandardCharsets.UTF_8)))
+                .then(chain.filter(exchange));
+
+        send(post("k1", "classId=c1", "[\"u1\"]"), reading);
+        MockServerHttpResponse reused = send(post("k1", "classId=c1", "[\"u2\"]"), reading);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(List.of("[\"u1\"]"), bodies);
+    }
+
+    @Test
+    void shouldScopeKeysToAuthenticatedUser() {
+        send(post("k1", "userId=u1"), chain, "user1");
+        MockServerHttpResponse otherUser = send(post("k1", "userId=u1"), chain, "user2");
+        MockServerHttpResponse retry = send(post("k1", "userId=u1"), chain, "user1");
+
+        assertNull(otherUser.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldRejectDuplicateWhileFirstIsRunning() {
+        MockServerHttpResponse[] duplicate = new MockServerHttpResponse[1];
+        send(post("k1", "userId=u1"), exchange -> {
+            duplicate[0] = send(post("k1", "userId=u1"), chain);
+            return chain.filter(exchange);
+        });
+
+        assertEquals(HttpStatus.CONFLICT, duplicate[0].getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldNotStoreServerErrors() {
+        send(post("k1", "userId=u1"), exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        });
+        assertThrows(IllegalStateException.class, () -> send(post("k2", "userId=u1"),
+                exchange -> Mono.error(new IllegalStateException("db down"))));
+
+        send(post("k1", "userId=u1"), chain);
+        send(post("k2", "userId=u1"), chain);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldRejectInvalidKey() {
+        assertEquals(HttpStatus.BAD_REQUEST, send(post(" ", "userId=u1"), chain).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, send(post("k".repeat(256), "userId=u1"), chain).getStatusCode());
+        assertEquals(0, executions.get());
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Assistance;
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.model.SessionOccurrence;
+import com.example.edu.eci.model.User;
+import com.example.edu.eci.model.WaitlistEntry;
+import com.example.edu.eci.model.enums.EnrollmentStatus;
+import com.example.edu.eci.repository.ReactiveAbsenceRepository;
+import com.example.edu.eci.repository.ReactiveAssistanceRepository;
+import com.example.edu.eci.repository.ReactiveAttendanceCounterRepository;
+import com.example.edu.eci.repository.ReactiveClassSeatsRepository;
+import com.example.edu.eci.repository.ReactiveUserRepository;
+import com.example.edu.eci.repository.ReactiveWaitlistRepository;
+import com.example.edu.eci.service.ReactiveClassService;
+import com.example.edu.eci.service.ReactiveInscriptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveInscriptionServiceTest {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @Mock
+    private ReactiveClassService classService;
+
+    @Mock
+    private ReactiveAssistanceRepository assistanceRepository;
+
+    @Mock
+    private ReactiveClassSeatsRepository classSeatsRepository;
+
+    @Mock
+    private ReactiveAbsenceRepository absenceRepository;
+
+    @Mock
+    private ReactiveWaitlistRepository waitlistRepository;
+
+    @Mock
+    private ReactiveAttendanceCounterRepository attendanceCounterRepository;
+
+    @InjectMocks
+    private ReactiveInscriptionService inscriptionService;
+
+    @Captor
+    private ArgumentCaptor<List<Assistance>> assistancesCaptor;
+
+    @Captor
+    private ArgumentCaptor<WaitlistEntry> entryCaptor;
+
+    private final LocalDate startDate = LocalDate.of(2024, 1, 1);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Class clase = new Class();
+        clase.setId("c1");
+        clase.setMaxStudents(10);
+        when(classService.getClassById("c1")).thenReturn(Mono.just(clase));
+        when(classService.getClassById("missing")).thenReturn(Mono.empty());
+        when(classService.getSessions("c1")).thenReturn(Mono.just(List.of(
+                new SessionOccurrence("o1", "c1", "1", LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")))));
+        when(userRepository.existsById(anyString())).thenReturn(Mono.just(true));
+        when(assistanceRepository.existsByUserIdAndClassId(anyString(), anyString())).thenReturn(Mono.just(false));
+        when(classSeatsRepository.tryReserve("c1", 10)).thenReturn(Mono.just(true));
+        when(classSeatsRepository.release(anyString())).thenReturn(Mono.empty());
+        when(assistanceRepository.insertAll(anyList())).thenReturn(Mono.empty());
+        when(assistanceRepository.deleteByUserIdAndClassId(anyString(), anyString())).thenReturn(Mono.just(0L));
+        when(assistanceRepository.findByUserIdAndClassIdAndConfirmIsTrue(anyString(), anyString())).thenReturn(Flux.empty());
+        when(attendanceCounterRepository.decrementAll(anyList())).thenReturn(Mono.empty());
+        when(waitlistRepository.claimFirst(anyString())).thenReturn(Mono.empty());
+        when(waitlistRepository.deleteByClassIdAndUserId(anyString(), anyString())).thenReturn(Mono.just(0L));
+        when(waitlistRepository.deleteById(anyString())).thenReturn(Mono.empty());
+        when(waitlistRepository.unclaim(anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void inscribeUserShouldInsertClassAndSessionAssistances() {
+        inscriptionService.inscribeUser("u1", "c1", startDate).block();
+
+        verify(assistanceRepository).insertAll(assistancesCaptor.capture());
+        assertEquals(2, assistancesCaptor.getValue().size());
+        assertEquals("o1", assistancesCaptor.getValue().get(1).getSessionId());
+    }
+
+    @Test
+    void inscribeUserShouldRejectMissingClassDuplicatesAndClassesWithoutSeats() {
+        assertThrows(IllegalArgumentException.class, () -> inscriptionService.inscribeUser("u1", "missing", startDate).block());
+
+        when(assistanceRepository.existsByUserIdAndClassId("u2", "c1")).thenReturn(Mono.just(true));
+        assertThrows(IllegalStateException.class, () -> inscriptionService.inscribeUser("u2", "c1", startDate).block());
+
+        Class closed = new Class();
+        closed.setId("c0");
+        closed.setMaxStudents(0);
+        when(classService.getClassById("c0")).thenReturn(Mono.just(closed));
+        when(classSeatsRepository.tryReserve("c0", 0)).thenReturn(Mono.just(false));
+        IllegalStateException full = assertThrows(IllegalStateException.class,
+                () -> inscriptionService.inscribeUser("u3", "c0", startDate).block());
+        assertEquals("Capacidad máxima alcanzada", full.getMessage());
+        verify(assistanceRepository, never()).insertAll(anyList());
+        verify(waitlistRepository, never()).insert(any(WaitlistEntry.class));
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void inscribeUserShouldWaitlistUserWhenClassIsFull() {
+        when(classSeatsRepository.tryReserve("c1", 10)).thenReturn(Mono.just(false));
+        when(waitlistRepository.insert(any(WaitlistEntry.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        assertEquals(EnrollmentStatus.WAITLISTED, inscriptionService.inscribeUser("u1", "c1", startDate).block());
+
+        verify(waitlistRepository).insert(entryCaptor.capture());
+        assertEquals("u1", entryCaptor.getValue().getUserId());
+        assertEquals(startDate, entryCaptor.getValue().getStartDate());
+        assertNotNull(entryCaptor.getValue().getRequestedAt());
+        verify(assistanceRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void inscribeUserShouldRejectUserAlreadyWaiting() {
+        when(classSeatsRepository.tryReserve("c1", 10)).thenReturn(Mono.just(false));
+        when(waitlistRepository.insert(any(WaitlistEntry.class))).thenReturn(Mono.error(new DuplicateKeyException("class_user")));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> inscriptionService.inscribeUser("u1", "c1", startDate).block());
+        assertEquals("Usuario ya está en la lista de espera de la clase", error.getMessage());
+    }
+
+    @Test
+    void inscribeUserShouldTakeSeatFreedWhileJoiningWaitlist() {
+        when(classSeatsRepository.tryReserve("c1", 10)).thenReturn(Mono.just(false)).thenReturn(Mono.just(true));
+        when(waitlistRepository.insert(any(WaitlistEntry.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(waitlistRepository.deleteByClassIdAndUserIdAndPromotingAtIsNull("c1", "u1")).thenReturn(Mono.just(1L));
+
+        assertEquals(EnrollmentStatus.INSCRIBED, inscriptionService.inscribeUser("u1", "c1", startDate).block());
+
+        verify(assistanceRepository).insertAll(anyList());
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void inscribeUserShouldStayWaitlistedAndReturnExtraSeatWhenAlreadyPromoted() {
+        when(classSeatsRepository.tryReserve("c1", 10)).thenReturn(Mono.just(false)).thenReturn(Mono.just(true));
+        when(waitlistRepository.insert(any(WaitlistEntry.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(waitlistRepository.deleteByClassIdAndUserIdAndPromotingAtIsNull("c1", "u1")).thenReturn(Mono.just(0L));
+
+        // La promoción en curso aún puede fallar: no se informa inscrito antes de tiempo
+        assertEquals(EnrollmentStatus.WAITLISTED, inscriptionService.inscribeUser("u1", "c1", startDate).block());
+
+        verify(classSeatsRepository).release("c1");
+        verify(assistanceRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void shouldReportWaitlistPosition() {
+        LocalDateTime requestedAt = LocalDateTime.now();
+        when(waitlistRepository.findByClassIdAndUserId("c1", "u2"))
+                .thenReturn(Mono.just(new WaitlistEntry("w1", "c1", "u2", startDate, requestedAt, null)));
+        when(waitlistRepository.findByClassIdAndUserId("c1", "u3")).thenReturn(Mono.empty());
+        when(waitlistRepository.countByClassIdAndRequestedAtLessThan("c1", requestedAt)).thenReturn(Mono.just(2L));
+
+        assertEquals(3L, inscriptionService.getWaitlistPosition("u2", "c1").block());
+        assertNull(inscriptionService.getWaitlistPosition("u3", "c1").block());
+    }
+
+    @Test
+    void inscribeUserShouldReleaseSeatWhenInsertFails() {
+        when(assistanceRepository.insertAll(anyList())).thenReturn(Mono.error(new IllegalStateException("write failed")));
+
+        assertThrows(IllegalStateException.class, () -> inscriptionService.inscribeUser("u1", "c1", startDate).block());
+
+        verify(assistanceRepository).deleteByUserIdAndClassId("u1", "c1");
+        verify(classSeatsRepository).release("c1");
+    }
+
+    @Test
+    void inscribeUserShouldKeepOriginalErrorWhenUndoingInscriptionFails() {
+        when(assistanceRepository.insertAll(anyList())).thenReturn(Mono.error(new IllegalStateException("write failed")));
+        when(assistanceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> inscriptionService.inscribeUser("u1", "c1", startDate).block());
+
+        assertEquals("write failed", error.getMessage());
+        assertEquals("down", error.getSuppressed()[0].getMessage());
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void inscribeUsersShouldReportEachUserInOrder() {
+        when(userRepository.findAllById(anyIterable())).thenReturn(Flux.just(new User("u1", null, null, null, null), new User("u2", null, null, null, null)));
+        Assistance existing = new Assistance();
+        existing.setUserId("u2");
+        when(assistanceRepository.findUserIdsByClassIdAndUserIdIn(eq("c1"), anyList())).thenReturn(Flux.just(existing));
+
+        Map<String, String> results = inscriptionService.inscribeUsers(List.of("u1", "u2", "u3", "u1"), "c1", startDate).block();
+
+        assertEquals(List.of("u1", "u2", "u3"), List.copyOf(results.keySet()));
+        assertEquals("Usuario inscrito exitosamente", results.get("u1"));
+        assertEquals("Usuario ya inscrito en la clase", results.get("u2"));
+        assertEquals("Usuario no encontrado", results.get("u3"));
+        verify(classSeatsRepository, times(1)).tryReserve("c1", 10);
+        verify(assistanceRepository, times(1)).insertAll(anyList());
+    }
+
+    @Test
+    void inscribeUsersShouldReleaseReservedSeatsWhenInsertFails() {
+        when(userRepository.findAllById(anyIterable())).thenReturn(Flux.just(new User("u1", null, null, null, null)));
+        when(assistanceRepository.findUserIdsByClassIdAndUserIdIn(eq("c1"), anyList())).thenReturn(Flux.empty());
+        when(assistanceRepository.insertAll(anyList())).thenReturn(Mono.error(new IllegalStateException("write failed")));
+
+        assertThrows(IllegalStateException.class, () -> inscriptionService.inscribeUsers(List.of("u1"), "c1", startDate).block());
+        assertThrows(IllegalArgumentException.class, () -> inscriptionService.inscribeUsers(List.of("u1"), "missing", startDate).block());
+
+        verify(assistanceRepository).deleteByUserIdAndClassId("u1", "c1");
+        verify(classSeatsRepository, times(1)).release("c1");
+    }
+
+    @Test
+    void deleteInscriptionShouldRemoveAssistancesAbsencesAndSeat() {
+        when(assistanceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.just(2L));
+        when(absenceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.empty());
+
+        inscriptionService.deleteInscription("u1", "c1").block();
+
+        verify(absenceRepository).deleteByUserIdAndClassId("u1", "c1");
+        verify(classSeatsRepository).release("c1");
+        assertThrows(IllegalArgumentException.class, () -> inscriptionService.deleteInscription("u2", "c1").block());
+    }
+
+    @Test
+    void deleteInscriptionShouldSubtractConfirmedAssistancesFromCounters() {
+        Assistance confirmed = new Assistance();
+        confirmed.setUserId("u1");
+        confirmed.setClassId("c1");
+        confirmed.setConfirm(true);
+        when(assistanceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.just(2L));
+        when(assistanceRepository.findByUserIdAndClassIdAndConfirmIsTrue("u1", "c1")).thenReturn(Flux.just(confirmed));
+        when(absenceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.empty());
+
+        inscriptionService.deleteInscription("u1", "c1").block();
+
+        InOrder inOrder = inOrder(assistanceRepository, attendanceCounterRepository);
+        inOrder.verify(assistanceRepository).deleteByUserIdAndClassId("u1", "c1");
+        inOrder.verify(attendanceCounterRepository).decrementAll(List.of(confirmed));
+    }
+
+    @Test
+    void deleteInscriptionShouldHandSeatToFirstWaitingUser() {
+        when(assistanceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.just(2L));
+        when(absenceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.empty());
+        when(waitlistRepository.claimFirst("c1"))
+                .thenReturn(Mono.just(new WaitlistEntry("w1", "c1", "inscribed", startDate, LocalDateTime.now(), LocalDateTime.now())))
+                .thenReturn(Mono.just(new WaitlistEntry("w2", "c1", "u2", startDate, LocalDateTime.now(), LocalDateTime.now())));
+        when(assistanceRepository.existsByUserIdAndClassId("inscribed", "c1")).thenReturn(Mono.just(true));
+
+        inscriptionService.deleteInscription("u1", "c1").block();
+
+        InOrder inOrder = inOrder(assistanceRepository, waitlistRepository);
+        inOrder.verify(waitlistRepository).deleteById("w1");
+        inOrder.verify(assistanceRepository).insertAll(assistancesCaptor.capture());
+        inOrder.verify(waitlistRepository).deleteById("w2");
+        assertEquals("u2", assistancesCaptor.getValue().get(0).getUserId());
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void deleteInscriptionShouldUndoFailedPromotionAndReleaseSeat() {
+        when(assistanceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.just(2L));
+        when(absenceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.empty());
+        when(waitlistRepository.claimFirst("c1"))
+                .thenReturn(Mono.just(new WaitlistEntry("w2", "c1", "u2", startDate, LocalDateTime.now(), LocalDateTime.now())));
+        when(assistanceRepository.insertAll(anyList())).thenReturn(Mono.error(new RuntimeException("bulk write failed")));
+
+        inscriptionService.deleteInscription("u1", "c1").block();
+
+        verify(assistanceRepository).deleteByUserIdAndClassId("u2", "c1");
+        verify(waitlistRepository).unclaim("w2");
+        verify(waitlistRepository, never()).deleteById(anyString());
+        verify(classSeatsRepository).release("c1");
+    }
+
+    @Test
+    void deleteInscriptionShouldKeepSeatForPromotionThatCannotBeUndone() {
+        when(assistanceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.just(2L));
+        when(assistanceRepository.deleteByUserIdAndClassId("u2", "c1")).thenReturn(Mono.error(new RuntimeException("down")));
+        when(absenceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.empty());
+        when(waitlistRepository.claimFirst("c1"))
+                .thenReturn(Mono.just(new WaitlistEntry("w2", "c1", "u2", startDate, LocalDateTime.now(), LocalDateTime.now())));
+        when(assistanceRepository.insertAll(anyList())).thenReturn(Mono.error(new RuntimeException("bulk write failed")));
+
+        inscriptionService.deleteInscription("u1", "c1").block();
+
+        verify(waitlistRepository, never()).unclaim(anyString());
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void concurrentCancellationShouldReleaseSeatOnce() {
+        // La otra cancelación ya borró las asistencias: esta no borra nada y no libera el cupo
+        when(assistanceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.just(2L)).thenReturn(Mono.just(0L));
+        when(absenceRepository.deleteByUserIdAndClassId("u1", "c1")).thenReturn(Mono.empty());
+
+        inscriptionService.deleteInscription("u1", "c1").block();
+        assertThrows(IllegalArgumentException.class, () -> inscriptionService.deleteInscription("u1", "c1").block());
+
+        verify(classSeatsRepository, times(1)).release("c1");
+        verify(waitlistRepository, times(1)).claimFirst("c1");
+        verify(attendanceCounterRepository, times(1)).decrementAll(anyList());
+    }
+
+    @Test
+    void deleteInscriptionShouldRemoveUserWhoIsOnlyWaiting() {
+        when(waitlistRepository.deleteByClassIdAndUserId("c1", "u2")).thenReturn(Mono.just(1L));
+
+        inscriptionService.deleteInscription("u2", "c1").block();
+
+        verify(waitlistRepository).deleteByClassIdAndUserId("c1", "u2");
+        verify(classSeatsRepository, never()).release(anyString());
+    }
+
+    @Test
+    void pendingQueriesShouldOnlyReturnFutureUnconfirmedAssistances() {
+        when(assistanceRepository.findUnconfirmedAfterPage(any(LocalDateTime.class), isNull(), eq(51))).thenReturn(Flux.empty());
+        when(assistanceRepository.findByUserIdAndStartTimeAfterAndConfirmIsFalse(eq("u1"), any(LocalDateTime.class))).thenReturn(Flux.empty());
+
+        assertTrue(inscriptionService.findFutureUnconfirmedPage(null, null).block().getItems().isEmpty());
+        assertTrue(inscriptionService.findFutureUnconfirmedAssistancesByUser("u1").collectList().block().isEmpty());
+    }
+}
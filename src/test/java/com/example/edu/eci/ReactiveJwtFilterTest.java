@@ -0,0 +1,89 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.JwtService;
+import com.example.edu.eci.config.ReactiveJwtFilter;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveJwtFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private Claims claims;
+
+    private ReactiveJwtFilter filter;
+    private AtomicReference<String> principal;
+    private WebFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        filter = new ReactiveJwtFilter(jwtService);
+        principal = new AtomicReference<>("none");
+        chain = exchange -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName)
+                .defaultIfEmpty("anonymous")
+                .doOnNext(principal::set)
+                .then();
+    }
+
+    private static MockServerWebExchange exchange(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.post("/api/inscriptions/inscribe");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    @Test
+    void shouldAuthenticateValidToken() {
+        when(claims.getSubject()).thenReturn("user1");
+        when(jwtService.parseClaims("good")).thenReturn(Optional.of(claims));
+
+        filter.filter(exchange("Bearer good"), chain).block();
+
+        assertEquals("user1", principal.get());
+    }
+
+    @Test
+    void shouldAnswerUnauthorizedForInvalidToken() {
+        when(jwtService.parseClaims("bad")).thenReturn(Optional.empty());
+        MockServerWebExchange exchange = exchange("Bearer bad");
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertEquals("none", principal.get());
+    }
+
+    @Test
+    void shouldLetRequestsWithoutBearerThrough() {
+        filter.filter(exchange(null), chain).block();
+        assertEquals("anonymous", principal.get());
+
+        filter.filter(exchange("Basic abc"), chain).block();
+        assertEquals("anonymous", principal.get());
+        verifyNoInteractions(jwtService);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.User;
+import com.example.edu.eci.repository.ReactiveUserRepository;
+import com.example.edu.eci.service.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @InjectMocks
+    private ReactiveUserService userService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void getUserByIdShouldBeEmptyWhenUserDoesNotExist() {
+        when(userRepository.findById("user1")).thenReturn(Mono.empty());
+
+        assertNull(userService.getUserById("user1").block());
+    }
+
+    @Test
+    void createUserShouldSaveUser() {
+        User user = new User();
+        user.setId("user1");
+        when(userRepository.save(user)).thenReturn(Mono.just(user));
+
+        assertSame(user, userService.createUser(user).block());
+        verify(userRepository).save(user);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.repository.ClassRepository;
+import com.example.edu.eci.service.ClassChangedEvent;
+import com.example.edu.eci.service.ScheduleIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ScheduleIndexTest {
+
+    @Mock
+    private ClassRepository classRepository;
+
+    @InjectMocks
+    private ScheduleIndex scheduleIndex;
+
+    private Class yoga;
+    private Class chess;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        yoga = weeklyClass("yoga", "2024-01-01T10:00", "2024-01-01T11:00");   // Lunes
+        chess = weeklyClass("chess", "2024-01-03T15:00", "2024-01-03T17:00"); // Miércoles
+        when(classRepository.findAll()).thenReturn(List.of(yoga, chess));
+    }
+
+    private static Class weeklyClass(String id, String start, String end) {
+        Class clase = new Class();
+        clase.setId(id);
+        clase.setRepetition("weekly");
+        clase.setEndDate(LocalDate.of(2024, 6, 30));
+        clase.setSessions(List.of(new Class.Session("1", null, LocalDateTime.parse(start), LocalDateTime.parse(end))));
+        return clase;
+    }
+
+    @Test
+    void shouldFindClassesByDayInsideWindow() {
+        List<Class> mondays = scheduleIndex.find(DayOfWeek.MONDAY,
+                LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 31, 23, 59));
+        List<Class> wednesdays = scheduleIndex.find(DayOfWeek.WEDNESDAY,
+                LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 31, 23, 59));
+
+        assertEquals(List.of(yoga), mondays);
+        assertEquals(List.of(chess), wednesdays);
+    }
+
+    @Test
+    void shouldRequireOccurrenceToFitInsideWindow() {
+        // La sesión del miércoles 6 de marzo termina a las 17:00
+        assertTrue(scheduleIndex.find(DayOfWeek.WEDNESDAY,
+                LocalDateTime.of(2024, 3, 6, 15, 0), LocalDateTime.of(2024, 3, 6, 16, 0)).isEmpty());
+        assertTrue(scheduleIndex.find(DayOfWeek.WEDNESDAY,
+                LocalDateTime.of(2024, 3, 6, 15, 1), LocalDateTime.of(2024, 3, 6, 18, 0)).isEmpty());
+        assertEquals(List.of(chess), scheduleIndex.find(DayOfWeek.WEDNESDAY,
+                LocalDateTime.of(2024, 3, 6, 15, 0), LocalDateTime.of(2024, 3, 6, 17, 0)));
+    }
+
+    @Test
+    void shouldSearchEveryDayWhenDayIsNull() {
+        List<Class> result = scheduleIndex.find(null,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 7, 23, 59));
+
+        assertEquals(2, result.size());
+        assertTrue(result.containsAll(List.of(yoga, chess)));
+    }
+
+    @Test
+    void shouldLoadOnceAndAnswerFromMemory() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        scheduleIndex.find(DayOfWeek.MONDAY, from, from.plusDays(7));
+        scheduleIndex.find(DayOfWeek.MONDAY, from, from.plusDays(14));
+
+        verify(classRepository, times(1)).findAll();
+    }
+
+    @Test
+    void concurrentFirstLookupsShouldLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(classRepository.findAll()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(yoga, chess);
+        });
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Class>> first = executor.submit(() -> scheduleIndex.find(DayOfWeek.MONDAY, from, from.plusDays(7)));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            // La segunda consulta llega mientras la primera sigue cargando y espera el lock
+            Future<List<Class>> second = executor.submit(() -> scheduleIndex.find(DayOfWeek.MONDAY, from, from.plusDays(7)));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(List.of(yoga), first.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of(yoga), second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(classRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldApplyClassChangesWithoutReloading() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        scheduleIndex.find(DayOfWeek.MONDAY, from, from.plusDays(7));
+
+        Class movedYoga = weeklyClass("yoga", "2024-01-02T10:00", "2024-01-02T11:00"); // Martes
+        scheduleIndex.onClassChanged(new ClassChangedEvent("yoga", movedYoga));
+        scheduleIndex.onClassChanged(new ClassChangedEvent("chess", null));
+
+        assertTrue(scheduleIndex.find(DayOfWeek.MONDAY, from, from.plusDays(7)).isEmpty());
+        assertEquals(List.of(movedYoga), scheduleIndex.find(DayOfWeek.TUESDAY, from, from.plusDays(7)));
+        assertTrue(scheduleIndex.find(DayOfWeek.WEDNESDAY, from, from.plusDays(7)).isEmpty());
+        verify(classRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldSkipClassesWithInvalidSessions() {
+        // Sesión heredada cuyas fechas no se pudieron leer
+        Class broken = new Class();
+        broken.setId("broken");
+        broken.setSessions(List.of(new Class.Session("1", DayOfWeek.MONDAY, null, null)));
+        when(classRepository.findAll()).thenReturn(List.of(broken, yoga));
+
+        List<Class> result = scheduleIndex.find(DayOfWeek.MONDAY,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 7, 23, 59));
+
+        assertEquals(List.of(yoga), result);
+    }
+
+    @Test
+    void refreshShouldReloadFromDatabase() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        scheduleIndex.find(DayOfWeek.MONDAY, from, from.plusDays(7));
+        when(classRepository.findAll()).thenReturn(List.of(chess));
+
+        scheduleIndex.refresh();
+
+        assertTrue(scheduleIndex.find(DayOfWeek.MONDAY, from, from.plusDays(7)).isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.config.SessionFieldsMigration;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SessionFieldsMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private MongoConverter mongoConverter;
+
+    private SessionFieldsMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "classes")).thenReturn(bulkOperations);
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoConverter.convertToMongoType(any(LocalDateTime.class))).thenAnswer(invocation ->
+                Date.from(((LocalDateTime) invocation.getArgument(0)).atZone(ZoneId.systemDefault()).toInstant()));
+        migration = new SessionFieldsMigration(mongoTemplate, 2);
+    }
+
+    private static Document legacyClass(ObjectId id, String day, String start, String end) {
+        return new Document("_id", id).append("sessions", List.of(
+                new Document("_id", "1").append("day", day).append("startTime", start).append("endTime", end)));
+    }
+
+    private Update progressUpdate() {
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(Document.class), eq("migrations"));
+        return updateCaptor.getValue();
+    }
+
+    @Test
+    void shouldConvertChunkInOneBulkWriteAndRecordProgress() {
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("classes"))).thenReturn(List.of(
+                legacyClass(first, "Lunes", "2024-01-01T10:00", "2024-01-01T11:00"),
+                legacyClass(second, "Tuesday", "2024-01-02T10:00", "2024-01-02T11:00")));
+
+        migration.migrateNextChunk();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), updates.capture());
+        verify(bulkOperations, times(1)).execute();
+        @SuppressWarnings("unchecked")
+        Document session = ((List<Document>) updates.getAllValues().get(0).getUpdateObject()
+                .get("$set", Document.class).get("sessions")).get(0);
+        assertEquals("MONDAY", session.get("day"));
+        assertInstanceOf(Date.class, session.get("startTime"));
+        assertInstanceOf(Date.class, session.get("endTime"));
+        assertNull(updates.getAllValues().get(0).getUpdateObject().get("$inc"), "No cambia la versión ni el ETag");
+
+        Document progress = progressUpdate().getUpdateObject();
+        assertEquals(second, progress.get("$set", Document.class).get("lastId"));
+        assertEquals(false, progress.get("$set", Document.class).get("done"));
+        assertEquals(2, progress.get("$inc", Document.class).get("converted"));
+    }
+
+    @Test
+    void shouldResumeAfterLastProcessedId() {
+        ObjectId lastId = new ObjectId();
+        when(mongoTemplate.findById(SessionFieldsMigration.MIGRATION_ID, Document.class, "migrations"))
+                .thenReturn(new Document("_id", SessionFieldsMigration.MIGRATION_ID).append("lastId", lastId));
+
+        migration.migrateNextChunk();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(Document.class), eq("classes"));
+        assertEquals(new Document("$gt", lastId), queryCaptor.getValue().getQueryObject().get("_id"));
+        assertEquals(2, queryCaptor.getValue().getLimit());
+        assertEquals(true, progressUpdate().getUpdateObject().get("$set", Document.class).get("done"));
+    }
+
+    @Test
+    void shouldDoNothingOnceDone() {
+        when(mongoTemplate.findById(SessionFieldsMigration.MIGRATION_ID, Document.class, "migrations"))
+                .thenReturn(new Document("_id", SessionFieldsMigration.MIGRATION_ID).append("done", true));
+
+        migration.migrateNextChunk();
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+        verifyNoInteractions(bulkOperations);
+    }
+
+    @Test
+    void shouldStopReadingProgressAfterFinishing() {
+        migration.migrateNextChunk();
+        migration.migrateNextChunk();
+        migration.migrateNextChunk();
+
+        // El primer run no encuentra más clases y termina; los siguientes no consultan nada
+        verify(mongoTemplate, times(1)).findById(SessionFieldsMigration.MIGRATION_ID, Document.class, "migrations");
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq("classes"));
+    }
+
+    @Test
+    void shouldSkipUnparseableAndAlreadyTypedSessions() {
+        Date typedStart = new Date();
+        Document typed = new Document("_id", new ObjectId()).append("sessions", List.of(
+                new Document("day", "MONDAY").append("startTime", typedStart).append("endTime", typedStart)));
+        ObjectId broken = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("classes"))).thenReturn(List.of(
+                legacyClass(broken, "Monday", "09:00", "10:00"),
+                typed));
+
+        migration.migrateNextChunk();
+
+        verify(bulkOperations, never()).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, never()).execute();
+        Document progress = progressUpdate().getUpdateObject();
+        assertEquals(1, progress.get("$inc", Document.class).get("failed"));
+        // El id queda guardado para reintentarlo aunque el watermark ya lo pasó
+        assertTrue(progress.get("$addToSet", Document.class).get("failedIds").toString().contains(broken.toHexString()));
+    }
+
+    @Test
+    void shouldRetryFailedClassesOnceAfterFinishing() {
+        ObjectId fixed = new ObjectId();
+        ObjectId stillBroken = new ObjectId();
+        when(mongoTemplate.findById(SessionFieldsMigration.MIGRATION_ID, Document.class, "migrations"))
+                .thenReturn(new Document("_id", SessionFieldsMigration.MIGRATION_ID).append("done", true)
+                        .append("failedIds", List.of(fixed, stillBroken)));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("classes"))).thenReturn(List.of(
+                legacyClass(fixed, "Monday", "2024-01-01T10:00", "2024-01-01T11:00"),
+                legacyClass(stillBroken, "Monday", "09:00", "10:00")));
+
+        migration.migrateNextChunk();
+        migration.migrateNextChunk();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).find(queryCaptor.capture(), eq(Document.class), eq("classes"));
+        assertEquals(new Document("$in", List.of(fixed, stillBroken)), queryCaptor.getValue().getQueryObject().get("_id"));
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        Document progress = progressUpdate().getUpdateObject();
+        assertEquals(List.of(fixed), progress.get("$pullAll", Document.class).get("failedIds"));
+        assertEquals(-1, progress.get("$inc", Document.class).get("failed"));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.Class;
+import com.example.edu.eci.service.SessionRecurrence;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRecurrenceTest {
+
+    private static Class classWith(String repetition, LocalDate until, Class.Session... templates) {
+        Class clase = new Class();
+        clase.setRepetition(repetition);
+        clase.setEndTimeRepetition(until);
+        clase.setSessions(List.of(templates));
+        return clase;
+    }
+
+    private static List<String> starts(List<Class.Session> sessions) {
+        return sessions.stream().map(session -> session.getStartTime().toString()).toList();
+    }
+
+    @Test
+    void weeklyRepetitionsShouldStopAtRepetitionEnd() {
+        Class clase = classWith("weekly", LocalDate.of(2024, 1, 15),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+
+        List<Class.Session> result = SessionRecurrence.occurrences(clase, null, null).toList();
+
+        assertEquals(List.of("2024-01-01T10:00", "2024-01-08T10:00", "2024-01-15T10:00"), starts(result));
+        assertEquals(LocalDateTime.parse("2024-01-15T11:00"), result.get(2).getEndTime());
+        assertEquals("1", result.get(2).getId());
+    }
+
+    @Test
+    void repetitionEndShouldTakePrecedenceOverEndDate() {
+        Class clase = classWith(null, LocalDate.of(2024, 1, 8),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+        clase.setEndDate(LocalDate.of(2024, 6, 30));
+
+        assertEquals(1, SessionRecurrence.repetitions(clase).count());
+    }
+
+    @Test
+    void biweeklyShouldSkipEveryOtherWeek() {
+        Class clase = classWith("BIWEEKLY", LocalDate.of(2024, 1, 31),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+
+        List<Class.Session> result = SessionRecurrence.occurrences(clase, null, null).toList();
+
+        assertEquals(List.of("2024-01-01T10:00", "2024-01-15T10:00", "2024-01-29T10:00"), starts(result));
+    }
+
+    @Test
+    void monthlyShouldKeepDayOfMonthAfterShortMonths() {
+        Class clase = classWith("monthly", LocalDate.of(2024, 3, 31),
+                new Class.Session("1", DayOfWeek.WEDNESDAY, LocalDateTime.parse("2024-01-31T08:00"), LocalDateTime.parse("2024-01-31T09:00")));
+
+        List<Class.Session> result = SessionRecurrence.occurrences(clase, null, null).toList();
+
+        assertEquals(List.of("2024-01-31T08:00", "2024-02-29T08:00", "2024-03-31T08:00"), starts(result));
+    }
+
+    @Test
+    void multipleTemplatesShouldBeMergedInChronologicalOrder() {
+        Class clase = classWith("weekly", LocalDate.of(2024, 1, 12),
+                new Class.Session("mon", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")),
+                new Class.Session("wed", DayOfWeek.WEDNESDAY, LocalDateTime.parse("2024-01-03T15:00"), LocalDateTime.parse("2024-01-03T16:00")));
+
+        List<Class.Session> result = SessionRecurrence.occurrences(clase, null, null).toList();
+
+        assertEquals(List.of("mon", "wed", "mon", "wed"), result.stream().map(Class.Session::getId).toList());
+        assertEquals(List.of("2024-01-01T10:00", "2024-01-03T15:00", "2024-01-08T10:00", "2024-01-10T15:00"), starts(result));
+    }
+
+    @Test
+    void excludedDatesShouldBeSkipped() {
+        Class clase = classWith("weekly", LocalDate.of(2024, 1, 22),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+        clase.setExcludedDates(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 15)));
+
+        List<Class.Session> result = SessionRecurrence.occurrences(clase, null, null).toList();
+
+        assertEquals(List.of("2024-01-08T10:00", "2024-01-22T10:00"), starts(result));
+    }
+
+    @Test
+    void windowShouldOnlyContainOccurrencesStartingInsideIt() {
+        Class clase = classWith("weekly", LocalDate.of(2030, 12, 31),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+
+        List<Class.Session> result = SessionRecurrence.occurrences(clase,
+                LocalDateTime.of(2029, 6, 1, 0, 0), LocalDateTime.of(2029, 6, 15, 0, 0)).toList();
+
+        assertEquals(List.of("2029-06-04T10:00", "2029-06-11T10:00"), starts(result));
+    }
+
+    @Test
+    void occurrencesWithoutRepetitionEndShouldOnlyContainTemplates() {
+        Class clase = classWith("weekly", null,
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+
+        assertEquals(1, SessionRecurrence.occurrences(clase, null, null).count());
+        assertEquals(0, SessionRecurrence.repetitions(clase).count());
+    }
+
+    @Test
+    void streamShouldBeLazy() {
+        Class clase = classWith("weekly", LocalDate.of(9999, 12, 31),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+
+        List<Class.Session> result = SessionRecurrence.occurrences(clase, null, null).limit(2).toList();
+
+        assertEquals(List.of("2024-01-01T10:00", "2024-01-08T10:00"), starts(result));
+    }
+
+    @Test
+    void unsupportedRepetitionShouldBeRejected() {
+        Class clase = classWith("daily", LocalDate.of(2024, 1, 31),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+
+        assertThrows(IllegalArgumentException.class, () -> SessionRecurrence.occurrences(clase, null, null));
+    }
+
+    @Test
+    void templatesShouldDropLegacyExpandedRepetitions() {
+        // Documento de una clase antigua: la plantilla del lunes seguida de sus copias semanales
+        Class clase = classWith("weekly", LocalDate.of(2024, 1, 15),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")),
+                new Class.Session("2", DayOfWeek.WEDNESDAY, LocalDateTime.parse("2024-01-03T08:00"), LocalDateTime.parse("2024-01-03T09:00")),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-08T10:00"), LocalDateTime.parse("2024-01-08T11:00")),
+                new Class.Session("2", DayOfWeek.WEDNESDAY, LocalDateTime.parse("2024-01-10T08:00"), LocalDateTime.parse("2024-01-10T09:00")),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-15T10:00"), LocalDateTime.parse("2024-01-15T11:00")));
+
+        List<Class.Session> templates = SessionRecurrence.templates(clase);
+
+        assertEquals(List.of("2024-01-01T10:00", "2024-01-03T08:00"), starts(templates));
+        clase.setSessions(templates);
+        assertEquals(5, SessionRecurrence.occurrences(clase, null, null).count());
+    }
+
+    @Test
+    void templatesShouldKeepSessionsThatAreNotRepetitions() {
+        // Mismo id pero otro día, otra duración o sin id: son plantillas distintas
+        Class clase = classWith("weekly", LocalDate.of(2024, 1, 15),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")),
+                new Class.Session("1", DayOfWeek.WEDNESDAY, LocalDateTime.parse("2024-01-03T10:00"), LocalDateTime.parse("2024-01-03T11:00")),
+                new Class.Session("1", DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-08T10:00"), LocalDateTime.parse("2024-01-08T12:00")),
+                new Class.Session(null, DayOfWeek.MONDAY, LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.parse("2024-01-01T11:00")));
+
+        assertSame(clase.getSessions(), SessionRecurrence.templates(clase));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.edu.eci;
+
+import com.example.edu.eci.model.WaitlistEntry;
+import com.example.edu.eci.repository.WaitlistRepositoryImpl;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WaitlistRepositoryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private WaitlistRepositoryImpl waitlistRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void claimFirstShouldMarkOldestWaitingEntryOfClassInIndexOrder() {
+        WaitlistEntry first = new WaitlistEntry("w1", "class1", "user1", null, LocalDateTime.now(), LocalDateTime.now());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(WaitlistEntry.class)))
+                .thenReturn(first);
+
+        assertSame(first, waitlistRepository.claimFirst("class1").orElseThrow());
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(), any(FindAndModifyOptions.class), eq(WaitlistEntry.class));
+        assertEquals(new Document("classId", "class1").append("promotingAt", null), queryCaptor.getValue().getQueryObject());
+        assertEquals(new Document("requestedAt", 1).append("_id", 1), queryCaptor.getValue().getSortObject());
+        assertNotNull(updateCaptor.getValue().getUpdateObject().get("$set", Document.class).get("promotingAt"));
+    }
+
+    @Test
+    void claimFirstShouldBeEmptyWhenNobodyWaits() {
+        assertTrue(waitlistRepository.claimFirst("class1").isEmpty());
+    }
+
+    @Test
+    void claimStaleShouldOnlyTakePromotionsStartedBeforeCutoff() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(5);
+
+        assertTrue(waitlistRepository.claimStale(cutoff).isEmpty());
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(WaitlistEntry.class));
+        assertEquals(new Document("$lt", cutoff), queryCaptor.getValue().getQueryObject().get("promotingAt"));
+    }
+
+    @Test
+    void unclaimShouldRemoveMark() {
+        waitlistRepository.unclaim("w1");
+
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), updateCaptor.capture(), eq(WaitlistEntry.class));
+        assertTrue(updateCaptor.getValue().getUpdateObject().get("$unset", Document.class).containsKey("promotingAt"));
+    }
+}